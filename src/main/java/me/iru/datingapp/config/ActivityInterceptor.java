@@ -0,0 +1,27 @@
+package me.iru.datingapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.matching.ActivityBuffer;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Records activity of the authenticated user on every handled request; the buffer is flushed by the last-active service
+ */
+@RequiredArgsConstructor
+public class ActivityInterceptor implements HandlerInterceptor {
+
+    private final ActivityBuffer activityBuffer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            activityBuffer.record(principal.getName(), System.currentTimeMillis());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package me.iru.datingapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Runs the scheduled jobs on a pool with a thread per job.
+ * The maintenance jobs (rating compaction, co-like and cold-start rebuilds) can run for minutes; with the default
+ * single scheduler thread they would hold back the outbox relay and the swipe buffer flush, which must keep their
+ * sub-second timing.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final int poolSize;
+
+    public SchedulingConfig(@Value("${app.scheduling.pool-size:8}") int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Scheduling pool size must be positive");
+        }
+        this.poolSize = poolSize;
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler schedulingTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(schedulingTaskScheduler());
+    }
+}
@@ -0,0 +1,33 @@
+package me.iru.datingapp.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+/**
+ * Restricts clients to sending to application destinations and subscribing to their own user queues,
+ * so no client can publish to or listen on another user's queue through the broker directly
+ */
+public class StompDestinationInterceptor implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (accessor.getCommand() == StompCommand.SEND && (destination == null || !destination.startsWith("/app/"))) {
+            throw new MessageDeliveryException("Sending to " + destination + " is not allowed");
+        }
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE && (destination == null || !destination.startsWith("/user/"))) {
+            throw new MessageDeliveryException("Subscribing to " + destination + " is not allowed");
+        }
+        return message;
+    }
+}
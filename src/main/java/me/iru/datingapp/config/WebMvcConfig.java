@@ -1,7 +1,10 @@
 package me.iru.datingapp.config;
 
+import me.iru.datingapp.matching.ActivityBuffer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,6 +17,17 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${app.file-storage.upload-dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.matching.activity.enabled:true}")
+    private boolean activityTrackingEnabled;
+
+    @Value("${app.matching.activity.stripes:16}")
+    private int activityStripes;
+
+    @Bean
+    public ActivityBuffer activityBuffer() {
+        return new ActivityBuffer(activityStripes);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
@@ -24,4 +38,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addResourceLocations(uploadLocation)
                 .setCachePeriod(3600);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!activityTrackingEnabled) {
+            return;
+        }
+        registry
+                .addInterceptor(new ActivityInterceptor(activityBuffer()))
+                .excludePathPatterns("/css/**", "/js/**", "/images/**", "/uploads/**", "/favicon.ico");
+    }
 }
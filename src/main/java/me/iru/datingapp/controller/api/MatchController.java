@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.service.MatchService;
 import org.slf4j.Logger;
@@ -42,6 +43,25 @@ public class MatchController {
         return ResponseEntity.ok(matches);
     }
 
+    @Operation(summary = "Get user inbox",
+            description = "Get a page of active matches ordered by last activity, newest first, with the last " +
+                    "message and unread count of each conversation; pass nextCursor as before to read the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Inbox retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor or invalid size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/inbox")
+    public ResponseEntity<InboxPageDto> getInbox(
+            @Parameter(description = "User ID") @RequestParam Long userId,
+            @Parameter(description = "Cursor of the previous page") @RequestParam(required = false) String before,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int size) {
+        log.info("REST API: Get inbox for user ID: {}, before: {}, size: {}", userId, before, size);
+        InboxPageDto inbox = matchService.getInbox(userId, before, size);
+        return ResponseEntity.ok(inbox);
+    }
+
     @Operation(summary = "Unmatch", description = "Remove match and delete all associated messages")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Unmatch successful"),
@@ -7,7 +7,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dto.BatchRatingDto;
 import me.iru.datingapp.dto.RatingDto;
+import me.iru.datingapp.dto.RatingResultDto;
+import me.iru.datingapp.dto.SuggestionCountDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.service.MatchingService;
 import me.iru.datingapp.service.RatingService;
@@ -20,6 +24,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Tag(name = "Matching", description = "User matching and rating endpoints")
 @RestController
 @RequestMapping("/api/matching")
@@ -48,6 +54,44 @@ public class MatchingController {
         return ResponseEntity.ok(suggestions);
     }
 
+    @Operation(summary = "Get user suggestion feed",
+            description = "Get the next slice of suggested users using an opaque keyset cursor. " +
+                    "Pass an empty cursor for the first slice and the returned nextCursor for the following ones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping(value = "/suggestions", params = "cursor")
+    public ResponseEntity<SuggestionFeedDto> getSuggestionFeed(
+            @Parameter(description = "Current user ID") @RequestParam Long userId,
+            @Parameter(description = "Cursor returned by the previous call") @RequestParam String cursor,
+            @Parameter(description = "Slice size, at most 100") @RequestParam(defaultValue = "10") int size) {
+        log.info("REST API: Get suggestion feed for user ID: {}, cursor: {}, size: {}", userId, cursor, size);
+        SuggestionFeedDto feed = matchingService.getSuggestionFeed(userId, cursor, size);
+        return ResponseEntity.ok(feed);
+    }
+
+    @Operation(summary = "Count user suggestions",
+            description = "Get the number of available suggestions. By default the count is an estimate that " +
+                    "ignores the maximum distance and may be up to maxStalenessSeconds old; until then it can " +
+                    "be off by one for each rated user who was deleted or changed gender or age. Pass " +
+                    "exact=true for an exact count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Count retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/suggestions/count")
+    public ResponseEntity<SuggestionCountDto> countSuggestions(
+            @Parameter(description = "Current user ID") @RequestParam Long userId,
+            @Parameter(description = "Whether an exact count is required") @RequestParam(defaultValue = "false") boolean exact) {
+        log.info("REST API: Count suggestions for user ID: {}, exact: {}", userId, exact);
+        SuggestionCountDto count = matchingService.estimateAvailableSuggestionsCount(userId, exact);
+        return ResponseEntity.ok(count);
+    }
+
     @Operation(summary = "Rate a user", description = "Rate a user with LIKE or DISLIKE. Mutual LIKE creates a match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Rating saved successfully"),
@@ -63,4 +107,39 @@ public class MatchingController {
         ratingService.rateUser(userId, ratingDto);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
+
+    @Operation(summary = "Undo a rating",
+            description = "Undo a rating given by the user. Ratings are held back for a short grace window " +
+                    "and undoing one within it never reaches the database; older ratings are deleted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Rating undone"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @DeleteMapping("/rate/{ratedUserId}")
+    public ResponseEntity<Void> undoRating(
+            @Parameter(description = "Rater user ID") @RequestParam Long userId,
+            @Parameter(description = "Rated user ID") @PathVariable Long ratedUserId) {
+        log.info("REST API: User {} undoing rating of user {}", userId, ratedUserId);
+        ratingService.undoRating(userId, ratedUserId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Rate users in batch",
+            description = "Rate up to " + BatchRatingDto.MAX_RATINGS + " users at once in a single transaction. " +
+                    "Each rating reports its own outcome; a LIKE completing a mutual match reports MATCHED " +
+                    "with the ID of the created match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, outcomes returned in request order"),
+            @ApiResponse(responseCode = "400", description = "Invalid rating data or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PostMapping("/rate/batch")
+    public ResponseEntity<List<RatingResultDto>> rateUsers(
+            @Parameter(description = "Rater user ID") @RequestParam Long userId,
+            @Valid @RequestBody BatchRatingDto batchRatingDto) {
+        log.info("REST API: User {} rating {} users in batch", userId, batchRatingDto.getRatings().size());
+        List<RatingResultDto> results = ratingService.rateUsers(userId, batchRatingDto.getRatings());
+        return ResponseEntity.ok(results);
+    }
 }
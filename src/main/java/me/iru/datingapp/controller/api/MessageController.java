@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.service.MessageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +46,7 @@ public class MessageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedMessage);
     }
 
-    @Operation(summary = "Get message history", description = "Get all messages for a specific match")
+    @Operation(summary = "Get message history", description = "Get the latest messages for a specific match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Messages retrieved successfully"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
@@ -61,6 +62,28 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    @Operation(summary = "Get message window",
+            description = "Get a window of messages for a specific match. Without cursors the latest messages are " +
+                    "returned; pass olderCursor as before to page back, or newerCursor as after to read newer messages")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Messages retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor, both cursors given or invalid size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Match not found")
+    })
+    @GetMapping("/match/{matchId}/window")
+    public ResponseEntity<MessageWindowDto> getMessageWindow(
+            @Parameter(description = "Match ID") @PathVariable Long matchId,
+            @Parameter(description = "User ID") @RequestParam Long userId,
+            @Parameter(description = "Cursor to read older messages from") @RequestParam(required = false) String before,
+            @Parameter(description = "Cursor to read newer messages from") @RequestParam(required = false) String after,
+            @Parameter(description = "Window size, at most 200") @RequestParam(defaultValue = "50") int size) {
+        log.info("REST API: Get message window for match ID: {} by user ID: {}, before: {}, after: {}, size: {}",
+                matchId, userId, before, after, size);
+        MessageWindowDto window = messageService.getMessageWindow(matchId, userId, before, after, size);
+        return ResponseEntity.ok(window);
+    }
+
     @Operation(summary = "Delete conversation", description = "Delete all messages in a conversation")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Conversation deleted successfully"),
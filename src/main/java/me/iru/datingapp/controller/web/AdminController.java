@@ -129,6 +129,7 @@ public class AdminController {
         Map<String, Long> userStats = adminService.getUserStatistics();
         Map<String, Long> matchStats = adminService.getMatchStatistics();
         Map<String, Long> activityStats = adminService.getActivityStatistics();
+        Map<String, Long> cacheStats = adminService.getSuggestionCacheStatistics();
 
         model.addAttribute("totalUsers", userStats.get("totalUsers"));
         model.addAttribute("maleUsers", userStats.get("maleUsers"));
@@ -141,6 +142,10 @@ public class AdminController {
         model.addAttribute("totalMessages", activityStats.get("totalMessages"));
         model.addAttribute("totalRatings", activityStats.get("totalRatings"));
 
+        model.addAttribute("suggestionCacheHits", cacheStats.get("hits"));
+        model.addAttribute("suggestionCacheMisses", cacheStats.get("misses"));
+        model.addAttribute("suggestionCacheEntries", cacheStats.get("entries"));
+
         return "admin/statistics";
     }
 }
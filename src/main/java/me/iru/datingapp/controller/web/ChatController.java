@@ -0,0 +1,51 @@
+package me.iru.datingapp.controller.web;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dto.ChatEventDto;
+import me.iru.datingapp.exception.MatchNotActiveException;
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.service.ChatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+@Controller
+@RequiredArgsConstructor
+public class ChatController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+
+    private final ChatService chatService;
+
+    @MessageMapping("/chat/{matchId}/send")
+    public void sendMessage(Principal principal, @DestinationVariable Long matchId, @Payload String content) {
+        chatService.sendMessage(principal.getName(), matchId, content);
+    }
+
+    @MessageMapping("/chat/{matchId}/read/{messageId}")
+    public void markAsRead(Principal principal, @DestinationVariable Long matchId, @DestinationVariable Long messageId) {
+        chatService.markAsRead(principal.getName(), matchId, messageId);
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = ChatService.USER_DESTINATION, broadcast = false)
+    public ChatEventDto handleException(Exception e) {
+        String error;
+        if (e instanceof ResourceNotFoundException || e instanceof MatchNotActiveException
+                || e instanceof IllegalArgumentException) {
+            log.warn("Chat request failed: {}", e.getMessage());
+            error = e.getMessage();
+        } else {
+            log.error("Chat request failed", e);
+            error = "Failed to send message";
+        }
+        return new ChatEventDto(ChatEventDto.Type.ERROR, null, null, null, error);
+    }
+}
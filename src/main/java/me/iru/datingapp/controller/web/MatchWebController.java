@@ -1,7 +1,7 @@
 package me.iru.datingapp.controller.web;
 
 import lombok.RequiredArgsConstructor;
-import me.iru.datingapp.dto.MatchDto;
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.service.MatchService;
 import me.iru.datingapp.service.UserService;
@@ -13,8 +13,6 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 /**
  * Web controller for viewing and managing matches
  */
@@ -24,18 +22,24 @@ import java.util.List;
 public class MatchWebController {
 
     private static final Logger log = LoggerFactory.getLogger(MatchWebController.class);
+    private static final int INBOX_PAGE_SIZE = 20;
 
     private final MatchService matchService;
     private final UserService userService;
 
     @GetMapping
-    public String showMatches(Authentication authentication, Model model) {
+    public String showMatches(
+            Authentication authentication,
+            @RequestParam(required = false) String before,
+            Model model) {
         String email = authentication.getName();
         UserProfileDto currentUser = userService.getUserByEmail(email);
 
-        List<MatchDto> matches = matchService.getActiveMatches(currentUser.getId());
+        InboxPageDto inbox = matchService.getInbox(currentUser.getId(), before, INBOX_PAGE_SIZE);
 
-        model.addAttribute("matches", matches);
+        model.addAttribute("matches", inbox.getContent());
+        model.addAttribute("nextCursor", inbox.getNextCursor());
+        model.addAttribute("hasMore", inbox.isHasMore());
         model.addAttribute("currentUserId", currentUser.getId());
 
         return "matches";
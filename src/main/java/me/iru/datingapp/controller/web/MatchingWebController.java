@@ -2,6 +2,7 @@ package me.iru.datingapp.controller.web;
 
 import lombok.RequiredArgsConstructor;
 import me.iru.datingapp.dto.RatingDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.Rating;
 import me.iru.datingapp.service.MatchingService;
@@ -32,11 +33,23 @@ public class MatchingWebController {
     public String showMatching(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             Model model) {
 
         String email = authentication.getName();
         UserProfileDto currentUser = userService.getUserByEmail(email);
 
+        if (cursor != null) {
+            SuggestionFeedDto feed = matchingService.getSuggestionFeed(currentUser.getId(), cursor, 10);
+
+            model.addAttribute("suggestions", feed.getContent());
+            model.addAttribute("hasNext", feed.isHasNext());
+            model.addAttribute("cursor", cursor);
+            model.addAttribute("nextCursor", feed.getNextCursor());
+
+            return "matching";
+        }
+
         Page<UserProfileDto> suggestions = matchingService.getSuggestedUsers(
                 currentUser.getId(),
                 PageRequest.of(page, 10)
@@ -55,6 +68,7 @@ public class MatchingWebController {
             @RequestParam Long ratedUserId,
             @RequestParam String ratingType,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             RedirectAttributes redirectAttributes) {
 
         try {
@@ -73,6 +87,10 @@ public class MatchingWebController {
                 redirectAttributes.addFlashAttribute("infoMessage", "User liked!");
             }
 
+            if (cursor != null) {
+                redirectAttributes.addAttribute("cursor", cursor);
+                return "redirect:/matching";
+            }
             return "redirect:/matching?page=" + page;
         } catch (Exception e) {
             log.error("Rating failed: {}", e.getMessage());
@@ -3,10 +3,10 @@ package me.iru.datingapp.controller.web;
 import lombok.RequiredArgsConstructor;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.service.MatchService;
 import me.iru.datingapp.service.MessageService;
-import me.iru.datingapp.service.NotificationService;
 import me.iru.datingapp.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,19 +16,17 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 @Controller
 @RequestMapping("/messages")
 @RequiredArgsConstructor
 public class MessageWebController {
 
     private static final Logger log = LoggerFactory.getLogger(MessageWebController.class);
+    private static final int CHAT_WINDOW_SIZE = 50;
 
     private final MessageService messageService;
     private final UserService userService;
     private final MatchService matchService;
-    private final NotificationService notificationService;
 
     @GetMapping("/{matchId}")
     public String showChat(
@@ -42,9 +40,11 @@ public class MessageWebController {
         MatchDto match = matchService.getMatchById(matchId, currentUser.getId());
         Long receiverId = match.getMatchedUserId();
 
-        List<MessageDto> messages = messageService.getMessageHistory(matchId, currentUser.getId());
+        MessageWindowDto window = messageService.getMessageWindow(matchId, currentUser.getId(), null, null, CHAT_WINDOW_SIZE);
 
-        model.addAttribute("messages", messages);
+        model.addAttribute("messages", window.getContent());
+        model.addAttribute("olderCursor", window.getOlderCursor());
+        model.addAttribute("hasOlder", window.isHasOlder());
         model.addAttribute("matchId", matchId);
         model.addAttribute("currentUserId", currentUser.getId());
         model.addAttribute("receiverId", receiverId);
@@ -73,8 +73,6 @@ public class MessageWebController {
 
             messageService.sendMessage(messageDto);
 
-            notificationService.createMessageNotification(receiverId, currentUser, matchId);
-
             log.info("Message sent from user {} to user {}", currentUser.getId(), receiverId);
 
             return "redirect:/messages/" + matchId;
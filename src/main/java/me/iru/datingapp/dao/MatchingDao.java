@@ -0,0 +1,396 @@
+package me.iru.datingapp.dao;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.entity.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class MatchingDao {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void streamUserProfiles(UserProfileHandler handler) {
+        String sql = """
+                SELECT id, gender, age
+                FROM users
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                User.Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age")
+        ));
+    }
+
+    public void streamUserPreferences(UserPreferenceHandler handler) {
+        String sql = """
+                SELECT u.id, u.gender, u.age, sp.preferred_gender, sp.min_age, sp.max_age
+                FROM users u
+                LEFT JOIN search_preferences sp ON sp.user_id = u.id
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            String preferredGender = rs.getString("preferred_gender");
+            handler.handle(
+                    rs.getLong("id"),
+                    User.Gender.valueOf(rs.getString("gender")),
+                    rs.getInt("age"),
+                    preferredGender == null ? null : User.Gender.valueOf(preferredGender),
+                    rs.getObject("min_age", Integer.class),
+                    rs.getObject("max_age", Integer.class)
+            );
+        });
+    }
+
+    public void streamRatedUserIds(long raterId, LongConsumer consumer) {
+        String sql = """
+                SELECT rated_user_id
+                FROM ratings
+                WHERE rater_id = ?
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(rs.getLong("rated_user_id")), raterId);
+    }
+
+    public void streamUserLocations(UserLocationHandler handler) {
+        String sql = """
+                SELECT id, latitude, longitude
+                FROM users
+                WHERE geo_cell IS NOT NULL
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                rs.getDouble("latitude"),
+                rs.getDouble("longitude")
+        ));
+    }
+
+    public void streamUserInterests(UserInterestHandler handler) {
+        String sql = """
+                SELECT user_id, interest_id
+                FROM user_interests
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("user_id"),
+                rs.getLong("interest_id")
+        ));
+    }
+
+    public void streamUserCreationTimes(UserTimestampHandler handler) {
+        String sql = """
+                SELECT id, created_at
+                FROM users
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                rs.getTimestamp("created_at").getTime()
+        ));
+    }
+
+    public void streamUserLastActiveTimes(UserTimestampHandler handler) {
+        String sql = """
+                SELECT id, last_active_at
+                FROM users
+                WHERE last_active_at IS NOT NULL
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                rs.getTimestamp("last_active_at").getTime()
+        ));
+    }
+
+    public void streamUsersActiveSince(long sinceEpochMillis, UserTimestampHandler handler) {
+        String sql = """
+                SELECT id, last_active_at
+                FROM users
+                WHERE last_active_at >= ?
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                rs.getTimestamp("last_active_at").getTime()
+        ), new Timestamp(sinceEpochMillis));
+    }
+
+    /**
+     * Writes coalesced activity timestamps in a single JDBC batch, never moving a timestamp backwards
+     *
+     * @param lastActiveByEmail Latest activity in epoch milliseconds by user email
+     * @return Number of updated users
+     */
+    public int updateLastActive(Map<String, Long> lastActiveByEmail) {
+        String sql = """
+                UPDATE users
+                SET last_active_at = ?
+                WHERE email = ? AND (last_active_at IS NULL OR last_active_at < ?)
+                """;
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(lastActiveByEmail.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(sql, entries, entries.size(), (statement, entry) -> {
+            Timestamp lastActive = new Timestamp(entry.getValue());
+            statement.setTimestamp(1, lastActive);
+            statement.setString(2, entry.getKey());
+            statement.setTimestamp(3, lastActive);
+        });
+
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Inserts the ratings of one rater in a single JDBC batch.
+     * Rating IDs are identity columns, so Hibernate would issue one insert per rating.
+     *
+     * @param raterId             ID of the rating user
+     * @param ratingTypesByUserId Rating type per rated user ID
+     */
+    public void insertRatings(long raterId, Map<Long, Rating.RatingType> ratingTypesByUserId) {
+        String sql = """
+                INSERT INTO ratings (rater_id, rated_user_id, rating_type, created_at)
+                VALUES (?, ?, ?, ?)
+                """;
+
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        List<Map.Entry<Long, Rating.RatingType>> entries = new ArrayList<>(ratingTypesByUserId.entrySet());
+        jdbcTemplate.batchUpdate(sql, entries, entries.size(), (statement, entry) -> {
+            statement.setLong(1, raterId);
+            statement.setLong(2, entry.getKey());
+            statement.setString(3, entry.getValue().name());
+            statement.setTimestamp(4, createdAt);
+        });
+    }
+
+    /**
+     * Inserts the match of two users under the canonical pair key, lower user ID first, unless the pair
+     * already has one. Concurrent inserts of the same pair leave one row; only the duplicate key is absorbed,
+     * so foreign key, NOT NULL and truncation errors still fail the insert.
+     *
+     * @return ID of the created match, null if the users were already matched
+     */
+    public Long insertMatchIfAbsent(long userId1, long userId2) {
+        String sql = """
+                INSERT INTO matches (user1_id, user2_id, matched_at, last_activity_at, is_active,
+                                     user1_last_read_message_id, user2_last_read_message_id,
+                                     user1_unread_count, user2_unread_count)
+                VALUES (?, ?, ?, ?, TRUE, 0, 0, 0, 0)
+                ON DUPLICATE KEY UPDATE id = id
+                """;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, Math.min(userId1, userId2));
+            statement.setLong(2, Math.max(userId1, userId2));
+            Timestamp matchedAt = new Timestamp(System.currentTimeMillis());
+            statement.setTimestamp(3, matchedAt);
+            statement.setTimestamp(4, matchedAt);
+            return statement;
+        }, keyHolder);
+
+        // A duplicate reports no generated key, or 0, depending on whether the driver counts found or affected rows
+        Number key = keyHolder.getKey();
+        return key == null || key.longValue() == 0 ? null : key.longValue();
+    }
+
+    public void streamLikersOf(long userId, LongConsumer consumer) {
+        String sql = """
+                SELECT rater_id
+                FROM ratings
+                WHERE rated_user_id = ? AND rating_type = 'LIKE'
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(rs.getLong("rater_id")), userId);
+    }
+
+    public void streamLikes(LikeHandler handler) {
+        String sql = """
+                SELECT rater_id, rated_user_id
+                FROM ratings
+                WHERE rating_type = 'LIKE'
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("rater_id"),
+                rs.getLong("rated_user_id")
+        ));
+    }
+
+    /**
+     * Streams likes with a rating ID above the watermark in ID order through a forward-only cursor,
+     * so the driver fetches rows in batches instead of buffering the whole table
+     */
+    public void streamLikesAfter(long afterRatingId, int fetchSize, RatedLikeHandler handler) {
+        String sql = """
+                SELECT id, rater_id, rated_user_id
+                FROM ratings
+                WHERE rating_type = 'LIKE' AND id > ?
+                ORDER BY id
+                """;
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, afterRatingId);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                rs.getLong("rater_id"),
+                rs.getLong("rated_user_id")
+        ));
+    }
+
+    /**
+     * Streams every user with the number of likes they received and the time they were last active,
+     * falling back to the registration time for users never seen since
+     */
+    public void streamUserPopularity(UserPopularityHandler handler) {
+        String sql = """
+                SELECT u.id, u.gender, u.age, u.city,
+                       COALESCE(u.last_active_at, u.created_at) AS active_at,
+                       COUNT(r.id) AS likes
+                FROM users u
+                LEFT JOIN ratings r ON r.rated_user_id = u.id AND r.rating_type = 'LIKE'
+                GROUP BY u.id, u.gender, u.age, u.city, u.last_active_at, u.created_at
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("id"),
+                User.Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age"),
+                rs.getString("city"),
+                rs.getTimestamp("active_at").getTime(),
+                rs.getInt("likes")
+        ));
+    }
+
+    public void countUsersBySegment(SegmentCountHandler handler) {
+        String sql = """
+                SELECT gender, age, COUNT(*) AS users
+                FROM users
+                GROUP BY gender, age
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                User.Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age"),
+                rs.getInt("users")
+        ));
+    }
+
+    public void countRatedUsersBySegment(long raterId, SegmentCountHandler handler) {
+        String sql = """
+                SELECT u.gender, u.age, COUNT(*) AS users
+                FROM ratings r
+                JOIN users u ON u.id = r.rated_user_id
+                WHERE r.rater_id = ?
+                GROUP BY u.gender, u.age
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                User.Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age"),
+                rs.getInt("users")
+        ), raterId);
+    }
+
+    /**
+     * Counts the given users per gender and age, querying the IDs in chunks; IDs of deleted users are not counted
+     */
+    public void countUsersBySegmentAmong(long[] userIds, SegmentCountHandler handler) {
+        for (int from = 0; from < userIds.length; from += ID_CHUNK_SIZE) {
+            int to = Math.min(userIds.length, from + ID_CHUNK_SIZE);
+            String sql = """
+                    SELECT gender, age, COUNT(*) AS users
+                    FROM users
+                    WHERE id IN (%s)
+                    GROUP BY gender, age
+                    """.formatted(String.join(", ", Collections.nCopies(to - from, "?")));
+
+            Object[] args = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                args[i - from] = userIds[i];
+            }
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                    User.Gender.valueOf(rs.getString("gender")),
+                    rs.getInt("age"),
+                    rs.getInt("users")
+            ), args);
+        }
+    }
+
+    @FunctionalInterface
+    public interface UserProfileHandler {
+        void handle(long userId, User.Gender gender, int age);
+    }
+
+    /**
+     * Receives a user's profile and search preference; the ages are null when the user has no preference row
+     */
+    @FunctionalInterface
+    public interface UserPreferenceHandler {
+        void handle(long userId, User.Gender gender, int age, User.Gender preferredGender, Integer minAge, Integer maxAge);
+    }
+
+    @FunctionalInterface
+    public interface UserLocationHandler {
+        void handle(long userId, double latitude, double longitude);
+    }
+
+    @FunctionalInterface
+    public interface UserInterestHandler {
+        void handle(long userId, long interestId);
+    }
+
+    @FunctionalInterface
+    public interface UserTimestampHandler {
+        void handle(long userId, long epochMillis);
+    }
+
+    @FunctionalInterface
+    public interface LikeHandler {
+        void handle(long raterId, long ratedUserId);
+    }
+
+    @FunctionalInterface
+    public interface RatedLikeHandler {
+        void handle(long ratingId, long raterId, long ratedUserId);
+    }
+
+    @FunctionalInterface
+    public interface UserPopularityHandler {
+        void handle(long userId, User.Gender gender, int age, String city, long activeAtMillis, int likesReceived);
+    }
+
+    @FunctionalInterface
+    public interface SegmentCountHandler {
+        void handle(User.Gender gender, int age, int count);
+    }
+}
@@ -0,0 +1,42 @@
+package me.iru.datingapp.dao;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.entity.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts events in a single JDBC batch, joining the caller's transaction.
+     * Event IDs are identity columns, so Hibernate would issue one insert per event.
+     */
+    public void insertEvents(List<OutboxEvent> events) {
+        String sql = """
+                INSERT INTO outbox_events (type, actor_id, subject_id, reference_id, detail, created_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(sql, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getType().name());
+            statement.setLong(2, event.getActorId());
+            statement.setLong(3, event.getSubjectId());
+            if (event.getReferenceId() == null) {
+                statement.setNull(4, Types.BIGINT);
+            } else {
+                statement.setLong(4, event.getReferenceId());
+            }
+            statement.setString(5, event.getDetail());
+            statement.setTimestamp(6, createdAt);
+        });
+    }
+}
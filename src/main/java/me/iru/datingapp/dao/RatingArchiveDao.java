@@ -0,0 +1,97 @@
+package me.iru.datingapp.dao;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.matching.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class RatingArchiveDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Raters with dislikes older than the cutoff, in ID order after the given rater
+     */
+    public List<Long> findRatersWithDislikesBefore(long afterRaterId, Timestamp cutoff, int limit) {
+        String sql = """
+                SELECT DISTINCT rater_id
+                FROM ratings
+                WHERE rater_id > ? AND rating_type = 'DISLIKE' AND created_at < ?
+                ORDER BY rater_id
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.queryForList(sql, Long.class, afterRaterId, cutoff, limit);
+    }
+
+    /**
+     * Moves the dislikes of a rater older than the cutoff into the rater's archive bitmap.
+     * The archive row and the compacted rows are locked, so concurrent compactions of the same rater cannot lose
+     * each other's IDs and a rating deleted meanwhile is not archived; the bitmap and the deletion commit together.
+     *
+     * @return Number of compacted ratings
+     */
+    @Transactional
+    public int compactDislikes(long raterId, Timestamp cutoff) {
+        String lockSql = """
+                SELECT data
+                FROM rating_archive
+                WHERE rater_id = ?
+                FOR UPDATE
+                """;
+        String selectSql = """
+                SELECT rated_user_id
+                FROM ratings
+                WHERE rater_id = ? AND rating_type = 'DISLIKE' AND created_at < ?
+                FOR UPDATE
+                """;
+        String upsertSql = """
+                INSERT INTO rating_archive (rater_id, data, rating_count, updated_at)
+                VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE data = VALUES(data), rating_count = VALUES(rating_count), updated_at = VALUES(updated_at)
+                """;
+        String deleteSql = """
+                DELETE FROM ratings
+                WHERE rater_id = ? AND rating_type = 'DISLIKE' AND created_at < ?
+                """;
+
+        List<byte[]> existing = jdbcTemplate.query(lockSql, (rs, rowNum) -> rs.getBytes("data"), raterId);
+        RoaringBitmap archived = existing.isEmpty() ? new RoaringBitmap() : RoaringBitmap.deserialize(existing.getFirst());
+
+        int[] selected = {0};
+        jdbcTemplate.query(selectSql, (RowCallbackHandler) rs -> {
+            archived.add(rs.getLong("rated_user_id"));
+            selected[0]++;
+        }, raterId, cutoff);
+        if (selected[0] == 0) {
+            return 0;
+        }
+
+        archived.runOptimize();
+        jdbcTemplate.update(upsertSql, raterId, archived.serialize(), (int) archived.cardinality(),
+                new Timestamp(System.currentTimeMillis()));
+        return jdbcTemplate.update(deleteSql, raterId, cutoff);
+    }
+
+    /**
+     * Streams the IDs of the users in a rater's archive
+     */
+    public void streamArchivedUserIds(long raterId, LongConsumer consumer) {
+        String sql = """
+                SELECT data
+                FROM rating_archive
+                WHERE rater_id = ?
+                """;
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                RoaringBitmap.deserialize(rs.getBytes("data")).forEach(consumer), raterId);
+    }
+}
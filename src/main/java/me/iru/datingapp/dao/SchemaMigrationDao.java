@@ -0,0 +1,190 @@
+package me.iru.datingapp.dao;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.entity.Match;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SchemaMigrationDao {
+
+    private static final String RECOUNT_UNREAD_SQL = """
+            UPDATE matches m
+            SET m.user1_unread_count = (SELECT COUNT(*) FROM messages msg
+                                        WHERE msg.match_id = m.id AND msg.receiver_id = m.user1_id
+                                          AND msg.id > m.user1_last_read_message_id),
+                m.user2_unread_count = (SELECT COUNT(*) FROM messages msg
+                                        WHERE msg.match_id = m.id AND msg.receiver_id = m.user2_id
+                                          AND msg.id > m.user2_last_read_message_id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the table recording applied data migrations.
+     * Runs outside any transaction because DDL commits implicitly on MariaDB.
+     */
+    public void createHistoryTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    name VARCHAR(100) NOT NULL PRIMARY KEY,
+                    applied_at TIMESTAMP NOT NULL
+                )
+                """);
+    }
+
+    /**
+     * Records a migration as applied, joining the caller's transaction.
+     * Returns false if it was already recorded; a concurrent instance applying the same migration holds the row
+     * lock until it commits, so only one of them ever sees true.
+     */
+    public boolean recordMigration(String name) {
+        String sql = """
+                INSERT IGNORE INTO schema_migrations (name, applied_at)
+                VALUES (?, ?)
+                """;
+
+        return jdbcTemplate.update(sql, name, new Timestamp(System.currentTimeMillis())) == 1;
+    }
+
+    /**
+     * Stores every match with the lower user ID first, the order the match lookups probe.
+     * A reversed match whose canonical twin also exists is merged into the twin: its messages are moved, the twin
+     * stays active if either match was, and the read state and conversation summary keep the furthest of both.
+     * Returns the number of matches swapped or merged.
+     */
+    public int canonicalizeMatchPairs() {
+        String reversedSql = """
+                SELECT id, user1_id, user2_id, user1_last_read_message_id, user2_last_read_message_id,
+                       user1_unread_count, user2_unread_count
+                FROM matches
+                WHERE user1_id > user2_id
+                FOR UPDATE
+                """;
+
+        List<ReversedMatch> reversed = jdbcTemplate.query(reversedSql, (rs, rowNum) -> new ReversedMatch(
+                rs.getLong("id"), rs.getLong("user1_id"), rs.getLong("user2_id"),
+                rs.getLong("user1_last_read_message_id"), rs.getLong("user2_last_read_message_id"),
+                rs.getInt("user1_unread_count"), rs.getInt("user2_unread_count")));
+
+        for (ReversedMatch match : reversed) {
+            List<Long> twin = jdbcTemplate.queryForList(
+                    "SELECT id FROM matches WHERE user1_id = ? AND user2_id = ? FOR UPDATE",
+                    Long.class, match.user2Id(), match.user1Id());
+            if (twin.isEmpty()) {
+                swapPair(match);
+            } else {
+                mergeInto(twin.getFirst(), match.id());
+            }
+        }
+        return reversed.size();
+    }
+
+    private void swapPair(ReversedMatch match) {
+        String sql = """
+                UPDATE matches
+                SET user1_id = ?, user2_id = ?,
+                    user1_last_read_message_id = ?, user2_last_read_message_id = ?,
+                    user1_unread_count = ?, user2_unread_count = ?
+                WHERE id = ?
+                """;
+
+        jdbcTemplate.update(sql, match.user2Id(), match.user1Id(),
+                match.user2LastReadMessageId(), match.user1LastReadMessageId(),
+                match.user2UnreadCount(), match.user1UnreadCount(), match.id());
+    }
+
+    private void mergeInto(long keeperId, long duplicateId) {
+        // The duplicate's participants are reversed, so its user1 state belongs to the keeper's user2 and vice versa.
+        // Assignments are evaluated left to right, so the summary is taken before last_message_id changes.
+        String keeperSql = """
+                UPDATE matches k
+                JOIN matches d ON d.id = ?
+                SET k.is_active = k.is_active OR d.is_active,
+                    k.user1_last_read_message_id =
+                        GREATEST(k.user1_last_read_message_id, d.user2_last_read_message_id),
+                    k.user2_last_read_message_id =
+                        GREATEST(k.user2_last_read_message_id, d.user1_last_read_message_id),
+                    k.last_activity_at = GREATEST(k.last_activity_at, d.last_activity_at),
+                    k.last_message_sender_id = IF(COALESCE(d.last_message_id, 0) > COALESCE(k.last_message_id, 0),
+                                                  d.last_message_sender_id, k.last_message_sender_id),
+                    k.last_message_preview = IF(COALESCE(d.last_message_id, 0) > COALESCE(k.last_message_id, 0),
+                                                d.last_message_preview, k.last_message_preview),
+                    k.last_message_id = IF(COALESCE(d.last_message_id, 0) > COALESCE(k.last_message_id, 0),
+                                           d.last_message_id, k.last_message_id)
+                WHERE k.id = ?
+                """;
+
+        jdbcTemplate.update(keeperSql, duplicateId, keeperId);
+        jdbcTemplate.update("UPDATE messages SET match_id = ? WHERE match_id = ?", keeperId, duplicateId);
+        jdbcTemplate.update(RECOUNT_UNREAD_SQL + "WHERE m.id = ?", keeperId);
+        jdbcTemplate.update("DELETE FROM matches WHERE id = ?", duplicateId);
+    }
+
+    /**
+     * Derives the read watermarks of matches created before read state moved to the match from the legacy per-message
+     * flags: a participant's watermark becomes the newest message they received that was flagged as read, unless it
+     * is already further. The unread counts are then recounted as the received messages above the watermark.
+     */
+    public int backfillReadWatermarks() {
+        String watermarkSql = """
+                UPDATE matches m
+                LEFT JOIN (SELECT match_id, receiver_id, MAX(id) AS last_read_id
+                           FROM messages
+                           WHERE is_read = TRUE
+                           GROUP BY match_id, receiver_id) user1_read
+                    ON user1_read.match_id = m.id AND user1_read.receiver_id = m.user1_id
+                LEFT JOIN (SELECT match_id, receiver_id, MAX(id) AS last_read_id
+                           FROM messages
+                           WHERE is_read = TRUE
+                           GROUP BY match_id, receiver_id) user2_read
+                    ON user2_read.match_id = m.id AND user2_read.receiver_id = m.user2_id
+                SET m.user1_last_read_message_id =
+                        GREATEST(m.user1_last_read_message_id, COALESCE(user1_read.last_read_id, 0)),
+                    m.user2_last_read_message_id =
+                        GREATEST(m.user2_last_read_message_id, COALESCE(user2_read.last_read_id, 0))
+                """;
+
+        int watermarks = jdbcTemplate.update(watermarkSql);
+        jdbcTemplate.update(RECOUNT_UNREAD_SQL);
+        return watermarks;
+    }
+
+    /**
+     * Fills the conversation summary of matches created before it was maintained: the last message is the newest
+     * message of the match, and the last activity is its sending time, or the matching time for matches without
+     * messages. Last activity times added as zero dates by the schema update are replaced as well.
+     */
+    public int backfillConversationSummaries() {
+        String lastMessageSql = """
+                UPDATE matches m
+                JOIN (SELECT match_id, MAX(id) AS last_id FROM messages GROUP BY match_id) latest
+                    ON latest.match_id = m.id
+                JOIN messages msg ON msg.id = latest.last_id
+                SET m.last_message_id = msg.id,
+                    m.last_message_sender_id = msg.sender_id,
+                    m.last_message_preview = LEFT(msg.content, ?)
+                WHERE m.last_message_id IS NULL
+                """;
+
+        String lastActivitySql = """
+                UPDATE matches m
+                LEFT JOIN (SELECT match_id, MAX(sent_at) AS last_sent_at FROM messages GROUP BY match_id) latest
+                    ON latest.match_id = m.id
+                SET m.last_activity_at = COALESCE(latest.last_sent_at, m.matched_at)
+                WHERE m.last_activity_at IS NULL OR m.last_activity_at < '1970-01-02'
+                """;
+
+        int summaries = jdbcTemplate.update(lastMessageSql, Match.LAST_MESSAGE_PREVIEW_LENGTH);
+        return summaries + jdbcTemplate.update(lastActivitySql);
+    }
+
+    private record ReversedMatch(long id, long user1Id, long user2Id,
+                                 long user1LastReadMessageId, long user2LastReadMessageId,
+                                 int user1UnreadCount, int user2UnreadCount) {
+    }
+}
@@ -120,16 +120,27 @@ public class UserStatisticsDao {
         return jdbcTemplate.update(sql, daysOld);
     }
 
+    /**
+     * Deletes old messages their receiver has read, that is messages up to the receiver's read watermark on the match
+     */
     public int deleteOldReadMessages(int daysOld) {
         String sql = """
-                DELETE FROM messages
-                WHERE is_read = true
-                AND sent_at < DATE_SUB(NOW(), INTERVAL ? DAY)
+                DELETE msg FROM messages msg
+                JOIN matches m ON m.id = msg.match_id
+                WHERE msg.sent_at < DATE_SUB(NOW(), INTERVAL ? DAY)
+                AND msg.id <= CASE WHEN msg.receiver_id = m.user1_id
+                                   THEN m.user1_last_read_message_id
+                                   ELSE m.user2_last_read_message_id END
                 """;
 
         return jdbcTemplate.update(sql, daysOld);
     }
 
+    /**
+     * @deprecated Updates the legacy per-message read flag row by row;
+     * use {@link me.iru.datingapp.repository.MatchRepository#advanceLastReadMessageId} instead
+     */
+    @Deprecated
     public int markAllMessagesAsRead(Long matchId, Long userId) {
         String sql = """
                 UPDATE messages
@@ -0,0 +1,24 @@
+package me.iru.datingapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRatingDto {
+
+    public static final int MAX_RATINGS = 100;
+
+    @NotEmpty(message = "At least one rating is required")
+    @Size(max = MAX_RATINGS, message = "At most " + MAX_RATINGS + " ratings per batch")
+    private List<@Valid RatingDto> ratings;
+}
@@ -0,0 +1,25 @@
+package me.iru.datingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEventDto {
+
+    private Type type;
+    private Long matchId;
+    private MessageDto message;
+    private Long messageId;
+    private String error;
+
+    public enum Type {
+        MESSAGE,
+        READ,
+        ERROR
+    }
+}
@@ -22,5 +22,7 @@ public class MatchDto {
     private LocalDateTime matchedAt;
     private Boolean isActive;
     private MessageDto lastMessage;
+    private LocalDateTime lastActivityAt;
+    private Integer unreadCount;
 }
 
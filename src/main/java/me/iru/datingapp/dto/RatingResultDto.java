@@ -0,0 +1,26 @@
+package me.iru.datingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingResultDto {
+
+    private Long ratedUserId;
+    private Outcome outcome;
+    private Long matchId;
+
+    public enum Outcome {
+        RATED,
+        MATCHED,
+        ALREADY_RATED,
+        DUPLICATE,
+        SELF_RATING,
+        USER_NOT_FOUND
+    }
+}
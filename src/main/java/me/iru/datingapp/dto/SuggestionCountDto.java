@@ -0,0 +1,17 @@
+package me.iru.datingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionCountDto {
+
+    private long count;
+    private boolean exact;
+    private long maxStalenessSeconds;
+}
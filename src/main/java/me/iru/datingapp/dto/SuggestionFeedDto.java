@@ -0,0 +1,19 @@
+package me.iru.datingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionFeedDto {
+
+    private List<UserProfileDto> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
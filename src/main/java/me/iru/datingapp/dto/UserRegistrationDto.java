@@ -41,6 +41,14 @@ public class UserRegistrationDto {
     @Size(max = 100, message = "City should not exceed 100 characters")
     private String city;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     @Size(max = 1000, message = "Bio should not exceed 1000 characters")
     private String bio;
 }
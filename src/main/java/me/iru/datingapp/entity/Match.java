@@ -12,7 +12,10 @@ import java.util.List;
 
 @Entity
 @Table(name = "matches", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"user1_id", "user2_id"})
+        @UniqueConstraint(name = "uk_matches_user_pair", columnNames = {"user1_id", "user2_id"})
+}, indexes = {
+        @Index(name = "idx_matches_user1_activity", columnList = "user1_id, is_active, last_activity_at, id"),
+        @Index(name = "idx_matches_user2_activity", columnList = "user2_id, is_active, last_activity_at, id")
 })
 @Getter
 @Setter
@@ -20,6 +23,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Match {
 
+    public static final int LAST_MESSAGE_PREVIEW_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,15 +43,50 @@ public class Match {
     @Column(nullable = false)
     private Boolean isActive;
 
+    // Read watermarks: each participant has read every message they received with an ID up to their watermark
+    @Column(nullable = false)
+    private Long user1LastReadMessageId = 0L;
+
+    @Column(nullable = false)
+    private Long user2LastReadMessageId = 0L;
+
+    // Conversation summary, maintained on every sent message so the inbox never reads the messages;
+    // the last activity is the matching time until the first message
+    @Column(nullable = false)
+    private LocalDateTime lastActivityAt;
+
+    private Long lastMessageId;
+
+    private Long lastMessageSenderId;
+
+    @Column(length = LAST_MESSAGE_PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(nullable = false)
+    private Integer user1UnreadCount = 0;
+
+    @Column(nullable = false)
+    private Integer user2UnreadCount = 0;
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Message> messages = new ArrayList<>();
 
     @PrePersist
     protected void onCreate() {
         matchedAt = LocalDateTime.now();
+        if (lastActivityAt == null) {
+            lastActivityAt = matchedAt;
+        }
         if (isActive == null) {
             isActive = true;
         }
+        // Canonical pair key: the lower user ID is always user1, so a pair has exactly one possible row
+        if (user1 != null && user2 != null && user1.getId() != null && user2.getId() != null
+                && user1.getId() > user2.getId()) {
+            User lower = user2;
+            user2 = user1;
+            user1 = lower;
+        }
     }
 
 
@@ -54,6 +94,26 @@ public class Match {
         return user != null && (user.equals(user1) || user.equals(user2));
     }
 
+    public Long getLastReadMessageId(Long userId) {
+        if (user1 != null && user1.getId().equals(userId)) {
+            return user1LastReadMessageId;
+        }
+        if (user2 != null && user2.getId().equals(userId)) {
+            return user2LastReadMessageId;
+        }
+        return null;
+    }
+
+    public Integer getUnreadCount(Long userId) {
+        if (user1 != null && user1.getId().equals(userId)) {
+            return user1UnreadCount;
+        }
+        if (user2 != null && user2.getId().equals(userId)) {
+            return user2UnreadCount;
+        }
+        return null;
+    }
+
     public User getOtherUser(User user) {
         if (user == null) {
             return null;
@@ -9,7 +9,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_match_sent_at_id", columnList = "match_id, sent_at, id"),
+        @Index(name = "idx_messages_match_receiver_id", columnList = "match_id, receiver_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,6 +41,7 @@ public class Message {
     @Column(nullable = false, updatable = false)
     private LocalDateTime sentAt;
 
+    // Legacy per-message flag, no longer updated; read state is the receiver's watermark on the match
     @Column(nullable = false)
     private Boolean isRead;
 
@@ -0,0 +1,65 @@
+package me.iru.datingapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain event written in the transaction of the change it describes and processed later by the outbox relay.
+ * The actor caused the event and the subject is the other user involved: the rated user of a rating, the
+ * other user of a match and the receiver of a message.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EventType type;
+
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    @Column(length = 20)
+    private String detail;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EventType {
+        RATING_CREATED,
+        MATCH_CREATED,
+        MESSAGE_SENT
+    }
+
+    public OutboxEvent(EventType type, Long actorId, Long subjectId, Long referenceId, String detail) {
+        this.type = type;
+        this.actorId = actorId;
+        this.subjectId = subjectId;
+        this.referenceId = referenceId;
+        this.detail = detail;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package me.iru.datingapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Old dislikes of a rater compacted out of the ratings table, stored as the serialized bitmap of the disliked user IDs
+ */
+@Entity
+@Table(name = "rating_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingArchive {
+
+    @Id
+    @Column(name = "rater_id")
+    private Long raterId;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private Integer ratingCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -14,6 +14,11 @@ import lombok.Setter;
 @AllArgsConstructor
 public class SearchPreference {
 
+    public static final int MIN_AGE = 18;
+    public static final int DEFAULT_MAX_AGE = 100;
+    public static final int DEFAULT_AGE_SPREAD = 5;
+    public static final int DEFAULT_MAX_DISTANCE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -41,11 +46,19 @@ public class SearchPreference {
         preference.setPreferredGender(null);
 
         int userAge = user.getAge();
-        preference.setMinAge(Math.max(18, userAge - 5));
-        preference.setMaxAge(Math.min(100, userAge + 5));
-        preference.setMaxDistance(50);
+        preference.setMinAge(defaultMinAge(userAge));
+        preference.setMaxAge(defaultMaxAge(userAge));
+        preference.setMaxDistance(DEFAULT_MAX_DISTANCE);
 
         return preference;
     }
+
+    public static int defaultMinAge(int userAge) {
+        return Math.max(MIN_AGE, userAge - DEFAULT_AGE_SPREAD);
+    }
+
+    public static int defaultMaxAge(int userAge) {
+        return Math.min(DEFAULT_MAX_AGE, userAge + DEFAULT_AGE_SPREAD);
+    }
 }
 
@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_geo_cell", columnList = "geo_cell"),
+        @Index(name = "idx_users_last_active_at", columnList = "last_active_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,6 +47,16 @@ public class User {
     @Column(length = 100)
     private String city;
 
+    private Double latitude;
+
+    private Double longitude;
+
+    /**
+     * Grid cell of the coordinates, kept in sync by the user mapper
+     */
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
     @Column(columnDefinition = "TEXT")
     private String bio;
 
@@ -53,6 +66,12 @@ public class User {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Time of the user's latest authenticated request, written behind in batches by the activity tracker
+     */
+    @Column(name = "last_active_at")
+    private LocalDateTime lastActiveAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private Role role;
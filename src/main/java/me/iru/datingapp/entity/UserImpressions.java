@@ -0,0 +1,32 @@
+package me.iru.datingapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Profiles recently shown to a user, stored as the compact binary form of the impression log
+ */
+@Entity
+@Table(name = "user_impressions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImpressions {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
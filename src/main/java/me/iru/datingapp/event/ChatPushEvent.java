@@ -0,0 +1,15 @@
+package me.iru.datingapp.event;
+
+import me.iru.datingapp.dto.ChatEventDto;
+
+import java.util.List;
+
+/**
+ * A chat event to push to the user queues of the given users, published inside the transaction that stores the
+ * change it announces. It is pushed once the transaction has committed, so clients never see a rolled back message.
+ *
+ * @param recipientEmails Emails of the users to push the event to
+ * @param payload         Event pushed to each of them
+ */
+public record ChatPushEvent(List<String> recipientEmails, ChatEventDto payload) {
+}
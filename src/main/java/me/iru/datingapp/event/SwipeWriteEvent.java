@@ -0,0 +1,10 @@
+package me.iru.datingapp.event;
+
+/**
+ * A write of buffered swipes, published inside the transaction that writes them.
+ * The swipes stay in flight until the transaction has completed, whether it committed or rolled back.
+ *
+ * @param raterCount Number of raters whose swipes are written
+ */
+public record SwipeWriteEvent(int raterCount) {
+}
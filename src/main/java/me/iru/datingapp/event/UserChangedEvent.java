@@ -0,0 +1,30 @@
+package me.iru.datingapp.event;
+
+import me.iru.datingapp.entity.User;
+
+import java.util.List;
+
+/**
+ * A registration, profile edit or deletion of a user, published inside the transaction that makes it.
+ * Listeners keeping in-memory state apply it once the transaction has committed, so a change that is rolled back
+ * never reaches them.
+ */
+public sealed interface UserChangedEvent {
+
+    User user();
+
+    record Registered(User user) implements UserChangedEvent {
+    }
+
+    /**
+     * @param oldGender   Gender before the edit
+     * @param oldAge      Age before the edit
+     * @param interestIds New interest IDs, or null if the interests were not edited
+     */
+    record Updated(User user, User.Gender oldGender, Integer oldAge, List<Long> interestIds)
+            implements UserChangedEvent {
+    }
+
+    record Deleted(User user) implements UserChangedEvent {
+    }
+}
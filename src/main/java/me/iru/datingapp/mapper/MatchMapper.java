@@ -1,26 +1,22 @@
 package me.iru.datingapp.mapper;
 
 import me.iru.datingapp.dto.MatchDto;
+import me.iru.datingapp.dto.MessageDto;
 import me.iru.datingapp.entity.Match;
-import me.iru.datingapp.entity.Message;
 import me.iru.datingapp.entity.User;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class MatchMapper {
 
-    private final MessageMapper messageMapper;
-
-    public MatchMapper(MessageMapper messageMapper) {
-        this.messageMapper = messageMapper;
-    }
-
-
+    /**
+     * Maps a match from the perspective of the current user; the last message and the unread count come from
+     * the conversation summary on the match, so the messages of the match are never loaded
+     */
     public MatchDto toDto(Match match, User currentUser) {
         if (match == null || currentUser == null) {
             return null;
@@ -40,11 +36,11 @@ public class MatchMapper {
         dto.setMatchedUserCity(otherUser.getCity());
         dto.setMatchedAt(match.getMatchedAt());
         dto.setIsActive(match.getIsActive());
+        dto.setLastActivityAt(match.getLastActivityAt());
+        dto.setUnreadCount(match.getUnreadCount(currentUser.getId()));
 
-        if (match.getMessages() != null && !match.getMessages().isEmpty()) {
-            match.getMessages().stream()
-                    .max(Comparator.comparing(Message::getSentAt))
-                    .ifPresent(lastMessage -> dto.setLastMessage(messageMapper.toDto(lastMessage)));
+        if (match.getLastMessageId() != null) {
+            dto.setLastMessage(toLastMessageDto(match, currentUser, otherUser));
         }
 
         return dto;
@@ -70,6 +66,25 @@ public class MatchMapper {
     }
 
 
+    private MessageDto toLastMessageDto(Match match, User currentUser, User otherUser) {
+        boolean sentByCurrentUser = currentUser.getId().equals(match.getLastMessageSenderId());
+        User sender = sentByCurrentUser ? currentUser : otherUser;
+        User receiver = sentByCurrentUser ? otherUser : currentUser;
+        Long receiverLastRead = match.getLastReadMessageId(receiver.getId());
+
+        MessageDto dto = new MessageDto();
+        dto.setId(match.getLastMessageId());
+        dto.setSenderId(sender.getId());
+        dto.setReceiverId(receiver.getId());
+        dto.setMatchId(match.getId());
+        dto.setContent(match.getLastMessagePreview());
+        dto.setSentAt(match.getLastActivityAt());
+        dto.setIsRead(receiverLastRead != null && match.getLastMessageId() <= receiverLastRead);
+        dto.setSenderName(sender.getFirstName() + " " + sender.getLastName());
+        dto.setReceiverName(receiver.getFirstName() + " " + receiver.getLastName());
+        return dto;
+    }
+
     public Match createMatch(User user1, User user2) {
         if (user1 == null || user2 == null) {
             return null;
@@ -34,6 +34,17 @@ public class MessageMapper {
         return dto;
     }
 
+    /**
+     * Maps a message with its read state derived from the receiver's read watermark
+     */
+    public MessageDto toDto(Message message, Long receiverLastReadMessageId) {
+        MessageDto dto = toDto(message);
+        if (dto != null) {
+            dto.setIsRead(receiverLastReadMessageId != null && message.getId() <= receiverLastReadMessageId);
+        }
+        return dto;
+    }
+
     public Message toEntity(MessageDto dto, User sender, User receiver, Match match) {
         if (dto == null) {
             return null;
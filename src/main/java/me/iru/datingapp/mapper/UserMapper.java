@@ -4,6 +4,7 @@ import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.dto.UserRegistrationDto;
 import me.iru.datingapp.dto.UserUpdateDto;
 import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.GeoIndex;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -56,6 +57,7 @@ public class UserMapper {
         user.setCity(dto.getCity());
         user.setBio(dto.getBio());
         user.setRole(User.Role.USER);
+        applyLocation(dto.getLatitude(), dto.getLongitude(), user);
 
         return user;
     }
@@ -77,6 +79,21 @@ public class UserMapper {
         if (dto.getPhotoUrl() != null) {
             user.setPhotoUrl(dto.getPhotoUrl());
         }
+
+        applyLocation(dto.getLatitude(), dto.getLongitude(), user);
+    }
+
+    /**
+     * Sets the coordinates and their grid cell when both coordinates are given
+     */
+    private void applyLocation(Double latitude, Double longitude, User user) {
+        if (latitude == null || longitude == null) {
+            return;
+        }
+
+        user.setLatitude(latitude);
+        user.setLongitude(longitude);
+        user.setGeoCell(GeoIndex.cellOf(latitude, longitude));
     }
 
 
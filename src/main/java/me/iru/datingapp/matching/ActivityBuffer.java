@@ -0,0 +1,87 @@
+package me.iru.datingapp.matching;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pending activity timestamps per username, coalesced between flushes so that each user is written at most once
+ * per flush however many requests they made. Usernames are spread over independently locked stripes, so recording
+ * activity costs one hash map write and concurrent requests rarely contend.
+ */
+public class ActivityBuffer {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public ActivityBuffer(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    /**
+     * Records activity of a user, keeping the latest timestamp if the user is already pending
+     */
+    public void record(String username, long epochMillis) {
+        Stripe stripe = stripeOf(username);
+        synchronized (stripe) {
+            stripe.pending.merge(username, epochMillis, Math::max);
+        }
+    }
+
+    /**
+     * Takes all pending timestamps, leaving the buffer empty
+     *
+     * @return Latest activity in epoch milliseconds by username
+     */
+    public Map<String, Long> drain() {
+        Map<String, Long> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<String, Long> taken;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                taken = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            drained.putAll(taken);
+        }
+        return drained;
+    }
+
+    /**
+     * Puts back timestamps that could not be written, unless newer activity was recorded meanwhile
+     */
+    public void restore(Map<String, Long> lastActive) {
+        lastActive.forEach(this::record);
+    }
+
+    public int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.pending.size();
+            }
+        }
+        return count;
+    }
+
+    private Stripe stripeOf(String username) {
+        int hash = username.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private Map<String, Long> pending = new HashMap<>();
+    }
+}
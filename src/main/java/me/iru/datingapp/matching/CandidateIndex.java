@@ -0,0 +1,174 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of user IDs bucketed by gender and age.
+ * Each bucket is a sorted primitive array, so a search preference resolves to a handful of array copies
+ * instead of a range scan over the users table.
+ */
+public class CandidateIndex {
+
+    public static final int MIN_AGE = 18;
+    public static final int MAX_AGE = 120;
+
+    private static final int AGE_SPAN = MAX_AGE - MIN_AGE + 1;
+    private static final User.Gender[] GENDERS = User.Gender.values();
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long[][] buckets = new long[GENDERS.length * AGE_SPAN][];
+    private final int[] sizes = new int[GENDERS.length * AGE_SPAN];
+    private final LongIntMap bucketByUser = new LongIntMap();
+
+    public CandidateIndex() {
+        Arrays.fill(buckets, EMPTY);
+    }
+
+    /**
+     * Adds a user or moves it to the bucket matching its current gender and age
+     */
+    public void put(long userId, User.Gender gender, int age) {
+        int bucket = bucketOf(gender, age);
+        lock.writeLock().lock();
+        try {
+            int previous = bucketByUser.get(userId, -1);
+            if (previous == bucket) {
+                return;
+            }
+            if (previous >= 0) {
+                removeFromBucket(previous, userId);
+            }
+            addToBucket(bucket, userId);
+            bucketByUser.put(userId, bucket);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketByUser.remove(userId, -1);
+            if (bucket < 0) {
+                return false;
+            }
+            removeFromBucket(bucket, userId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns IDs of users matching the given criteria in ascending order
+     *
+     * @param gender Preferred gender, null for any
+     * @param minAge Minimum age (inclusive), null for no bound
+     * @param maxAge Maximum age (inclusive), null for no bound
+     * @return Sorted array of user IDs
+     */
+    public long[] query(User.Gender gender, Integer minAge, Integer maxAge) {
+        int from = clampAge(minAge == null ? MIN_AGE : minAge) - MIN_AGE;
+        int to = clampAge(maxAge == null ? MAX_AGE : maxAge) - MIN_AGE;
+        if (from > to) {
+            return EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (User.Gender g : GENDERS) {
+                if (gender == null || gender == g) {
+                    for (int a = from; a <= to; a++) {
+                        total += sizes[g.ordinal() * AGE_SPAN + a];
+                    }
+                }
+            }
+
+            long[] result = new long[total];
+            int n = 0;
+            for (User.Gender g : GENDERS) {
+                if (gender == null || gender == g) {
+                    for (int a = from; a <= to; a++) {
+                        int bucket = g.ordinal() * AGE_SPAN + a;
+                        System.arraycopy(buckets[bucket], 0, result, n, sizes[bucket]);
+                        n += sizes[bucket];
+                    }
+                }
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long userId) {
+        lock.readLock().lock();
+        try {
+            return bucketByUser.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bucketByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(buckets, EMPTY);
+            Arrays.fill(sizes, 0);
+            bucketByUser.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addToBucket(int bucket, long userId) {
+        long[] ids = buckets[bucket];
+        int size = sizes[bucket];
+        int pos = Arrays.binarySearch(ids, 0, size, userId);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(8, size * 2));
+            buckets[bucket] = ids;
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = userId;
+        sizes[bucket] = size + 1;
+    }
+
+    private void removeFromBucket(int bucket, long userId) {
+        long[] ids = buckets[bucket];
+        int size = sizes[bucket];
+        int pos = Arrays.binarySearch(ids, 0, size, userId);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        sizes[bucket] = size - 1;
+    }
+
+    private static int bucketOf(User.Gender gender, int age) {
+        return gender.ordinal() * AGE_SPAN + clampAge(age) - MIN_AGE;
+    }
+
+    private static int clampAge(int age) {
+        return Math.max(MIN_AGE, Math.min(MAX_AGE, age));
+    }
+}
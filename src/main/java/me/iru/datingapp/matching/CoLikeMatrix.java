@@ -0,0 +1,434 @@
+package me.iru.datingapp.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse item-to-item similarity between liked users: two users are similar when the same raters liked both.
+ * The similarity is the cosine of their liker sets, {@code coLikes / sqrt(likers(a) * likers(b))}, and every
+ * liked user keeps only its top-K most similar users.
+ * <p>
+ * Likes are held per rater as lists of item slots. A full build counts co-likes in parallel, each worker owning
+ * a disjoint shard of items so that no counter is shared. Likes arriving later are applied incrementally and
+ * only the neighbour lists of the items they touched are recomputed, so scores of other items normalised by a
+ * changed liker count stay slightly stale until the next full build. Only the first {@code maxRaterLikes} likes
+ * of a rater form pairs, which bounds the quadratic cost of very active raters.
+ */
+public class CoLikeMatrix {
+
+    private static final int[] NO_SLOTS = new int[0];
+    private static final float[] NO_SCORES = new float[0];
+
+    private final int topK;
+    private final int maxRaterLikes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntMap raterSlots = new LongIntMap();
+    private int[][] likesByRater = new int[16][];
+    private int raterCount;
+
+    private final LongIntMap itemSlots = new LongIntMap();
+    private long[] itemIds = new long[16];
+    private int[] likerCounts = new int[16];
+    private LongIntMap[] coCounts = new LongIntMap[16];
+    private int[][] neighbourSlots = new int[16][];
+    private float[][] neighbourScores = new float[16][];
+    private int itemCount;
+
+    private final BitSet dirty = new BitSet();
+    private long likeCount;
+    private long watermark;
+
+    public CoLikeMatrix(int topK, int maxRaterLikes) {
+        if (topK <= 0 || maxRaterLikes <= 0) {
+            throw new IllegalArgumentException("Top-k and max rater likes must be positive");
+        }
+        this.topK = topK;
+        this.maxRaterLikes = maxRaterLikes;
+    }
+
+    /**
+     * Records a like during the initial load; similarities are computed later by {@link #computeAll}
+     */
+    public void load(long raterId, long likedUserId) {
+        lock.writeLock().lock();
+        try {
+            int item = itemSlotFor(likedUserId);
+            storeLike(raterSlotFor(raterId), item);
+            likerCounts[item]++;
+            likeCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the co-likes of every loaded like and computes all neighbour lists
+     *
+     * @param pool   Pool running the shards
+     * @param shards Number of disjoint item shards, usually the pool's parallelism
+     */
+    public void computeAll(ForkJoinPool pool, int shards) {
+        lock.writeLock().lock();
+        try {
+            int shardCount = Math.max(1, shards);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int owned = shard;
+                tasks.add(pool.submit(() -> countShard(owned, shardCount)));
+            }
+            tasks.forEach(ForkJoinTask::join);
+
+            dirty.clear();
+            recompute(pool, allItems());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a like that arrived after the initial load, updating co-like counts right away.
+     * Neighbour lists of the touched items are recomputed by {@link #refreshNeighbours}.
+     *
+     * @return false if the like was already known
+     */
+    public boolean addLike(long raterId, long likedUserId) {
+        lock.writeLock().lock();
+        try {
+            int item = itemSlotFor(likedUserId);
+            int rater = raterSlotFor(raterId);
+            int[] likes = likesByRater[rater];
+            for (int like : likes) {
+                if (like == item) {
+                    return false;
+                }
+            }
+
+            if (storeLike(rater, item)) {
+                for (int i = 0; i < likes.length; i++) {
+                    int other = likes[i];
+                    countersOf(other).addTo(item, 1);
+                    countersOf(item).addTo(other, 1);
+                    dirty.set(other);
+                }
+            }
+            likerCounts[item]++;
+            likeCount++;
+            dirty.set(item);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the neighbour lists of the items touched since the last refresh
+     *
+     * @return Number of recomputed lists
+     */
+    public int refreshNeighbours(ForkJoinPool pool) {
+        lock.writeLock().lock();
+        try {
+            int[] touched = dirty.stream().toArray();
+            dirty.clear();
+            recompute(pool, touched);
+            return touched.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates the neighbours of the users a viewer liked into one similarity per user
+     *
+     * @param viewerId ID of the viewing user
+     * @param maxLiked Number of the viewer's most recent likes taken into account
+     * @return Similar users with scores normalised to at most 1, empty if the viewer liked nobody known
+     */
+    public Similar similarTo(long viewerId, int maxLiked) {
+        lock.readLock().lock();
+        try {
+            int rater = raterSlots.get(viewerId, -1);
+            if (rater < 0) {
+                return Similar.EMPTY;
+            }
+            int[] likes = likesByRater[rater];
+            int stored = likes.length;
+            int from = Math.max(0, stored - maxLiked);
+
+            int total = 0;
+            for (int i = from; i < stored; i++) {
+                total += neighboursOf(likes[i]).length;
+            }
+            if (total == 0) {
+                return Similar.EMPTY;
+            }
+
+            long[] slots = new long[total];
+            double[] scores = new double[total];
+            int n = 0;
+            for (int i = from; i < stored; i++) {
+                int[] neighbours = neighboursOf(likes[i]);
+                float[] neighbourScore = neighbourScores[likes[i]];
+                for (int j = 0; j < neighbours.length; j++) {
+                    slots[n] = (long) neighbours[j] << 32 | n;
+                    scores[n++] = neighbourScore[j];
+                }
+            }
+            Arrays.sort(slots);
+
+            long[] ids = new long[total];
+            double[] summed = new double[total];
+            int count = 0;
+            int previous = -1;
+            double max = 0;
+            for (long packed : slots) {
+                int slot = (int) (packed >>> 32);
+                double score = scores[(int) packed];
+                if (slot != previous) {
+                    ids[count++] = itemIds[slot];
+                    previous = slot;
+                }
+                summed[count - 1] += score;
+                max = Math.max(max, summed[count - 1]);
+            }
+
+            return Similar.of(Arrays.copyOf(ids, count), Arrays.copyOf(summed, count), max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Neighbours of one user, most similar first
+     */
+    public long[] neighboursOf(long userId) {
+        lock.readLock().lock();
+        try {
+            int item = itemSlots.get(userId, -1);
+            if (item < 0) {
+                return new long[0];
+            }
+            int[] neighbours = neighboursOf(item);
+            long[] ids = new long[neighbours.length];
+            for (int i = 0; i < neighbours.length; i++) {
+                ids[i] = itemIds[neighbours[i]];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Highest rating ID applied to the matrix
+     */
+    public long watermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void advanceWatermark(long ratingId) {
+        lock.writeLock().lock();
+        try {
+            watermark = Math.max(watermark, ratingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return itemCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long likeCount() {
+        lock.readLock().lock();
+        try {
+            return likeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void countShard(int shard, int shardCount) {
+        for (int r = 0; r < raterCount; r++) {
+            int[] likes = likesByRater[r];
+            for (int i = 0; i < likes.length; i++) {
+                int item = likes[i];
+                if (item % shardCount != shard) {
+                    continue;
+                }
+                LongIntMap counters = countersOf(item);
+                for (int j = 0; j < likes.length; j++) {
+                    if (j != i) {
+                        counters.addTo(likes[j], 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private void recompute(ForkJoinPool pool, int[] items) {
+        int chunk = 1024;
+        if (items.length <= chunk) {
+            for (int item : items) {
+                computeNeighbours(item);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < items.length; from += chunk) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + chunk, items.length);
+            tasks.add(pool.submit(() -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    computeNeighbours(items[i]);
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    private void computeNeighbours(int item) {
+        LongIntMap counters = coCounts[item];
+        if (counters == null || counters.size() == 0) {
+            neighbourSlots[item] = NO_SLOTS;
+            neighbourScores[item] = NO_SCORES;
+            return;
+        }
+
+        TopKHeap heap = new TopKHeap(topK);
+        for (long other : counters.keys()) {
+            heap.offer((int) other, cosine(item, (int) other, counters.get(other, 0)));
+        }
+
+        int[] best = heap.drainSorted();
+        float[] scores = new float[best.length];
+        for (int i = 0; i < best.length; i++) {
+            scores[i] = (float) cosine(item, best[i], counters.get(best[i], 0));
+        }
+        neighbourSlots[item] = best;
+        neighbourScores[item] = scores;
+    }
+
+    private double cosine(int a, int b, int coLikes) {
+        return coLikes / Math.sqrt((double) likerCounts[a] * likerCounts[b]);
+    }
+
+    private int[] neighboursOf(int item) {
+        int[] neighbours = neighbourSlots[item];
+        return neighbours == null ? NO_SLOTS : neighbours;
+    }
+
+    private LongIntMap countersOf(int item) {
+        LongIntMap counters = coCounts[item];
+        if (counters == null) {
+            counters = new LongIntMap();
+            coCounts[item] = counters;
+        }
+        return counters;
+    }
+
+    /**
+     * Appends a like to the rater's list unless the list already holds the pairing limit
+     *
+     * @return true if the like was stored
+     */
+    private boolean storeLike(int rater, int item) {
+        int[] likes = likesByRater[rater];
+        if (likes.length >= maxRaterLikes) {
+            return false;
+        }
+        int[] updated = Arrays.copyOf(likes, likes.length + 1);
+        updated[likes.length] = item;
+        likesByRater[rater] = updated;
+        return true;
+    }
+
+    private int[] allItems() {
+        int[] items = new int[itemCount];
+        Arrays.setAll(items, i -> i);
+        return items;
+    }
+
+    private int raterSlotFor(long raterId) {
+        int slot = raterSlots.get(raterId, -1);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (raterCount == likesByRater.length) {
+            likesByRater = Arrays.copyOf(likesByRater, raterCount * 2);
+        }
+        slot = raterCount++;
+        likesByRater[slot] = NO_SLOTS;
+        raterSlots.put(raterId, slot);
+        return slot;
+    }
+
+    private int itemSlotFor(long userId) {
+        int slot = itemSlots.get(userId, -1);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (itemCount == itemIds.length) {
+            int capacity = itemCount * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            likerCounts = Arrays.copyOf(likerCounts, capacity);
+            coCounts = Arrays.copyOf(coCounts, capacity);
+            neighbourSlots = Arrays.copyOf(neighbourSlots, capacity);
+            neighbourScores = Arrays.copyOf(neighbourScores, capacity);
+        }
+        slot = itemCount++;
+        itemIds[slot] = userId;
+        itemSlots.put(userId, slot);
+        return slot;
+    }
+
+    /**
+     * Users similar to those a viewer liked, sorted by ID for binary search
+     *
+     * @param userIds Similar user IDs in ascending order
+     * @param scores  Similarity of {@code userIds[i]}, between 0 and 1
+     */
+    public record Similar(long[] userIds, double[] scores) {
+
+        public static final Similar EMPTY = new Similar(new long[0], new double[0]);
+
+        static Similar of(long[] userIds, double[] summed, double max) {
+            long[] sortedIds = userIds.clone();
+            Arrays.sort(sortedIds);
+            double[] sortedScores = new double[summed.length];
+            for (int i = 0; i < userIds.length; i++) {
+                sortedScores[Arrays.binarySearch(sortedIds, userIds[i])] = max > 0 ? summed[i] / max : 0;
+            }
+            return new Similar(sortedIds, sortedScores);
+        }
+
+        public boolean isEmpty() {
+            return userIds.length == 0;
+        }
+
+        /**
+         * Similarity of a user, 0 if the user is not similar
+         */
+        public double scoreOf(long userId) {
+            int pos = Arrays.binarySearch(userIds, userId);
+            return pos >= 0 ? scores[pos] : 0;
+        }
+    }
+}
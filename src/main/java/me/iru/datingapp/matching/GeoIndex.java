@@ -0,0 +1,309 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index of user locations.
+ * The globe is divided into fixed cells of {@link #CELL_DEGREES} degrees; each cell maps to the sorted IDs
+ * of the users located in it. A distance query visits only the cells overlapping the bounding box of the
+ * search circle and then applies the exact haversine distance to the users found there.
+ */
+public class GeoIndex {
+
+    public static final double CELL_DEGREES = 0.25;
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, long[]> usersByCell = new HashMap<>();
+    private final LongIntMap slotByUser = new LongIntMap();
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+
+    /**
+     * Grid cell of a coordinate, the value stored in the geo_cell column
+     */
+    public static long cellOf(double latitude, double longitude) {
+        checkCoordinates(latitude, longitude);
+        return (long) latRow(latitude) * LON_CELLS + lonColumn(longitude);
+    }
+
+    /**
+     * Great-circle distance between two coordinates in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Adds a user or moves it to its new location
+     */
+    public void put(long userId, double latitude, double longitude) {
+        long cell = cellOf(latitude, longitude);
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            if (slot >= 0) {
+                long previous = cellOf(latitudes[slot], longitudes[slot]);
+                if (previous != cell) {
+                    removeFromCell(previous, userId);
+                    addToCell(cell, userId);
+                }
+            } else {
+                slot = allocateSlot();
+                slotByUser.put(userId, slot);
+                addToCell(cell, userId);
+            }
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.remove(userId, -1);
+            if (slot < 0) {
+                return false;
+            }
+            removeFromCell(cellOf(latitudes[slot], longitudes[slot]), userId);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long userId) {
+        lock.readLock().lock();
+        try {
+            return slotByUser.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Location of a user
+     *
+     * @return Latitude and longitude, or null if the user has no location
+     */
+    public double[] locationOf(long userId) {
+        lock.readLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            return slot < 0 ? null : new double[]{latitudes[slot], longitudes[slot]};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            usersByCell.clear();
+            slotByUser.clear();
+            latitudes = new double[16];
+            longitudes = new double[16];
+            freeSlots = new int[16];
+            freeCount = 0;
+            nextSlot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds users within a distance of a point
+     *
+     * @return Sorted IDs of users within the distance
+     */
+    public long[] within(double latitude, double longitude, double distanceKm) {
+        checkCoordinates(latitude, longitude);
+        double latSpan = distanceKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90, latitude - latSpan);
+        double maxLat = Math.min(90, latitude + latSpan);
+
+        double widestCos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        boolean allLongitudes = maxLat >= 90 || minLat <= -90 || distanceKm >= KM_PER_DEGREE * 180 * widestCos;
+        double lonSpan = allLongitudes ? 180 : distanceKm / (KM_PER_DEGREE * widestCos);
+
+        int firstRow = latRow(minLat);
+        int lastRow = latRow(maxLat);
+        int columns = allLongitudes ? LON_CELLS : Math.min(LON_CELLS, (int) Math.ceil(2 * lonSpan / CELL_DEGREES) + 2);
+        int firstColumn = allLongitudes ? 0 : lonColumn(normalizeLongitude(longitude - lonSpan));
+
+        long[] found = new long[16];
+        int count = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int i = 0; i < columns; i++) {
+                    int column = (firstColumn + i) % LON_CELLS;
+                    long[] users = usersByCell.get((long) row * LON_CELLS + column);
+                    if (users == null) {
+                        continue;
+                    }
+                    for (long userId : users) {
+                        int slot = slotByUser.get(userId, -1);
+                        if (haversineKm(latitude, longitude, latitudes[slot], longitudes[slot]) <= distanceKm) {
+                            if (count == found.length) {
+                                found = Arrays.copyOf(found, count * 2);
+                            }
+                            found[count++] = userId;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Keeps the candidates within a distance of a point.
+     * Candidates without a location are kept only if {@code keepUnlocated} is set.
+     *
+     * @param candidateIds Candidate user IDs, in any order
+     * @return Remaining candidates in their original order
+     */
+    public long[] filterWithin(long[] candidateIds, double latitude, double longitude, double distanceKm,
+                               boolean keepUnlocated) {
+        long[] nearby = within(latitude, longitude, distanceKm);
+        long[] result = new long[candidateIds.length];
+        int count = 0;
+
+        lock.readLock().lock();
+        try {
+            for (long candidate : candidateIds) {
+                if (Arrays.binarySearch(nearby, candidate) >= 0
+                        || (keepUnlocated && !slotByUser.containsKey(candidate))) {
+                    result[count++] = candidate;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Computes the distance from a point to a range of users
+     *
+     * @param userIds     User IDs
+     * @param from        First index, inclusive
+     * @param to          Last index, exclusive
+     * @param distancesKm Receives the distance to {@code userIds[i]} at {@code distancesKm[i - from]},
+     *                    or NaN if the user has no location
+     */
+    public void distancesKm(double latitude, double longitude, long[] userIds, int from, int to, double[] distancesKm) {
+        lock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                int slot = slotByUser.get(userIds[i], -1);
+                distancesKm[i - from] = slot < 0
+                        ? Double.NaN
+                        : haversineKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, nextSlot * 2);
+            longitudes = Arrays.copyOf(longitudes, nextSlot * 2);
+        }
+        return nextSlot++;
+    }
+
+    private void addToCell(long cell, long userId) {
+        long[] users = usersByCell.getOrDefault(cell, EMPTY);
+        int pos = Arrays.binarySearch(users, userId);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        long[] updated = new long[users.length + 1];
+        System.arraycopy(users, 0, updated, 0, pos);
+        updated[pos] = userId;
+        System.arraycopy(users, pos, updated, pos + 1, users.length - pos);
+        usersByCell.put(cell, updated);
+    }
+
+    private void removeFromCell(long cell, long userId) {
+        long[] users = usersByCell.get(cell);
+        if (users == null) {
+            return;
+        }
+        int pos = Arrays.binarySearch(users, userId);
+        if (pos < 0) {
+            return;
+        }
+        if (users.length == 1) {
+            usersByCell.remove(cell);
+            return;
+        }
+        long[] updated = new long[users.length - 1];
+        System.arraycopy(users, 0, updated, 0, pos);
+        System.arraycopy(users, pos + 1, updated, pos, users.length - pos - 1);
+        usersByCell.put(cell, updated);
+    }
+
+    private static int latRow(double latitude) {
+        return Math.min(LAT_CELLS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int lonColumn(double longitude) {
+        return Math.min(LON_CELLS - 1, (int) Math.floor((longitude + 180) / CELL_DEGREES));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+    }
+}
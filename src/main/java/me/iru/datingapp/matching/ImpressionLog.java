@@ -0,0 +1,160 @@
+package me.iru.datingapp.matching;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded log of the profiles recently shown to one user.
+ * Impressions are kept in a ring buffer, so the oldest is dropped once the log is full, and mirrored in a
+ * counting Bloom filter, so checking a candidate that was never shown costs a few array reads instead of
+ * a scan of the ring. The filter is derived from the ring and is not part of the binary form.
+ * Not thread-safe; callers synchronize on the log.
+ */
+public class ImpressionLog {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HASHES = 3;
+    private static final int COUNTERS_PER_ENTRY = 8;
+
+    private final long[] userIds;
+    private final int[] minutes;
+    private final byte[] counters;
+    private final int counterMask;
+    private int head;
+    private int size;
+
+    public ImpressionLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.userIds = new long[capacity];
+        this.minutes = new int[capacity];
+        int counterCount = Integer.highestOneBit(Math.max(1, capacity * COUNTERS_PER_ENTRY - 1)) << 1;
+        this.counters = new byte[counterCount];
+        this.counterMask = counterCount - 1;
+    }
+
+    /**
+     * Records that a user was shown, dropping the oldest impression when the log is full
+     *
+     * @param userId ID of the shown user
+     * @param minute Minutes since the epoch
+     */
+    public void record(long userId, int minute) {
+        int slot = (head + size) % userIds.length;
+        if (size == userIds.length) {
+            updateCounters(userIds[head], -1);
+            head = (head + 1) % userIds.length;
+        } else {
+            size++;
+        }
+        userIds[slot] = userId;
+        minutes[slot] = minute;
+        updateCounters(userId, 1);
+    }
+
+    /**
+     * Whether a user may have been shown; false means certainly not
+     */
+    public boolean mightContain(long userId) {
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            if (counters[(h1 + i * h2) & counterMask] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Impressions of a user weighted by age, each halving every half-life.
+     * Impressions younger than the minimum age are ignored.
+     *
+     * @param userId          ID of the candidate
+     * @param now             Current minute since the epoch
+     * @param minAgeMinutes   Minimum age of a counted impression
+     * @param halfLifeMinutes Half-life of an impression
+     * @return Decayed impression count, 0 if the user was not shown
+     */
+    public double weightOf(long userId, int now, int minAgeMinutes, double halfLifeMinutes) {
+        if (!mightContain(userId)) {
+            return 0;
+        }
+        double weight = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % userIds.length;
+            int age = now - minutes[slot];
+            if (userIds[slot] == userId && age >= minAgeMinutes) {
+                weight += Math.pow(0.5, age / halfLifeMinutes);
+            }
+        }
+        return weight;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return userIds.length;
+    }
+
+    /**
+     * Compact binary form: a version byte, the entry count and the entries from oldest to newest,
+     * each as a user ID and a minute
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + size * (Long.BYTES + Integer.BYTES));
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % userIds.length;
+            buffer.putLong(userIds[slot]);
+            buffer.putInt(minutes[slot]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a log from its binary form, keeping the newest entries that fit the capacity
+     *
+     * @throws IllegalArgumentException if the data is not a supported binary form
+     */
+    public static ImpressionLog fromBytes(byte[] data, int capacity) {
+        ImpressionLog log = new ImpressionLog(capacity);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < 1 + Integer.BYTES || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported impression log format");
+        }
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() != count * (Long.BYTES + Integer.BYTES)) {
+            throw new IllegalArgumentException("Truncated impression log");
+        }
+        for (int i = 0; i < count; i++) {
+            log.record(buffer.getLong(), buffer.getInt());
+        }
+        return log;
+    }
+
+    private void updateCounters(long userId, int delta) {
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int index = (h1 + i * h2) & counterMask;
+            int count = counters[index] & 0xFF;
+            // A saturated counter stays saturated, so removals never produce false negatives
+            if (count != 0xFF) {
+                counters[index] = (byte) (count + delta);
+            }
+        }
+    }
+
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,168 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the users who liked each user, kept as one sorted {@code long[]} per liked user.
+ * Answers "who already liked me" without loading rating entities.
+ */
+public class InboundLikeIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap slotByUser = new LongIntMap();
+    private long[][] likers = new long[16][];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+    private long likeCount;
+
+    /**
+     * Records that a rater liked a user
+     */
+    public void add(long likedUserId, long raterId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(likedUserId);
+            long[] current = likers[slot];
+            int pos = Arrays.binarySearch(current, raterId);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            long[] updated = new long[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, pos);
+            updated[pos] = raterId;
+            System.arraycopy(current, pos, updated, pos + 1, current.length - pos);
+            likers[slot] = updated;
+            likeCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long likedUserId, long raterId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.get(likedUserId, -1);
+            if (slot < 0) {
+                return;
+            }
+            long[] current = likers[slot];
+            int pos = Arrays.binarySearch(current, raterId);
+            if (pos < 0) {
+                return;
+            }
+            if (current.length == 1) {
+                releaseSlot(likedUserId, slot);
+            } else {
+                long[] updated = new long[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, pos);
+                System.arraycopy(current, pos + 1, updated, pos, current.length - pos - 1);
+                likers[slot] = updated;
+            }
+            likeCount--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every like a user has received
+     */
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            if (slot >= 0) {
+                likeCount -= likers[slot].length;
+                releaseSlot(userId, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Users who liked a user
+     *
+     * @return Sorted rater IDs; the array is shared and must not be modified
+     */
+    public long[] likersOf(long userId) {
+        lock.readLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            return slot < 0 ? EMPTY : likers[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasLiked(long raterId, long likedUserId) {
+        return Arrays.binarySearch(likersOf(likedUserId), raterId) >= 0;
+    }
+
+    /**
+     * Number of users who received at least one like
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long likeCount() {
+        lock.readLock().lock();
+        try {
+            return likeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotByUser.clear();
+            likers = new long[16][];
+            freeSlots = new int[16];
+            freeCount = 0;
+            nextSlot = 0;
+            likeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slotFor(long userId) {
+        int slot = slotByUser.get(userId, -1);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot == likers.length) {
+                likers = Arrays.copyOf(likers, nextSlot * 2);
+            }
+            slot = nextSlot++;
+        }
+        likers[slot] = EMPTY;
+        slotByUser.put(userId, slot);
+        return slot;
+    }
+
+    private void releaseSlot(long userId, int slot) {
+        slotByUser.remove(userId, -1);
+        likers[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+}
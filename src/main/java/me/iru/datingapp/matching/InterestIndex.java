@@ -0,0 +1,288 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory interest sets of all users, one {@code long[]} bitset per user keyed by interest ID.
+ * Overlap between two users is a word-wise AND plus {@link Long#bitCount}, so ranking candidates by
+ * shared interests needs no join against the user_interests table.
+ */
+public class InterestIndex {
+
+    /**
+     * Fixed-point scale of Jaccard similarity used when sorting
+     */
+    static final int SCORE_SCALE = 1 << 20;
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap slotByUser = new LongIntMap();
+    private long[][] bitsets = new long[16][];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+
+    public void add(long userId, long interestId) {
+        checkInterestId(interestId);
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(userId);
+            int word = (int) (interestId >>> 6);
+            long[] bitset = bitsets[slot];
+            if (word >= bitset.length) {
+                bitset = Arrays.copyOf(bitset, word + 1);
+                bitsets[slot] = bitset;
+            }
+            bitset[word] |= 1L << interestId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId, long interestId) {
+        checkInterestId(interestId);
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            if (slot < 0) {
+                return;
+            }
+            int word = (int) (interestId >>> 6);
+            long[] bitset = bitsets[slot];
+            if (word < bitset.length) {
+                bitset[word] &= ~(1L << interestId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole interest set of a user
+     */
+    public void set(long userId, long[] interestIds) {
+        long[] bitset = EMPTY;
+        for (long interestId : interestIds) {
+            checkInterestId(interestId);
+            int word = (int) (interestId >>> 6);
+            if (word >= bitset.length) {
+                bitset = Arrays.copyOf(bitset, word + 1);
+            }
+            bitset[word] |= 1L << interestId;
+        }
+
+        lock.writeLock().lock();
+        try {
+            bitsets[slotFor(userId)] = bitset;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears one interest from every user, e.g. after the interest was deleted
+     */
+    public void removeInterest(long interestId) {
+        checkInterestId(interestId);
+        int word = (int) (interestId >>> 6);
+        long mask = ~(1L << interestId);
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < nextSlot; slot++) {
+                long[] bitset = bitsets[slot];
+                if (bitset != null && word < bitset.length) {
+                    bitset[word] &= mask;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotByUser.remove(userId, -1);
+            if (slot < 0) {
+                return;
+            }
+            bitsets[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotByUser.clear();
+            bitsets = new long[16][];
+            freeSlots = new int[16];
+            freeCount = 0;
+            nextSlot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int interestCount(long userId) {
+        lock.readLock().lock();
+        try {
+            int slot = slotByUser.get(userId, -1);
+            return slot < 0 ? 0 : cardinality(bitsets[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of interests two users share
+     */
+    public int overlap(long userId, long otherUserId) {
+        lock.readLock().lock();
+        try {
+            return intersection(bitsetOf(userId), bitsetOf(otherUserId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders candidates by Jaccard similarity of their interests to the viewer's, most similar first.
+     * Candidates with equal similarity keep their input order.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return New array with the candidates in ranked order
+     */
+    public long[] rank(long viewerId, long[] candidateIds) {
+        if (candidateIds.length < 2) {
+            return candidateIds.clone();
+        }
+
+        long[] keys = new long[candidateIds.length];
+        lock.readLock().lock();
+        try {
+            long[] viewer = bitsetOf(viewerId);
+            int viewerCount = cardinality(viewer);
+            if (viewerCount == 0) {
+                return candidateIds.clone();
+            }
+            for (int i = 0; i < candidateIds.length; i++) {
+                long[] candidate = bitsetOf(candidateIds[i]);
+                int shared = intersection(viewer, candidate);
+                int union = viewerCount + cardinality(candidate) - shared;
+                long score = union == 0 ? 0 : (long) shared * SCORE_SCALE / union;
+                keys[i] = ((SCORE_SCALE - score) << 32) | i;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Arrays.sort(keys);
+        long[] ranked = new long[candidateIds.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranked[i] = candidateIds[(int) keys[i]];
+        }
+        return ranked;
+    }
+
+    /**
+     * Computes the Jaccard similarity of a range of candidates to the viewer
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @param from         First index, inclusive
+     * @param to           Last index, exclusive
+     * @param similarities Receives the similarity of {@code candidateIds[i]} at {@code similarities[i - from]}
+     */
+    public void similarities(long viewerId, long[] candidateIds, int from, int to, double[] similarities) {
+        lock.readLock().lock();
+        try {
+            long[] viewer = bitsetOf(viewerId);
+            int viewerCount = cardinality(viewer);
+            for (int i = from; i < to; i++) {
+                if (viewerCount == 0) {
+                    similarities[i - from] = 0;
+                    continue;
+                }
+                long[] candidate = bitsetOf(candidateIds[i]);
+                int shared = intersection(viewer, candidate);
+                int union = viewerCount + cardinality(candidate) - shared;
+                similarities[i - from] = (double) shared / union;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Jaccard similarity of two interest bitsets
+     */
+    public static double jaccard(long[] a, long[] b) {
+        int shared = intersection(a, b);
+        int union = cardinality(a) + cardinality(b) - shared;
+        return union == 0 ? 0.0 : (double) shared / union;
+    }
+
+    static int intersection(long[] a, long[] b) {
+        int words = Math.min(a.length, b.length);
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    static int cardinality(long[] bitset) {
+        int count = 0;
+        for (long word : bitset) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private long[] bitsetOf(long userId) {
+        int slot = slotByUser.get(userId, -1);
+        return slot < 0 ? EMPTY : bitsets[slot];
+    }
+
+    private int slotFor(long userId) {
+        int slot = slotByUser.get(userId, -1);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot == bitsets.length) {
+                bitsets = Arrays.copyOf(bitsets, nextSlot * 2);
+            }
+            slot = nextSlot++;
+        }
+        bitsets[slot] = EMPTY;
+        slotByUser.put(userId, slot);
+        return slot;
+    }
+
+    private static void checkInterestId(long interestId) {
+        if (interestId < 0 || interestId >= (long) Integer.MAX_VALUE << 6) {
+            throw new IllegalArgumentException("Interest ID out of range: " + interestId);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package me.iru.datingapp.matching;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by (timestamp, id), encoded as an opaque URL-safe token.
+ * The prefix names the listing a token belongs to, so a token of one listing is rejected by another.
+ *
+ * @param at Timestamp of the last row seen
+ * @param id ID of the last row seen, breaking ties between equal timestamps
+ */
+public record KeysetCursor(LocalDateTime at, long id) {
+
+    private static final char SEPARATOR = '_';
+
+    public static String encode(String prefix, LocalDateTime at, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + at + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or belongs to another listing
+     */
+    public static KeysetCursor decode(String prefix, String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = decoded.lastIndexOf(SEPARATOR);
+        if (!decoded.startsWith(prefix) || separator < prefix.length()) {
+            throw new IllegalArgumentException("Cursor does not belong to this listing");
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(prefix.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor has a malformed timestamp", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from positive long keys to int values.
+ * Keeps user IDs unboxed so per-user lookups in the matching indexes do not allocate.
+ * Not thread-safe; owners guard it with their own lock.
+ */
+public class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(4, expectedSize * 2)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    public int get(long key, int missingValue) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int i = indexOf(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Adds a delta to the value of a key, treating a missing key as zero
+     *
+     * @return The new value
+     */
+    public int addTo(long key, int delta) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    public int remove(long key, int missingValue) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        int removed = values[slot];
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = indexOf(k);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Returns all keys in unspecified order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (long k : keys) {
+            if (k != EMPTY) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    private int slotOf(long key) {
+        int i = indexOf(key);
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) {
+                return -1;
+            }
+            if (k == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(n - 1) << 1;
+        return Math.max(capacity, 4);
+    }
+}
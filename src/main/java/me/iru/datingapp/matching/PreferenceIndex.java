@@ -0,0 +1,229 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of every user's gender, age and search preference, packed into one int per user.
+ * Used to drop candidates whose own preferences exclude the viewer, so a like can still become a match.
+ * Users without explicit preferences carry the defaults of {@link SearchPreference#defaultForUser},
+ * which follow their age when it changes.
+ */
+public class PreferenceIndex {
+
+    private static final int AGE_BITS = 7;
+    private static final int AGE_MASK = (1 << AGE_BITS) - 1;
+    private static final int GENDER_MASK = 0b11;
+
+    private static final int MAX_AGE_SHIFT = 0;
+    private static final int MIN_AGE_SHIFT = 7;
+    private static final int PREFERRED_GENDER_SHIFT = 14;
+    private static final int EXPLICIT_BIT = 1 << 16;
+    private static final int AGE_SHIFT = 17;
+    private static final int GENDER_SHIFT = 24;
+
+    private static final User.Gender[] GENDERS = User.Gender.values();
+
+    static {
+        if (GENDERS.length > GENDER_MASK) {
+            throw new IllegalStateException("Too many genders to pack: " + GENDERS.length);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap entries = new LongIntMap();
+
+    /**
+     * Sets the profile of a user, keeping explicit preferences and recomputing default ones
+     */
+    public void putProfile(long userId, User.Gender gender, int age) {
+        lock.writeLock().lock();
+        try {
+            int previous = entries.get(userId, -1);
+            if (previous >= 0 && (previous & EXPLICIT_BIT) != 0) {
+                entries.put(userId, pack(gender, age, preferredGender(previous),
+                        minAge(previous), maxAge(previous), true));
+            } else {
+                entries.put(userId, packDefault(gender, age));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the profile and explicit search preference of a user
+     *
+     * @param preferredGender Preferred gender, null for any
+     */
+    public void put(long userId, User.Gender gender, int age, User.Gender preferredGender, int minAge, int maxAge) {
+        int entry = pack(gender, age, preferredGender, minAge, maxAge, true);
+        lock.writeLock().lock();
+        try {
+            entries.put(userId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the explicit search preference of an indexed user
+     *
+     * @return false if the user is not indexed
+     */
+    public boolean putPreference(long userId, User.Gender preferredGender, int minAge, int maxAge) {
+        lock.writeLock().lock();
+        try {
+            int previous = entries.get(userId, -1);
+            if (previous < 0) {
+                return false;
+            }
+            entries.put(userId, pack(gender(previous), age(previous), preferredGender, minAge, maxAge, true));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the explicit search preference of a user, falling back to the defaults for their age
+     */
+    public void clearPreference(long userId) {
+        lock.writeLock().lock();
+        try {
+            int previous = entries.get(userId, -1);
+            if (previous >= 0) {
+                entries.put(userId, packDefault(gender(previous), age(previous)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            return entries.remove(userId, -1) >= 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the candidates whose search preference accepts the viewer.
+     * Candidates that are not indexed are kept; if the viewer is not indexed the candidates are returned as is.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Accepting candidates, in their original order
+     */
+    public long[] filterAccepting(long viewerId, long[] candidateIds) {
+        lock.readLock().lock();
+        try {
+            int viewer = entries.get(viewerId, -1);
+            if (viewer < 0) {
+                return candidateIds;
+            }
+            int viewerGender = (viewer >>> GENDER_SHIFT) & GENDER_MASK;
+            int viewerAge = age(viewer);
+
+            long[] result = new long[candidateIds.length];
+            int n = 0;
+            for (long candidateId : candidateIds) {
+                int candidate = entries.get(candidateId, -1);
+                if (candidate < 0 || accepts(candidate, viewerGender, viewerAge)) {
+                    result[n++] = candidateId;
+                }
+            }
+            return n == result.length ? result : Arrays.copyOf(result, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long userId) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean accepts(int entry, int viewerGender, int viewerAge) {
+        int preferred = (entry >>> PREFERRED_GENDER_SHIFT) & GENDER_MASK;
+        return (preferred == 0 || preferred == viewerGender)
+                && viewerAge >= minAge(entry)
+                && viewerAge <= maxAge(entry);
+    }
+
+    private static int packDefault(User.Gender gender, int age) {
+        return pack(gender, age, null, SearchPreference.defaultMinAge(age), SearchPreference.defaultMaxAge(age), false);
+    }
+
+    private static int pack(User.Gender gender, int age, User.Gender preferredGender,
+                            int minAge, int maxAge, boolean explicit) {
+        return codeOf(gender) << GENDER_SHIFT
+                | clampAge(age) << AGE_SHIFT
+                | (explicit ? EXPLICIT_BIT : 0)
+                | codeOf(preferredGender) << PREFERRED_GENDER_SHIFT
+                | clampAge(minAge) << MIN_AGE_SHIFT
+                | clampAge(maxAge) << MAX_AGE_SHIFT;
+    }
+
+    /**
+     * Gender code, 0 for none so an unset preference matches any viewer
+     */
+    private static int codeOf(User.Gender gender) {
+        return gender == null ? 0 : gender.ordinal() + 1;
+    }
+
+    private static User.Gender genderOf(int code) {
+        return code == 0 ? null : GENDERS[code - 1];
+    }
+
+    private static User.Gender gender(int entry) {
+        return genderOf((entry >>> GENDER_SHIFT) & GENDER_MASK);
+    }
+
+    private static User.Gender preferredGender(int entry) {
+        return genderOf((entry >>> PREFERRED_GENDER_SHIFT) & GENDER_MASK);
+    }
+
+    private static int age(int entry) {
+        return (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    private static int minAge(int entry) {
+        return (entry >>> MIN_AGE_SHIFT) & AGE_MASK;
+    }
+
+    private static int maxAge(int entry) {
+        return (entry >>> MAX_AGE_SHIFT) & AGE_MASK;
+    }
+
+    private static int clampAge(int age) {
+        return Math.max(0, Math.min(AGE_MASK, age));
+    }
+}
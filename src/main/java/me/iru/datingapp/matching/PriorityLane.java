@@ -0,0 +1,59 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+
+/**
+ * Merges a priority lane into a ranked candidate list at a fixed ratio.
+ * Both the lane and the rest keep their ranked order; the lane takes the first slot and then roughly
+ * {@code ratio} of every following slot, and whichever side runs out first leaves the rest to the other.
+ */
+public final class PriorityLane {
+
+    private PriorityLane() {
+    }
+
+    /**
+     * Interleaves the ranked candidates that belong to the priority lane with the others
+     *
+     * @param ranked   Candidates in ranked order
+     * @param priority Sorted IDs of the priority lane; IDs not among the candidates are ignored
+     * @param ratio    Share of slots given to the lane, between 0 and 1
+     * @return New array with the same candidates
+     */
+    public static long[] interleave(long[] ranked, long[] priority, double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("Ratio must be between 0 and 1: " + ratio);
+        }
+        if (ratio == 0 || priority.length == 0 || ranked.length < 2) {
+            return ranked.clone();
+        }
+
+        long[] lane = new long[Math.min(ranked.length, priority.length)];
+        long[] rest = new long[ranked.length];
+        int laneCount = 0;
+        int restCount = 0;
+        for (long candidate : ranked) {
+            if (laneCount < lane.length && Arrays.binarySearch(priority, candidate) >= 0) {
+                lane[laneCount++] = candidate;
+            } else {
+                rest[restCount++] = candidate;
+            }
+        }
+        if (laneCount == 0) {
+            return ranked.clone();
+        }
+
+        long[] result = new long[ranked.length];
+        int laneTaken = 0;
+        int restTaken = 0;
+        for (int slot = 0; slot < result.length; slot++) {
+            boolean laneTurn = laneTaken < Math.ceil(ratio * (slot + 1) - 1e-9);
+            if (laneTaken < laneCount && (laneTurn || restTaken == restCount)) {
+                result[slot] = lane[laneTaken++];
+            } else {
+                result[slot] = rest[restTaken++];
+            }
+        }
+        return result;
+    }
+}
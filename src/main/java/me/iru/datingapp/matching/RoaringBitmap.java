@@ -0,0 +1,539 @@
+package me.iru.datingapp.matching;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of non-negative long IDs in the style of a roaring bitmap.
+ * IDs are split into a high key and a 16-bit low part; each key owns a container that is a sorted array
+ * when sparse, a 65536-bit bitmap when dense, or a list of runs when the IDs are mostly consecutive.
+ * Lookups are a binary search over keys followed by a constant-time or logarithmic container probe.
+ * Not thread-safe; owners synchronize access.
+ */
+public class RoaringBitmap {
+
+    static final int ARRAY_MAX = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+    private static final byte TYPE_ARRAY = 1;
+    private static final byte TYPE_BITMAP = 2;
+    private static final byte TYPE_RUN = 3;
+
+    private long[] keys = new long[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative IDs are not supported: " + id);
+        }
+        long high = id >>> 16;
+        char low = (char) id;
+
+        int i = Arrays.binarySearch(keys, 0, size, high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        Container container = containers[i];
+        if (container.contains(low)) {
+            return false;
+        }
+        containers[i] = container.add(low);
+        return true;
+    }
+
+    public boolean remove(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) id;
+        Container container = containers[i];
+        if (!container.contains(low)) {
+            return false;
+        }
+        Container updated = container.remove(low);
+        if (updated.cardinality() == 0) {
+            removeContainer(i);
+        } else {
+            containers[i] = updated;
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Approximate heap footprint, used for weighing cache entries
+     */
+    public long sizeInBytes() {
+        long bytes = 32L + keys.length * 8L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts every container to its smallest representation, including run encoding
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            long base = keys[i] << 16;
+            containers[i].forEach(low -> consumer.accept(base | low));
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[(int) cardinality()];
+        int[] n = {0};
+        forEach(id -> result[n[0]++] = id);
+        return result;
+    }
+
+    public byte[] serialize() {
+        int bytes = 4;
+        for (int i = 0; i < size; i++) {
+            bytes += 9 + containers[i].serializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(keys[i]);
+            containers[i].writeTo(buffer);
+        }
+        return buffer.array();
+    }
+
+    public static RoaringBitmap deserialize(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            RoaringBitmap bitmap = new RoaringBitmap();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                long key = buffer.getLong();
+                byte type = buffer.get();
+                Container container = switch (type) {
+                    case TYPE_ARRAY -> ArrayContainer.readFrom(buffer);
+                    case TYPE_BITMAP -> BitmapContainer.readFrom(buffer);
+                    case TYPE_RUN -> RunContainer.readFrom(buffer);
+                    default -> throw new IllegalArgumentException("Unknown container type: " + type);
+                };
+                bitmap.insertContainer(bitmap.size, key, container);
+            }
+            return bitmap;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated bitmap data", e);
+        }
+    }
+
+    private void insertContainer(int index, long key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private abstract static class Container {
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract int cardinality();
+
+        abstract long sizeInBytes();
+
+        abstract void forEach(IntConsumer consumer);
+
+        abstract int serializedSize();
+
+        abstract void writeTo(ByteBuffer buffer);
+
+        abstract int numberOfRuns();
+
+        Container optimize() {
+            int cardinality = cardinality();
+            long runBytes = 4L + 4L * numberOfRuns();
+            long arrayBytes = 2L * cardinality;
+            long bitmapBytes = 8L * BITMAP_WORDS;
+            if (runBytes < Math.min(arrayBytes, bitmapBytes)) {
+                return this instanceof RunContainer ? this : RunContainer.of(this);
+            }
+            return cardinality <= ARRAY_MAX ? ArrayContainer.of(this) : BitmapContainer.of(this);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer of(Container source) {
+            if (source instanceof ArrayContainer array) {
+                return array;
+            }
+            char[] values = new char[source.cardinality()];
+            int[] n = {0};
+            source.forEach(v -> values[n[0]++] = (char) v);
+            return new ArrayContainer(values, values.length);
+        }
+
+        static ArrayContainer readFrom(ByteBuffer buffer) {
+            int cardinality = buffer.getInt();
+            char[] values = new char[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                values[i] = buffer.getChar();
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int pos = Arrays.binarySearch(values, 0, cardinality, value);
+            if (pos >= 0) {
+                return this;
+            }
+            if (cardinality >= ARRAY_MAX) {
+                return BitmapContainer.of(this).add(value);
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(8, cardinality * 2)));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int pos = Arrays.binarySearch(values, 0, cardinality, value);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 24L + 2L * values.length;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 4 + 2 * cardinality;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(TYPE_ARRAY);
+            buffer.putInt(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                buffer.putChar(values[i]);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = cardinality > 0 ? 1 : 0;
+            for (int i = 1; i < cardinality; i++) {
+                if (values[i] != values[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            return runs;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer of(Container source) {
+            if (source instanceof BitmapContainer bitmap) {
+                return bitmap;
+            }
+            long[] words = new long[BITMAP_WORDS];
+            source.forEach(v -> words[v >>> 6] |= 1L << v);
+            return new BitmapContainer(words, source.cardinality());
+        }
+
+        static BitmapContainer readFrom(ByteBuffer buffer) {
+            long[] words = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = buffer.getLong();
+                cardinality += Long.bitCount(words[i]);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? ArrayContainer.of(this) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 24L + 8L * BITMAP_WORDS;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 8 * BITMAP_WORDS;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(TYPE_BITMAP);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            long previous = 0;
+            for (long word : words) {
+                long starts = word & ~((word << 1) | (previous >>> 63));
+                runs += Long.bitCount(starts);
+                previous = word;
+            }
+            return runs;
+        }
+    }
+
+    private static final class RunContainer extends Container {
+
+        /**
+         * Pairs of (start, length - 1)
+         */
+        private final char[] runs;
+        private final int numberOfRuns;
+        private final int cardinality;
+
+        RunContainer(char[] runs, int numberOfRuns) {
+            this.runs = runs;
+            this.numberOfRuns = numberOfRuns;
+            int total = 0;
+            for (int i = 0; i < numberOfRuns; i++) {
+                total += runs[2 * i + 1] + 1;
+            }
+            this.cardinality = total;
+        }
+
+        static RunContainer of(Container source) {
+            char[] runs = new char[2 * source.numberOfRuns()];
+            int[] state = {0, -2};
+            source.forEach(v -> {
+                if (v == state[1] + 1 && state[0] > 0) {
+                    runs[2 * (state[0] - 1) + 1]++;
+                } else {
+                    runs[2 * state[0]] = (char) v;
+                    runs[2 * state[0] + 1] = 0;
+                    state[0]++;
+                }
+                state[1] = v;
+            });
+            return new RunContainer(runs, state[0]);
+        }
+
+        static RunContainer readFrom(ByteBuffer buffer) {
+            int numberOfRuns = buffer.getInt();
+            char[] runs = new char[2 * numberOfRuns];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = buffer.getChar();
+            }
+            return new RunContainer(runs, numberOfRuns);
+        }
+
+        @Override
+        boolean contains(char value) {
+            int low = 0;
+            int high = numberOfRuns - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int start = runs[2 * mid];
+                if (value < start) {
+                    high = mid - 1;
+                } else if (value > start + runs[2 * mid + 1]) {
+                    low = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Container add(char value) {
+            return thaw().add(value);
+        }
+
+        @Override
+        Container remove(char value) {
+            return thaw().remove(value);
+        }
+
+        private Container thaw() {
+            return cardinality <= ARRAY_MAX ? ArrayContainer.of(this) : BitmapContainer.of(this);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 24L + 2L * runs.length;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < numberOfRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int v = start; v <= end; v++) {
+                    consumer.accept(v);
+                }
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 4 + 4 * numberOfRuns;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(TYPE_RUN);
+            buffer.putInt(numberOfRuns);
+            for (int i = 0; i < 2 * numberOfRuns; i++) {
+                buffer.putChar(runs[i]);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            return numberOfRuns;
+        }
+    }
+}
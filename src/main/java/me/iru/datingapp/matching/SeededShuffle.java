@@ -0,0 +1,63 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic permutation of candidate IDs driven by a seed.
+ * Each candidate gets a hash of (seed, candidate ID) as its sort key, so the same seed always yields the same
+ * order, different seeds yield independent orders, and adding or removing one candidate leaves the relative
+ * order of the others unchanged. Only the upper 32 bits of the key are compared; equal keys keep input order.
+ */
+public final class SeededShuffle {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SeededShuffle() {
+    }
+
+    /**
+     * Seed of one viewer's order during one epoch
+     */
+    public static long seedOf(long viewerId, long epoch) {
+        return mix(mix(viewerId) ^ (epoch * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Sort key of a candidate under a seed
+     */
+    public static long sortKey(long seed, long candidateId) {
+        return mix(seed ^ (candidateId * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Orders candidates by their sort key under a seed
+     *
+     * @return New array with the candidates in shuffled order
+     */
+    public static long[] shuffle(long[] candidateIds, long seed) {
+        if (candidateIds.length < 2) {
+            return candidateIds.clone();
+        }
+
+        long[] keys = new long[candidateIds.length];
+        for (int i = 0; i < candidateIds.length; i++) {
+            keys[i] = (sortKey(seed, candidateIds[i]) & 0xFFFFFFFF00000000L) | i;
+        }
+        Arrays.sort(keys);
+
+        long[] shuffled = new long[candidateIds.length];
+        for (int i = 0; i < keys.length; i++) {
+            shuffled[i] = candidateIds[(int) keys[i]];
+        }
+        return shuffled;
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,92 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Number of users per segment, a segment being one gender and one year of age.
+ * One-year age bands keep the sum over any age range exact while the whole table stays a few hundred
+ * counters, so counting suggestions costs the same regardless of how many users exist.
+ * Counters are adjusted atomically; a sum read during concurrent updates may mix old and new values.
+ */
+public class SegmentCounters {
+
+    /**
+     * Ages above this value share the last band
+     */
+    public static final int MAX_AGE = 127;
+
+    private static final int AGE_BANDS = MAX_AGE + 1;
+    private static final User.Gender[] GENDERS = User.Gender.values();
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(GENDERS.length * AGE_BANDS);
+    private final long loadedAt;
+
+    /**
+     * @param loadedAt Time in epoch milliseconds the counters were loaded from the database
+     */
+    public SegmentCounters(long loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+
+    public long loadedAt() {
+        return loadedAt;
+    }
+
+    public void add(User.Gender gender, int age, int delta) {
+        counts.addAndGet(segmentOf(gender, age), delta);
+    }
+
+    public int get(User.Gender gender, int age) {
+        return counts.get(segmentOf(gender, age));
+    }
+
+    /**
+     * Sums the counters of the segments matching a search
+     *
+     * @param gender Gender to count, null for all genders
+     * @param minAge Minimum age, inclusive, null for no minimum
+     * @param maxAge Maximum age, inclusive, null for no maximum
+     * @return Number of users in the matching segments
+     */
+    public long sum(User.Gender gender, Integer minAge, Integer maxAge) {
+        int from = minAge == null ? 0 : bandOf(minAge);
+        int to = maxAge == null ? MAX_AGE : bandOf(maxAge);
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            return 0;
+        }
+
+        long total = 0;
+        for (User.Gender g : GENDERS) {
+            if (gender != null && gender != g) {
+                continue;
+            }
+            int base = g.ordinal() * AGE_BANDS;
+            for (int band = from; band <= to; band++) {
+                total += counts.get(base + band);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether a user of the given gender and age falls into a search
+     */
+    public static boolean matches(User.Gender gender, int age, User.Gender searchGender, Integer minAge, Integer maxAge) {
+        return (searchGender == null || searchGender == gender)
+                && (minAge == null || age >= minAge)
+                && (maxAge == null || age <= maxAge);
+    }
+
+    private static int segmentOf(User.Gender gender, int age) {
+        if (gender == null) {
+            throw new IllegalArgumentException("Gender is required");
+        }
+        return gender.ordinal() * AGE_BANDS + bandOf(age);
+    }
+
+    private static int bandOf(int age) {
+        return Math.clamp(age, 0, MAX_AGE);
+    }
+}
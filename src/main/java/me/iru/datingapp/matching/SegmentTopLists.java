@@ -0,0 +1,200 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable top candidates per segment, a segment being gender, age band and city.
+ * Every user is also listed in the city-independent segment of their gender and age band, which fills
+ * the lists of users whose city has too few candidates. Lists are built once and shared by all readers.
+ */
+public final class SegmentTopLists {
+
+    public static final SegmentTopLists EMPTY = new SegmentTopLists(1, Map.of(), Map.of());
+
+    private static final int ANY_CITY = 0;
+
+    private final int ageBandWidth;
+    private final Map<String, Integer> cityCodes;
+    private final Map<Long, Segment> segments;
+
+    private SegmentTopLists(int ageBandWidth, Map<String, Integer> cityCodes, Map<Long, Segment> segments) {
+        this.ageBandWidth = ageBandWidth;
+        this.cityCodes = cityCodes;
+        this.segments = segments;
+    }
+
+    public static Builder builder(int ageBandWidth, int perSegment) {
+        return new Builder(ageBandWidth, perSegment);
+    }
+
+    /**
+     * Top candidates matching a gender and age range, best first.
+     * Candidates from the city come first, then the best of the other cities.
+     *
+     * @param gender Preferred gender, null for any
+     * @param minAge Minimum age, inclusive
+     * @param maxAge Maximum age, inclusive
+     * @param city   City of the viewer, null for none
+     * @param limit  Maximum number of candidates
+     * @return Candidate user IDs
+     */
+    public long[] topFor(User.Gender gender, int minAge, int maxAge, String city, int limit) {
+        LongIntMap seen = new LongIntMap();
+        List<long[]> groups = new ArrayList<>(2);
+
+        Integer cityCode = city == null ? null : cityCodes.get(normalizeCity(city));
+        if (cityCode != null) {
+            groups.add(collect(gender, minAge, maxAge, cityCode, seen, limit));
+        }
+        groups.add(collect(gender, minAge, maxAge, ANY_CITY, seen, limit));
+
+        long[] top = new long[limit];
+        int count = 0;
+        for (long[] group : groups) {
+            int n = Math.min(group.length, limit - count);
+            System.arraycopy(group, 0, top, count, n);
+            count += n;
+        }
+        return Arrays.copyOf(top, count);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Candidates of one city code matching the gender and age range, best first, skipping those already seen
+     */
+    private long[] collect(User.Gender gender, int minAge, int maxAge, int cityCode, LongIntMap seen, int limit) {
+        List<Segment> matching = new ArrayList<>();
+        for (User.Gender candidateGender : User.Gender.values()) {
+            if (gender != null && gender != candidateGender) {
+                continue;
+            }
+            for (int band = bandOf(minAge); band <= bandOf(maxAge); band++) {
+                Segment segment = segments.get(key(cityCode, candidateGender, band));
+                if (segment != null) {
+                    matching.add(segment);
+                }
+            }
+        }
+
+        int total = 0;
+        for (Segment segment : matching) {
+            total += segment.userIds().length;
+        }
+        TopKHeap heap = new TopKHeap(Math.max(1, limit));
+        long[] ids = new long[total];
+        int n = 0;
+        for (Segment segment : matching) {
+            for (int i = 0; i < segment.userIds().length; i++) {
+                long userId = segment.userIds()[i];
+                int age = segment.ages()[i];
+                if (age < minAge || age > maxAge || seen.containsKey(userId)) {
+                    continue;
+                }
+                ids[n] = userId;
+                heap.offer(n++, segment.scores()[i]);
+            }
+        }
+
+        int[] best = heap.drainSorted();
+        long[] result = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            result[i] = ids[best[i]];
+            seen.put(result[i], 1);
+        }
+        return result;
+    }
+
+    private int bandOf(int age) {
+        return Math.max(0, age) / ageBandWidth;
+    }
+
+    private static long key(int cityCode, User.Gender gender, int band) {
+        return (long) cityCode << 32 | (long) gender.ordinal() << 16 | band;
+    }
+
+    private static String normalizeCity(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Best candidates of one segment, best first
+     */
+    private record Segment(long[] userIds, int[] ages, float[] scores) {
+    }
+
+    /**
+     * Collects candidates and keeps the best of each segment in a bounded heap, so building needs memory
+     * for one entry per candidate plus the kept lists only
+     */
+    public static final class Builder {
+
+        private final int ageBandWidth;
+        private final int perSegment;
+        private final Map<String, Integer> cityCodes = new HashMap<>();
+        private final Map<Long, TopKHeap> heaps = new HashMap<>();
+
+        private long[] userIds = new long[1024];
+        private int[] ages = new int[1024];
+        private float[] scores = new float[1024];
+        private int size;
+
+        private Builder(int ageBandWidth, int perSegment) {
+            if (ageBandWidth <= 0 || perSegment <= 0) {
+                throw new IllegalArgumentException("Age band width and segment size must be positive");
+            }
+            this.ageBandWidth = ageBandWidth;
+            this.perSegment = perSegment;
+        }
+
+        public Builder add(long userId, User.Gender gender, int age, String city, double score) {
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                ages = Arrays.copyOf(ages, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int position = size++;
+            userIds[position] = userId;
+            ages[position] = age;
+            scores[position] = (float) score;
+
+            int band = Math.max(0, age) / ageBandWidth;
+            offer(key(ANY_CITY, gender, band), position, score);
+            if (city != null && !city.isBlank()) {
+                int cityCode = cityCodes.computeIfAbsent(normalizeCity(city), c -> cityCodes.size() + 1);
+                offer(key(cityCode, gender, band), position, score);
+            }
+            return this;
+        }
+
+        public SegmentTopLists build() {
+            Map<Long, Segment> segments = new HashMap<>(heaps.size() * 2);
+            heaps.forEach((key, heap) -> {
+                int[] best = heap.drainSorted();
+                long[] segmentIds = new long[best.length];
+                int[] segmentAges = new int[best.length];
+                float[] segmentScores = new float[best.length];
+                for (int i = 0; i < best.length; i++) {
+                    segmentIds[i] = userIds[best[i]];
+                    segmentAges[i] = ages[best[i]];
+                    segmentScores[i] = scores[best[i]];
+                }
+                segments.put(key, new Segment(segmentIds, segmentAges, segmentScores));
+            });
+            return new SegmentTopLists(ageBandWidth, Map.copyOf(cityCodes), Map.copyOf(segments));
+        }
+
+        private void offer(long key, int position, double score) {
+            heaps.computeIfAbsent(key, k -> new TopKHeap(perSegment)).offer(position, score);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.iru.datingapp.matching;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+
+/**
+ * Bounded queue holding the head of one user's ranked suggestion list.
+ * Entries keep their ranked order; a refill replaces them with the head of the list it is given, so the queue
+ * stays a prefix of that list and reads past the queue can continue in the list itself.
+ * Not thread-safe apart from the refill flag; owners synchronize on the queue.
+ */
+public class SuggestionQueue {
+
+    private final long[] entries;
+    private int size;
+    private long total;
+    private boolean filled;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    /**
+     * First entries of the queue together with the number of candidates known to be eligible
+     */
+    public record Snapshot(long[] userIds, long total) {
+    }
+
+    public SuggestionQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.entries = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Number of eligible candidates at the last refill, minus the entries consumed since
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Whether the queue has been filled at least once and can answer reads
+     */
+    public boolean isFilled() {
+        return filled;
+    }
+
+    /**
+     * Whether the queue holds every eligible candidate, so reads past its end are known to be empty
+     */
+    public boolean isComplete() {
+        return size >= total;
+    }
+
+    public Snapshot snapshot(int count) {
+        return new Snapshot(Arrays.copyOf(entries, Math.min(count, size)), total);
+    }
+
+    /**
+     * Removes a user from the queue, typically once the owner has rated them
+     *
+     * @return true if the user was queued
+     */
+    public boolean remove(long userId) {
+        for (int i = 0; i < size; i++) {
+            if (entries[i] == userId) {
+                System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                size--;
+                total = Math.max(0, total - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the queue with the head of a ranked list, up to the capacity
+     *
+     * @param ranked   Eligible candidates in ranked order
+     * @param eligible Last-moment check for candidates that became ineligible while ranking
+     */
+    public void refill(long[] ranked, LongPredicate eligible) {
+        size = 0;
+        int rejected = 0;
+        for (int i = 0; i < ranked.length && size < entries.length; i++) {
+            long candidate = ranked[i];
+            if (eligible.test(candidate)) {
+                entries[size++] = candidate;
+            } else {
+                rejected++;
+            }
+        }
+        total = Math.max(ranked.length - rejected, size);
+        filled = true;
+    }
+
+    /**
+     * Claims the refill of this queue
+     *
+     * @return true if no other refill was in progress
+     */
+    public boolean startRefill() {
+        return refilling.compareAndSet(false, true);
+    }
+
+    public void finishRefill() {
+        refilling.set(false);
+    }
+}
@@ -0,0 +1,150 @@
+package me.iru.datingapp.matching;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ranked suggestion lists keyed by user and by the versions of the user's search preference and ratings.
+ * Changing either version retires the cached list, and a list computed under an older key is never stored,
+ * so a ranking that raced with a change cannot be served afterwards. The cache is bounded by the number of
+ * lists and by their total weight, the number of cached IDs, evicting the least recently used lists first.
+ * All methods are synchronized.
+ */
+public class SuggestionResultCache {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlMillis;
+
+    /**
+     * Access-ordered, so iteration starts at the least recently used list
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongIntMap preferenceVersions = new LongIntMap();
+    private final LongIntMap ratingVersions = new LongIntMap();
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SuggestionResultCache(int maxEntries, long maxWeight, long ttlMillis) {
+        if (maxEntries < 0 || maxWeight < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Cache bounds must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Current key of a user's ranked list
+     */
+    public synchronized Key keyOf(long userId) {
+        return new Key(userId, preferenceVersions.get(userId, 0), ratingVersions.get(userId, 0));
+    }
+
+    /**
+     * Returns the ranked list stored under the key, or null if it is missing or older than the time to live
+     *
+     * @param key Key of the list
+     * @param now Current time in epoch milliseconds
+     * @return Ranked user IDs, shared with the cache and not to be modified
+     */
+    public synchronized long[] get(Key key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.storedAt() > ttlMillis) {
+            removeEntry(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.rankedIds();
+    }
+
+    /**
+     * Stores a ranked list unless the user's versions changed since the key was taken
+     * or the list alone exceeds the weight bound
+     *
+     * @return true if the list was stored
+     */
+    public synchronized boolean put(Key key, long[] rankedIds, long now) {
+        if (!key.equals(keyOf(key.userId())) || rankedIds.length > maxWeight || maxEntries == 0) {
+            return false;
+        }
+
+        removeEntry(key);
+        entries.put(key, new Entry(rankedIds, now));
+        weight += rankedIds.length;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().rankedIds().length;
+            eldest.remove();
+            evictions++;
+        }
+        return true;
+    }
+
+    /**
+     * Retires the user's list after a change of search preferences
+     */
+    public synchronized void bumpPreferenceVersion(long userId) {
+        removeEntry(keyOf(userId));
+        preferenceVersions.put(userId, preferenceVersions.get(userId, 0) + 1);
+    }
+
+    /**
+     * Retires the user's list after the user rated someone
+     */
+    public synchronized void bumpRatingVersion(long userId) {
+        removeEntry(keyOf(userId));
+        ratingVersions.put(userId, ratingVersions.get(userId, 0) + 1);
+    }
+
+    /**
+     * Drops the list and the versions of a deleted user
+     */
+    public synchronized void remove(long userId) {
+        removeEntry(keyOf(userId));
+        preferenceVersions.remove(userId, 0);
+        ratingVersions.remove(userId, 0);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    private void removeEntry(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.rankedIds().length;
+        }
+    }
+
+    public record Key(long userId, int preferenceVersion, int ratingVersion) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int entries, long weight) {
+    }
+
+    private record Entry(long[] rankedIds, long storedAt) {
+    }
+}
@@ -0,0 +1,184 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.Rating;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Swipes not yet written to the database, per rater in the order they were made.
+ * A swipe is only taken once it is older than the cutoff given to {@link #drainDue}, so it can be undone until
+ * then without a database write, and a rater's swipes are taken together, so a burst of swiping becomes one batch.
+ * Raters are spread over independently locked stripes, so concurrent swipes rarely contend.
+ */
+public class SwipeBuffer {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public SwipeBuffer(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    /**
+     * Buffers a swipe
+     *
+     * @return false if the rater already has a pending swipe on the user
+     */
+    public boolean add(long raterId, long ratedUserId, Rating.RatingType ratingType, long epochMillis) {
+        Stripe stripe = stripeOf(raterId);
+        synchronized (stripe) {
+            Pending pending = stripe.raters.computeIfAbsent(raterId, id -> new Pending());
+            if (pending.swipes.putIfAbsent(ratedUserId, new Swipe(ratingType, epochMillis)) != null) {
+                return false;
+            }
+            pending.lastSwipeAt = Math.max(pending.lastSwipeAt, epochMillis);
+            return true;
+        }
+    }
+
+    /**
+     * Type of the pending swipe of a rater on a user
+     *
+     * @return Rating type, null if no swipe is pending
+     */
+    public Rating.RatingType pendingType(long raterId, long ratedUserId) {
+        Stripe stripe = stripeOf(raterId);
+        synchronized (stripe) {
+            Pending pending = stripe.raters.get(raterId);
+            Swipe swipe = pending == null ? null : pending.swipes.get(ratedUserId);
+            return swipe == null ? null : swipe.ratingType();
+        }
+    }
+
+    /**
+     * Passes the users a rater has a pending swipe on to the action
+     */
+    public void forEachPending(long raterId, LongConsumer action) {
+        long[] ratedUserIds;
+        Stripe stripe = stripeOf(raterId);
+        synchronized (stripe) {
+            Pending pending = stripe.raters.get(raterId);
+            if (pending == null) {
+                return;
+            }
+            ratedUserIds = pending.swipes.keySet().stream().mapToLong(Long::longValue).toArray();
+        }
+        for (long ratedUserId : ratedUserIds) {
+            action.accept(ratedUserId);
+        }
+    }
+
+    /**
+     * Drops the pending swipe of a rater on a user
+     *
+     * @param ratingType Type the swipe must have, null for any
+     * @return Type of the dropped swipe, null if no matching swipe was pending
+     */
+    public Rating.RatingType remove(long raterId, long ratedUserId, Rating.RatingType ratingType) {
+        Stripe stripe = stripeOf(raterId);
+        synchronized (stripe) {
+            Pending pending = stripe.raters.get(raterId);
+            Swipe swipe = pending == null ? null : pending.swipes.get(ratedUserId);
+            if (swipe == null || (ratingType != null && swipe.ratingType() != ratingType)) {
+                return null;
+            }
+            pending.swipes.remove(ratedUserId);
+            if (pending.swipes.isEmpty()) {
+                stripe.raters.remove(raterId);
+            }
+            return swipe.ratingType();
+        }
+    }
+
+    /**
+     * Takes the swipes that are due: every swipe of raters who have not swiped after the cutoff, and the swipes
+     * made up to the cutoff of raters with at least the given number pending. Swipes made after the cutoff stay.
+     *
+     * @param cutoff     Epoch milliseconds of the newest swipe that may be taken
+     * @param maxPending Pending swipes from which an active rater's older swipes are taken anyway
+     * @return Due swipes by rater ID, each in swipe order
+     */
+    public Map<Long, Map<Long, Rating.RatingType>> drainDue(long cutoff, int maxPending) {
+        Map<Long, Map<Long, Rating.RatingType>> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<Long, Pending>> raters = stripe.raters.entrySet().iterator();
+                while (raters.hasNext()) {
+                    Map.Entry<Long, Pending> rater = raters.next();
+                    Pending pending = rater.getValue();
+                    if (pending.lastSwipeAt > cutoff && pending.swipes.size() < maxPending) {
+                        continue;
+                    }
+                    Map<Long, Rating.RatingType> taken = new LinkedHashMap<>();
+                    Iterator<Map.Entry<Long, Swipe>> swipes = pending.swipes.entrySet().iterator();
+                    while (swipes.hasNext()) {
+                        Map.Entry<Long, Swipe> swipe = swipes.next();
+                        if (swipe.getValue().swipedAt() > cutoff) {
+                            break;
+                        }
+                        taken.put(swipe.getKey(), swipe.getValue().ratingType());
+                        swipes.remove();
+                    }
+                    if (pending.swipes.isEmpty()) {
+                        raters.remove();
+                    }
+                    if (!taken.isEmpty()) {
+                        drained.put(rater.getKey(), taken);
+                    }
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Puts back swipes that could not be written, unless the rater swiped the same user again meanwhile
+     */
+    public void restore(long raterId, Map<Long, Rating.RatingType> swipes, long epochMillis) {
+        swipes.forEach((ratedUserId, ratingType) -> add(raterId, ratedUserId, ratingType, epochMillis));
+    }
+
+    public int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Pending pending : stripe.raters.values()) {
+                    count += pending.swipes.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    private Stripe stripeOf(long raterId) {
+        int hash = Long.hashCode(raterId);
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private record Swipe(Rating.RatingType ratingType, long swipedAt) {
+    }
+
+    private static final class Pending {
+        private final Map<Long, Swipe> swipes = new LinkedHashMap<>();
+        private long lastSwipeAt = Long.MIN_VALUE;
+    }
+
+    private static final class Stripe {
+        private final Map<Long, Pending> raters = new HashMap<>();
+    }
+}
@@ -0,0 +1,93 @@
+package me.iru.datingapp.matching;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory point in time per user, stored as whole minutes since the epoch in an int.
+ * Minute precision is plenty for recency scoring and keeps each entry at a long key plus an int value.
+ */
+public class TimestampIndex {
+
+    /**
+     * Returned for users without a timestamp
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap minuteByUser = new LongIntMap();
+
+    public void put(long userId, long epochMillis) {
+        int minute = toMinute(epochMillis);
+        lock.writeLock().lock();
+        try {
+            minuteByUser.put(userId, minute);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            return minuteByUser.remove(userId, MISSING) != MISSING;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Minute of a user's timestamp
+     *
+     * @return Minutes since the epoch, or {@link #MISSING}
+     */
+    public int minuteOf(long userId) {
+        lock.readLock().lock();
+        try {
+            return minuteByUser.get(userId, MISSING);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the minutes of a range of users into an array
+     *
+     * @param userIds User IDs
+     * @param from    First index, inclusive
+     * @param to      Last index, exclusive
+     * @param minutes Receives the minute of {@code userIds[i]} at {@code minutes[i - from]},
+     *                or {@link #MISSING}
+     */
+    public void minutesOf(long[] userIds, int from, int to, int[] minutes) {
+        lock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                minutes[i - from] = minuteByUser.get(userIds[i], MISSING);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return minuteByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            minuteByUser.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static int toMinute(long epochMillis) {
+        return (int) Math.floorDiv(epochMillis, 60_000L);
+    }
+}
@@ -0,0 +1,120 @@
+package me.iru.datingapp.matching;
+
+/**
+ * Bounded min-heap keeping the best scored positions of a candidate pool.
+ * Entries are primitive (position, score) pairs; a higher score wins and equal scores prefer the lower
+ * position, so the result does not depend on the order in which chunks of a pool are offered or merged.
+ * Not thread-safe; each worker fills its own heap and the heaps are merged afterwards.
+ */
+public class TopKHeap {
+
+    private final int[] positions;
+    private final double[] scores;
+    private int size;
+
+    public TopKHeap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.positions = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Offers a scored position, replacing the worst entry if the heap is full and the new one is better
+     *
+     * @return true if the entry was kept
+     */
+    public boolean offer(int position, double score) {
+        if (size < positions.length) {
+            positions[size] = position;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!isBetter(position, score, positions[0], scores[0])) {
+            return false;
+        }
+        positions[0] = position;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Offers every entry of another heap
+     *
+     * @return This heap
+     */
+    public TopKHeap merge(TopKHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.positions[i], other.scores[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Removes every entry
+     *
+     * @return Kept positions, best first
+     */
+    public int[] drainSorted() {
+        int[] result = new int[size];
+        while (size > 0) {
+            result[size - 1] = positions[0];
+            size--;
+            positions[0] = positions[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private static boolean isBetter(int position, double score, int otherPosition, double otherScore) {
+        int cmp = Double.compare(score, otherScore);
+        return cmp > 0 || (cmp == 0 && position < otherPosition);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(positions[parent], scores[parent], positions[i], scores[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isBetter(positions[worst], scores[worst], positions[right], scores[right])) {
+                worst = right;
+            }
+            if (!isBetter(positions[i], scores[i], positions[worst], scores[worst])) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
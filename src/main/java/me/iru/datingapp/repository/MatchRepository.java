@@ -1,38 +1,90 @@
 package me.iru.datingapp.repository;
 
 import me.iru.datingapp.entity.Match;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MatchRepository extends JpaRepository<Match, Long> {
 
-    @Query("SELECT m FROM Match m WHERE (m.user1.id = :userId OR m.user2.id = :userId) AND m.isActive = true")
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE (m.user1.id = :userId OR m.user2.id = :userId) AND m.isActive = true")
     List<Match> findActiveMatchesByUserId(@Param("userId") Long userId);
 
+    /**
+     * Latest page of the inbox matches in which the user is the first user, by last activity, newest first,
+     * with both users fetched. A range scan of the (user1_id, is_active, last_activity_at, id) index.
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE m.user1.id = :userId AND m.isActive = true " +
+            "ORDER BY m.lastActivityAt DESC, m.id DESC")
+    List<Match> findInboxAsUser1(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Page of the inbox matches in which the user is the first user, strictly after the (last activity, ID) keyset
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE m.user1.id = :userId AND m.isActive = true " +
+            "AND (m.lastActivityAt < :lastActivityAt OR (m.lastActivityAt = :lastActivityAt AND m.id < :id)) " +
+            "ORDER BY m.lastActivityAt DESC, m.id DESC")
+    List<Match> findInboxAsUser1Before(@Param("userId") Long userId,
+                                       @Param("lastActivityAt") LocalDateTime lastActivityAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Latest page of the inbox matches in which the user is the second user, by last activity, newest first,
+     * with both users fetched. A range scan of the (user2_id, is_active, last_activity_at, id) index.
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE m.user2.id = :userId AND m.isActive = true " +
+            "ORDER BY m.lastActivityAt DESC, m.id DESC")
+    List<Match> findInboxAsUser2(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Page of the inbox matches in which the user is the second user, strictly after the (last activity, ID) keyset
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE m.user2.id = :userId AND m.isActive = true " +
+            "AND (m.lastActivityAt < :lastActivityAt OR (m.lastActivityAt = :lastActivityAt AND m.id < :id)) " +
+            "ORDER BY m.lastActivityAt DESC, m.id DESC")
+    List<Match> findInboxAsUser2Before(@Param("userId") Long userId,
+                                       @Param("lastActivityAt") LocalDateTime lastActivityAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
     @Query("SELECT m FROM Match m WHERE m.user1.id = :userId OR m.user2.id = :userId")
     List<Match> findAllMatchesByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT m FROM Match m WHERE " +
-            "(m.user1.id = :userId1 AND m.user2.id = :userId2) OR " +
-            "(m.user1.id = :userId2 AND m.user2.id = :userId1)")
-    Optional<Match> findMatchBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    Optional<Match> findByUser1IdAndUser2Id(Long user1Id, Long user2Id);
 
-    @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM Match m WHERE " +
-            "(m.user1.id = :userId1 AND m.user2.id = :userId2) OR " +
-            "(m.user1.id = :userId2 AND m.user2.id = :userId1)")
-    boolean existsMatchBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    boolean existsByUser1IdAndUser2Id(Long user1Id, Long user2Id);
 
-    @Query("SELECT m FROM Match m WHERE " +
-            "m.isActive = true AND " +
-            "((m.user1.id = :userId1 AND m.user2.id = :userId2) OR " +
-            "(m.user1.id = :userId2 AND m.user2.id = :userId1))")
-    Optional<Match> findActiveMatchBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    Optional<Match> findByUser1IdAndUser2IdAndIsActiveTrue(Long user1Id, Long user2Id);
+
+    /**
+     * Matches are stored under the canonical pair key, lower user ID first, so the lookups between
+     * two users are a single probe of the unique (user1_id, user2_id) index
+     */
+    default Optional<Match> findMatchBetweenUsers(Long userId1, Long userId2) {
+        return findByUser1IdAndUser2Id(Math.min(userId1, userId2), Math.max(userId1, userId2));
+    }
+
+    default boolean existsMatchBetweenUsers(Long userId1, Long userId2) {
+        return existsByUser1IdAndUser2Id(Math.min(userId1, userId2), Math.max(userId1, userId2));
+    }
+
+    default Optional<Match> findActiveMatchBetweenUsers(Long userId1, Long userId2) {
+        return findByUser1IdAndUser2IdAndIsActiveTrue(Math.min(userId1, userId2), Math.max(userId1, userId2));
+    }
 
     @Query("SELECT COUNT(m) FROM Match m WHERE " +
             "(m.user1.id = :userId OR m.user2.id = :userId) AND m.isActive = true")
@@ -43,5 +95,93 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     List<Match> findByUserIdAndIsActive(@Param("userId") Long userId, @Param("isActive") boolean isActive);
 
     long countByIsActive(boolean isActive);
-}
 
+    /**
+     * Moves a participant's read watermark forward to the given message; never moves it back.
+     * The participant's unread count drops to zero when the last message is read, otherwise it is recounted
+     * from the received messages after the new watermark.
+     *
+     * @return 1 if the watermark advanced, 0 if it was already at or past the message
+     */
+    @Modifying
+    @Query("UPDATE Match m SET " +
+            "m.user1LastReadMessageId = CASE WHEN m.user1.id = :userId THEN :messageId ELSE m.user1LastReadMessageId END, " +
+            "m.user2LastReadMessageId = CASE WHEN m.user2.id = :userId THEN :messageId ELSE m.user2LastReadMessageId END, " +
+            "m.user1UnreadCount = CASE WHEN m.user1.id <> :userId THEN m.user1UnreadCount " +
+            "WHEN :messageId >= m.lastMessageId THEN 0 " +
+            "ELSE CAST((SELECT COUNT(msg) FROM Message msg WHERE msg.match.id = m.id " +
+            "AND msg.receiver.id = :userId AND msg.id > :messageId) AS Integer) END, " +
+            "m.user2UnreadCount = CASE WHEN m.user2.id <> :userId THEN m.user2UnreadCount " +
+            "WHEN :messageId >= m.lastMessageId THEN 0 " +
+            "ELSE CAST((SELECT COUNT(msg) FROM Message msg WHERE msg.match.id = m.id " +
+            "AND msg.receiver.id = :userId AND msg.id > :messageId) AS Integer) END " +
+            "WHERE m.id = :matchId AND (" +
+            "(m.user1.id = :userId AND m.user1LastReadMessageId < :messageId) OR " +
+            "(m.user2.id = :userId AND m.user2LastReadMessageId < :messageId))")
+    int advanceLastReadMessageId(@Param("matchId") Long matchId,
+                                 @Param("userId") Long userId,
+                                 @Param("messageId") Long messageId);
+
+    /**
+     * Records a sent message in the conversation summary and counts it as unread for the receiver.
+     * The last message only moves forward, so a message committed after a newer one doesn't replace it;
+     * lastMessageId is assigned last as MariaDB evaluates the assignments in order.
+     */
+    @Modifying
+    @Query("UPDATE Match m SET " +
+            "m.lastMessagePreview = CASE WHEN m.lastMessageId IS NULL OR m.lastMessageId < :messageId " +
+            "THEN :preview ELSE m.lastMessagePreview END, " +
+            "m.lastMessageSenderId = CASE WHEN m.lastMessageId IS NULL OR m.lastMessageId < :messageId " +
+            "THEN :senderId ELSE m.lastMessageSenderId END, " +
+            "m.lastActivityAt = CASE WHEN m.lastMessageId IS NULL OR m.lastMessageId < :messageId " +
+            "THEN :sentAt ELSE m.lastActivityAt END, " +
+            "m.user1UnreadCount = CASE WHEN m.user1.id = :senderId THEN m.user1UnreadCount ELSE m.user1UnreadCount + 1 END, " +
+            "m.user2UnreadCount = CASE WHEN m.user2.id = :senderId THEN m.user2UnreadCount ELSE m.user2UnreadCount + 1 END, " +
+            "m.lastMessageId = CASE WHEN m.lastMessageId IS NULL OR m.lastMessageId < :messageId " +
+            "THEN :messageId ELSE m.lastMessageId END " +
+            "WHERE m.id = :matchId")
+    int recordLastMessage(@Param("matchId") Long matchId,
+                          @Param("messageId") Long messageId,
+                          @Param("senderId") Long senderId,
+                          @Param("preview") String preview,
+                          @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Replaces the deleted last message of the summary with the previous one, or clears it if there is none;
+     * the last activity is kept
+     */
+    @Modifying
+    @Query("UPDATE Match m SET m.lastMessagePreview = :preview, m.lastMessageSenderId = :senderId, " +
+            "m.lastMessageId = :messageId " +
+            "WHERE m.id = :matchId AND m.lastMessageId = :deletedMessageId")
+    int replaceLastMessage(@Param("matchId") Long matchId,
+                           @Param("deletedMessageId") Long deletedMessageId,
+                           @Param("messageId") Long messageId,
+                           @Param("senderId") Long senderId,
+                           @Param("preview") String preview);
+
+    /**
+     * Stops counting a deleted message as unread for its receiver, if it was after the receiver's watermark
+     */
+    @Modifying
+    @Query("UPDATE Match m SET " +
+            "m.user1UnreadCount = CASE WHEN m.user1.id = :userId AND m.user1UnreadCount > 0 " +
+            "THEN m.user1UnreadCount - 1 ELSE m.user1UnreadCount END, " +
+            "m.user2UnreadCount = CASE WHEN m.user2.id = :userId AND m.user2UnreadCount > 0 " +
+            "THEN m.user2UnreadCount - 1 ELSE m.user2UnreadCount END " +
+            "WHERE m.id = :matchId AND (" +
+            "(m.user1.id = :userId AND m.user1LastReadMessageId < :messageId) OR " +
+            "(m.user2.id = :userId AND m.user2LastReadMessageId < :messageId))")
+    int removeUnreadMessage(@Param("matchId") Long matchId,
+                            @Param("userId") Long userId,
+                            @Param("messageId") Long messageId);
+
+    /**
+     * Clears the conversation summary once all messages of the match are deleted; the last activity is kept
+     */
+    @Modifying
+    @Query("UPDATE Match m SET m.lastMessageId = NULL, m.lastMessageSenderId = NULL, m.lastMessagePreview = NULL, " +
+            "m.user1UnreadCount = 0, m.user2UnreadCount = 0 " +
+            "WHERE m.id = :matchId")
+    int clearConversationSummary(@Param("matchId") Long matchId);
+}
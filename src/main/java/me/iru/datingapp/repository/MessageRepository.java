@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -27,12 +28,29 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     List<Message> findByReceiverId(Long receiverId);
 
+    /**
+     * @deprecated Reads the legacy per-message flag; read state is the receiver's watermark on the match,
+     * use {@link #countUnreadAfterWatermark}
+     */
+    @Deprecated
     @Query("SELECT m FROM Message m WHERE m.receiver.id = :userId AND m.isRead = false")
     List<Message> findUnreadMessagesByUserId(@Param("userId") Long userId);
 
+    /**
+     * @deprecated Reads the legacy per-message flag; use {@link #countUnreadAfterWatermark}
+     */
+    @Deprecated
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.isRead = false")
     Long countUnreadMessagesByUserId(@Param("userId") Long userId);
 
+    /**
+     * Counts the messages a user received after their read watermark in each of their matches
+     */
+    @Query("SELECT COUNT(msg) FROM Match m JOIN Message msg ON msg.match = m WHERE " +
+            "(m.user1.id = :userId AND msg.receiver.id = :userId AND msg.id > m.user1LastReadMessageId) OR " +
+            "(m.user2.id = :userId AND msg.receiver.id = :userId AND msg.id > m.user2LastReadMessageId)")
+    long countUnreadAfterWatermark(@Param("userId") Long userId);
+
 
     @Query("SELECT m FROM Message m WHERE m.match.id = :matchId ORDER BY m.sentAt DESC")
     Page<Message> findByMatchIdOrderBySentAtDesc(@Param("matchId") Long matchId, Pageable pageable);
@@ -41,5 +59,24 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     @Query("SELECT m FROM Message m WHERE m.match.id = :matchId ORDER BY m.sentAt DESC")
     List<Message> findLatestMessageInMatch(@Param("matchId") Long matchId, Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.match.id = :matchId ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLatestByMatchId(@Param("matchId") Long matchId, Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.match.id = :matchId AND " +
+            "(m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findByMatchIdBefore(@Param("matchId") Long matchId,
+                                      @Param("sentAt") LocalDateTime sentAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.match.id = :matchId AND " +
+            "(m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id)) " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    List<Message> findByMatchIdAfter(@Param("matchId") Long matchId,
+                                     @Param("sentAt") LocalDateTime sentAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
 }
 
@@ -0,0 +1,9 @@
+package me.iru.datingapp.repository;
+
+import me.iru.datingapp.entity.RatingArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RatingArchiveRepository extends JpaRepository<RatingArchive, Long> {
+}
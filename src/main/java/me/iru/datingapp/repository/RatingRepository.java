@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,19 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
 
     List<Rating> findByRatedUserId(Long ratedUserId);
 
+    @Query("SELECT r.ratedUser.id FROM Rating r WHERE r.rater.id = :raterId")
+    List<Long> findRatedUserIdsByRaterId(@Param("raterId") Long raterId);
+
+    @Query("SELECT r.ratedUser.id FROM Rating r WHERE r.rater.id = :raterId AND r.ratedUser.id IN :ratedUserIds")
+    List<Long> findRatedUserIdsByRaterIdAndRatedUserIdIn(@Param("raterId") Long raterId,
+                                                        @Param("ratedUserIds") Collection<Long> ratedUserIds);
+
+    @Query("SELECT r.rater.id FROM Rating r WHERE " +
+            "r.ratedUser.id = :userId AND " +
+            "r.ratingType = 'LIKE' AND " +
+            "r.rater.id IN :raterIds")
+    List<Long> findLikerIdsAmong(@Param("userId") Long userId, @Param("raterIds") Collection<Long> raterIds);
+
     @Query("SELECT r FROM Rating r WHERE r.rater.id = :raterId AND r.ratingType = 'LIKE'")
     List<Rating> findLikesByRaterId(@Param("raterId") Long raterId);
 
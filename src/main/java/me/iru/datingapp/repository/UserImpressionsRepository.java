@@ -0,0 +1,9 @@
+package me.iru.datingapp.repository;
+
+import me.iru.datingapp.entity.UserImpressions;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserImpressionsRepository extends JpaRepository<UserImpressions, Long> {
+}
@@ -1,5 +1,6 @@
 package me.iru.datingapp.repository;
 
+import me.iru.datingapp.entity.SearchPreference;
 import me.iru.datingapp.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,17 +9,36 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Keeps candidates whose own search preferences accept the viewer's gender and age.
+     * Candidates without a search_preferences row are checked against the defaults of
+     * {@link SearchPreference#defaultForUser}. Requires {@code LEFT JOIN SearchPreference sp ON sp.user = u}.
+     */
+    String ACCEPTS_VIEWER =
+            "(sp.id IS NULL AND " +
+            ":viewerAge BETWEEN " + SearchPreference.MIN_AGE + " AND " + SearchPreference.DEFAULT_MAX_AGE + " AND " +
+            ":viewerAge BETWEEN u.age - " + SearchPreference.DEFAULT_AGE_SPREAD +
+            " AND u.age + " + SearchPreference.DEFAULT_AGE_SPREAD + " OR " +
+            "sp.id IS NOT NULL AND " +
+            "(sp.preferredGender IS NULL OR sp.preferredGender = :viewerGender) AND " +
+            ":viewerAge BETWEEN sp.minAge AND sp.maxAge)";
+
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
     long countByGender(User.Gender gender);
 
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     Page<User> findByGenderAndAgeBetween(User.Gender gender, Integer minAge, Integer maxAge, Pageable pageable);
 
     Page<User> findByCity(String city, Pageable pageable);
@@ -52,5 +72,64 @@ public interface UserRepository extends JpaRepository<User, Long> {
             @Param("maxAge") Integer maxAge,
             Pageable pageable
     );
-}
 
+    @Query(value = "SELECT u FROM User u LEFT JOIN SearchPreference sp ON sp.user = u WHERE " +
+            "u.id <> :userId AND " +
+            "(:gender IS NULL OR u.gender = :gender) AND " +
+            "(:minAge IS NULL OR u.age >= :minAge) AND " +
+            "(:maxAge IS NULL OR u.age <= :maxAge) AND " +
+            ACCEPTS_VIEWER + " AND " +
+            "NOT EXISTS (SELECT r.id FROM Rating r WHERE r.rater.id = :userId AND r.ratedUser.id = u.id)",
+            countQuery = "SELECT COUNT(u) FROM User u LEFT JOIN SearchPreference sp ON sp.user = u WHERE " +
+                    "u.id <> :userId AND " +
+                    "(:gender IS NULL OR u.gender = :gender) AND " +
+                    "(:minAge IS NULL OR u.age >= :minAge) AND " +
+                    "(:maxAge IS NULL OR u.age <= :maxAge) AND " +
+                    ACCEPTS_VIEWER + " AND " +
+                    "NOT EXISTS (SELECT r.id FROM Rating r WHERE r.rater.id = :userId AND r.ratedUser.id = u.id)")
+    Page<User> findUnratedBySearchCriteria(
+            @Param("userId") Long userId,
+            @Param("gender") User.Gender gender,
+            @Param("minAge") Integer minAge,
+            @Param("maxAge") Integer maxAge,
+            @Param("viewerGender") User.Gender viewerGender,
+            @Param("viewerAge") Integer viewerAge,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(u) FROM User u LEFT JOIN SearchPreference sp ON sp.user = u WHERE " +
+            "u.id <> :userId AND " +
+            "(:gender IS NULL OR u.gender = :gender) AND " +
+            "(:minAge IS NULL OR u.age >= :minAge) AND " +
+            "(:maxAge IS NULL OR u.age <= :maxAge) AND " +
+            ACCEPTS_VIEWER + " AND " +
+            "NOT EXISTS (SELECT r.id FROM Rating r WHERE r.rater.id = :userId AND r.ratedUser.id = u.id)")
+    long countUnratedBySearchCriteria(
+            @Param("userId") Long userId,
+            @Param("gender") User.Gender gender,
+            @Param("minAge") Integer minAge,
+            @Param("maxAge") Integer maxAge,
+            @Param("viewerGender") User.Gender viewerGender,
+            @Param("viewerAge") Integer viewerAge
+    );
+
+    @Query("SELECT u FROM User u LEFT JOIN SearchPreference sp ON sp.user = u WHERE " +
+            "u.id <> :userId AND " +
+            "u.id > :afterId AND " +
+            "(:gender IS NULL OR u.gender = :gender) AND " +
+            "(:minAge IS NULL OR u.age >= :minAge) AND " +
+            "(:maxAge IS NULL OR u.age <= :maxAge) AND " +
+            ACCEPTS_VIEWER + " AND " +
+            "NOT EXISTS (SELECT r.id FROM Rating r WHERE r.rater.id = :userId AND r.ratedUser.id = u.id) " +
+            "ORDER BY u.id ASC")
+    List<User> findUnratedBySearchCriteriaAfter(
+            @Param("userId") Long userId,
+            @Param("gender") User.Gender gender,
+            @Param("minAge") Integer minAge,
+            @Param("maxAge") Integer maxAge,
+            @Param("viewerGender") User.Gender viewerGender,
+            @Param("viewerAge") Integer viewerAge,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+}
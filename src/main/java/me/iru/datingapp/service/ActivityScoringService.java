@@ -0,0 +1,55 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.TimestampIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scores candidates by how recently they were active, halving the score every half-life,
+ * so dormant accounts sink below active ones
+ */
+@Service
+public class ActivityScoringService implements SuggestionScorer {
+
+    private final LastActiveService lastActiveService;
+    private final double weight;
+    private final double halfLifeMinutes;
+
+    public ActivityScoringService(LastActiveService lastActiveService,
+                                  @Value("${app.matching.scoring.activity.weight:0.3}") double weight,
+                                  @Value("${app.matching.scoring.activity.half-life-days:7}") double halfLifeDays) {
+        if (halfLifeDays <= 0) {
+            throw new IllegalArgumentException("Activity half-life must be positive: " + halfLifeDays);
+        }
+        this.lastActiveService = lastActiveService;
+        this.weight = weight;
+        this.halfLifeMinutes = halfLifeDays * 24 * 60;
+    }
+
+    @Override
+    public String getName() {
+        return "activity";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        if (!lastActiveService.isReady()) {
+            return null;
+        }
+        int now = TimestampIndex.toMinute(System.currentTimeMillis());
+        return (ids, from, to, scores) -> {
+            int[] minutes = new int[to - from];
+            lastActiveService.lastActiveMinutesOf(ids, from, to, minutes);
+            for (int i = 0; i < minutes.length; i++) {
+                scores[i] = minutes[i] == TimestampIndex.MISSING
+                        ? 0
+                        : Math.pow(0.5, Math.max(0, now - minutes[i]) / halfLifeMinutes);
+            }
+        };
+    }
+}
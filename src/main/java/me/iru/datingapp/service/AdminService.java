@@ -26,6 +26,7 @@ public class AdminService {
     private final MatchRepository matchRepository;
     private final MessageRepository messageRepository;
     private final RatingRepository ratingRepository;
+    private final SuggestionCacheService suggestionCacheService;
 
     @Transactional(readOnly = true)
     public Map<String, Long> getPlatformStatistics() {
@@ -80,6 +81,13 @@ public class AdminService {
         return stats;
     }
 
+    public Map<String, Long> getSuggestionCacheStatistics() {
+        Map<String, Long> stats = suggestionCacheService.getStatistics();
+
+        log.debug("Suggestion cache statistics retrieved: {}", stats);
+        return stats;
+    }
+
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         log.debug("Fetching all users for admin panel");
@@ -0,0 +1,100 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.CandidateIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CandidateIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateIndexService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final CandidateIndex index = new CandidateIndex();
+
+    private volatile boolean ready;
+
+    public CandidateIndexService(MatchingDao matchingDao,
+                                 @Value("${app.matching.candidate-index.enabled:true}") boolean enabled) {
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads every user into the index once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Candidate index is disabled, suggestions will be served from the database");
+            return;
+        }
+
+        log.info("Building candidate index");
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        index.clear();
+        matchingDao.streamUserProfiles(index::put);
+        ready = true;
+
+        log.info("Candidate index built with {} users in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Checks whether the index has been built and can answer queries
+     *
+     * @return true if the index is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds IDs of users matching the given gender and age range
+     *
+     * @param gender Preferred gender, null for any
+     * @param minAge Minimum age
+     * @param maxAge Maximum age
+     * @return Sorted array of candidate user IDs
+     */
+    public long[] findCandidates(User.Gender gender, Integer minAge, Integer maxAge) {
+        long[] candidates = index.query(gender, minAge, maxAge);
+        log.debug("Candidate index returned {} users for gender={}, age={}-{}", candidates.length, gender, minAge, maxAge);
+        return candidates;
+    }
+
+    /**
+     * Adds or updates a user in the index
+     *
+     * @param user Saved user entity
+     */
+    public void indexUser(User user) {
+        if (!enabled || user.getId() == null) {
+            return;
+        }
+        index.put(user.getId(), user.getGender(), user.getAge());
+        log.debug("Indexed user {} as {} aged {}", user.getId(), user.getGender(), user.getAge());
+    }
+
+    /**
+     * Removes a user from the index
+     *
+     * @param userId User ID
+     */
+    public void removeUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        if (index.remove(userId)) {
+            log.debug("Removed user {} from candidate index", userId);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package me.iru.datingapp.service;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dto.ChatEventDto;
+import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.Message;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.event.ChatPushEvent;
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.repository.MatchRepository;
+import me.iru.datingapp.repository.MessageRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Real-time chat over WebSocket.
+ * A message is stored through the message service and pushed as a chat event to the user queues of both
+ * participants once the transaction commits, so connected clients append it without reloading the conversation.
+ * Read receipts are pushed the same way. Pushes only reach clients connected to this instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatService {
+
+    public static final String USER_DESTINATION = "/queue/chat";
+
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+    private static final int MAX_CONTENT_LENGTH = 5000;
+
+    private final MessageService messageService;
+    private final MessageRepository messageRepository;
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Sends a message from the authenticated user to the other participant of the match
+     *
+     * @param senderEmail Email of the authenticated sender
+     * @param matchId     Match ID
+     * @param content     Message content
+     * @return Saved MessageDto
+     * @throws ResourceNotFoundException if the sender or match isn't found or the sender isn't part of the match
+     * @throws IllegalArgumentException  if the content is blank or too long
+     */
+    @Transactional
+    public MessageDto sendMessage(String senderEmail, Long matchId, String content) {
+        if (content == null || content.isBlank() || content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Message content must be between 1 and " + MAX_CONTENT_LENGTH + " characters");
+        }
+
+        User sender = findUser(senderEmail);
+        Match match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Match not found with ID: " + matchId));
+        User receiver = match.getUser1().getId().equals(sender.getId()) ? match.getUser2() : match.getUser1();
+
+        MessageDto messageDto = new MessageDto();
+        messageDto.setMatchId(matchId);
+        messageDto.setSenderId(sender.getId());
+        messageDto.setReceiverId(receiver.getId());
+        messageDto.setContent(content);
+
+        MessageDto savedMessage = messageService.sendMessage(messageDto);
+        String receiverEmail = receiver.getEmail();
+
+        ChatEventDto event = new ChatEventDto(ChatEventDto.Type.MESSAGE, matchId, savedMessage, savedMessage.getId(), null);
+        eventPublisher.publishEvent(new ChatPushEvent(List.of(senderEmail, receiverEmail), event));
+        return savedMessage;
+    }
+
+    /**
+     * Marks a received message and the earlier ones as read and sends a read receipt to both participants;
+     * no receipt is sent if the message was already read
+     *
+     * @param readerEmail Email of the authenticated receiver
+     * @param matchId     Match ID
+     * @param messageId   Message ID
+     * @throws ResourceNotFoundException if the message isn't found or wasn't received by the reader in the match
+     */
+    @Transactional
+    public void markAsRead(String readerEmail, Long matchId, Long messageId) {
+        User reader = findUser(readerEmail);
+        Message message = messageRepository.findById(messageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Message not found with ID: " + messageId));
+        if (!message.getMatch().getId().equals(matchId)) {
+            throw new ResourceNotFoundException("Message not found or access denied");
+        }
+        if (!messageService.markAsRead(messageId, reader.getId())) {
+            return;
+        }
+        String senderEmail = message.getSender().getEmail();
+
+        ChatEventDto event = new ChatEventDto(ChatEventDto.Type.READ, matchId, null, messageId, null);
+        eventPublisher.publishEvent(new ChatPushEvent(List.of(senderEmail, readerEmail), event));
+    }
+
+    private User findUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    /**
+     * Pushes a chat event once the surrounding transaction has committed, or right away outside of one;
+     * a failed push is only logged, the message is already stored
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChatPush(ChatPushEvent pushEvent) {
+        ChatEventDto event = pushEvent.payload();
+        for (String email : pushEvent.recipientEmails()) {
+            try {
+                messagingTemplate.convertAndSendToUser(email, USER_DESTINATION, event);
+            } catch (MessagingException e) {
+                log.warn("Failed to push {} event of match {} to {}", event.getType(), event.getMatchId(), email, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.CoLikeMatrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scores candidates by their co-like similarity to the users the viewer liked
+ */
+@Service
+public class CoLikeScoringService implements SuggestionScorer {
+
+    private final CoLikeService coLikeService;
+    private final double weight;
+
+    public CoLikeScoringService(CoLikeService coLikeService,
+                                @Value("${app.matching.scoring.co-like.weight:0.4}") double weight) {
+        this.coLikeService = coLikeService;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "co-like";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        CoLikeMatrix.Similar similar = coLikeService.similarTo(viewerId);
+        if (similar.isEmpty()) {
+            return null;
+        }
+        return (ids, from, to, scores) -> {
+            for (int i = from; i < to; i++) {
+                scores[i - from] = similar.scoreOf(ids[i]);
+            }
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PreDestroy;
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.matching.CoLikeMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline co-like matrix answering "people similar to those you liked".
+ * The matrix is built from the whole ratings table once the application has started, then brought up to date
+ * on a fixed delay with the likes above its rating ID watermark. Each refresh also re-reads the configured number
+ * of rating IDs below the watermark, so a like whose transaction committed after a higher ID was applied is still
+ * picked up; rating IDs already applied in that window are remembered and skipped. A full rebuild on the configured
+ * interval drops likes removed since, together with their deleted raters and users.
+ */
+@Service
+public class CoLikeService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoLikeService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final int topK;
+    private final int maxRaterLikes;
+    private final int maxLikedConsidered;
+    private final int fetchSize;
+    private final long rescanIds;
+    private final long fullRebuildMillis;
+    private final ForkJoinPool forkJoinPool;
+    private final Object buildLock = new Object();
+
+    private volatile CoLikeMatrix matrix;
+    private volatile long builtAt;
+
+    /**
+     * Rating IDs applied within the re-scanned window below the watermark, guarded by the build lock
+     */
+    private NavigableSet<Long> recentRatingIds = new TreeSet<>();
+
+    public CoLikeService(MatchingDao matchingDao,
+                         @Value("${app.matching.co-like.enabled:true}") boolean enabled,
+                         @Value("${app.matching.co-like.top-k:50}") int topK,
+                         @Value("${app.matching.co-like.max-rater-likes:500}") int maxRaterLikes,
+                         @Value("${app.matching.co-like.max-liked-considered:100}") int maxLikedConsidered,
+                         @Value("${app.matching.co-like.fetch-size:10000}") int fetchSize,
+                         @Value("${app.matching.co-like.rescan-ids:1000}") long rescanIds,
+                         @Value("${app.matching.co-like.full-rebuild-hours:24}") long fullRebuildHours,
+                         @Value("${app.matching.co-like.parallelism:0}") int parallelism) {
+        if (topK <= 0 || maxRaterLikes <= 0 || maxLikedConsidered <= 0 || fetchSize <= 0) {
+            throw new IllegalArgumentException("Co-like top-k, rater likes, liked users and fetch size must be positive");
+        }
+        if (rescanIds < 0) {
+            throw new IllegalArgumentException("Co-like re-scanned rating IDs must not be negative");
+        }
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+        this.topK = topK;
+        this.maxRaterLikes = maxRaterLikes;
+        this.maxLikedConsidered = maxLikedConsidered;
+        this.fetchSize = fetchSize;
+        this.rescanIds = rescanIds;
+        this.fullRebuildMillis = TimeUnit.HOURS.toMillis(fullRebuildHours);
+        this.forkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdownNow();
+    }
+
+    /**
+     * Builds the matrix from every like, counting co-likes on all cores
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Co-like matrix is disabled, suggestions get no similar-to-liked candidates");
+            return;
+        }
+
+        synchronized (buildLock) {
+            log.info("Building co-like matrix");
+            long start = System.currentTimeMillis();
+
+            CoLikeMatrix built = new CoLikeMatrix(topK, maxRaterLikes);
+            AtomicLong lastRatingId = new AtomicLong();
+            NavigableSet<Long> recent = new TreeSet<>();
+            matchingDao.streamLikesAfter(0L, fetchSize, (ratingId, raterId, ratedUserId) -> {
+                built.load(raterId, ratedUserId);
+                lastRatingId.set(ratingId);
+                recent.add(ratingId);
+                forgetBelowWindow(recent, ratingId);
+            });
+            built.computeAll(forkJoinPool, forkJoinPool.getParallelism());
+            built.advanceWatermark(lastRatingId.get());
+
+            recentRatingIds = recent;
+            matrix = built;
+            builtAt = start;
+
+            log.info("Co-like matrix built with {} likes of {} users up to rating {} in {} ms",
+                    built.likeCount(), built.itemCount(), lastRatingId.get(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Applies the likes saved since the last run, or rebuilds the matrix once it is older than the rebuild interval
+     */
+    @Scheduled(fixedDelayString = "${app.matching.co-like.refresh-seconds:60}",
+            initialDelayString = "${app.matching.co-like.refresh-seconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        CoLikeMatrix current = matrix;
+        if (!enabled || current == null) {
+            return;
+        }
+        if (System.currentTimeMillis() - builtAt > fullRebuildMillis) {
+            rebuild();
+            return;
+        }
+
+        synchronized (buildLock) {
+            long start = System.currentTimeMillis();
+            long watermark = current.watermark();
+            AtomicLong lastRatingId = new AtomicLong(watermark);
+            AtomicLong applied = new AtomicLong();
+            NavigableSet<Long> recent = recentRatingIds;
+
+            long from = Math.max(0L, watermark - rescanIds);
+            matchingDao.streamLikesAfter(from, fetchSize, (ratingId, raterId, ratedUserId) -> {
+                if (recent.add(ratingId) && current.addLike(raterId, ratedUserId)) {
+                    applied.incrementAndGet();
+                }
+                lastRatingId.accumulateAndGet(ratingId, Math::max);
+            });
+            current.advanceWatermark(lastRatingId.get());
+            forgetBelowWindow(recent, current.watermark());
+            int refreshed = current.refreshNeighbours(forkJoinPool);
+
+            if (applied.get() > 0) {
+                log.debug("Applied {} new likes to the co-like matrix, refreshed {} neighbour lists in {} ms",
+                        applied.get(), refreshed, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return matrix != null;
+    }
+
+    /**
+     * Drops the rating IDs that the next refresh will not re-read any more
+     */
+    private void forgetBelowWindow(NavigableSet<Long> recent, long watermark) {
+        while (!recent.isEmpty() && recent.first() <= watermark - rescanIds) {
+            recent.pollFirst();
+        }
+    }
+
+    /**
+     * Users similar to those the viewer liked most recently
+     *
+     * @param viewerId ID of the viewing user
+     * @return Similar users with scores between 0 and 1, empty while the matrix is not built
+     */
+    public CoLikeMatrix.Similar similarTo(long viewerId) {
+        CoLikeMatrix current = matrix;
+        if (current == null) {
+            return CoLikeMatrix.Similar.EMPTY;
+        }
+        return current.similarTo(viewerId, maxLikedConsidered);
+    }
+
+    /**
+     * Moves candidates similar to those the viewer liked to the front, so they enter the scoring pool.
+     * Both groups keep their order; the candidates are returned unchanged when the viewer has no similar users.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Candidates with similar users first
+     */
+    public long[] promoteSimilar(long viewerId, long[] candidateIds) {
+        CoLikeMatrix.Similar similar = similarTo(viewerId);
+        if (similar.isEmpty()) {
+            return candidateIds;
+        }
+
+        long[] promoted = new long[candidateIds.length];
+        int front = 0;
+        for (long candidateId : candidateIds) {
+            if (similar.scoreOf(candidateId) > 0) {
+                promoted[front++] = candidateId;
+            }
+        }
+        if (front == 0) {
+            return candidateIds;
+        }
+        int back = front;
+        for (long candidateId : candidateIds) {
+            if (similar.scoreOf(candidateId) <= 0) {
+                promoted[back++] = candidateId;
+            }
+        }
+
+        log.debug("Promoted {} of {} candidates similar to users liked by user {}", front, candidateIds.length, viewerId);
+        return promoted;
+    }
+}
@@ -0,0 +1,125 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.SegmentTopLists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves users with few ratings from precomputed top candidates per gender, age band and city.
+ * The lists are computed in the background from the likes every user received and how recently they were active,
+ * so a burst of fresh registrations reads shared immutable arrays instead of each running the full ranking.
+ */
+@Service
+public class ColdStartService {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStartService.class);
+
+    private final MatchingDao matchingDao;
+    private final RatedUserCacheService ratedUserCacheService;
+    private final PreferenceIndexService preferenceIndexService;
+    private final GeoIndexService geoIndexService;
+    private final ImpressionService impressionService;
+    private final boolean enabled;
+    private final int maxRatings;
+    private final int listSize;
+    private final int ageBandYears;
+    private final double halfLifeMillis;
+
+    private volatile SegmentTopLists lists;
+
+    public ColdStartService(MatchingDao matchingDao,
+                            RatedUserCacheService ratedUserCacheService,
+                            PreferenceIndexService preferenceIndexService,
+                            GeoIndexService geoIndexService,
+                            ImpressionService impressionService,
+                            @Value("${app.matching.cold-start.enabled:true}") boolean enabled,
+                            @Value("${app.matching.cold-start.max-ratings:10}") int maxRatings,
+                            @Value("${app.matching.cold-start.list-size:200}") int listSize,
+                            @Value("${app.matching.cold-start.age-band-years:5}") int ageBandYears,
+                            @Value("${app.matching.cold-start.activity-half-life-days:7}") double activityHalfLifeDays) {
+        if (listSize <= 0 || ageBandYears <= 0 || activityHalfLifeDays <= 0) {
+            throw new IllegalArgumentException("Cold start list size, age band and activity half-life must be positive");
+        }
+        this.matchingDao = matchingDao;
+        this.ratedUserCacheService = ratedUserCacheService;
+        this.preferenceIndexService = preferenceIndexService;
+        this.geoIndexService = geoIndexService;
+        this.impressionService = impressionService;
+        this.enabled = enabled;
+        this.maxRatings = maxRatings;
+        this.listSize = listSize;
+        this.ageBandYears = ageBandYears;
+        this.halfLifeMillis = TimeUnit.DAYS.toMillis(1) * activityHalfLifeDays;
+    }
+
+    /**
+     * Recomputes the segment lists once the application has started and then on a fixed delay.
+     * Candidates score one more than the likes they received, halved for every half-life since they were last active.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.matching.cold-start.refresh-minutes:15}",
+            initialDelayString = "${app.matching.cold-start.refresh-minutes:15}",
+            timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Cold start lists are disabled");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        SegmentTopLists.Builder builder = SegmentTopLists.builder(ageBandYears, listSize);
+        matchingDao.streamUserPopularity((userId, gender, age, city, activeAtMillis, likesReceived) -> {
+            double decay = Math.pow(0.5, Math.max(0, start - activeAtMillis) / halfLifeMillis);
+            builder.add(userId, gender, age, city, (1.0 + likesReceived) * decay);
+        });
+        SegmentTopLists built = builder.build();
+        lists = built;
+
+        log.info("Cold start lists built for {} segments in {} ms", built.segmentCount(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return lists != null;
+    }
+
+    /**
+     * Precomputed suggestions of a user who has rated at most the configured number of users.
+     * The user's own profile, rated profiles, profiles whose own preferences exclude the user and profiles beyond
+     * the user's maximum distance are removed, and profiles the user was already shown are moved back.
+     *
+     * @param user        Current user
+     * @param preferences Search preferences of the user
+     * @return Candidate IDs best first, or null if the user is not new or the lists are not built
+     */
+    public long[] suggest(User user, SearchPreference preferences) {
+        SegmentTopLists current = lists;
+        if (!enabled || current == null || ratedUserCacheService.countRated(user.getId()) > maxRatings) {
+            return null;
+        }
+
+        long userId = user.getId();
+        int minAge = preferences.getMinAge() != null ? preferences.getMinAge() : SearchPreference.MIN_AGE;
+        int maxAge = preferences.getMaxAge() != null ? preferences.getMaxAge() : SearchPreference.DEFAULT_MAX_AGE;
+
+        long[] top = current.topFor(preferences.getPreferredGender(), minAge, maxAge, user.getCity(), listSize);
+        long[] others = Arrays.stream(top).filter(id -> id != userId).toArray();
+        long[] unrated = ratedUserCacheService.filterUnrated(userId, others);
+        long[] mutual = preferenceIndexService.filterMutual(userId, unrated);
+        long[] eligible = geoIndexService.filterByDistance(userId, mutual, preferences.getMaxDistance());
+
+        log.debug("Serving {} cold start suggestions to user {}", eligible.length, userId);
+        return impressionService.demoteShown(userId, eligible);
+    }
+}
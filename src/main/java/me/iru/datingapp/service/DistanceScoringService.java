@@ -0,0 +1,52 @@
+package me.iru.datingapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scores candidates by how close they are to the viewer.
+ * A candidate at the configured scale distance scores 0.5; candidates without a location score 0.
+ */
+@Service
+public class DistanceScoringService implements SuggestionScorer {
+
+    private final GeoIndexService geoIndexService;
+    private final double weight;
+    private final double scaleKm;
+
+    public DistanceScoringService(GeoIndexService geoIndexService,
+                                  @Value("${app.matching.scoring.distance.weight:0.3}") double weight,
+                                  @Value("${app.matching.scoring.distance.scale-km:25}") double scaleKm) {
+        if (scaleKm <= 0) {
+            throw new IllegalArgumentException("Distance scale must be positive: " + scaleKm);
+        }
+        this.geoIndexService = geoIndexService;
+        this.weight = weight;
+        this.scaleKm = scaleKm;
+    }
+
+    @Override
+    public String getName() {
+        return "distance";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        double[] location = geoIndexService.locationOf(viewerId);
+        if (location == null) {
+            return null;
+        }
+        return (ids, from, to, scores) -> {
+            geoIndexService.distancesKm(location[0], location[1], ids, from, to, scores);
+            for (int i = 0; i < to - from; i++) {
+                double km = scores[i];
+                scores[i] = Double.isNaN(km) ? 0 : 1 / (1 + km / scaleKm);
+            }
+        };
+    }
+}
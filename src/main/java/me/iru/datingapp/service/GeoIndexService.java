@@ -0,0 +1,131 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.GeoIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class GeoIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIndexService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final boolean includeUnlocated;
+    private final GeoIndex index = new GeoIndex();
+
+    private volatile boolean ready;
+
+    public GeoIndexService(MatchingDao matchingDao,
+                           @Value("${app.matching.geo.enabled:true}") boolean enabled,
+                           @Value("${app.matching.geo.include-unlocated:true}") boolean includeUnlocated) {
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+        this.includeUnlocated = includeUnlocated;
+    }
+
+    /**
+     * Loads the location of every user that has one once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Geo index is disabled, max distance preferences are ignored");
+            return;
+        }
+
+        log.info("Building geo index");
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        index.clear();
+        matchingDao.streamUserLocations(index::put);
+        ready = true;
+
+        log.info("Geo index built with {} located users in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Keeps the candidates within the viewer's maximum distance.
+     * Returns the candidates unchanged when the index is not ready, no distance is set
+     * or the viewer has no location.
+     *
+     * @param viewerId      ID of the viewing user
+     * @param candidateIds  Candidate user IDs
+     * @param maxDistanceKm Maximum distance in kilometres, null for no limit
+     * @return Candidates within the distance, in their original order
+     */
+    public long[] filterByDistance(long viewerId, long[] candidateIds, Integer maxDistanceKm) {
+        if (!ready || maxDistanceKm == null) {
+            return candidateIds;
+        }
+
+        double[] location = index.locationOf(viewerId);
+        if (location == null) {
+            return candidateIds;
+        }
+
+        long[] nearby = index.filterWithin(candidateIds, location[0], location[1], maxDistanceKm, includeUnlocated);
+        log.debug("{} of {} candidates within {} km of user {}", nearby.length, candidateIds.length, maxDistanceKm, viewerId);
+        return nearby;
+    }
+
+    /**
+     * Location of a user
+     *
+     * @param userId User ID
+     * @return Latitude and longitude, or null if the index is not ready or the user has no location
+     */
+    public double[] locationOf(long userId) {
+        return ready ? index.locationOf(userId) : null;
+    }
+
+    /**
+     * Computes the distance from a point to a range of users
+     *
+     * @param latitude    Latitude of the point
+     * @param longitude   Longitude of the point
+     * @param userIds     User IDs
+     * @param from        First index, inclusive
+     * @param to          Last index, exclusive
+     * @param distancesKm Receives the distance to {@code userIds[i]} at {@code distancesKm[i - from]},
+     *                    or NaN if the user has no location
+     */
+    public void distancesKm(double latitude, double longitude, long[] userIds, int from, int to, double[] distancesKm) {
+        index.distancesKm(latitude, longitude, userIds, from, to, distancesKm);
+    }
+
+    /**
+     * Adds, moves or removes a user depending on the saved coordinates
+     *
+     * @param user Saved user entity
+     */
+    public void indexUser(User user) {
+        if (!enabled || user.getId() == null) {
+            return;
+        }
+        if (user.getLatitude() == null || user.getLongitude() == null) {
+            index.remove(user.getId());
+            return;
+        }
+        index.put(user.getId(), user.getLatitude(), user.getLongitude());
+        log.debug("Indexed location of user {}", user.getId());
+    }
+
+    public void removeUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        index.remove(userId);
+    }
+}
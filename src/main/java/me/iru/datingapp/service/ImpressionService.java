@@ -0,0 +1,244 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PreDestroy;
+import me.iru.datingapp.entity.UserImpressions;
+import me.iru.datingapp.matching.ImpressionLog;
+import me.iru.datingapp.matching.TimestampIndex;
+import me.iru.datingapp.repository.UserImpressionsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Remembers the profiles shown to each user so that candidates skipped without a rating are demoted
+ * instead of coming back on every page load.
+ * Logs are loaded on first use and kept in a bounded LRU; changed logs are written in their binary form
+ * on a fixed delay, so a page view costs no database write.
+ */
+@Service
+public class ImpressionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImpressionService.class);
+
+    private final UserImpressionsRepository userImpressionsRepository;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxUsers;
+    private final int minAgeMinutes;
+    private final double halfLifeMinutes;
+    private final int demotionPositions;
+
+    /**
+     * Access-ordered, so iteration starts at the least recently used log
+     */
+    private final LinkedHashMap<Long, ImpressionLog> logs = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, ImpressionLog> dirty = new HashMap<>();
+    private final Object flushLock = new Object();
+
+    public ImpressionService(UserImpressionsRepository userImpressionsRepository,
+                             @Value("${app.matching.impressions.enabled:true}") boolean enabled,
+                             @Value("${app.matching.impressions.capacity:256}") int capacity,
+                             @Value("${app.matching.impressions.max-users:10000}") int maxUsers,
+                             @Value("${app.matching.impressions.min-age-minutes:10}") int minAgeMinutes,
+                             @Value("${app.matching.impressions.half-life-hours:24}") double halfLifeHours,
+                             @Value("${app.matching.impressions.demotion-positions:50}") int demotionPositions) {
+        if (capacity <= 0 || maxUsers <= 0 || halfLifeHours <= 0) {
+            throw new IllegalArgumentException("Impression log capacity, user count and half-life must be positive");
+        }
+        this.userImpressionsRepository = userImpressionsRepository;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxUsers = maxUsers;
+        this.minAgeMinutes = minAgeMinutes;
+        this.halfLifeMinutes = halfLifeHours * 60;
+        this.demotionPositions = demotionPositions;
+    }
+
+    /**
+     * Records the profiles shown to a user
+     *
+     * @param userId   ID of the viewing user
+     * @param shownIds IDs of the shown profiles
+     */
+    public void recordShown(long userId, long[] shownIds) {
+        if (!enabled || shownIds.length == 0) {
+            return;
+        }
+
+        int now = TimestampIndex.toMinute(System.currentTimeMillis());
+        ImpressionLog impressions = logFor(userId);
+        synchronized (impressions) {
+            for (long shownId : shownIds) {
+                impressions.record(shownId, now);
+            }
+        }
+        synchronized (logs) {
+            dirty.put(userId, impressions);
+        }
+    }
+
+    /**
+     * Moves candidates the user was already shown back in a ranked list.
+     * Each candidate moves back by the configured number of positions per impression, impressions halving
+     * every half-life; impressions younger than the minimum age are ignored so that paging through a list
+     * right after it was shown stays stable.
+     *
+     * @param userId       ID of the viewing user
+     * @param candidateIds Ranked candidate IDs
+     * @return Candidates in demoted order, or the same array if none was shown before
+     */
+    public long[] demoteShown(long userId, long[] candidateIds) {
+        if (!enabled || candidateIds.length == 0) {
+            return candidateIds;
+        }
+
+        int now = TimestampIndex.toMinute(System.currentTimeMillis());
+        ImpressionLog impressions = logFor(userId);
+        double[] positions = new double[candidateIds.length];
+        int demoted = 0;
+        synchronized (impressions) {
+            for (int i = 0; i < candidateIds.length; i++) {
+                double weight = impressions.weightOf(candidateIds[i], now, minAgeMinutes, halfLifeMinutes);
+                positions[i] = i + weight * demotionPositions;
+                if (weight > 0) {
+                    demoted++;
+                }
+            }
+        }
+        if (demoted == 0) {
+            return candidateIds;
+        }
+
+        log.debug("Demoted {} of {} candidates already shown to user {}", demoted, candidateIds.length, userId);
+        return IntStream.range(0, candidateIds.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> positions[i]))
+                .mapToLong(i -> candidateIds[i])
+                .toArray();
+    }
+
+    /**
+     * Writes the logs changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${app.matching.impressions.flush-seconds:30}",
+            initialDelayString = "${app.matching.impressions.flush-seconds:30}",
+            timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            Map<Long, ImpressionLog> changed;
+            synchronized (logs) {
+                if (dirty.isEmpty()) {
+                    return;
+                }
+                changed = new HashMap<>(dirty);
+                dirty.clear();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<UserImpressions> rows = new ArrayList<>(changed.size());
+            changed.forEach((userId, impressions) -> {
+                synchronized (impressions) {
+                    rows.add(new UserImpressions(userId, impressions.toBytes(), now));
+                }
+            });
+
+            try {
+                userImpressionsRepository.saveAll(rows);
+                log.debug("Wrote impression logs of {} users", rows.size());
+            } catch (DataAccessException e) {
+                log.warn("Failed to write impression logs of {} users, retrying on next flush", rows.size(), e);
+                synchronized (logs) {
+                    changed.forEach(dirty::putIfAbsent);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public void removeUser(Long userId) {
+        synchronized (logs) {
+            logs.remove(userId);
+            dirty.remove(userId);
+        }
+        userImpressionsRepository.deleteById(userId);
+    }
+
+    public int getCachedUserCount() {
+        synchronized (logs) {
+            return logs.size();
+        }
+    }
+
+    private ImpressionLog logFor(long userId) {
+        synchronized (logs) {
+            ImpressionLog cached = logs.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            ImpressionLog pending = dirty.get(userId);
+            if (pending != null) {
+                logs.put(userId, pending);
+                evictOverflow();
+                return pending;
+            }
+        }
+
+        ImpressionLog loaded = load(userId);
+
+        synchronized (logs) {
+            ImpressionLog raced = logs.get(userId);
+            if (raced != null) {
+                return raced;
+            }
+            logs.put(userId, loaded);
+            evictOverflow();
+            return loaded;
+        }
+    }
+
+    private ImpressionLog load(long userId) {
+        return userImpressionsRepository.findById(userId)
+                .map(row -> {
+                    try {
+                        return ImpressionLog.fromBytes(row.getData(), capacity);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Discarding unreadable impression log of user {}", userId);
+                        return new ImpressionLog(capacity);
+                    }
+                })
+                .orElseGet(() -> new ImpressionLog(capacity));
+    }
+
+    /**
+     * Drops least recently used logs beyond the user bound; logs not yet written stay pending for the next flush
+     */
+    private void evictOverflow() {
+        Iterator<Long> eldest = logs.keySet().iterator();
+        while (logs.size() > maxUsers && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.matching.InboundLikeIndex;
+import me.iru.datingapp.matching.PriorityLane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InboundLikeService {
+
+    private static final Logger log = LoggerFactory.getLogger(InboundLikeService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final double ratio;
+    private final InboundLikeIndex index = new InboundLikeIndex();
+
+    private volatile boolean ready;
+
+    public InboundLikeService(MatchingDao matchingDao,
+                              @Value("${app.matching.inbound-likes.enabled:true}") boolean enabled,
+                              @Value("${app.matching.inbound-likes.ratio:0.25}") double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("Inbound like ratio must be between 0 and 1: " + ratio);
+        }
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+        this.ratio = ratio;
+    }
+
+    /**
+     * Loads every received like once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Inbound like index is disabled, suggestions get no priority lane");
+            return;
+        }
+
+        log.info("Building inbound like index");
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        index.clear();
+        matchingDao.streamLikes((raterId, ratedUserId) -> index.add(ratedUserId, raterId));
+        ready = true;
+
+        log.info("Inbound like index built with {} likes for {} users in {} ms",
+                index.likeCount(), index.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Users who already liked a user
+     *
+     * @param userId User ID
+     * @return Sorted IDs of the users who liked the user, empty while the index is not ready
+     */
+    public long[] likersOf(long userId) {
+        if (!ready) {
+            return new long[0];
+        }
+        return index.likersOf(userId).clone();
+    }
+
+    /**
+     * Moves candidates who already liked the viewer forward, giving them the configured share of slots.
+     * Returns the candidates unchanged while the index is not ready.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidates in ranked order
+     * @return Candidates with the inbound likes interleaved
+     */
+    public long[] prioritizeLikers(long viewerId, long[] candidateIds) {
+        if (!ready || ratio == 0) {
+            return candidateIds;
+        }
+        long[] likers = index.likersOf(viewerId);
+        if (likers.length == 0) {
+            return candidateIds;
+        }
+        log.debug("User {} has {} inbound likes to interleave", viewerId, likers.length);
+        return PriorityLane.interleave(candidateIds, likers, ratio);
+    }
+
+    public void recordLike(Long raterId, Long likedUserId) {
+        if (!enabled) {
+            return;
+        }
+        index.add(likedUserId, raterId);
+        log.debug("Recorded like from user {} to user {}", raterId, likedUserId);
+    }
+
+    public void removeLike(Long raterId, Long likedUserId) {
+        if (!enabled) {
+            return;
+        }
+        index.remove(likedUserId, raterId);
+    }
+
+    /**
+     * Drops the likes a deleted user received.
+     * Likes the user gave stay in other users' lists; they are harmless because deleted users are no longer
+     * candidates, and they disappear at the next rebuild.
+     *
+     * @param userId User ID
+     */
+    public void removeUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        index.removeUser(userId);
+    }
+}
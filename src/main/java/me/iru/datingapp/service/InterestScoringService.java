@@ -0,0 +1,38 @@
+package me.iru.datingapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scores candidates by the Jaccard similarity of their interests to the viewer's
+ */
+@Service
+public class InterestScoringService implements SuggestionScorer {
+
+    private final InterestVectorService interestVectorService;
+    private final double weight;
+
+    public InterestScoringService(InterestVectorService interestVectorService,
+                                  @Value("${app.matching.scoring.interest.weight:1.0}") double weight) {
+        this.interestVectorService = interestVectorService;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "interest";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        if (!interestVectorService.isReady()) {
+            return null;
+        }
+        return (ids, from, to, scores) -> interestVectorService.similarities(viewerId, ids, from, to, scores);
+    }
+}
@@ -25,6 +25,7 @@ public class InterestService {
     private final InterestRepository interestRepository;
     private final UserInterestRepository userInterestRepository;
     private final UserRepository userRepository;
+    private final InterestVectorService interestVectorService;
 
     /**
      * Gets all available interests, sorted by name
@@ -105,6 +106,7 @@ public class InterestService {
         userInterest.setUser(user);
         userInterest.setInterest(interest);
         userInterestRepository.save(userInterest);
+        interestVectorService.addInterest(userId, interestId);
 
         log.info("Successfully added interest {} to user {}", interestId, userId);
     }
@@ -135,6 +137,7 @@ public class InterestService {
         }
 
         userInterestRepository.deleteByUserIdAndInterestId(userId, interestId);
+        interestVectorService.removeInterest(userId, interestId);
         log.info("Successfully removed interest {} from user {}", interestId, userId);
     }
 
@@ -154,6 +157,7 @@ public class InterestService {
 
         List<UserInterest> userInterests = userInterestRepository.findByUserId(userId);
         userInterestRepository.deleteAll(userInterests);
+        interestVectorService.replaceInterests(userId, List.of());
 
         log.info("Successfully removed {} interests from user {}", userInterests.size(), userId);
     }
@@ -240,6 +244,7 @@ public class InterestService {
                 });
 
         interestRepository.delete(interest);
+        interestVectorService.removeInterestFromAll(id);
         log.info("Successfully deleted interest with ID: {}", id);
     }
 }
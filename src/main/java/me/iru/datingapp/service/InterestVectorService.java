@@ -0,0 +1,144 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.matching.InterestIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+@Service
+public class InterestVectorService {
+
+    private static final Logger log = LoggerFactory.getLogger(InterestVectorService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final InterestIndex index = new InterestIndex();
+
+    private volatile boolean ready;
+
+    public InterestVectorService(MatchingDao matchingDao,
+                                 @Value("${app.matching.interest-ranking.enabled:true}") boolean enabled) {
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads the interests of every user once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Interest ranking is disabled, suggestions keep their candidate order");
+            return;
+        }
+
+        log.info("Building interest index");
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        index.clear();
+        matchingDao.streamUserInterests(index::add);
+        ready = true;
+
+        log.info("Interest index built for {} users in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Orders candidates by shared interests with the viewer, most similar first.
+     * Returns the candidates unchanged while the index is not ready.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Candidates in ranked order
+     */
+    public long[] rankByInterests(long viewerId, long[] candidateIds) {
+        if (!ready) {
+            return candidateIds;
+        }
+        return index.rank(viewerId, candidateIds);
+    }
+
+    /**
+     * Computes the Jaccard similarity of a range of candidates to the viewer
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @param from         First index, inclusive
+     * @param to           Last index, exclusive
+     * @param similarities Receives the similarity of {@code candidateIds[i]} at {@code similarities[i - from]}
+     */
+    public void similarities(long viewerId, long[] candidateIds, int from, int to, double[] similarities) {
+        index.similarities(viewerId, candidateIds, from, to, similarities);
+    }
+
+    /**
+     * Counts the interests two users share
+     *
+     * @param userId      First user ID
+     * @param otherUserId Second user ID
+     * @return Number of shared interests
+     */
+    public int sharedInterests(long userId, long otherUserId) {
+        return index.overlap(userId, otherUserId);
+    }
+
+    public void addInterest(Long userId, Long interestId) {
+        if (!enabled) {
+            return;
+        }
+        index.add(userId, interestId);
+        log.debug("Added interest {} to vector of user {}", interestId, userId);
+    }
+
+    public void removeInterest(Long userId, Long interestId) {
+        if (!enabled) {
+            return;
+        }
+        index.remove(userId, interestId);
+        log.debug("Removed interest {} from vector of user {}", interestId, userId);
+    }
+
+    /**
+     * Replaces all interests of a user
+     *
+     * @param userId      User ID
+     * @param interestIds New interest IDs
+     */
+    public void replaceInterests(Long userId, Collection<Long> interestIds) {
+        if (!enabled) {
+            return;
+        }
+        index.set(userId, interestIds.stream().mapToLong(Long::longValue).toArray());
+        log.debug("Replaced interest vector of user {} with {} interests", userId, interestIds.size());
+    }
+
+    /**
+     * Clears a deleted interest from every user
+     *
+     * @param interestId Interest ID
+     */
+    public void removeInterestFromAll(Long interestId) {
+        if (!enabled) {
+            return;
+        }
+        index.removeInterest(interestId);
+        log.debug("Removed interest {} from all vectors", interestId);
+    }
+
+    public void removeUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        index.removeUser(userId);
+    }
+}
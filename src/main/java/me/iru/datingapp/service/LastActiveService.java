@@ -0,0 +1,123 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PreDestroy;
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.matching.ActivityBuffer;
+import me.iru.datingapp.matching.TimestampIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when users were last active.
+ * Authenticated requests only record the time in the striped in-memory activity buffer; the buffer is flushed on
+ * a fixed delay as one batched update, so the database sees at most one write per active user per flush interval.
+ * The last-active time of every user is also kept in memory for ranking suggestions.
+ */
+@Service
+public class LastActiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(LastActiveService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final ActivityBuffer buffer;
+    private final TimestampIndex lastActive = new TimestampIndex();
+    private final Object flushLock = new Object();
+
+    private volatile boolean ready;
+
+    public LastActiveService(MatchingDao matchingDao,
+                             ActivityBuffer buffer,
+                             @Value("${app.matching.activity.enabled:true}") boolean enabled) {
+        this.matchingDao = matchingDao;
+        this.buffer = buffer;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads the last-active time of every user once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Activity tracking is disabled");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        lastActive.clear();
+        matchingDao.streamUserLastActiveTimes(lastActive::put);
+        ready = true;
+
+        log.info("Last-active index built with {} users in {} ms", lastActive.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Writes the activity recorded since the last flush and refreshes the in-memory times of the written users.
+     * Activity that fails to be written is put back for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.matching.activity.flush-seconds:60}",
+            initialDelayString = "${app.matching.activity.flush-seconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            Map<String, Long> pending = buffer.drain();
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            int updated;
+            try {
+                updated = matchingDao.updateLastActive(pending);
+            } catch (DataAccessException e) {
+                log.warn("Failed to write activity of {} users, retrying on next flush", pending.size(), e);
+                buffer.restore(pending);
+                return;
+            }
+
+            matchingDao.streamUsersActiveSince(Collections.min(pending.values()), lastActive::put);
+
+            log.debug("Flushed activity of {} users, {} rows updated in {} ms",
+                    pending.size(), updated, System.currentTimeMillis() - start);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Copies the last-active minutes of a range of users into an array
+     *
+     * @see TimestampIndex#minutesOf(long[], int, int, int[])
+     */
+    public void lastActiveMinutesOf(long[] userIds, int from, int to, int[] minutes) {
+        lastActive.minutesOf(userIds, from, to, minutes);
+    }
+
+    public void removeUser(Long userId) {
+        lastActive.remove(userId);
+    }
+}
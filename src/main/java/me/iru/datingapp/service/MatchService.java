@@ -1,20 +1,32 @@
 package me.iru.datingapp.service;
 
 import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.MatchMapper;
+import me.iru.datingapp.matching.KeysetCursor;
 import me.iru.datingapp.repository.MatchRepository;
 import me.iru.datingapp.repository.MessageRepository;
+import me.iru.datingapp.repository.RatingRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,11 +35,18 @@ import java.util.stream.Collectors;
 public class MatchService {
 
     private static final Logger log = LoggerFactory.getLogger(MatchService.class);
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+    private static final String CURSOR_PREFIX = "inbox:";
+    private static final Comparator<Match> INBOX_ORDER =
+            Comparator.comparing(Match::getLastActivityAt).thenComparing(Match::getId).reversed();
 
     private final MatchRepository matchRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final MatchMapper matchMapper;
+    private final RatingRepository ratingRepository;
+    private final OutboxService outboxService;
+    private final MatchingDao matchingDao;
 
     /**
      * Gets all active matches for a user
@@ -54,6 +73,57 @@ public class MatchService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gets a page of a user's inbox: active matches by last activity, newest first, using keyset pagination
+     * on (last activity, ID). Each side of the pair is read as its own index range of at most one page plus one
+     * match and the two are merged, so no query sorts the user's matches. The last message and unread count of each
+     * conversation come from the summary kept on the match, however many messages the conversations hold.
+     *
+     * @param userId User ID
+     * @param before Cursor of the previous page, null or empty for the first page
+     * @param size   Maximum number of matches, capped at the maximum page size
+     * @return Page of matches with the cursor of the next page
+     * @throws ResourceNotFoundException if user not found
+     * @throws IllegalArgumentException  if the cursor is malformed or the size isn't positive
+     */
+    @Transactional(readOnly = true)
+    public InboxPageDto getInbox(Long userId, String before, int size) {
+        log.debug("Fetching inbox for user ID: {}, before: {}", userId, before);
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("Inbox page size must be positive");
+        }
+        KeysetCursor cursor = before == null || before.isBlank() ? null : decodeCursor(before);
+        int limit = Math.min(size, MAX_INBOX_PAGE_SIZE);
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    log.error("User not found with ID: {}", userId);
+                    return new ResourceNotFoundException("User not found with ID: " + userId);
+                });
+
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Match> fetched = new ArrayList<>(2 * (limit + 1));
+        if (cursor == null) {
+            fetched.addAll(matchRepository.findInboxAsUser1(userId, page));
+            fetched.addAll(matchRepository.findInboxAsUser2(userId, page));
+        } else {
+            fetched.addAll(matchRepository.findInboxAsUser1Before(userId, cursor.at(), cursor.id(), page));
+            fetched.addAll(matchRepository.findInboxAsUser2Before(userId, cursor.at(), cursor.id(), page));
+        }
+        fetched.sort(INBOX_ORDER);
+
+        boolean hasMore = fetched.size() > limit;
+        List<Match> matches = hasMore ? fetched.subList(0, limit) : fetched;
+        log.debug("Found {} inbox matches for user ID: {}", matches.size(), userId);
+
+        List<MatchDto> content = matches.stream()
+                .map(match -> matchMapper.toDto(match, user))
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(matches.getLast()) : null;
+        return new InboxPageDto(content, nextCursor, hasMore);
+    }
+
     /**
      * Gets all matches (active and inactive) for a user
      *
@@ -193,5 +263,52 @@ public class MatchService {
                             "No match found between user " + userId1 + " and user " + userId2);
                 });
     }
-}
 
+    /**
+     * Creates the matches of a user with the liked users who like them back, publishing a MATCH_CREATED
+     * event for each. Called by the outbox relay once the likes have committed, so of two users liking each
+     * other at the same time at least one sees the other's like. Runs in the relay's transaction, so the matches
+     * commit together with the removal of the events that created them. Matches are inserted only if absent under
+     * the canonical pair key, so a pair resolved twice still gets one match and one event.
+     *
+     * @param userId       ID of the user who gave the likes
+     * @param likedUserIds IDs of the users liked by the user
+     * @return ID of each created match by the ID of the other user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Long> createMutualMatches(Long userId, Collection<Long> likedUserIds) {
+        List<Long> likerIds = ratingRepository.findLikerIdsAmong(userId, likedUserIds);
+        if (likerIds.isEmpty()) {
+            log.debug("No mutual like yet between user {} and {} liked users", userId, likedUserIds.size());
+            return Map.of();
+        }
+
+        Map<Long, Long> created = new HashMap<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        for (Long likerId : likerIds) {
+            Long matchId = matchingDao.insertMatchIfAbsent(userId, likerId);
+            if (matchId == null) {
+                log.debug("Match already exists between user {} and user {}", userId, likerId);
+                continue;
+            }
+            log.info("User {} and User {} matched!", userId, likerId);
+            events.add(new OutboxEvent(OutboxEvent.EventType.MATCH_CREATED, userId, likerId, matchId, null));
+            created.put(likerId, matchId);
+        }
+        outboxService.publishAll(events);
+        return created;
+    }
+
+    private static String encodeCursor(Match match) {
+        return KeysetCursor.encode(CURSOR_PREFIX, match.getLastActivityAt(), match.getId());
+    }
+
+    private static KeysetCursor decodeCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(CURSOR_PREFIX, cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected malformed inbox cursor: {}", cursor);
+            throw new IllegalArgumentException("Invalid inbox cursor", e);
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package me.iru.datingapp.service;
 
 import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dto.SuggestionCountDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.SearchPreference;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.UserMapper;
-import me.iru.datingapp.repository.RatingRepository;
+import me.iru.datingapp.matching.SuggestionQueue;
 import me.iru.datingapp.repository.SearchPreferenceRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,13 +37,29 @@ public class MatchingService {
 
     private static final Logger log = LoggerFactory.getLogger(MatchingService.class);
 
+    private static final String CURSOR_PREFIX = "id:";
+    private static final int MAX_FEED_SIZE = 100;
+    private static final int MAX_FEED_ROUNDS = 4;
+    private static final int FEED_REFILL_BATCH = 200;
+
     private final UserRepository userRepository;
     private final SearchPreferenceRepository searchPreferenceRepository;
-    private final RatingRepository ratingRepository;
     private final UserMapper userMapper;
+    private final CandidateIndexService candidateIndexService;
+    private final SuggestionRankingService suggestionRankingService;
+    private final SuggestionQueueService suggestionQueueService;
+    private final SuggestionCountService suggestionCountService;
+    private final SuggestionCacheService suggestionCacheService;
+    private final ColdStartService coldStartService;
+    private final ImpressionService impressionService;
+    private final RatedUserCacheService ratedUserCacheService;
 
     /**
      * Gets suggested users based on search preferences and excludes already rated profiles
+     * and profiles whose own search preferences exclude the user.
+     * Users with few ratings are served from the precomputed cold start lists while the page starts within them.
+     * Other pages come from the user's cached ranking; the suggestion queue holds a prefix of that ranking,
+     * so paging across the end of the queue neither repeats nor skips profiles.
      *
      * @param userId   Current user ID
      * @param pageable Pagination parameters
@@ -43,75 +69,258 @@ public class MatchingService {
     public Page<UserProfileDto> getSuggestedUsers(Long userId, Pageable pageable) {
         log.info("Fetching suggested users for user ID: {}", userId);
 
-        User currentUser = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("User not found with ID: {}", userId);
-                    return new ResourceNotFoundException("User not found with ID: " + userId);
-                });
+        User currentUser = loadUser(userId);
+        SearchPreference preferences = loadPreferences(currentUser);
 
-        SearchPreference preferences = searchPreferenceRepository.findByUserId(userId)
-                .orElse(SearchPreference.defaultForUser(currentUser));
+        if (pageable.isPaged()) {
+            long[] coldStart = coldStartService.suggest(currentUser, preferences);
+            if (coldStart != null && pageable.getOffset() < coldStart.length) {
+                Page<UserProfileDto> page = loadPage(coldStart, pageable, coldStart.length);
+                log.info("Served {} suggested users for user ID: {} from cold start lists", page.getNumberOfElements(), userId);
+                recordShown(userId, page.getContent());
+                return page;
+            }
+        }
 
-        log.debug("Search preferences for user {}: gender={}, age={}-{}",
-                userId, preferences.getPreferredGender(), preferences.getMinAge(), preferences.getMaxAge());
+        if (!candidateIndexService.isReady()) {
+            log.debug("Candidate index not ready, querying database for user {}", userId);
+            Page<User> suggestedUsers = userRepository.findUnratedBySearchCriteria(
+                    userId,
+                    preferences.getPreferredGender(),
+                    preferences.getMinAge(),
+                    preferences.getMaxAge(),
+                    currentUser.getGender(),
+                    currentUser.getAge(),
+                    pageable
+            );
+            List<User> unrated = withoutRated(userId, suggestedUsers.getContent());
+            if (unrated.size() < suggestedUsers.getNumberOfElements()) {
+                long removed = suggestedUsers.getNumberOfElements() - unrated.size();
+                suggestedUsers = new PageImpl<>(unrated, suggestedUsers.getPageable(), suggestedUsers.getTotalElements() - removed);
+            }
 
-        List<Long> ratedUserIds = ratingRepository.findByRaterId(userId).stream()
-                .map(rating -> rating.getRatedUser().getId())
-                .toList();
+            log.info("Found {} suggested users for user ID: {}", suggestedUsers.getNumberOfElements(), userId);
+            Page<UserProfileDto> page = suggestedUsers.map(userMapper::toDto);
+            recordShown(userId, page.getContent());
+            return page;
+        }
 
-        log.debug("User {} has already rated {} profiles", userId, ratedUserIds.size());
+        if (pageable.isPaged()) {
+            int needed = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+            SuggestionQueue.Snapshot queued = suggestionQueueService.peek(userId, needed);
+            if (queued != null) {
+                Page<UserProfileDto> page = loadPage(queued.userIds(), pageable, queued.total());
+                log.info("Served {} suggested users for user ID: {} from queue", page.getNumberOfElements(), userId);
+                recordShown(userId, page.getContent());
+                return page;
+            }
+        }
 
-        Page<User> suggestedUsers = userRepository.findBySearchCriteria(
-                preferences.getPreferredGender(),
-                preferences.getMinAge(),
-                preferences.getMaxAge(),
-                null,
-                pageable
-        );
+        long[] eligible = suggestionCacheService.getRanked(userId,
+                () -> suggestionRankingService.rankCandidates(userId, preferences));
 
-        List<UserProfileDto> filteredUsers = suggestedUsers.stream()
-                .filter(user -> !user.getId().equals(userId))
-                .filter(user -> !ratedUserIds.contains(user.getId()))
-                .map(userMapper::toDto)
-                .collect(Collectors.toList());
+        Page<UserProfileDto> page = loadPage(eligible, pageable, eligible.length);
+        log.info("Found {} suggested users for user ID: {}", page.getNumberOfElements(), userId);
+        recordShown(userId, page.getContent());
+        return page;
+    }
+
+    /**
+     * Gets the next slice of suggested users using keyset pagination.
+     * Rated profiles, profiles whose own search preferences exclude the user and the user's own profile
+     * are excluded by the database, so every slice is full
+     * and the cost does not depend on how many profiles the user has already rated.
+     * Ratings compacted into the rating archive are filtered afterwards, fetching further rows to fill the slice
+     * for a bounded number of round trips; a slice still short after them is returned with a cursor that resumes
+     * after the last scanned profile, so the cost per call stays bounded however many ratings are archived.
+     *
+     * @param userId Current user ID
+     * @param cursor Opaque cursor returned by the previous call, null or empty for the first slice
+     * @param size   Maximum number of suggestions in the slice, capped at the maximum feed size
+     * @return Slice of suggested users with the cursor of the next slice
+     * @throws ResourceNotFoundException if user not found
+     * @throws IllegalArgumentException  if the cursor is malformed or the size isn't positive
+     */
+    public SuggestionFeedDto getSuggestionFeed(Long userId, String cursor, int size) {
+        log.info("Fetching suggestion feed for user ID: {}, cursor: {}", userId, cursor);
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("Suggestion feed size must be positive");
+        }
+        size = Math.min(size, MAX_FEED_SIZE);
+        long afterId = decodeCursor(cursor);
+        User currentUser = loadUser(userId);
+        SearchPreference preferences = loadPreferences(currentUser);
 
-        log.info("Found {} suggested users for user ID: {}", filteredUsers.size(), userId);
+        List<User> users = new ArrayList<>(size + 1);
+        boolean exhausted = false;
+        int batch = size + 1;
+        for (int round = 0; round < MAX_FEED_ROUNDS && users.size() <= size; round++) {
+            List<User> fetched = userRepository.findUnratedBySearchCriteriaAfter(
+                    userId,
+                    preferences.getPreferredGender(),
+                    preferences.getMinAge(),
+                    preferences.getMaxAge(),
+                    currentUser.getGender(),
+                    currentUser.getAge(),
+                    afterId,
+                    PageRequest.of(0, batch)
+            );
+            users.addAll(withoutRated(userId, fetched));
+            if (fetched.size() < batch) {
+                exhausted = true;
+                break;
+            }
+            afterId = fetched.getLast().getId();
+            batch = Math.max(batch, FEED_REFILL_BATCH);
+        }
 
-        return new PageImpl<>(filteredUsers, pageable, filteredUsers.size());
+        boolean full = users.size() > size;
+        List<User> slice = full ? users.subList(0, size) : users;
+        boolean hasNext = full || !exhausted;
+        // A short slice that ran out of rounds resumes after the last scanned row, not the last returned one
+        String nextCursor = full ? encodeCursor(slice.getLast().getId()) : hasNext ? encodeCursor(afterId) : null;
+
+        log.info("Found {} suggestions in feed for user ID: {}", slice.size(), userId);
+
+        List<UserProfileDto> content = slice.stream().map(userMapper::toDto).collect(Collectors.toList());
+        recordShown(userId, content);
+
+        return new SuggestionFeedDto(content, nextCursor, hasNext);
     }
 
     /**
-     * Gets count of available suggestions for a user
+     * Gets the exact count of available suggestions for a user
      *
      * @param userId User ID
      * @return Count of available profiles
+     * @throws ResourceNotFoundException if user not found
      */
     public long getAvailableSuggestionsCount(Long userId) {
         log.debug("Counting available suggestions for user ID: {}", userId);
 
-        User currentUser = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        User currentUser = loadUser(userId);
+        SearchPreference preferences = loadPreferences(currentUser);
 
-        SearchPreference preferences = searchPreferenceRepository.findByUserId(userId)
-                .orElse(SearchPreference.defaultForUser(currentUser));
+        long totalCount;
+        if (candidateIndexService.isReady()) {
+            totalCount = suggestionRankingService.countCandidates(userId, preferences);
+        } else {
+            totalCount = userRepository.countUnratedBySearchCriteria(
+                    userId,
+                    preferences.getPreferredGender(),
+                    preferences.getMinAge(),
+                    preferences.getMaxAge(),
+                    currentUser.getGender(),
+                    currentUser.getAge()
+            );
+        }
+
+        log.debug("User {} has {} available suggestions", userId, totalCount);
+        return totalCount;
+    }
 
-        List<Long> ratedUserIds = ratingRepository.findByRaterId(userId).stream()
-                .map(rating -> rating.getRatedUser().getId())
+    /**
+     * Estimates the count of available suggestions for a user from the segment counters.
+     * The estimate ignores the maximum distance and the candidates' own preferences, and may lag behind
+     * by up to the returned staleness bound. Within that bound it can be off by one for every user the viewer
+     * rated who was since deleted or changed gender or age, and by the changes made on other instances.
+     * The exact count is computed instead when requested or when the counters are not loaded.
+     *
+     * @param userId User ID
+     * @param exact  Whether an exact count is required
+     * @return Count of available profiles with its staleness bound
+     * @throws ResourceNotFoundException if user not found
+     */
+    public SuggestionCountDto estimateAvailableSuggestionsCount(Long userId, boolean exact) {
+        if (exact || !suggestionCountService.isReady()) {
+            return new SuggestionCountDto(getAvailableSuggestionsCount(userId), true, 0);
+        }
+
+        User user = loadUser(userId);
+        long estimate = suggestionCountService.estimate(user, loadPreferences(user));
+
+        log.debug("User {} has about {} available suggestions", userId, estimate);
+        return new SuggestionCountDto(estimate, false, suggestionCountService.getMaxStalenessSeconds());
+    }
+
+    /**
+     * Loads the requested page of an ordered list of user IDs, keeping the list order
+     */
+    private Page<UserProfileDto> loadPage(long[] userIds, Pageable pageable, long total) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), userIds.length) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), userIds.length) : userIds.length;
+
+        List<Long> pageIds = Arrays.stream(userIds, from, to).boxed().toList();
+        Map<Long, User> usersById = userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<UserProfileDto> content = pageIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::toDto)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Logs the served profiles as shown, so they are demoted in the user's later suggestions
+     */
+    private void recordShown(Long userId, List<UserProfileDto> shown) {
+        impressionService.recordShown(userId, shown.stream()
+                .map(UserProfileDto::getId)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .toArray());
+    }
+
+    /**
+     * Drops users the viewer has rated but the database query cannot see: ratings compacted into the rating archive
+     * and swipes still in the swipe buffer
+     */
+    private List<User> withoutRated(Long userId, List<User> users) {
+        return users.stream()
+                .filter(user -> !ratedUserCacheService.hasRated(userId, user.getId()))
                 .toList();
+    }
 
-        long totalCount = userRepository.findBySearchCriteria(
-                preferences.getPreferredGender(),
-                preferences.getMinAge(),
-                preferences.getMaxAge(),
-                null,
-                Pageable.unpaged()
-        ).stream()
-                .filter(user -> !user.getId().equals(userId))
-                .filter(user -> !ratedUserIds.contains(user.getId()))
-                .count();
+    private User loadUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    log.error("User not found with ID: {}", userId);
+                    return new ResourceNotFoundException("User not found with ID: " + userId);
+                });
+    }
 
-        log.debug("User {} has {} available suggestions", userId, totalCount);
-        return totalCount;
+    private SearchPreference loadPreferences(User currentUser) {
+        SearchPreference preferences = searchPreferenceRepository.findByUserId(currentUser.getId())
+                .orElse(SearchPreference.defaultForUser(currentUser));
+
+        log.debug("Search preferences for user {}: gender={}, age={}-{}",
+                currentUser.getId(), preferences.getPreferredGender(), preferences.getMinAge(), preferences.getMaxAge());
+
+        return preferences;
     }
-}
 
+    private static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid suggestion cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected malformed suggestion cursor: {}", cursor);
+            throw new IllegalArgumentException("Invalid suggestion cursor", e);
+        }
+    }
+}
@@ -2,22 +2,28 @@ package me.iru.datingapp.service;
 
 import lombok.RequiredArgsConstructor;
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.entity.Match;
 import me.iru.datingapp.entity.Message;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.MatchNotActiveException;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.MessageMapper;
+import me.iru.datingapp.matching.KeysetCursor;
 import me.iru.datingapp.repository.MatchRepository;
 import me.iru.datingapp.repository.MessageRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,14 +33,19 @@ import java.util.stream.Collectors;
 public class MessageService {
 
     private static final Logger log = LoggerFactory.getLogger(MessageService.class);
+    private static final int DEFAULT_WINDOW_SIZE = 50;
+    private static final int MAX_WINDOW_SIZE = 200;
+    private static final String CURSOR_PREFIX = "msg:";
 
     private final MessageRepository messageRepository;
     private final MatchRepository matchRepository;
     private final UserRepository userRepository;
     private final MessageMapper messageMapper;
+    private final OutboxService outboxService;
 
     /**
-     * Sends a message within a match
+     * Sends a message within a match and records it in the match's conversation summary;
+     * the receiver is notified by the outbox relay
      *
      * @param messageDto Message data
      * @return Saved MessageDto
@@ -82,22 +93,57 @@ public class MessageService {
         Message message = messageMapper.toEntity(messageDto, sender, receiver, match);
 
         Message savedMessage = messageRepository.save(message);
+        matchRepository.recordLastMessage(match.getId(), savedMessage.getId(), sender.getId(),
+                preview(savedMessage.getContent()), savedMessage.getSentAt());
+        outboxService.publish(OutboxEvent.EventType.MESSAGE_SENT, sender.getId(), receiver.getId(),
+                savedMessage.getId(), null);
         log.info("Message sent successfully with ID: {}", savedMessage.getId());
 
         return messageMapper.toDto(savedMessage);
     }
 
     /**
-     * Gets message history for a match, ordered by sent time
+     * Gets the latest messages of a match, ordered by sent time, and marks them as read
      *
      * @param matchId Match ID
      * @param userId  User ID (for authorization)
-     * @return List of messages
+     * @return Up to the default window of latest messages
      * @throws ResourceNotFoundException if match isn't found or user not authorized
      */
-    @Transactional(readOnly = true)
     public List<MessageDto> getMessageHistory(Long matchId, Long userId) {
-        log.debug("Fetching message history for match ID: {} by user ID: {}", matchId, userId);
+        return getMessageWindow(matchId, userId, null, null, DEFAULT_WINDOW_SIZE).getContent();
+    }
+
+    /**
+     * Gets a window of messages of a match using keyset pagination on (sent time, ID).
+     * Without cursors the latest messages are returned; with a cursor the messages right before or after it.
+     * Every call reads at most one window through the (match, sent time, ID) index, however long the conversation is.
+     * Unless paging backwards, the user's read watermark is advanced to the newest message of the window with
+     * one conditional update, however many messages arrived; read state of the messages is derived from the watermarks.
+     *
+     * @param matchId Match ID
+     * @param userId  User ID (for authorization)
+     * @param before  Cursor to read older messages from, null or empty if not paging backwards
+     * @param after   Cursor to read newer messages from, null or empty if not paging forwards
+     * @param size    Maximum number of messages, capped at the maximum window size
+     * @return Window of messages ordered by sent time with the cursors of the adjacent windows
+     * @throws ResourceNotFoundException if match isn't found or user not authorized
+     * @throws IllegalArgumentException  if a cursor is malformed, both cursors are given or the size isn't positive
+     */
+    public MessageWindowDto getMessageWindow(Long matchId, Long userId, String before, String after, int size) {
+        log.debug("Fetching message window for match ID: {} by user ID: {}, before: {}, after: {}",
+                matchId, userId, before, after);
+
+        boolean backwards = before != null && !before.isBlank();
+        boolean forwards = after != null && !after.isBlank();
+        if (backwards && forwards) {
+            throw new IllegalArgumentException("Only one of before and after cursors may be given");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Message window size must be positive");
+        }
+        KeysetCursor cursor = forwards ? decodeCursor(after) : backwards ? decodeCursor(before) : null;
+        int limit = Math.min(size, MAX_WINDOW_SIZE);
 
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> {
@@ -110,19 +156,44 @@ public class MessageService {
             throw new ResourceNotFoundException("Match not found or access denied");
         }
 
-        List<Message> messages = messageRepository.findByMatchIdOrderBySentAtAsc(matchId);
-        log.debug("Found {} messages in match ID: {}", messages.size(), matchId);
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<Message> fetched;
+        if (forwards) {
+            fetched = messageRepository.findByMatchIdAfter(matchId, cursor.at(), cursor.id(), window);
+        } else if (backwards) {
+            fetched = messageRepository.findByMatchIdBefore(matchId, cursor.at(), cursor.id(), window);
+        } else {
+            fetched = messageRepository.findLatestByMatchId(matchId, window);
+        }
 
-        messages.stream()
-                .filter(msg -> msg.getReceiver().getId().equals(userId) && !msg.getIsRead())
-                .forEach(msg -> {
-                    msg.setIsRead(true);
-                    messageRepository.save(msg);
-                });
+        boolean more = fetched.size() > limit;
+        List<Message> messages = new ArrayList<>(more ? fetched.subList(0, limit) : fetched);
+        if (!forwards) {
+            Collections.reverse(messages);
+        }
+        Long otherUserId = match.getUser1().getId().equals(userId) ? match.getUser2().getId() : match.getUser1().getId();
+        Long readerLastRead = match.getLastReadMessageId(userId);
+        Long otherLastRead = match.getLastReadMessageId(otherUserId);
+        if (!backwards && !messages.isEmpty()) {
+            long newestId = messages.stream().mapToLong(Message::getId).max().getAsLong();
+            if (newestId > readerLastRead && matchRepository.advanceLastReadMessageId(matchId, userId, newestId) > 0) {
+                readerLastRead = newestId;
+            }
+        }
+        log.debug("Found {} messages in match ID: {}, user {} has read up to message {}",
+                messages.size(), matchId, userId, readerLastRead);
 
-        return messages.stream()
-                .map(messageMapper::toDto)
+        Long readerWatermark = readerLastRead;
+        List<MessageDto> content = messages.stream()
+                .map(message -> messageMapper.toDto(message,
+                        message.getReceiver().getId().equals(userId) ? readerWatermark : otherLastRead))
                 .collect(Collectors.toList());
+        String olderCursor = messages.isEmpty() ? before : encodeCursor(messages.getFirst());
+        String newerCursor = messages.isEmpty() ? after : encodeCursor(messages.getLast());
+        boolean hasOlder = forwards || more;
+        boolean hasNewer = backwards || forwards && more;
+
+        return new MessageWindowDto(content, olderCursor, newerCursor, hasOlder, hasNewer);
     }
 
     /**
@@ -132,7 +203,9 @@ public class MessageService {
      * @param userId   User ID (for authorization)
      * @param pageable Pagination parameters
      * @return Page of messages
+     * @deprecated Offset paging counts and skips rows on every call; use {@link #getMessageWindow} instead
      */
+    @Deprecated
     @Transactional(readOnly = true)
     public Page<MessageDto> getMessageHistoryPaginated(Long matchId, Long userId, Pageable pageable) {
         log.debug("Fetching paginated message history for match ID: {}", matchId);
@@ -145,7 +218,8 @@ public class MessageService {
         }
 
         Page<Message> messages = messageRepository.findByMatchId(matchId, pageable);
-        return messages.map(messageMapper::toDto);
+        return messages.map(message -> messageMapper.toDto(message,
+                match.getLastReadMessageId(message.getReceiver().getId())));
     }
 
     /**
@@ -171,6 +245,7 @@ public class MessageService {
 
         List<Message> messages = messageRepository.findByMatchIdOrderBySentAtAsc(matchId);
         messageRepository.deleteAll(messages);
+        matchRepository.clearConversationSummary(matchId);
 
         log.info("Deleted {} messages from match ID: {}", messages.size(), matchId);
     }
@@ -197,6 +272,7 @@ public class MessageService {
         }
 
         messageRepository.delete(message);
+        removeFromSummary(message);
         log.info("Message ID: {} deleted by user ID: {}", messageId, userId);
     }
 
@@ -210,17 +286,17 @@ public class MessageService {
     public long getUnreadMessageCount(Long userId) {
         log.debug("Fetching unread message count for user ID: {}", userId);
 
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesByUserId(userId);
-        return unreadMessages.size();
+        return messageRepository.countUnreadAfterWatermark(userId);
     }
 
     /**
-     * Marks a message as read
+     * Marks a message and every earlier message of the match as read by advancing the receiver's read watermark
      *
      * @param messageId Message ID
      * @param userId    User ID (must be receiver)
+     * @return true if the watermark advanced, false if the message was already read
      */
-    public void markAsRead(Long messageId, Long userId) {
+    public boolean markAsRead(Long messageId, Long userId) {
         log.debug("Marking message {} as read by user {}", messageId, userId);
 
         Message message = messageRepository.findById(messageId)
@@ -230,9 +306,52 @@ public class MessageService {
             throw new ResourceNotFoundException("Message not found or access denied");
         }
 
-        message.setIsRead(true);
-        messageRepository.save(message);
-        log.debug("Message {} marked as read", messageId);
+        boolean advanced = matchRepository.advanceLastReadMessageId(message.getMatch().getId(), userId, messageId) > 0;
+        log.debug("Message {} marked as read: {}", messageId, advanced);
+        return advanced;
+    }
+
+    /**
+     * Keeps the conversation summary consistent with a deleted message: it no longer counts as unread and,
+     * if it was the last message, the previous message takes its place
+     */
+    private void removeFromSummary(Message message) {
+        Long matchId = message.getMatch().getId();
+        matchRepository.removeUnreadMessage(matchId, message.getReceiver().getId(), message.getId());
+        if (!message.getId().equals(message.getMatch().getLastMessageId())) {
+            return;
+        }
+
+        List<Message> previous = messageRepository.findByMatchIdBefore(
+                matchId, message.getSentAt(), message.getId(), PageRequest.of(0, 1));
+        Message last = previous.isEmpty() ? null : previous.getFirst();
+        matchRepository.replaceLastMessage(matchId, message.getId(),
+                last == null ? null : last.getId(),
+                last == null ? null : last.getSender().getId(),
+                last == null ? null : preview(last.getContent()));
+    }
+
+    private static String preview(String content) {
+        if (content == null || content.length() <= Match.LAST_MESSAGE_PREVIEW_LENGTH) {
+            return content;
+        }
+        int end = Match.LAST_MESSAGE_PREVIEW_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
+    private static String encodeCursor(Message message) {
+        return KeysetCursor.encode(CURSOR_PREFIX, message.getSentAt(), message.getId());
     }
-}
 
+    private static KeysetCursor decodeCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(CURSOR_PREFIX, cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected malformed message cursor: {}", cursor);
+            throw new IllegalArgumentException("Invalid message cursor", e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import me.iru.datingapp.dto.NotificationDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.Notification;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.NotificationMapper;
@@ -16,7 +17,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -57,19 +63,80 @@ public class NotificationService {
     }
 
     public void createMatchNotification(Long userId, User matchedUser, Long matchId) {
-        String message = String.format("You have a new match with %s %s!",
-                matchedUser.getFirstName(), matchedUser.getLastName());
-        createNotification(userId, Notification.NotificationType.NEW_MATCH, message,
+        createNotification(userId, Notification.NotificationType.NEW_MATCH, matchMessage(matchedUser),
                 matchedUser.getId(), matchId);
     }
 
     public void createMessageNotification(Long userId, User sender, Long messageId) {
-        String message = String.format("%s %s sent you a message",
-                sender.getFirstName(), sender.getLastName());
-        createNotification(userId, Notification.NotificationType.NEW_MESSAGE, message,
+        createNotification(userId, Notification.NotificationType.NEW_MESSAGE, messageMessage(sender),
                 sender.getId(), messageId);
     }
 
+    /**
+     * Creates the notifications of a batch of outbox events: both users of a new match and the receiver of
+     * a message are notified. The users involved are loaded with one query and the notifications are saved
+     * together; events of deleted users are skipped.
+     *
+     * @param events MATCH_CREATED and MESSAGE_SENT events, other types are ignored
+     * @return Number of created notifications
+     */
+    public int createNotifications(List<OutboxEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            userIds.add(event.getActorId());
+            userIds.add(event.getSubjectId());
+        }
+        Map<Long, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            usersById.put(user.getId(), user);
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            User actor = usersById.get(event.getActorId());
+            User subject = usersById.get(event.getSubjectId());
+            if (actor == null || subject == null) {
+                log.debug("Skipping {} event {} of a deleted user", event.getType(), event.getId());
+                continue;
+            }
+            if (event.getType() == OutboxEvent.EventType.MATCH_CREATED) {
+                notifications.add(newNotification(actor, Notification.NotificationType.NEW_MATCH,
+                        matchMessage(subject), subject, event.getReferenceId()));
+                notifications.add(newNotification(subject, Notification.NotificationType.NEW_MATCH,
+                        matchMessage(actor), actor, event.getReferenceId()));
+            } else if (event.getType() == OutboxEvent.EventType.MESSAGE_SENT) {
+                notifications.add(newNotification(subject, Notification.NotificationType.NEW_MESSAGE,
+                        messageMessage(actor), actor, event.getReferenceId()));
+            } else {
+                log.debug("Event type {} creates no notification", event.getType());
+            }
+        }
+
+        notificationRepository.saveAll(notifications);
+        log.info("Created {} notifications for {} events", notifications.size(), events.size());
+        return notifications.size();
+    }
+
+    private Notification newNotification(User user, Notification.NotificationType type, String message,
+                                         User relatedUser, Long relatedEntityId) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(type);
+        notification.setMessage(message);
+        notification.setIsRead(false);
+        notification.setRelatedUser(relatedUser);
+        notification.setRelatedEntityId(relatedEntityId);
+        return notification;
+    }
+
+    private static String matchMessage(User matchedUser) {
+        return String.format("You have a new match with %s %s!", matchedUser.getFirstName(), matchedUser.getLastName());
+    }
+
+    private static String messageMessage(User sender) {
+        return String.format("%s %s sent you a message", sender.getFirstName(), sender.getLastName());
+    }
+
     public void createMessageNotification(Long userId, UserProfileDto sender, Long messageId) {
         String message = String.format("%s %s sent you a message",
                 sender.getFirstName(), sender.getLastName());
@@ -0,0 +1,92 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.entity.OutboxEvent;
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the outbox in batches on the scheduler thread and runs the side effects of the events.
+ * Likes of a batch are grouped by rater, so mutual likes are resolved with one query per rater, and the
+ * notifications of a batch are created together. Match creation and notifications join the relay's transaction,
+ * so the side effects and the removal of their events commit together; a failed batch rolls back as a whole,
+ * stays in the outbox and is retried on the next run. Should a batch still run twice, matches are inserted only
+ * if absent, so replaying it creates no second match.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MatchService matchService;
+    private final NotificationService notificationService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OutboxRelayService(OutboxEventRepository outboxEventRepository,
+                              MatchService matchService,
+                              NotificationService notificationService,
+                              @Value("${app.outbox.enabled:true}") boolean enabled,
+                              @Value("${app.outbox.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.matchService = matchService;
+        this.notificationService = notificationService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Processes the oldest batch of events.
+     * Matches created here publish their own events, which the next run turns into notifications.
+     *
+     * @return Number of processed events
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-millis:500}", initialDelayString = "${app.outbox.poll-millis:500}")
+    @Transactional
+    public int relay() {
+        if (!enabled) {
+            return 0;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+
+        Map<Long, List<Long>> likedByRater = new LinkedHashMap<>();
+        List<OutboxEvent> notifiable = new ArrayList<>();
+        List<Long> eventIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            eventIds.add(event.getId());
+            if (event.getType() != OutboxEvent.EventType.RATING_CREATED) {
+                notifiable.add(event);
+            } else if (Rating.RatingType.LIKE.name().equals(event.getDetail())) {
+                likedByRater.computeIfAbsent(event.getActorId(), k -> new ArrayList<>()).add(event.getSubjectId());
+            }
+        }
+
+        likedByRater.forEach(matchService::createMutualMatches);
+        int notifications = notifiable.isEmpty() ? 0 : notificationService.createNotifications(notifiable);
+        outboxEventRepository.deleteAllByIdInBatch(eventIds);
+
+        log.debug("Relayed {} outbox events: likes of {} raters, {} notifications in {} ms",
+                batch.size(), likedByRater.size(), notifications, System.currentTimeMillis() - start);
+        return batch.size();
+    }
+}
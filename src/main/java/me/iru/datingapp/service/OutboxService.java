@@ -0,0 +1,50 @@
+package me.iru.datingapp.service;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dao.OutboxDao;
+import me.iru.datingapp.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes domain events to the outbox. Events are only written inside the transaction of the change they
+ * describe, so an event exists if and only if its change committed; the relay runs the side effects later.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxDao outboxDao;
+
+    /**
+     * Writes one event
+     *
+     * @param type        Event type
+     * @param actorId     ID of the user who caused the event
+     * @param subjectId   ID of the other user involved
+     * @param referenceId ID of the rating, match or message, null if none
+     * @param detail      Type-specific detail such as the rating type, null if none
+     */
+    public void publish(OutboxEvent.EventType type, Long actorId, Long subjectId, Long referenceId, String detail) {
+        publishAll(List.of(new OutboxEvent(type, actorId, subjectId, referenceId, detail)));
+    }
+
+    /**
+     * Writes events in one batch
+     */
+    public void publishAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxDao.insertEvents(events);
+        log.debug("Published {} {} events", events.size(), events.getFirst().getType());
+    }
+}
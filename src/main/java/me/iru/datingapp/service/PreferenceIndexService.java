@@ -0,0 +1,130 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.PreferenceIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PreferenceIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PreferenceIndexService.class);
+
+    private final MatchingDao matchingDao;
+    private final boolean enabled;
+    private final PreferenceIndex index = new PreferenceIndex();
+
+    private volatile boolean ready;
+
+    public PreferenceIndexService(MatchingDao matchingDao,
+                                  @Value("${app.matching.mutual-preferences.enabled:true}") boolean enabled) {
+        this.matchingDao = matchingDao;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads the profile and search preference of every user once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Preference index is disabled, in-memory suggestions ignore candidates' preferences");
+            return;
+        }
+
+        log.info("Building preference index");
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        index.clear();
+        matchingDao.streamUserPreferences((userId, gender, age, preferredGender, minAge, maxAge) -> {
+            if (minAge == null || maxAge == null) {
+                index.putProfile(userId, gender, age);
+            } else {
+                index.put(userId, gender, age, preferredGender, minAge, maxAge);
+            }
+        });
+        ready = true;
+
+        log.info("Preference index built with {} users in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Keeps the candidates whose own search preferences accept the viewer's gender and age.
+     * Returns the candidates unchanged when the index is not ready or the viewer is not indexed.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Mutually compatible candidates, in their original order
+     */
+    public long[] filterMutual(long viewerId, long[] candidateIds) {
+        if (!ready) {
+            return candidateIds;
+        }
+
+        long[] mutual = index.filterAccepting(viewerId, candidateIds);
+        log.debug("{} of {} candidates accept user {}", mutual.length, candidateIds.length, viewerId);
+        return mutual;
+    }
+
+    /**
+     * Adds or updates the profile of a user, keeping their explicit search preference
+     *
+     * @param user Saved user entity
+     */
+    public void indexUser(User user) {
+        if (!enabled || user.getId() == null || user.getGender() == null || user.getAge() == null) {
+            return;
+        }
+        index.putProfile(user.getId(), user.getGender(), user.getAge());
+    }
+
+    /**
+     * Stores the saved search preference of a user
+     *
+     * @param preference Saved search preference
+     */
+    public void indexPreference(SearchPreference preference) {
+        User user = preference.getUser();
+        if (!enabled || user == null || user.getId() == null
+                || preference.getMinAge() == null || preference.getMaxAge() == null) {
+            return;
+        }
+        if (!index.putPreference(user.getId(), preference.getPreferredGender(),
+                preference.getMinAge(), preference.getMaxAge())
+                && user.getGender() != null && user.getAge() != null) {
+            index.put(user.getId(), user.getGender(), user.getAge(),
+                    preference.getPreferredGender(), preference.getMinAge(), preference.getMaxAge());
+        }
+        log.debug("Indexed search preference of user {}", user.getId());
+    }
+
+    /**
+     * Falls back to the default search preference after the user's preference was deleted
+     *
+     * @param userId User ID
+     */
+    public void clearPreference(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        index.clearPreference(userId);
+    }
+
+    public void removeUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        index.remove(userId);
+    }
+}
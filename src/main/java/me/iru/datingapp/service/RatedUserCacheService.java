@@ -0,0 +1,251 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dao.RatingArchiveDao;
+import me.iru.datingapp.matching.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class RatedUserCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatedUserCacheService.class);
+
+    private final MatchingDao matchingDao;
+    private final RatingArchiveDao ratingArchiveDao;
+    private final SwipeBufferService swipeBufferService;
+    private final long maxBytes;
+
+    /**
+     * Access-ordered, so iteration starts at the least recently used rater
+     */
+    private final LinkedHashMap<Long, RoaringBitmap> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Number of loads in progress by rater, guarded by the cache lock
+     */
+    private final Map<Long, Integer> loaders = new HashMap<>();
+
+    /**
+     * Ratings recorded or removed since the first load in progress of a rater started, guarded by the cache lock
+     */
+    private final Map<Long, Map<Long, Boolean>> loadUpdates = new HashMap<>();
+
+    public RatedUserCacheService(MatchingDao matchingDao,
+                                 RatingArchiveDao ratingArchiveDao,
+                                 SwipeBufferService swipeBufferService,
+                                 @Value("${app.matching.rated-cache.max-bytes:67108864}") long maxBytes) {
+        this.matchingDao = matchingDao;
+        this.ratingArchiveDao = ratingArchiveDao;
+        this.swipeBufferService = swipeBufferService;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Removes the IDs a user has already rated from a list of candidates
+     *
+     * @param raterId      ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Candidates not rated by the user, in their original order
+     */
+    public long[] filterUnrated(long raterId, long[] candidateIds) {
+        RoaringBitmap rated = bitmapFor(raterId);
+        synchronized (rated) {
+            return Arrays.stream(candidateIds)
+                    .filter(id -> !rated.contains(id))
+                    .toArray();
+        }
+    }
+
+    /**
+     * Counts candidates a user has not rated yet
+     *
+     * @param raterId      ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Number of unrated candidates
+     */
+    public long countUnrated(long raterId, long[] candidateIds) {
+        RoaringBitmap rated = bitmapFor(raterId);
+        synchronized (rated) {
+            return Arrays.stream(candidateIds)
+                    .filter(id -> !rated.contains(id))
+                    .count();
+        }
+    }
+
+    /**
+     * Counts the users a user has rated
+     *
+     * @param raterId ID of the rating user
+     * @return Number of rated users
+     */
+    public long countRated(long raterId) {
+        RoaringBitmap rated = bitmapFor(raterId);
+        synchronized (rated) {
+            return rated.cardinality();
+        }
+    }
+
+    /**
+     * Checks whether a user has rated another user
+     *
+     * @param raterId     ID of the rating user
+     * @param ratedUserId ID of the rated user
+     * @return true if a rating exists
+     */
+    public boolean hasRated(long raterId, long ratedUserId) {
+        RoaringBitmap rated = bitmapFor(raterId);
+        synchronized (rated) {
+            return rated.contains(ratedUserId);
+        }
+    }
+
+    /**
+     * Records a new rating in the cached bitmap of the rater, if it is loaded
+     *
+     * @param raterId     ID of the rating user
+     * @param ratedUserId ID of the rated user
+     */
+    public void recordRating(long raterId, long ratedUserId) {
+        update(raterId, ratedUserId, true);
+    }
+
+    /**
+     * Removes a deleted rating from the cached bitmap of the rater, if it is loaded
+     *
+     * @param raterId     ID of the rating user
+     * @param ratedUserId ID of the rated user
+     */
+    public void removeRating(long raterId, long ratedUserId) {
+        update(raterId, ratedUserId, false);
+    }
+
+    /**
+     * Drops the cached bitmap of a user
+     *
+     * @param raterId User ID
+     */
+    public void evict(long raterId) {
+        synchronized (cache) {
+            RoaringBitmap removed = cache.remove(raterId);
+            if (removed != null) {
+                cachedBytes -= removed.sizeInBytes();
+                log.debug("Evicted rated users of user {}", raterId);
+            }
+        }
+    }
+
+    public long getCachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    public int getCachedUserCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void update(long raterId, long ratedUserId, boolean add) {
+        synchronized (cache) {
+            Map<Long, Boolean> updates = loadUpdates.get(raterId);
+            if (updates != null) {
+                updates.put(ratedUserId, add);
+            }
+            RoaringBitmap rated = cache.get(raterId);
+            if (rated == null) {
+                return;
+            }
+            synchronized (rated) {
+                long before = rated.sizeInBytes();
+                if (add) {
+                    rated.add(ratedUserId);
+                } else {
+                    rated.remove(ratedUserId);
+                }
+                cachedBytes += rated.sizeInBytes() - before;
+            }
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Cached bitmap of a rater, loaded on a miss from the swipe buffer, the live ratings and the archive.
+     * Ratings recorded or removed while the load runs are kept aside and applied before the bitmap is cached.
+     */
+    private RoaringBitmap bitmapFor(long raterId) {
+        Map<Long, Boolean> updates;
+        synchronized (cache) {
+            RoaringBitmap cached = cache.get(raterId);
+            if (cached != null) {
+                return cached;
+            }
+            updates = loadUpdates.computeIfAbsent(raterId, id -> new HashMap<>());
+            loaders.merge(raterId, 1, Integer::sum);
+        }
+
+        RoaringBitmap loaded = new RoaringBitmap();
+        try {
+            // Buffered swipes before the live ratings, and live ratings before the archive,
+            // so a rating written or compacted in between is found in the next source
+            swipeBufferService.forEachPending(raterId, loaded::add);
+            matchingDao.streamRatedUserIds(raterId, loaded::add);
+            ratingArchiveDao.streamArchivedUserIds(raterId, loaded::add);
+        } catch (RuntimeException e) {
+            synchronized (cache) {
+                release(raterId);
+            }
+            throw e;
+        }
+        loaded.runOptimize();
+
+        synchronized (cache) {
+            release(raterId);
+            RoaringBitmap raced = cache.get(raterId);
+            if (raced != null) {
+                return raced;
+            }
+            updates.forEach((ratedUserId, add) -> {
+                if (add) {
+                    loaded.add(ratedUserId);
+                } else {
+                    loaded.remove(ratedUserId);
+                }
+            });
+            log.debug("Loaded {} rated users of user {} into {} bytes", loaded.cardinality(), raterId, loaded.sizeInBytes());
+            cache.put(raterId, loaded);
+            cachedBytes += loaded.sizeInBytes();
+            evictOverflow();
+            return loaded;
+        }
+    }
+
+    private void release(long raterId) {
+        if (loaders.compute(raterId, (id, count) -> count == 1 ? null : count - 1) == null) {
+            loadUpdates.remove(raterId);
+        }
+    }
+
+    /**
+     * Drops least recently used bitmaps until the cache fits its byte budget, always keeping the newest entry
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, RoaringBitmap>> iterator = cache.entrySet().iterator();
+        while (cachedBytes > maxBytes && cache.size() > 1 && iterator.hasNext()) {
+            Map.Entry<Long, RoaringBitmap> eldest = iterator.next();
+            cachedBytes -= eldest.getValue().sizeInBytes();
+            iterator.remove();
+            log.debug("Evicted rated users of user {} to stay within {} bytes", eldest.getKey(), maxBytes);
+        }
+    }
+}
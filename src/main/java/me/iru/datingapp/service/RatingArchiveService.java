@@ -0,0 +1,92 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.RatingArchiveDao;
+import me.iru.datingapp.repository.RatingArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compacts old dislikes out of the ratings table.
+ * Dislikes only exclude users from suggestions, so once they are older than the configured age a rater's dislikes
+ * are folded into one compressed bitmap per rater and their rows deleted. Readers of rated users consult the live
+ * rows first and the archive second, so a rating moving between the two is never missed.
+ */
+@Service
+public class RatingArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingArchiveService.class);
+
+    private final RatingArchiveDao ratingArchiveDao;
+    private final RatingArchiveRepository ratingArchiveRepository;
+    private final boolean enabled;
+    private final long minAgeMillis;
+    private final int batchSize;
+
+    public RatingArchiveService(RatingArchiveDao ratingArchiveDao,
+                                RatingArchiveRepository ratingArchiveRepository,
+                                @Value("${app.matching.rating-archive.enabled:true}") boolean enabled,
+                                @Value("${app.matching.rating-archive.min-age-days:30}") long minAgeDays,
+                                @Value("${app.matching.rating-archive.batch-size:500}") int batchSize) {
+        if (minAgeDays < 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Rating archive age must not be negative and batch size must be positive");
+        }
+        this.ratingArchiveDao = ratingArchiveDao;
+        this.ratingArchiveRepository = ratingArchiveRepository;
+        this.enabled = enabled;
+        this.minAgeMillis = TimeUnit.DAYS.toMillis(minAgeDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Compacts the old dislikes of every rater, one transaction per rater.
+     * A rater that fails is skipped and compacted on the next run.
+     *
+     * @return Number of compacted ratings
+     */
+    @Scheduled(fixedDelayString = "${app.matching.rating-archive.interval-hours:24}",
+            initialDelayString = "${app.matching.rating-archive.interval-hours:24}",
+            timeUnit = TimeUnit.HOURS)
+    public long compact() {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        Timestamp cutoff = new Timestamp(start - minAgeMillis);
+        long compacted = 0;
+        int raters = 0;
+        long afterRaterId = 0;
+
+        List<Long> batch;
+        do {
+            batch = ratingArchiveDao.findRatersWithDislikesBefore(afterRaterId, cutoff, batchSize);
+            for (Long raterId : batch) {
+                try {
+                    compacted += ratingArchiveDao.compactDislikes(raterId, cutoff);
+                    raters++;
+                } catch (DataAccessException e) {
+                    log.warn("Failed to compact dislikes of user {}, retrying on next run", raterId, e);
+                }
+                afterRaterId = raterId;
+            }
+        } while (batch.size() == batchSize);
+
+        if (raters > 0) {
+            log.info("Compacted {} dislikes of {} users older than {} in {} ms",
+                    compacted, raters, cutoff, System.currentTimeMillis() - start);
+        }
+        return compacted;
+    }
+
+    public void removeUser(Long userId) {
+        ratingArchiveRepository.deleteById(userId);
+    }
+}
@@ -1,12 +1,14 @@
 package me.iru.datingapp.service;
 
 import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dto.BatchRatingDto;
 import me.iru.datingapp.dto.RatingDto;
-import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.dto.RatingResultDto;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.Rating;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
-import me.iru.datingapp.repository.MatchRepository;
 import me.iru.datingapp.repository.RatingRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.slf4j.Logger;
@@ -14,7 +16,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,11 +34,20 @@ public class RatingService {
 
     private final RatingRepository ratingRepository;
     private final UserRepository userRepository;
-    private final MatchRepository matchRepository;
-    private final NotificationService notificationService;
+    private final RatedUserCacheService ratedUserCacheService;
+    private final SuggestionQueueService suggestionQueueService;
+    private final SuggestionCountService suggestionCountService;
+    private final InboundLikeService inboundLikeService;
+    private final SuggestionCacheService suggestionCacheService;
+    private final MatchingDao matchingDao;
+    private final OutboxService outboxService;
+    private final MatchService matchService;
+    private final SwipeBufferService swipeBufferService;
 
     /**
-     * Rates a user (LIKE or DISLIKE) and creates a match if mutual LIKE exists
+     * Rates a user (LIKE or DISLIKE). The rating is buffered for the grace window of the swipe buffer, so it can
+     * be undone without a database write, and is written and published to the outbox afterwards; the relay creates
+     * the match if the like is mutual and notifies both users. A like completing a mutual match is written at once.
      *
      * @param raterId    ID of user giving the rating
      * @param ratingDto  Rating data (rated user ID and rating type)
@@ -50,57 +68,154 @@ public class RatingService {
                     return new ResourceNotFoundException("User not found with ID: " + ratingDto.getRatedUserId());
                 });
 
-        if (ratingRepository.existsByRaterIdAndRatedUserId(raterId, ratingDto.getRatedUserId())) {
+        if (swipeBufferService.pendingType(raterId, ratingDto.getRatedUserId()) != null
+                || ratedUserCacheService.hasRated(raterId, ratingDto.getRatedUserId())
+                || ratingRepository.existsByRaterIdAndRatedUserId(raterId, ratingDto.getRatedUserId())) {
             log.warn("User {} has already rated user {}", raterId, ratingDto.getRatedUserId());
             return;
         }
 
-        Rating rating = new Rating();
-        rating.setRater(rater);
-        rating.setRatedUser(ratedUser);
-        rating.setRatingType(ratingDto.getRatingType());
-        ratingRepository.save(rating);
+        if (swipeBufferService.isEnabled() && !completesMatch(raterId, ratingDto)) {
+            if (!swipeBufferService.buffer(raterId, ratingDto.getRatedUserId(), ratingDto.getRatingType())) {
+                log.warn("User {} has already rated user {}", raterId, ratingDto.getRatedUserId());
+                return;
+            }
+        } else {
+            Rating rating = new Rating();
+            rating.setRater(rater);
+            rating.setRatedUser(ratedUser);
+            rating.setRatingType(ratingDto.getRatingType());
+            Rating savedRating = ratingRepository.save(rating);
+            outboxService.publish(OutboxEvent.EventType.RATING_CREATED, raterId, ratingDto.getRatedUserId(),
+                    savedRating.getId(), ratingDto.getRatingType().name());
+        }
+        ratedUserCacheService.recordRating(raterId, ratingDto.getRatedUserId());
+        suggestionQueueService.consume(raterId, ratingDto.getRatedUserId());
+        suggestionCountService.ratingAdded(raterId, ratedUser);
+        suggestionCacheService.invalidateRatings(raterId);
 
         log.info("Rating saved: {} rated {} as {}", raterId, ratingDto.getRatedUserId(), ratingDto.getRatingType());
 
         if (ratingDto.getRatingType() == Rating.RatingType.LIKE) {
-            checkAndCreateMatch(rater, ratedUser);
+            inboundLikeService.recordLike(raterId, ratingDto.getRatedUserId());
         }
     }
 
     /**
-     * Checks if there's a mutual LIKE and creates a match
+     * Rates several users in one transaction.
+     * Ratings and their outbox events are inserted in one JDBC batch each, and likes completing a mutual match
+     * create the match in the same transaction, so the outcome reports it. Every rating gets its own outcome
+     * instead of failing the batch.
      *
-     * @param user1 First user
-     * @param user2 Second user
+     * @param raterId ID of user giving the ratings
+     * @param ratings Ratings in the order they were given
+     * @return Outcome of every rating, in request order
+     * @throws ResourceNotFoundException if the rater is not found
+     * @throws IllegalArgumentException  if the batch has more than {@link BatchRatingDto#MAX_RATINGS} ratings
      */
-    private void checkAndCreateMatch(User user1, User user2) {
-        log.debug("Checking for mutual like between user {} and user {}", user1.getId(), user2.getId());
+    public List<RatingResultDto> rateUsers(Long raterId, List<RatingDto> ratings) {
+        if (ratings.size() > BatchRatingDto.MAX_RATINGS) {
+            throw new IllegalArgumentException("At most " + BatchRatingDto.MAX_RATINGS + " ratings per batch");
+        }
+        log.info("User {} rating {} users in batch", raterId, ratings.size());
 
-        Optional<Rating> reciprocalRating = ratingRepository.findByRaterIdAndRatedUserId(
-                user2.getId(), user1.getId()
-        );
+        if (!userRepository.existsById(raterId)) {
+            log.error("Rater not found with ID: {}", raterId);
+            throw new ResourceNotFoundException("User not found with ID: " + raterId);
+        }
 
-        if (reciprocalRating.isPresent() &&
-            reciprocalRating.get().getRatingType() == Rating.RatingType.LIKE) {
+        Set<Long> requestedIds = new HashSet<>();
+        for (RatingDto rating : ratings) {
+            requestedIds.add(rating.getRatedUserId());
+        }
+        Map<Long, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(requestedIds)) {
+            usersById.put(user.getId(), user);
+        }
+        Set<Long> alreadyRated = new HashSet<>(
+                ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(raterId, requestedIds));
+
+        List<RatingResultDto> results = new ArrayList<>(ratings.size());
+        Map<Long, Rating.RatingType> accepted = new LinkedHashMap<>();
+        for (RatingDto rating : ratings) {
+            Long ratedUserId = rating.getRatedUserId();
+            RatingResultDto.Outcome outcome;
+            if (ratedUserId.equals(raterId)) {
+                outcome = RatingResultDto.Outcome.SELF_RATING;
+            } else if (!usersById.containsKey(ratedUserId)) {
+                outcome = RatingResultDto.Outcome.USER_NOT_FOUND;
+            } else if (alreadyRated.contains(ratedUserId) || ratedUserCacheService.hasRated(raterId, ratedUserId)
+                    || swipeBufferService.pendingType(raterId, ratedUserId) != null) {
+                outcome = RatingResultDto.Outcome.ALREADY_RATED;
+            } else if (accepted.containsKey(ratedUserId)) {
+                outcome = RatingResultDto.Outcome.DUPLICATE;
+            } else {
+                accepted.put(ratedUserId, rating.getRatingType());
+                outcome = RatingResultDto.Outcome.RATED;
+            }
+            results.add(new RatingResultDto(ratedUserId, outcome, null));
+        }
 
-            if (!matchRepository.existsMatchBetweenUsers(user1.getId(), user2.getId())) {
+        if (accepted.isEmpty()) {
+            return results;
+        }
 
-                Match match = new Match();
-                match.setUser1(user1);
-                match.setUser2(user2);
-                match.setIsActive(true);
-                matchRepository.save(match);
+        matchingDao.insertRatings(raterId, accepted);
 
-                log.info("User {} and User {} matched!", user1.getId(), user2.getId());
+        List<OutboxEvent> events = new ArrayList<>(accepted.size());
+        List<Long> likedIds = new ArrayList<>();
+        accepted.forEach((ratedUserId, ratingType) -> {
+            ratedUserCacheService.recordRating(raterId, ratedUserId);
+            suggestionQueueService.consume(raterId, ratedUserId);
+            suggestionCountService.ratingAdded(raterId, usersById.get(ratedUserId));
+            if (ratingType == Rating.RatingType.LIKE) {
+                inboundLikeService.recordLike(raterId, ratedUserId);
+                likedIds.add(ratedUserId);
+                if (swipeBufferService.takeLike(ratedUserId, raterId)) {
+                    matchingDao.insertRatings(ratedUserId, Map.of(raterId, Rating.RatingType.LIKE));
+                    events.add(new OutboxEvent(OutboxEvent.EventType.RATING_CREATED, ratedUserId, raterId, null,
+                            Rating.RatingType.LIKE.name()));
+                }
+            }
+            events.add(new OutboxEvent(OutboxEvent.EventType.RATING_CREATED, raterId, ratedUserId, null, ratingType.name()));
+        });
+        outboxService.publishAll(events);
+        suggestionCacheService.invalidateRatings(raterId);
 
-                notificationService.createMatchNotification(user1.getId(), user2, match.getId());
-                notificationService.createMatchNotification(user2.getId(), user1, match.getId());
-            } else {
-                log.debug("Match already exists between user {} and user {}", user1.getId(), user2.getId());
+        Map<Long, Long> matches = likedIds.isEmpty() ? Map.of() : matchService.createMutualMatches(raterId, likedIds);
+        for (RatingResultDto result : results) {
+            Long matchId = matches.get(result.getRatedUserId());
+            if (matchId != null && result.getOutcome() == RatingResultDto.Outcome.RATED) {
+                result.setOutcome(RatingResultDto.Outcome.MATCHED);
+                result.setMatchId(matchId);
             }
-        } else {
-            log.debug("No mutual like yet between user {} and user {}", user1.getId(), user2.getId());
+        }
+        log.info("Batch saved: user {} rated {} of {} users, {} matched", raterId, accepted.size(), ratings.size(),
+                matches.size());
+
+        return results;
+    }
+
+    /**
+     * Undoes a rating. A rating still in the grace window of the swipe buffer is dropped without a database
+     * write; a rating already written is deleted.
+     *
+     * @param raterId      ID of the user who gave rating
+     * @param ratedUserId  ID of user who received rating
+     */
+    public void undoRating(Long raterId, Long ratedUserId) {
+        Rating.RatingType ratingType = swipeBufferService.remove(raterId, ratedUserId);
+        if (ratingType == null) {
+            deleteRating(raterId, ratedUserId);
+            return;
+        }
+
+        log.info("Dropped buffered rating from user {} to user {}", raterId, ratedUserId);
+        ratedUserCacheService.removeRating(raterId, ratedUserId);
+        userRepository.findById(ratedUserId).ifPresent(user -> suggestionCountService.ratingRemoved(raterId, user));
+        suggestionCacheService.invalidateRatings(raterId);
+        if (ratingType == Rating.RatingType.LIKE) {
+            inboundLikeService.removeLike(raterId, ratedUserId);
         }
     }
 
@@ -142,8 +257,31 @@ public class RatingService {
         Optional<Rating> rating = ratingRepository.findByRaterIdAndRatedUserId(raterId, ratedUserId);
         rating.ifPresent(r -> {
             ratingRepository.delete(r);
+            ratedUserCacheService.removeRating(raterId, ratedUserId);
+            suggestionCountService.ratingRemoved(raterId, r.getRatedUser());
+            suggestionCacheService.invalidateRatings(raterId);
+            if (r.getRatingType() == Rating.RatingType.LIKE) {
+                inboundLikeService.removeLike(raterId, ratedUserId);
+            }
             log.info("Rating deleted successfully");
         });
     }
-}
 
+    /**
+     * Whether a rating is a like completing a mutual match. A like of the other user still in the swipe buffer
+     * is taken out and written first, so the relay sees both likes.
+     */
+    private boolean completesMatch(Long raterId, RatingDto ratingDto) {
+        if (ratingDto.getRatingType() != Rating.RatingType.LIKE) {
+            return false;
+        }
+        Long ratedUserId = ratingDto.getRatedUserId();
+        if (swipeBufferService.takeLike(ratedUserId, raterId)) {
+            matchingDao.insertRatings(ratedUserId, Map.of(raterId, Rating.RatingType.LIKE));
+            outboxService.publish(OutboxEvent.EventType.RATING_CREATED, ratedUserId, raterId, null,
+                    Rating.RatingType.LIKE.name());
+            return true;
+        }
+        return !ratingRepository.findLikerIdsAmong(raterId, List.of(ratedUserId)).isEmpty();
+    }
+}
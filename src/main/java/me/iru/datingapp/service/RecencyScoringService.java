@@ -0,0 +1,103 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.TimestampIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+
+/**
+ * Scores candidates by how recently their profile was created, halving the score every half-life
+ */
+@Service
+public class RecencyScoringService implements SuggestionScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(RecencyScoringService.class);
+
+    private final MatchingDao matchingDao;
+    private final double weight;
+    private final double halfLifeMinutes;
+    private final TimestampIndex createdAt = new TimestampIndex();
+
+    private volatile boolean ready;
+
+    public RecencyScoringService(MatchingDao matchingDao,
+                                 @Value("${app.matching.scoring.recency.weight:0.2}") double weight,
+                                 @Value("${app.matching.scoring.recency.half-life-days:30}") double halfLifeDays) {
+        if (halfLifeDays <= 0) {
+            throw new IllegalArgumentException("Recency half-life must be positive: " + halfLifeDays);
+        }
+        this.matchingDao = matchingDao;
+        this.weight = weight;
+        this.halfLifeMinutes = halfLifeDays * 24 * 60;
+    }
+
+    /**
+     * Loads the creation time of every profile once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (weight <= 0) {
+            log.info("Recency scoring is disabled");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        ready = false;
+        createdAt.clear();
+        matchingDao.streamUserCreationTimes(createdAt::put);
+        ready = true;
+
+        log.info("Recency index built with {} users in {} ms", createdAt.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public String getName() {
+        return "recency";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        if (!ready) {
+            return null;
+        }
+        int now = TimestampIndex.toMinute(System.currentTimeMillis());
+        return (ids, from, to, scores) -> {
+            int[] minutes = new int[to - from];
+            createdAt.minutesOf(ids, from, to, minutes);
+            for (int i = 0; i < minutes.length; i++) {
+                scores[i] = minutes[i] == TimestampIndex.MISSING
+                        ? 0
+                        : Math.pow(0.5, Math.max(0, now - minutes[i]) / halfLifeMinutes);
+            }
+        };
+    }
+
+    /**
+     * Records the creation time of a newly saved user
+     *
+     * @param user Saved user entity
+     */
+    public void indexUser(User user) {
+        if (weight <= 0 || user.getId() == null || user.getCreatedAt() == null) {
+            return;
+        }
+        createdAt.put(user.getId(), user.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public void removeUser(Long userId) {
+        createdAt.remove(userId);
+    }
+}
@@ -0,0 +1,56 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Scores candidates who already liked the viewer with 1, since rating them back creates a match right away
+ */
+@Service
+public class ReciprocityScoringService implements SuggestionScorer {
+
+    private final MatchingDao matchingDao;
+    private final InboundLikeService inboundLikeService;
+    private final double weight;
+
+    public ReciprocityScoringService(MatchingDao matchingDao,
+                                     InboundLikeService inboundLikeService,
+                                     @Value("${app.matching.scoring.reciprocity.weight:0.5}") double weight) {
+        this.matchingDao = matchingDao;
+        this.inboundLikeService = inboundLikeService;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "reciprocity";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CandidateScorer prepare(long viewerId, long[] candidateIds) {
+        long[] likers = inboundLikeService.isReady() ? inboundLikeService.likersOf(viewerId) : loadLikers(viewerId);
+        if (likers.length == 0) {
+            return null;
+        }
+        return (ids, from, to, scores) -> {
+            for (int i = from; i < to; i++) {
+                scores[i - from] = Arrays.binarySearch(likers, ids[i]) >= 0 ? 1 : 0;
+            }
+        };
+    }
+
+    private long[] loadLikers(long viewerId) {
+        LongStream.Builder builder = LongStream.builder();
+        matchingDao.streamLikersOf(viewerId, builder::add);
+        return builder.build().sorted().toArray();
+    }
+}
@@ -0,0 +1,57 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PostConstruct;
+import me.iru.datingapp.dao.SchemaMigrationDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Applies data migrations for columns the schema update adds without filling them for existing rows.
+ * Runs once the schema has been updated and before the application starts serving requests or building its
+ * in-memory indexes. Each migration runs at most once, in its own transaction, in the order listed.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SchemaMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationService.class);
+
+    private final SchemaMigrationDao schemaMigrationDao;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, IntSupplier> migrations = new LinkedHashMap<>();
+
+    public SchemaMigrationService(SchemaMigrationDao schemaMigrationDao,
+                                  PlatformTransactionManager transactionManager) {
+        this.schemaMigrationDao = schemaMigrationDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        migrations.put("018-canonical-match-pairs", schemaMigrationDao::canonicalizeMatchPairs);
+        migrations.put("024-read-watermarks", schemaMigrationDao::backfillReadWatermarks);
+        migrations.put("025-conversation-summaries", schemaMigrationDao::backfillConversationSummaries);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        schemaMigrationDao.createHistoryTable();
+        migrations.forEach(this::apply);
+    }
+
+    private void apply(String name, IntSupplier step) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!schemaMigrationDao.recordMigration(name)) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            int rows = step.getAsInt();
+            log.info("Applied migration {} to {} rows in {} ms", name, rows,
+                    System.currentTimeMillis() - start);
+        });
+    }
+}
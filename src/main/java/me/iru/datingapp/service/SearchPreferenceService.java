@@ -23,6 +23,9 @@ public class SearchPreferenceService {
     private final SearchPreferenceRepository searchPreferenceRepository;
     private final UserRepository userRepository;
     private final SearchPreferenceMapper searchPreferenceMapper;
+    private final SuggestionQueueService suggestionQueueService;
+    private final PreferenceIndexService preferenceIndexService;
+    private final SuggestionCacheService suggestionCacheService;
 
     /**
      * Gets search preferences for a user
@@ -83,6 +86,9 @@ public class SearchPreferenceService {
         }
 
         SearchPreference savedPreference = searchPreferenceRepository.save(preference);
+        suggestionQueueService.invalidate(userId);
+        preferenceIndexService.indexPreference(savedPreference);
+        suggestionCacheService.invalidatePreferences(userId);
         log.info("Successfully updated search preferences for user ID: {}", userId);
 
         return searchPreferenceMapper.toDto(savedPreference);
@@ -102,6 +108,9 @@ public class SearchPreferenceService {
         }
 
         searchPreferenceRepository.deleteByUserId(userId);
+        suggestionQueueService.invalidate(userId);
+        preferenceIndexService.clearPreference(userId);
+        suggestionCacheService.invalidatePreferences(userId);
         log.info("Successfully deleted search preferences for user ID: {}", userId);
     }
 
@@ -144,6 +153,9 @@ public class SearchPreferenceService {
         searchPreferenceRepository.deleteByUserId(userId);
 
         SearchPreference defaultPreference = createDefaultPreferences(user);
+        suggestionQueueService.invalidate(userId);
+        preferenceIndexService.indexPreference(defaultPreference);
+        suggestionCacheService.invalidatePreferences(userId);
         return searchPreferenceMapper.toDto(defaultPreference);
     }
 }
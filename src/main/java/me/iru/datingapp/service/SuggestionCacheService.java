@@ -0,0 +1,104 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.SuggestionResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caches each user's ranked suggestion list so paging slices the list instead of ranking again.
+ * Lists are retired when the user changes search preferences or profile, or rates someone, and expire
+ * after the time to live so changes made by other users are picked up.
+ */
+@Service
+public class SuggestionCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionCacheService.class);
+
+    private final boolean enabled;
+    private final SuggestionResultCache cache;
+
+    public SuggestionCacheService(@Value("${app.matching.result-cache.enabled:true}") boolean enabled,
+                                  @Value("${app.matching.result-cache.max-entries:10000}") int maxEntries,
+                                  @Value("${app.matching.result-cache.max-weight:5000000}") long maxWeight,
+                                  @Value("${app.matching.result-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = new SuggestionResultCache(maxEntries, maxWeight, ttlSeconds * 1000);
+    }
+
+    /**
+     * Returns the cached ranked suggestions of a user, ranking and caching them on a miss
+     *
+     * @param userId User ID
+     * @param ranker Computes the ranked suggestions
+     * @return Ranked candidate IDs, not to be modified
+     */
+    public long[] getRanked(long userId, Supplier<long[]> ranker) {
+        if (!enabled) {
+            return ranker.get();
+        }
+
+        SuggestionResultCache.Key key = cache.keyOf(userId);
+        long[] cached = cache.get(key, System.currentTimeMillis());
+        if (cached != null) {
+            log.debug("Served {} ranked suggestions of user {} from cache", cached.length, userId);
+            return cached;
+        }
+
+        long[] ranked = ranker.get();
+        if (!cache.put(key, ranked, System.currentTimeMillis())) {
+            log.debug("Did not cache {} ranked suggestions of user {}", ranked.length, userId);
+        }
+        return ranked;
+    }
+
+    /**
+     * Retires a user's list after their search preferences or profile changed
+     *
+     * @param userId User ID
+     */
+    public void invalidatePreferences(long userId) {
+        if (enabled) {
+            cache.bumpPreferenceVersion(userId);
+        }
+    }
+
+    /**
+     * Retires a user's list after their ratings changed
+     *
+     * @param raterId ID of the rating user
+     */
+    public void invalidateRatings(long raterId) {
+        if (enabled) {
+            cache.bumpRatingVersion(raterId);
+        }
+    }
+
+    public void removeUser(long userId) {
+        if (enabled) {
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * Hit, miss and size counters of the cache
+     *
+     * @return Counters by name
+     */
+    public Map<String, Long> getStatistics() {
+        SuggestionResultCache.Stats stats = cache.stats();
+
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("hits", stats.hits());
+        statistics.put("misses", stats.misses());
+        statistics.put("evictions", stats.evictions());
+        statistics.put("entries", (long) stats.entries());
+        statistics.put("weight", stats.weight());
+        return statistics;
+    }
+}
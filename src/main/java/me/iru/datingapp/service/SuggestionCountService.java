@@ -0,0 +1,248 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dao.RatingArchiveDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.matching.RoaringBitmap;
+import me.iru.datingapp.matching.SegmentCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Approximate suggestion counts from per-segment counters.
+ * The population counters hold the number of users per gender and age; per-rater counters hold how many
+ * of those users a rater has already rated, live, compacted into the rating archive or still pending in the
+ * swipe buffer. A count is the difference of the two over the segments of the rater's search, adjusted in
+ * place on registration, profile edits, deletion and rating. Both kinds of counters are reloaded from the
+ * database once they are older than the staleness bound, which limits the drift left by rolled back
+ * transactions, other application instances, ratings removed by cascading deletes, rated users deleted or
+ * moved to another segment, and swipes written while the rated counters load.
+ */
+@Service
+public class SuggestionCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionCountService.class);
+
+    private final MatchingDao matchingDao;
+    private final RatingArchiveDao ratingArchiveDao;
+    private final SwipeBufferService swipeBufferService;
+    private final boolean enabled;
+    private final long maxStalenessMillis;
+    private final int maxRaters;
+
+    /**
+     * Access-ordered, so iteration starts at the least recently used rater
+     */
+    private final LinkedHashMap<Long, SegmentCounters> raters = new LinkedHashMap<>(16, 0.75f, true);
+    private final Object populationLock = new Object();
+
+    private volatile SegmentCounters population;
+
+    public SuggestionCountService(MatchingDao matchingDao,
+                                  RatingArchiveDao ratingArchiveDao,
+                                  SwipeBufferService swipeBufferService,
+                                  @Value("${app.matching.counters.enabled:true}") boolean enabled,
+                                  @Value("${app.matching.counters.max-staleness-seconds:300}") long maxStalenessSeconds,
+                                  @Value("${app.matching.counters.max-raters:10000}") int maxRaters) {
+        this.matchingDao = matchingDao;
+        this.ratingArchiveDao = ratingArchiveDao;
+        this.swipeBufferService = swipeBufferService;
+        this.enabled = enabled;
+        this.maxStalenessMillis = maxStalenessSeconds * 1000;
+        this.maxRaters = maxRaters;
+    }
+
+    /**
+     * Loads the population counters once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Suggestion counters are disabled, counts are computed exactly");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        synchronized (populationLock) {
+            population = loadPopulation();
+        }
+        synchronized (raters) {
+            raters.clear();
+        }
+        log.info("Suggestion counters loaded in {} ms", System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return population != null;
+    }
+
+    /**
+     * Maximum age of the counters behind an estimate
+     */
+    public long getMaxStalenessSeconds() {
+        return maxStalenessMillis / 1000;
+    }
+
+    /**
+     * Estimates how many users match a search and have not been rated by the searching user yet.
+     * The maximum distance of the search is not taken into account.
+     *
+     * @param viewer      Searching user
+     * @param preferences Search preferences of the user
+     * @return Approximate number of suggestions
+     * @throws IllegalStateException if the counters are not loaded
+     */
+    public long estimate(User viewer, SearchPreference preferences) {
+        SegmentCounters users = currentPopulation();
+        SegmentCounters rated = ratedBy(viewer.getId());
+
+        User.Gender gender = preferences.getPreferredGender();
+        Integer minAge = preferences.getMinAge();
+        Integer maxAge = preferences.getMaxAge();
+
+        long count = users.sum(gender, minAge, maxAge) - rated.sum(gender, minAge, maxAge);
+        if (viewer.getGender() != null && viewer.getAge() != null
+                && SegmentCounters.matches(viewer.getGender(), viewer.getAge(), gender, minAge, maxAge)) {
+            count--;
+        }
+        return Math.max(0, count);
+    }
+
+    public void userAdded(User user) {
+        adjustPopulation(user, 1);
+    }
+
+    /**
+     * Removes a deleted user from the population counters and drops their own rated counters.
+     * Counters of raters who had rated the user stay too high until they are reloaded.
+     *
+     * @param user Deleted user
+     */
+    public void userRemoved(User user) {
+        adjustPopulation(user, -1);
+        synchronized (raters) {
+            raters.remove(user.getId());
+        }
+    }
+
+    /**
+     * Moves a user whose gender or age was edited to their new segment of the population counters.
+     * Counters of raters who had rated the user keep the old segment until they are reloaded.
+     *
+     * @param oldGender Gender before the edit
+     * @param oldAge    Age before the edit
+     * @param user      Edited user
+     */
+    public void userMoved(User.Gender oldGender, Integer oldAge, User user) {
+        if (oldGender == user.getGender() && Objects.equals(oldAge, user.getAge())) {
+            return;
+        }
+        adjustPopulation(oldGender, oldAge, -1);
+        adjustPopulation(user.getGender(), user.getAge(), 1);
+    }
+
+    public void ratingAdded(long raterId, User ratedUser) {
+        adjustRated(raterId, ratedUser, 1);
+    }
+
+    public void ratingRemoved(long raterId, User ratedUser) {
+        adjustRated(raterId, ratedUser, -1);
+    }
+
+    public int getCachedRaterCount() {
+        synchronized (raters) {
+            return raters.size();
+        }
+    }
+
+    private void adjustPopulation(User user, int delta) {
+        adjustPopulation(user.getGender(), user.getAge(), delta);
+    }
+
+    private void adjustPopulation(User.Gender gender, Integer age, int delta) {
+        SegmentCounters counters = population;
+        if (counters == null || gender == null || age == null) {
+            return;
+        }
+        counters.add(gender, age, delta);
+    }
+
+    private void adjustRated(long raterId, User ratedUser, int delta) {
+        if (!enabled || ratedUser.getGender() == null || ratedUser.getAge() == null) {
+            return;
+        }
+        synchronized (raters) {
+            SegmentCounters counters = raters.get(raterId);
+            if (counters != null) {
+                counters.add(ratedUser.getGender(), ratedUser.getAge(), delta);
+            }
+        }
+    }
+
+    private SegmentCounters currentPopulation() {
+        SegmentCounters counters = population;
+        if (counters == null) {
+            throw new IllegalStateException("Suggestion counters are not loaded");
+        }
+        if (!isStale(counters)) {
+            return counters;
+        }
+        synchronized (populationLock) {
+            if (isStale(population)) {
+                population = loadPopulation();
+                log.debug("Reloaded stale population counters");
+            }
+            return population;
+        }
+    }
+
+    private SegmentCounters ratedBy(long raterId) {
+        synchronized (raters) {
+            SegmentCounters cached = raters.get(raterId);
+            if (cached != null && !isStale(cached)) {
+                return cached;
+            }
+        }
+
+        SegmentCounters loaded = new SegmentCounters(System.currentTimeMillis());
+        matchingDao.countRatedUsersBySegment(raterId, loaded::add);
+        // Swipes in the buffer are not in the database yet; the bitmap counts a user passed twice only once
+        RoaringBitmap notLive = new RoaringBitmap();
+        ratingArchiveDao.streamArchivedUserIds(raterId, notLive::add);
+        swipeBufferService.forEachPending(raterId, notLive::add);
+        if (!notLive.isEmpty()) {
+            matchingDao.countUsersBySegmentAmong(notLive.toArray(), loaded::add);
+        }
+        log.debug("Loaded rated segment counters of user {}", raterId);
+
+        synchronized (raters) {
+            SegmentCounters raced = raters.get(raterId);
+            if (raced != null && raced.loadedAt() > loaded.loadedAt()) {
+                return raced;
+            }
+            raters.put(raterId, loaded);
+            while (raters.size() > maxRaters) {
+                raters.pollFirstEntry();
+            }
+            return loaded;
+        }
+    }
+
+    private SegmentCounters loadPopulation() {
+        SegmentCounters loaded = new SegmentCounters(System.currentTimeMillis());
+        matchingDao.countUsersBySegment(loaded::add);
+        return loaded;
+    }
+
+    private boolean isStale(SegmentCounters counters) {
+        return System.currentTimeMillis() - counters.loadedAt() > maxStalenessMillis;
+    }
+}
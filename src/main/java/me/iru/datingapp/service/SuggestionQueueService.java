@@ -0,0 +1,212 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PreDestroy;
+import me.iru.datingapp.matching.SuggestionQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class SuggestionQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionQueueService.class);
+
+    private final SuggestionRankingService suggestionRankingService;
+    private final RatedUserCacheService ratedUserCacheService;
+    private final SuggestionCacheService suggestionCacheService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int lowWatermark;
+    private final int maxUsers;
+    private final Executor refillExecutor;
+
+    /**
+     * Access-ordered, so iteration starts at the least recently active user
+     */
+    private final LinkedHashMap<Long, SuggestionQueue> queues = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public SuggestionQueueService(SuggestionRankingService suggestionRankingService,
+                                  RatedUserCacheService ratedUserCacheService,
+                                  SuggestionCacheService suggestionCacheService,
+                                  @Value("${app.matching.queue.enabled:true}") boolean enabled,
+                                  @Value("${app.matching.queue.capacity:50}") int capacity,
+                                  @Value("${app.matching.queue.low-watermark:15}") int lowWatermark,
+                                  @Value("${app.matching.queue.max-users:10000}") int maxUsers,
+                                  @Value("${app.matching.queue.refill-threads:2}") int refillThreads,
+                                  @Value("${app.matching.queue.refill-backlog:1000}") int refillBacklog) {
+        this(suggestionRankingService, ratedUserCacheService, suggestionCacheService, enabled, capacity, lowWatermark,
+                maxUsers, createRefillExecutor(refillThreads, refillBacklog));
+    }
+
+    SuggestionQueueService(SuggestionRankingService suggestionRankingService,
+                           RatedUserCacheService ratedUserCacheService,
+                           SuggestionCacheService suggestionCacheService,
+                           boolean enabled, int capacity, int lowWatermark, int maxUsers,
+                           Executor refillExecutor) {
+        this.suggestionRankingService = suggestionRankingService;
+        this.ratedUserCacheService = ratedUserCacheService;
+        this.suggestionCacheService = suggestionCacheService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        this.maxUsers = maxUsers;
+        this.refillExecutor = refillExecutor;
+    }
+
+    private static ExecutorService createRefillExecutor(int threads, int backlog) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(backlog),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "suggestion-refill-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the head of a user's precomputed suggestion queue.
+     * A queue below its low watermark is topped up in the background; callers compute suggestions
+     * themselves when this returns null.
+     *
+     * @param userId User ID
+     * @param count  Number of suggestions needed from the head of the queue
+     * @return Queued suggestions, or null if the queue cannot serve the request yet
+     */
+    public SuggestionQueue.Snapshot peek(long userId, int count) {
+        if (!enabled || !suggestionRankingService.isAvailable()) {
+            return null;
+        }
+
+        SuggestionQueue queue = queueFor(userId);
+        SuggestionQueue.Snapshot snapshot = null;
+        boolean needsRefill;
+
+        synchronized (queue) {
+            if (queue.isFilled() && (count <= queue.size() || queue.isComplete())) {
+                snapshot = queue.snapshot(count);
+            }
+            needsRefill = !queue.isFilled() || (queue.size() < lowWatermark && !queue.isComplete());
+        }
+
+        if (needsRefill) {
+            scheduleRefill(userId, queue);
+        }
+
+        log.debug("Suggestion queue of user {} {} a read of {}", userId, snapshot != null ? "served" : "missed", count);
+        return snapshot;
+    }
+
+    /**
+     * Removes a rated user from the rater's queue and tops the queue up if it ran low
+     *
+     * @param raterId     ID of the rating user
+     * @param ratedUserId ID of the rated user
+     */
+    public void consume(long raterId, long ratedUserId) {
+        SuggestionQueue queue;
+        synchronized (queues) {
+            queue = queues.get(raterId);
+        }
+        if (queue == null) {
+            return;
+        }
+
+        boolean needsRefill;
+        synchronized (queue) {
+            queue.remove(ratedUserId);
+            needsRefill = queue.size() < lowWatermark && !queue.isComplete();
+        }
+
+        if (needsRefill) {
+            scheduleRefill(raterId, queue);
+        }
+    }
+
+    /**
+     * Drops a user's queue, e.g. after the user changed search preferences
+     *
+     * @param userId User ID
+     */
+    public void invalidate(long userId) {
+        synchronized (queues) {
+            if (queues.remove(userId) != null) {
+                log.debug("Invalidated suggestion queue of user {}", userId);
+            }
+        }
+    }
+
+    public int getQueuedUserCount() {
+        synchronized (queues) {
+            return queues.size();
+        }
+    }
+
+    private SuggestionQueue queueFor(long userId) {
+        synchronized (queues) {
+            SuggestionQueue queue = queues.get(userId);
+            if (queue == null) {
+                queue = new SuggestionQueue(capacity);
+                queues.put(userId, queue);
+
+                Iterator<Long> eldest = queues.keySet().iterator();
+                while (queues.size() > maxUsers && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            return queue;
+        }
+    }
+
+    private void scheduleRefill(long userId, SuggestionQueue queue) {
+        if (!queue.startRefill()) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> refill(userId, queue));
+        } catch (RejectedExecutionException e) {
+            queue.finishRefill();
+            log.warn("Suggestion refill backlog is full, skipping refill for user {}", userId);
+        }
+    }
+
+    /**
+     * Refills a queue from the user's cached ranking, so the queue is a prefix of the list that serves the pages
+     * beyond it
+     */
+    private void refill(long userId, SuggestionQueue queue) {
+        try {
+            long[] ranked = suggestionCacheService.getRanked(userId,
+                    () -> suggestionRankingService.rankCandidates(userId));
+            synchronized (queue) {
+                queue.refill(ranked, candidateId -> !ratedUserCacheService.hasRated(userId, candidateId));
+                log.debug("Refilled suggestion queue of user {} to {} of {} candidates", userId, queue.size(), ranked.length);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refill suggestion queue of user {}: {}", userId, e.getMessage());
+        } finally {
+            queue.finishRefill();
+        }
+    }
+}
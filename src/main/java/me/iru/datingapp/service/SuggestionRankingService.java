@@ -0,0 +1,116 @@
+package me.iru.datingapp.service;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.repository.SearchPreferenceRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestionRankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionRankingService.class);
+
+    private final UserRepository userRepository;
+    private final SearchPreferenceRepository searchPreferenceRepository;
+    private final CandidateIndexService candidateIndexService;
+    private final RatedUserCacheService ratedUserCacheService;
+    private final InterestVectorService interestVectorService;
+    private final GeoIndexService geoIndexService;
+    private final PreferenceIndexService preferenceIndexService;
+    private final SuggestionScoringService suggestionScoringService;
+    private final InboundLikeService inboundLikeService;
+    private final SuggestionShuffleService suggestionShuffleService;
+    private final CoLikeService coLikeService;
+    private final ImpressionService impressionService;
+
+    /**
+     * Checks whether candidates can be ranked in memory
+     *
+     * @return true if the candidate index is ready
+     */
+    public boolean isAvailable() {
+        return candidateIndexService.isReady();
+    }
+
+    /**
+     * Ranks the suggestion candidates of a user, loading the user's search preferences
+     *
+     * @param userId User ID
+     * @return Eligible candidate IDs in ranked order
+     * @throws ResourceNotFoundException if user not found
+     */
+    public long[] rankCandidates(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+
+        SearchPreference preferences = searchPreferenceRepository.findByUserId(userId)
+                .orElse(SearchPreference.defaultForUser(user));
+
+        return rankCandidates(userId, preferences);
+    }
+
+    /**
+     * Ranks the suggestion candidates of a user.
+     * Candidates come from the in-memory index and are pruned to the preferred maximum distance and to
+     * those whose own preferences accept the user; the user's own profile and rated profiles are excluded,
+     * and the rest are shuffled into the user's own order, with users similar to those the user liked moved
+     * to the front, and then ranked by the combined score of the suggestion scorers, or by shared interests
+     * alone when scoring is disabled.
+     * Candidates who already liked the user are interleaved in front at the configured ratio, and candidates
+     * the user was already shown are moved back.
+     *
+     * @param userId      User ID
+     * @param preferences Search preferences of the user
+     * @return Eligible candidate IDs in ranked order
+     */
+    public long[] rankCandidates(Long userId, SearchPreference preferences) {
+        long[] nearby = nearbyCandidates(userId, preferences);
+        long[] unrated = ratedUserCacheService.filterUnrated(userId, nearby);
+        log.debug("{} of {} nearby candidates not yet rated by user {}", unrated.length, nearby.length, userId);
+
+        long[] shuffled = suggestionShuffleService.shuffle(userId, unrated);
+        long[] eligible = coLikeService.promoteSimilar(userId, shuffled);
+
+        long[] ranked = suggestionScoringService.isEnabled()
+                ? suggestionScoringService.rank(userId, eligible)
+                : interestVectorService.rankByInterests(userId, eligible);
+
+        long[] prioritized = inboundLikeService.prioritizeLikers(userId, ranked);
+        return impressionService.demoteShown(userId, prioritized);
+    }
+
+    /**
+     * Counts the suggestion candidates of a user without ranking them
+     *
+     * @param userId      User ID
+     * @param preferences Search preferences of the user
+     * @return Number of eligible candidates
+     */
+    public long countCandidates(Long userId, SearchPreference preferences) {
+        return ratedUserCacheService.countUnrated(userId, nearbyCandidates(userId, preferences));
+    }
+
+    private long[] nearbyCandidates(long viewerId, SearchPreference preferences) {
+        long[] candidates = candidateIndexService.findCandidates(
+                preferences.getPreferredGender(),
+                preferences.getMinAge(),
+                preferences.getMaxAge()
+        );
+
+        long[] withoutViewer = Arrays.stream(candidates)
+                .filter(id -> id != viewerId)
+                .toArray();
+
+        long[] mutual = preferenceIndexService.filterMutual(viewerId, withoutViewer);
+
+        return geoIndexService.filterByDistance(viewerId, mutual, preferences.getMaxDistance());
+    }
+}
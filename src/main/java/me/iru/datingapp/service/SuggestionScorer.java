@@ -0,0 +1,48 @@
+package me.iru.datingapp.service;
+
+/**
+ * Scores suggestion candidates for one aspect of a good match.
+ * Every {@code @Service} implementing this interface is picked up by {@link SuggestionScoringService};
+ * candidate scores of all scorers are combined as a weighted sum.
+ */
+public interface SuggestionScorer {
+
+    /**
+     * Short name used in logs
+     */
+    String getName();
+
+    /**
+     * Weight of this scorer in the combined score; a weight of zero disables the scorer
+     */
+    double getWeight();
+
+    /**
+     * Prepares the per-viewer state of a ranking, e.g. the viewer's location
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Whole candidate pool of the ranking
+     * @return Scorer of candidate ranges, or null if this scorer has nothing to say for the viewer
+     */
+    CandidateScorer prepare(long viewerId, long[] candidateIds);
+
+    /**
+     * Scores ranges of one candidate pool.
+     * Called concurrently from worker threads for disjoint ranges, so implementations must not keep
+     * mutable state between calls.
+     */
+    @FunctionalInterface
+    interface CandidateScorer {
+
+        /**
+         * Scores a range of candidates
+         *
+         * @param candidateIds Candidate user IDs
+         * @param from         First index, inclusive
+         * @param to           Last index, exclusive
+         * @param scores       Receives the score of {@code candidateIds[i]}, between 0 and 1,
+         *                     at {@code scores[i - from]}
+         */
+        void score(long[] candidateIds, int from, int to, double[] scores);
+    }
+}
@@ -0,0 +1,159 @@
+package me.iru.datingapp.service;
+
+import jakarta.annotation.PreDestroy;
+import me.iru.datingapp.matching.TopKHeap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Ranks candidate pools with the weighted sum of every {@link SuggestionScorer}.
+ * The head of the pool is split into chunks that are scored on a dedicated fork-join pool; each chunk keeps
+ * its best candidates in a bounded heap and the heaps are merged into the top-K. Candidates are handled as
+ * primitive IDs and scores throughout, so ranking never touches JPA entities and scales with the cores.
+ */
+@Service
+public class SuggestionScoringService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionScoringService.class);
+
+    private final List<SuggestionScorer> scorers;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int poolSize;
+    private final int topK;
+    private final ForkJoinPool forkJoinPool;
+
+    public SuggestionScoringService(List<SuggestionScorer> scorers,
+                                    @Value("${app.matching.scoring.enabled:true}") boolean enabled,
+                                    @Value("${app.matching.scoring.parallelism:0}") int parallelism,
+                                    @Value("${app.matching.scoring.chunk-size:2048}") int chunkSize,
+                                    @Value("${app.matching.scoring.pool-size:20000}") int poolSize,
+                                    @Value("${app.matching.scoring.top-k:200}") int topK) {
+        if (chunkSize <= 0 || poolSize <= 0 || topK <= 0) {
+            throw new IllegalArgumentException("Scoring chunk size, pool size and top-k must be positive");
+        }
+        this.scorers = scorers;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.poolSize = poolSize;
+        this.topK = topK;
+        this.forkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ranks candidates by their combined score, best first.
+     * Only the first {@code pool-size} candidates are scored and only the best {@code top-k} of them are
+     * moved to the front; every other candidate follows in its original order.
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return New array with the same candidates in ranked order
+     */
+    public long[] rank(long viewerId, long[] candidateIds) {
+        if (!enabled || candidateIds.length < 2) {
+            return candidateIds.clone();
+        }
+
+        long start = System.nanoTime();
+        int poolLength = Math.min(candidateIds.length, poolSize);
+        long[] pool = Arrays.copyOf(candidateIds, poolLength);
+
+        SuggestionScorer.CandidateScorer[] prepared = new SuggestionScorer.CandidateScorer[scorers.size()];
+        double[] weights = new double[scorers.size()];
+        int active = 0;
+        for (SuggestionScorer scorer : scorers) {
+            if (scorer.getWeight() == 0) {
+                continue;
+            }
+            SuggestionScorer.CandidateScorer candidateScorer = scorer.prepare(viewerId, pool);
+            if (candidateScorer != null) {
+                prepared[active] = candidateScorer;
+                weights[active++] = scorer.getWeight();
+            }
+        }
+        if (active == 0) {
+            return candidateIds.clone();
+        }
+
+        SuggestionScorer.CandidateScorer[] activeScorers = Arrays.copyOf(prepared, active);
+        double[] activeWeights = Arrays.copyOf(weights, active);
+
+        TopKHeap best;
+        if (poolLength <= chunkSize) {
+            best = scoreChunk(pool, 0, poolLength, activeScorers, activeWeights);
+        } else {
+            List<ForkJoinTask<TopKHeap>> tasks = new ArrayList<>();
+            for (int from = 0; from < poolLength; from += chunkSize) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(from + chunkSize, poolLength);
+                tasks.add(forkJoinPool.submit(() -> scoreChunk(pool, chunkFrom, chunkTo, activeScorers, activeWeights)));
+            }
+            best = new TopKHeap(topK);
+            for (ForkJoinTask<TopKHeap> task : tasks) {
+                best.merge(task.join());
+            }
+        }
+
+        long[] ranked = orderBest(candidateIds, poolLength, best.drainSorted());
+        log.debug("Scored {} of {} candidates for user {} with {} scorers in {} us",
+                poolLength, candidateIds.length, viewerId, active, (System.nanoTime() - start) / 1000);
+        return ranked;
+    }
+
+    private TopKHeap scoreChunk(long[] pool, int from, int to,
+                                SuggestionScorer.CandidateScorer[] candidateScorers, double[] weights) {
+        int length = to - from;
+        double[] combined = new double[length];
+        double[] scores = new double[length];
+
+        for (int s = 0; s < candidateScorers.length; s++) {
+            candidateScorers[s].score(pool, from, to, scores);
+            double weight = weights[s];
+            for (int i = 0; i < length; i++) {
+                combined[i] += weight * scores[i];
+            }
+        }
+
+        TopKHeap heap = new TopKHeap(topK);
+        for (int i = 0; i < length; i++) {
+            heap.offer(from + i, combined[i]);
+        }
+        return heap;
+    }
+
+    /**
+     * Moves the best positions to the front, keeping the original order of everything else
+     */
+    private static long[] orderBest(long[] candidateIds, int poolLength, int[] bestPositions) {
+        long[] ranked = new long[candidateIds.length];
+        boolean[] moved = new boolean[poolLength];
+        int count = 0;
+        for (int position : bestPositions) {
+            ranked[count++] = candidateIds[position];
+            moved[position] = true;
+        }
+        for (int i = 0; i < candidateIds.length; i++) {
+            if (i >= poolLength || !moved[i]) {
+                ranked[count++] = candidateIds[i];
+            }
+        }
+        return ranked;
+    }
+}
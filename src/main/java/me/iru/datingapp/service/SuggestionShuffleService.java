@@ -0,0 +1,46 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.SeededShuffle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Gives every viewer their own stable order of candidates.
+ * Without it candidates come in primary-key order, so viewers with similar preferences all see the same
+ * first profiles and those few users receive most of the ratings, notifications and match checks.
+ * The order depends on the viewer and on the current epoch, so it stays stable while paging and rotates
+ * once per epoch.
+ */
+@Service
+public class SuggestionShuffleService {
+
+    private final boolean enabled;
+    private final long epochMillis;
+
+    public SuggestionShuffleService(@Value("${app.matching.shuffle.enabled:true}") boolean enabled,
+                                    @Value("${app.matching.shuffle.epoch-hours:24}") long epochHours) {
+        if (epochHours <= 0) {
+            throw new IllegalArgumentException("Shuffle epoch must be positive: " + epochHours);
+        }
+        this.enabled = enabled;
+        this.epochMillis = epochHours * 60 * 60 * 1000;
+    }
+
+    /**
+     * Puts candidates into the viewer's order for the current epoch
+     *
+     * @param viewerId     ID of the viewing user
+     * @param candidateIds Candidate user IDs
+     * @return Candidates in the viewer's order, or unchanged when shuffling is disabled
+     */
+    public long[] shuffle(long viewerId, long[] candidateIds) {
+        if (!enabled) {
+            return candidateIds;
+        }
+        return SeededShuffle.shuffle(candidateIds, seedOf(viewerId));
+    }
+
+    private long seedOf(long viewerId) {
+        return SeededShuffle.seedOf(viewerId, System.currentTimeMillis() / epochMillis);
+    }
+}
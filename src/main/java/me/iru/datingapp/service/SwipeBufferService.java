@@ -0,0 +1,272 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.OutboxEvent;
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.event.SwipeWriteEvent;
+import me.iru.datingapp.matching.SwipeBuffer;
+import me.iru.datingapp.repository.RatingRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Holds swipes in memory for a grace window before they are written, so a swipe undone within the window
+ * never reaches the database.
+ * Due swipes are written on a fixed delay in one transaction, each rater's swipes as one JDBC batch together
+ * with their outbox events; a rater who keeps swiping is written once the configured number of swipes is pending.
+ * Swipes still buffered are written when the application shuts down, and are lost if the instance crashes.
+ * Swipes taken for a write stay in flight until its transaction completes; removing one of them waits until then,
+ * so an undo either drops the swipe put back after a rollback or finds the committed rating to delete.
+ */
+@Service
+public class SwipeBufferService {
+
+    private static final Logger log = LoggerFactory.getLogger(SwipeBufferService.class);
+
+    private final MatchingDao matchingDao;
+    private final RatingRepository ratingRepository;
+    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long graceMillis;
+    private final int maxPending;
+    private final SwipeBuffer buffer;
+    private final Object flushLock = new Object();
+    private volatile Map<Long, Map<Long, Rating.RatingType>> inFlight;
+
+    public SwipeBufferService(MatchingDao matchingDao,
+                              RatingRepository ratingRepository,
+                              UserRepository userRepository,
+                              OutboxService outboxService,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.matching.swipe-buffer.enabled:true}") boolean enabled,
+                              @Value("${app.matching.swipe-buffer.grace-seconds:5}") long graceSeconds,
+                              @Value("${app.matching.swipe-buffer.max-pending:100}") int maxPending,
+                              @Value("${app.matching.swipe-buffer.stripes:16}") int stripes) {
+        if (graceSeconds < 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Swipe grace window must not be negative and max pending must be positive");
+        }
+        this.matchingDao = matchingDao;
+        this.ratingRepository = ratingRepository;
+        this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.graceMillis = TimeUnit.SECONDS.toMillis(graceSeconds);
+        this.maxPending = maxPending;
+        this.buffer = new SwipeBuffer(stripes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers a swipe until its grace window has passed
+     *
+     * @return false if the rater already has a pending swipe on the user
+     */
+    public boolean buffer(Long raterId, Long ratedUserId, Rating.RatingType ratingType) {
+        return buffer.add(raterId, ratedUserId, ratingType, System.currentTimeMillis());
+    }
+
+    /**
+     * Type of a swipe still in its grace window
+     *
+     * @return Rating type, null if no swipe is pending
+     */
+    public Rating.RatingType pendingType(Long raterId, Long ratedUserId) {
+        return buffer.pendingType(raterId, ratedUserId);
+    }
+
+    /**
+     * Passes the users a rater has swiped on but whose ratings may not be committed yet to the action:
+     * swipes in their grace window and swipes being written. A user may be passed more than once.
+     */
+    public void forEachPending(long raterId, LongConsumer action) {
+        // In flight before and after the buffer, so a swipe taken for a write in between is not missed
+        forEachInFlight(raterId, action);
+        buffer.forEachPending(raterId, action);
+        forEachInFlight(raterId, action);
+    }
+
+    /**
+     * Drops a swipe still in its grace window. A swipe being written is waited for, and dropped if the write
+     * rolled back and put it back.
+     *
+     * @return Type of the dropped swipe, null if no swipe was pending
+     */
+    public Rating.RatingType remove(Long raterId, Long ratedUserId) {
+        Rating.RatingType ratingType = buffer.remove(raterId, ratedUserId, null);
+        if (ratingType != null) {
+            return ratingType;
+        }
+        synchronized (flushLock) {
+            while (isInFlight(raterId, ratedUserId)) {
+                try {
+                    flushLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for buffered swipes to be written", e);
+                }
+            }
+        }
+        return buffer.remove(raterId, ratedUserId, null);
+    }
+
+    /**
+     * Takes a pending like out of the buffer so it can be written right away
+     *
+     * @return true if a like was pending
+     */
+    public boolean takeLike(Long raterId, Long ratedUserId) {
+        return buffer.remove(raterId, ratedUserId, Rating.RatingType.LIKE) != null;
+    }
+
+    public int pendingCount() {
+        return buffer.pendingCount();
+    }
+
+    /**
+     * Writes the swipes whose grace window has passed
+     *
+     * @return Number of written ratings
+     */
+    @Scheduled(fixedDelayString = "${app.matching.swipe-buffer.flush-millis:1000}",
+            initialDelayString = "${app.matching.swipe-buffer.flush-millis:1000}")
+    @Transactional
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+        return write(System.currentTimeMillis() - graceMillis, maxPending);
+    }
+
+    /**
+     * Writes every buffered swipe before the application stops
+     */
+    @EventListener(ContextClosedEvent.class)
+    @Transactional
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+        write(Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * Writes due swipes, skipping raters and rated users deleted since the swipe and swipes already written.
+     * Swipes that fail to be written are put back for the next flush and the transaction rolls back.
+     * The written swipes stay in flight until the transaction completes.
+     */
+    private int write(long cutoff, int maxPendingPerRater) {
+        synchronized (flushLock) {
+            awaitNoneInFlight();
+            Map<Long, Map<Long, Rating.RatingType>> due = buffer.drainDue(cutoff, maxPendingPerRater);
+            if (due.isEmpty()) {
+                return 0;
+            }
+
+            inFlight = due;
+            long start = System.currentTimeMillis();
+            try {
+                int written = insert(due);
+                log.debug("Flushed {} buffered swipes of {} users in {} ms",
+                        written, due.size(), System.currentTimeMillis() - start);
+                return written;
+            } catch (RuntimeException e) {
+                log.warn("Failed to write buffered swipes of {} users, retrying on next flush", due.size(), e);
+                long now = System.currentTimeMillis();
+                due.forEach((raterId, swipes) -> buffer.restore(raterId, swipes, now));
+                throw e;
+            } finally {
+                eventPublisher.publishEvent(new SwipeWriteEvent(due.size()));
+            }
+        }
+    }
+
+    private void forEachInFlight(long raterId, LongConsumer action) {
+        Map<Long, Map<Long, Rating.RatingType>> writing = inFlight;
+        Map<Long, Rating.RatingType> swipes = writing == null ? null : writing.get(raterId);
+        if (swipes != null) {
+            swipes.keySet().forEach(action::accept);
+        }
+    }
+
+    private boolean isInFlight(Long raterId, Long ratedUserId) {
+        Map<Long, Rating.RatingType> swipes = inFlight == null ? null : inFlight.get(raterId);
+        return swipes != null && swipes.containsKey(ratedUserId);
+    }
+
+    private void awaitNoneInFlight() {
+        while (inFlight != null) {
+            try {
+                flushLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for buffered swipes to be written", e);
+            }
+        }
+    }
+
+    /**
+     * Clears the in-flight swipes once the transaction writing them has completed, or right away without one
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onSwipeWriteCompleted(SwipeWriteEvent event) {
+        log.debug("Released in-flight swipes of {} users", event.raterCount());
+        synchronized (flushLock) {
+            inFlight = null;
+            flushLock.notifyAll();
+        }
+    }
+
+    private int insert(Map<Long, Map<Long, Rating.RatingType>> due) {
+        Set<Long> userIds = new HashSet<>(due.keySet());
+        due.values().forEach(swipes -> userIds.addAll(swipes.keySet()));
+        Set<Long> existing = new HashSet<>(userRepository.findExistingIds(userIds));
+
+        List<OutboxEvent> events = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, Rating.RatingType>> rater : due.entrySet()) {
+            Long raterId = rater.getKey();
+            if (!existing.contains(raterId)) {
+                continue;
+            }
+            Map<Long, Rating.RatingType> swipes = new LinkedHashMap<>(rater.getValue());
+            swipes.keySet().retainAll(existing);
+            if (swipes.isEmpty()) {
+                continue;
+            }
+            swipes.keySet().removeAll(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(raterId, swipes.keySet()));
+            if (swipes.isEmpty()) {
+                continue;
+            }
+
+            matchingDao.insertRatings(raterId, swipes);
+            swipes.forEach((ratedUserId, ratingType) -> events.add(new OutboxEvent(
+                    OutboxEvent.EventType.RATING_CREATED, raterId, ratedUserId, null, ratingType.name())));
+        }
+        outboxService.publishAll(events);
+        return events.size();
+    }
+}
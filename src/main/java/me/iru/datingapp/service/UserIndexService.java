@@ -0,0 +1,69 @@
+package me.iru.datingapp.service;
+
+import lombok.RequiredArgsConstructor;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.event.UserChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the in-memory matching indexes and caches in step with registered, edited and deleted users.
+ * Changes are applied only after their transaction commits, so a rolled back change leaves no phantom or
+ * missing entries behind.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserIndexService {
+
+    private final CandidateIndexService candidateIndexService;
+    private final RatedUserCacheService ratedUserCacheService;
+    private final SuggestionQueueService suggestionQueueService;
+    private final InterestVectorService interestVectorService;
+    private final GeoIndexService geoIndexService;
+    private final PreferenceIndexService preferenceIndexService;
+    private final SuggestionCountService suggestionCountService;
+    private final RecencyScoringService recencyScoringService;
+    private final LastActiveService lastActiveService;
+    private final InboundLikeService inboundLikeService;
+    private final SuggestionCacheService suggestionCacheService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRegistered(UserChangedEvent.Registered event) {
+        User user = event.user();
+        candidateIndexService.indexUser(user);
+        geoIndexService.indexUser(user);
+        preferenceIndexService.indexUser(user);
+        suggestionCountService.userAdded(user);
+        recencyScoringService.indexUser(user);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUpdated(UserChangedEvent.Updated event) {
+        User user = event.user();
+        if (event.interestIds() != null) {
+            interestVectorService.replaceInterests(user.getId(), event.interestIds());
+        }
+        candidateIndexService.indexUser(user);
+        geoIndexService.indexUser(user);
+        preferenceIndexService.indexUser(user);
+        suggestionCountService.userMoved(event.oldGender(), event.oldAge(), user);
+        suggestionCacheService.invalidatePreferences(user.getId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDeleted(UserChangedEvent.Deleted event) {
+        Long id = event.user().getId();
+        candidateIndexService.removeUser(id);
+        ratedUserCacheService.evict(id);
+        suggestionQueueService.invalidate(id);
+        interestVectorService.removeUser(id);
+        geoIndexService.removeUser(id);
+        preferenceIndexService.removeUser(id);
+        suggestionCountService.userRemoved(event.user());
+        recencyScoringService.removeUser(id);
+        lastActiveService.removeUser(id);
+        inboundLikeService.removeUser(id);
+        suggestionCacheService.removeUser(id);
+    }
+}
@@ -7,6 +7,7 @@ import me.iru.datingapp.dto.UserUpdateDto;
 import me.iru.datingapp.entity.Interest;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.entity.UserInterest;
+import me.iru.datingapp.event.UserChangedEvent;
 import me.iru.datingapp.exception.FileStorageException;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.exception.UserAlreadyExistsException;
@@ -16,6 +17,7 @@ import me.iru.datingapp.repository.UserInterestRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -38,6 +40,9 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final FileStorageService fileStorageService;
+    private final ImpressionService impressionService;
+    private final RatingArchiveService ratingArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Registers a new user in the system
@@ -61,6 +66,8 @@ public class UserService {
         User savedUser = userRepository.save(user);
         log.info("Successfully registered user with ID: {} and email: {}", savedUser.getId(), savedUser.getEmail());
 
+        eventPublisher.publishEvent(new UserChangedEvent.Registered(savedUser));
+
         return userMapper.toDto(savedUser);
     }
 
@@ -118,6 +125,8 @@ public class UserService {
                     return new ResourceNotFoundException("User not found with ID: " + id);
                 });
 
+        User.Gender oldGender = user.getGender();
+        Integer oldAge = user.getAge();
         userMapper.updateEntityFromDto(dto, user);
 
         if (dto.getInterestIds() != null) {
@@ -127,6 +136,8 @@ public class UserService {
         User updatedUser = userRepository.save(user);
         log.info("Successfully updated profile for user ID: {}", id);
 
+        eventPublisher.publishEvent(new UserChangedEvent.Updated(updatedUser, oldGender, oldAge, dto.getInterestIds()));
+
         return userMapper.toDto(updatedUser);
     }
 
@@ -156,6 +167,10 @@ public class UserService {
 
         userRepository.delete(user);
         log.info("Successfully deleted user with ID: {}", id);
+
+        impressionService.removeUser(id);
+        ratingArchiveService.removeUser(id);
+        eventPublisher.publishEvent(new UserChangedEvent.Deleted(user));
     }
 
     /**
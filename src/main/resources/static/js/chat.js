@@ -0,0 +1,216 @@
+// Real-time chat: a minimal STOMP 1.2 client over a native WebSocket.
+// Messages typed while connected are sent over the socket; the form falls back to a regular POST otherwise.
+document.addEventListener('DOMContentLoaded', function() {
+
+    const container = document.getElementById('messagesContainer');
+    const form = document.getElementById('messageForm');
+    if (!container || !form) {
+        return;
+    }
+
+    const matchId = Number(container.dataset.matchId);
+    const currentUserId = Number(container.dataset.currentUserId);
+    const input = form.querySelector('input[name="content"]');
+    let socket = null;
+    let connected = false;
+
+    function scrollToBottom() {
+        container.scrollTop = container.scrollHeight;
+    }
+
+    function frame(command, headers, body) {
+        let text = command + '\n';
+        Object.keys(headers).forEach(name => text += name + ':' + headers[name] + '\n');
+        return text + '\n' + (body || '') + '\0';
+    }
+
+    function parseFrame(data) {
+        const text = data.replace(/\0$/, '');
+        const headerEnd = text.indexOf('\n\n');
+        const lines = text.substring(0, headerEnd).split('\n');
+        const headers = {};
+        lines.slice(1).forEach(line => {
+            const separator = line.indexOf(':');
+            headers[line.substring(0, separator)] = line.substring(separator + 1);
+        });
+        return {command: lines[0], headers: headers, body: text.substring(headerEnd + 2)};
+    }
+
+    function send(destination, body) {
+        socket.send(frame('SEND', {destination: destination, 'content-type': 'text/plain;charset=UTF-8'}, body));
+    }
+
+    function formatTime(sentAt) {
+        return sentAt ? sentAt.substring(11, 16) : '';
+    }
+
+    function showError(text) {
+        const alert = document.createElement('div');
+        alert.className = 'alert alert-danger';
+        alert.textContent = text;
+        container.prepend(alert);
+        setTimeout(() => alert.remove(), 5000);
+    }
+
+    function messageList() {
+        const placeholder = document.getElementById('noMessages');
+        if (placeholder) {
+            placeholder.remove();
+        }
+        let list = document.getElementById('messageList');
+        if (!list) {
+            list = document.createElement('div');
+            list.id = 'messageList';
+            container.appendChild(list);
+        }
+        return list;
+    }
+
+    function buildMessage(message) {
+        const sent = message.senderId === currentUserId;
+        const item = document.createElement('div');
+        item.className = 'mb-3';
+        item.dataset.messageId = message.id;
+
+        const row = document.createElement('div');
+        row.className = 'd-flex ' + (sent ? 'justify-content-end' : 'justify-content-start');
+        const card = document.createElement('div');
+        card.className = 'card ' + (sent ? 'bg-primary text-white' : 'bg-light');
+        card.style.maxWidth = '70%';
+        const body = document.createElement('div');
+        body.className = 'card-body p-2';
+        const content = document.createElement('p');
+        content.className = 'mb-1';
+        content.textContent = message.content;
+        const time = document.createElement('small');
+        time.className = sent ? 'text-white-50' : 'text-muted';
+        time.textContent = formatTime(message.sentAt);
+
+        body.append(content, time);
+        if (sent) {
+            const receipt = document.createElement('i');
+            receipt.className = 'bi bi-check2-all text-white-50 read-receipt' + (message.isRead ? '' : ' d-none');
+            body.append(' ', receipt);
+        }
+        card.appendChild(body);
+        row.appendChild(card);
+        item.appendChild(row);
+        return item;
+    }
+
+    function appendMessage(message) {
+        if (container.querySelector('[data-message-id="' + message.id + '"]')) {
+            return;
+        }
+        messageList().appendChild(buildMessage(message));
+        scrollToBottom();
+
+        if (message.senderId !== currentUserId) {
+            send('/app/chat/' + matchId + '/read/' + message.id, '');
+        }
+    }
+
+    // Older messages are read through the message window API, one window per click
+    function loadOlder(button) {
+        const cursor = container.dataset.olderCursor;
+        if (!cursor) {
+            return;
+        }
+        button.disabled = true;
+        const params = new URLSearchParams({userId: currentUserId, before: cursor});
+        fetch(container.dataset.windowPath + '?' + params, {headers: {Accept: 'application/json'}})
+            .then(response => {
+                if (!response.ok) {
+                    throw new Error('Failed to load older messages');
+                }
+                return response.json();
+            })
+            .then(page => {
+                const list = messageList();
+                const previousHeight = container.scrollHeight;
+                const items = document.createDocumentFragment();
+                page.content.forEach(message => items.appendChild(buildMessage(message)));
+                list.prepend(items);
+                container.scrollTop += container.scrollHeight - previousHeight;
+
+                container.dataset.olderCursor = page.olderCursor || '';
+                if (!page.hasOlder) {
+                    document.getElementById('loadOlder').remove();
+                }
+            })
+            .catch(error => showError(error.message))
+            .finally(() => button.disabled = false);
+    }
+
+    // A receipt covers the message and every earlier one, as read state is a watermark
+    function markRead(messageId) {
+        container.querySelectorAll('[data-message-id]').forEach(item => {
+            const receipt = item.querySelector('.read-receipt');
+            if (receipt && Number(item.dataset.messageId) <= messageId) {
+                receipt.classList.remove('d-none');
+            }
+        });
+    }
+
+    function handleEvent(event) {
+        if (event.type === 'ERROR') {
+            showError(event.error);
+        } else if (event.matchId !== matchId) {
+            return;
+        } else if (event.type === 'MESSAGE') {
+            appendMessage(event.message);
+        } else if (event.type === 'READ') {
+            markRead(event.messageId);
+        }
+    }
+
+    function connect() {
+        const protocol = window.location.protocol === 'https:' ? 'wss://' : 'ws://';
+        socket = new WebSocket(protocol + window.location.host + container.dataset.wsPath);
+
+        socket.onopen = function() {
+            socket.send(frame('CONNECT', {'accept-version': '1.2', host: window.location.hostname, 'heart-beat': '0,0'}));
+        };
+        socket.onmessage = function(e) {
+            if (typeof e.data !== 'string' || e.data.trim() === '') {
+                return;
+            }
+            const stomp = parseFrame(e.data);
+            if (stomp.command === 'CONNECTED') {
+                socket.send(frame('SUBSCRIBE', {id: 'chat', destination: '/user/queue/chat'}));
+                connected = true;
+            } else if (stomp.command === 'MESSAGE') {
+                handleEvent(JSON.parse(stomp.body));
+            } else if (stomp.command === 'ERROR') {
+                showError(stomp.headers.message || 'Chat connection error');
+            }
+        };
+        socket.onclose = function() {
+            connected = false;
+            setTimeout(connect, 5000);
+        };
+    }
+
+    form.addEventListener('submit', function(e) {
+        if (!connected) {
+            return;
+        }
+        e.preventDefault();
+        const content = input.value.trim();
+        if (content) {
+            send('/app/chat/' + matchId + '/send', content);
+        }
+        input.value = '';
+        input.focus();
+    });
+
+    const loadOlderButton = document.querySelector('#loadOlder button');
+    if (loadOlderButton) {
+        loadOlderButton.addEventListener('click', () => loadOlder(loadOlderButton));
+    }
+
+    scrollToBottom();
+    if ('WebSocket' in window) {
+        connect();
+    }
+});
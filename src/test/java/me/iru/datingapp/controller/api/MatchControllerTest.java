@@ -1,5 +1,6 @@
 package me.iru.datingapp.controller.api;
 
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.service.MatchService;
@@ -108,6 +109,38 @@ class MatchControllerTest {
         verify(matchService, times(1)).getActiveMatches(999L);
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetInbox_Success() throws Exception {
+        match1.setUnreadCount(2);
+        when(matchService.getInbox(1L, "cursor", 10)).thenReturn(new InboxPageDto(List.of(match1), "next", true));
+
+        mockMvc.perform(get("/api/matches/inbox")
+                        .param("userId", "1")
+                        .param("before", "cursor")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].unreadCount", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is("next")))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+
+        verify(matchService, times(1)).getInbox(1L, "cursor", 10);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetInbox_MalformedCursor() throws Exception {
+        when(matchService.getInbox(1L, "bad", 20))
+                .thenThrow(new IllegalArgumentException("Invalid inbox cursor"));
+
+        mockMvc.perform(get("/api/matches/inbox")
+                        .param("userId", "1")
+                        .param("before", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "test@example.com", roles = "USER")
     void testUnmatch_Success() throws Exception {
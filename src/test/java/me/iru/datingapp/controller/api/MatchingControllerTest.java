@@ -1,7 +1,11 @@
 package me.iru.datingapp.controller.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import me.iru.datingapp.dto.BatchRatingDto;
 import me.iru.datingapp.dto.RatingDto;
+import me.iru.datingapp.dto.RatingResultDto;
+import me.iru.datingapp.dto.SuggestionCountDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.Rating;
 import me.iru.datingapp.entity.User;
@@ -23,6 +27,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
@@ -31,6 +36,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -164,6 +170,69 @@ class MatchingControllerTest {
         verify(matchingService, times(1)).getSuggestedUsers(eq(1L), any(Pageable.class));
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetSuggestionFeed_Success() throws Exception {
+        SuggestionFeedDto feed = new SuggestionFeedDto(List.of(suggestedUser1), "aWQ6Mg", true);
+
+        when(matchingService.getSuggestionFeed(1L, "", 1)).thenReturn(feed);
+
+        mockMvc.perform(get("/api/matching/suggestions")
+                        .param("userId", "1")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is("aWQ6Mg")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+
+        verify(matchingService, times(1)).getSuggestionFeed(1L, "", 1);
+        verify(matchingService, never()).getSuggestedUsers(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetSuggestionFeed_InvalidCursor() throws Exception {
+        when(matchingService.getSuggestionFeed(1L, "bogus", 10))
+                .thenThrow(new IllegalArgumentException("Invalid suggestion cursor"));
+
+        mockMvc.perform(get("/api/matching/suggestions")
+                        .param("userId", "1")
+                        .param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testCountSuggestions_Estimate() throws Exception {
+        when(matchingService.estimateAvailableSuggestionsCount(1L, false))
+                .thenReturn(new SuggestionCountDto(42L, false, 300L));
+
+        mockMvc.perform(get("/api/matching/suggestions/count")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(42)))
+                .andExpect(jsonPath("$.exact", is(false)))
+                .andExpect(jsonPath("$.maxStalenessSeconds", is(300)));
+
+        verify(matchingService, times(1)).estimateAvailableSuggestionsCount(1L, false);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testCountSuggestions_Exact() throws Exception {
+        when(matchingService.estimateAvailableSuggestionsCount(1L, true))
+                .thenReturn(new SuggestionCountDto(7L, true, 0L));
+
+        mockMvc.perform(get("/api/matching/suggestions/count")
+                        .param("userId", "1")
+                        .param("exact", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(7)))
+                .andExpect(jsonPath("$.exact", is(true)));
+    }
+
     @Test
     @WithMockUser(username = "test@example.com", roles = "USER")
     void testRateUser_Like_Success() throws Exception {
@@ -240,5 +309,91 @@ class MatchingControllerTest {
 
         verify(ratingService, times(1)).rateUser(eq(1L), any(RatingDto.class));
     }
-}
 
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testUndoRating_Success() throws Exception {
+        doNothing().when(ratingService).undoRating(1L, 2L);
+
+        mockMvc.perform(delete("/api/matching/rate/2")
+                        .with(csrf())
+                        .param("userId", "1"))
+                .andExpect(status().isNoContent());
+
+        verify(ratingService, times(1)).undoRating(1L, 2L);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testRateUsers_Batch_Success() throws Exception {
+        RatingDto dislike = new RatingDto(3L, Rating.RatingType.DISLIKE);
+        BatchRatingDto batch = new BatchRatingDto(List.of(ratingDto, dislike));
+        when(ratingService.rateUsers(eq(1L), any())).thenReturn(List.of(
+                new RatingResultDto(2L, RatingResultDto.Outcome.MATCHED, 10L),
+                new RatingResultDto(3L, RatingResultDto.Outcome.ALREADY_RATED, null)));
+
+        mockMvc.perform(post("/api/matching/rate/batch")
+                        .with(csrf())
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].outcome", is("MATCHED")))
+                .andExpect(jsonPath("$[0].matchId", is(10)))
+                .andExpect(jsonPath("$[1].ratedUserId", is(3)))
+                .andExpect(jsonPath("$[1].outcome", is("ALREADY_RATED")));
+
+        verify(ratingService, times(1)).rateUsers(eq(1L), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testRateUsers_ValidationFails_EmptyBatch() throws Exception {
+        BatchRatingDto batch = new BatchRatingDto(List.of());
+
+        mockMvc.perform(post("/api/matching/rate/batch")
+                        .with(csrf())
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        verify(ratingService, never()).rateUsers(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testRateUsers_ValidationFails_InvalidRating() throws Exception {
+        ratingDto.setRatingType(null);
+        BatchRatingDto batch = new BatchRatingDto(List.of(ratingDto));
+
+        mockMvc.perform(post("/api/matching/rate/batch")
+                        .with(csrf())
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        verify(ratingService, never()).rateUsers(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testRateUsers_ValidationFails_BatchTooLarge() throws Exception {
+        List<RatingDto> ratings = new ArrayList<>();
+        for (long id = 2; id < BatchRatingDto.MAX_RATINGS + 3; id++) {
+            ratings.add(new RatingDto(id, Rating.RatingType.LIKE));
+        }
+        BatchRatingDto batch = new BatchRatingDto(ratings);
+
+        mockMvc.perform(post("/api/matching/rate/batch")
+                        .with(csrf())
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        verify(ratingService, never()).rateUsers(any(), any());
+    }
+}
@@ -2,6 +2,7 @@ package me.iru.datingapp.controller.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.exception.MatchNotActiveException;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.service.MessageService;
@@ -237,6 +238,53 @@ class MessageControllerTest {
         verify(messageService, times(1)).getMessageHistory(eq(999L), eq(1L));
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetMessageWindow_Success() throws Exception {
+        MessageWindowDto window = new MessageWindowDto(List.of(message1, message2), "older", "newer", true, false);
+        when(messageService.getMessageWindow(1L, 1L, "cursor", null, 20)).thenReturn(window);
+
+        mockMvc.perform(get("/api/messages/match/{matchId}/window", 1L)
+                        .param("userId", "1")
+                        .param("before", "cursor")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.olderCursor", is("older")))
+                .andExpect(jsonPath("$.newerCursor", is("newer")))
+                .andExpect(jsonPath("$.hasOlder", is(true)))
+                .andExpect(jsonPath("$.hasNewer", is(false)));
+
+        verify(messageService, times(1)).getMessageWindow(1L, 1L, "cursor", null, 20);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetMessageWindow_DefaultsToLatest() throws Exception {
+        when(messageService.getMessageWindow(1L, 1L, null, null, 50))
+                .thenReturn(new MessageWindowDto(List.of(), null, null, false, false));
+
+        mockMvc.perform(get("/api/messages/match/{matchId}/window", 1L)
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        verify(messageService, times(1)).getMessageWindow(1L, 1L, null, null, 50);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void testGetMessageWindow_MalformedCursor() throws Exception {
+        when(messageService.getMessageWindow(1L, 1L, "bad", null, 50))
+                .thenThrow(new IllegalArgumentException("Invalid message cursor"));
+
+        mockMvc.perform(get("/api/messages/match/{matchId}/window", 1L)
+                        .param("userId", "1")
+                        .param("before", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "test@example.com", roles = "USER")
     void testDeleteConversation_Success() throws Exception {
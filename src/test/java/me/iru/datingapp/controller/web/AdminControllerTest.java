@@ -242,9 +242,15 @@ class AdminControllerTest {
         activityStats.put("totalMessages", 200L);
         activityStats.put("totalRatings", 150L);
 
+        Map<String, Long> cacheStats = new HashMap<>();
+        cacheStats.put("hits", 30L);
+        cacheStats.put("misses", 10L);
+        cacheStats.put("entries", 8L);
+
         when(adminService.getUserStatistics()).thenReturn(userStats);
         when(adminService.getMatchStatistics()).thenReturn(matchStats);
         when(adminService.getActivityStatistics()).thenReturn(activityStats);
+        when(adminService.getSuggestionCacheStatistics()).thenReturn(cacheStats);
 
         mockMvc.perform(get("/admin/statistics")
                         .with(user("admin@example.com").roles("ADMIN")))
@@ -256,7 +262,9 @@ class AdminControllerTest {
                 .andExpect(model().attribute("totalMatches", 50L))
                 .andExpect(model().attribute("activeMatches", 40L))
                 .andExpect(model().attribute("totalMessages", 200L))
-                .andExpect(model().attribute("totalRatings", 150L));
+                .andExpect(model().attribute("totalRatings", 150L))
+                .andExpect(model().attribute("suggestionCacheHits", 30L))
+                .andExpect(model().attribute("suggestionCacheMisses", 10L));
 
         verify(adminService, times(1)).getUserStatistics();
         verify(adminService, times(1)).getMatchStatistics();
@@ -0,0 +1,56 @@
+package me.iru.datingapp.controller.web;
+
+import me.iru.datingapp.dto.ChatEventDto;
+import me.iru.datingapp.exception.MatchNotActiveException;
+import me.iru.datingapp.service.ChatService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatControllerTest {
+
+    @Mock
+    private ChatService chatService;
+
+    @InjectMocks
+    private ChatController chatController;
+
+    private final Principal principal = () -> "test@example.com";
+
+    @Test
+    void testSendMessage_UsesAuthenticatedUser() {
+        chatController.sendMessage(principal, 1L, "Hello!");
+
+        verify(chatService).sendMessage("test@example.com", 1L, "Hello!");
+    }
+
+    @Test
+    void testMarkAsRead_UsesAuthenticatedUser() {
+        chatController.markAsRead(principal, 1L, 5L);
+
+        verify(chatService).markAsRead("test@example.com", 1L, 5L);
+    }
+
+    @Test
+    void testHandleException_ReturnsErrorEvent() {
+        ChatEventDto event = chatController.handleException(new MatchNotActiveException("Cannot send message: match is not active"));
+
+        assertThat(event.getType()).isEqualTo(ChatEventDto.Type.ERROR);
+        assertThat(event.getError()).isEqualTo("Cannot send message: match is not active");
+    }
+
+    @Test
+    void testHandleException_HidesUnexpectedErrors() {
+        ChatEventDto event = chatController.handleException(new IllegalStateException("connection pool exhausted"));
+
+        assertThat(event.getError()).isEqualTo("Failed to send message");
+    }
+}
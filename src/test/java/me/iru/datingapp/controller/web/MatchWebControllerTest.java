@@ -1,7 +1,9 @@
 package me.iru.datingapp.controller.web;
 
 import me.iru.datingapp.config.SecurityConfig;
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.MatchDto;
+import me.iru.datingapp.dto.MessageDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.service.MatchService;
@@ -83,7 +85,7 @@ class MatchWebControllerTest {
     @Test
     void testShowMatches_Success() throws Exception {
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
-        when(matchService.getActiveMatches(1L)).thenReturn(matches);
+        when(matchService.getInbox(1L, null, 20)).thenReturn(new InboxPageDto(matches, null, false));
 
         mockMvc.perform(get("/matches")
                         .with(user("test@example.com").roles("USER")))
@@ -95,13 +97,13 @@ class MatchWebControllerTest {
                 .andExpect(model().attribute("matches", hasItem(hasProperty("matchedUserName", is("Alice Johnson")))));
 
         verify(userService, times(1)).getUserByEmail("test@example.com");
-        verify(matchService, times(1)).getActiveMatches(1L);
+        verify(matchService, times(1)).getInbox(1L, null, 20);
     }
 
     @Test
     void testShowMatches_EmptyList() throws Exception {
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
-        when(matchService.getActiveMatches(1L)).thenReturn(Collections.emptyList());
+        when(matchService.getInbox(1L, null, 20)).thenReturn(new InboxPageDto(Collections.emptyList(), null, false));
 
         mockMvc.perform(get("/matches")
                         .with(user("test@example.com").roles("USER")))
@@ -110,7 +112,33 @@ class MatchWebControllerTest {
                 .andExpect(model().attribute("matches", hasSize(0)))
                 .andExpect(model().attribute("currentUserId", 1L));
 
-        verify(matchService, times(1)).getActiveMatches(1L);
+        verify(matchService, times(1)).getInbox(1L, null, 20);
+    }
+
+    @Test
+    void testShowMatches_NextPage() throws Exception {
+        MessageDto lastMessage = new MessageDto();
+        lastMessage.setId(7L);
+        lastMessage.setSenderId(2L);
+        lastMessage.setContent("See you tomorrow");
+        matches.getFirst().setLastMessage(lastMessage);
+        matches.getFirst().setLastActivityAt(LocalDateTime.now());
+        matches.getFirst().setUnreadCount(3);
+
+        when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
+        when(matchService.getInbox(1L, "cursor", 20)).thenReturn(new InboxPageDto(matches, "next", true));
+
+        mockMvc.perform(get("/matches")
+                        .param("before", "cursor")
+                        .with(user("test@example.com").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("matches", hasSize(2)))
+                .andExpect(model().attribute("nextCursor", "next"))
+                .andExpect(model().attribute("hasMore", true))
+                .andExpect(content().string(containsString("See you tomorrow")))
+                .andExpect(content().string(containsString("/matches?before=next")));
+
+        verify(matchService, times(1)).getInbox(1L, "cursor", 20);
     }
 
     @Test
@@ -152,7 +180,7 @@ class MatchWebControllerTest {
     @Test
     void testShowMatches_VerifiesMatchProperties() throws Exception {
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
-        when(matchService.getActiveMatches(1L)).thenReturn(matches);
+        when(matchService.getInbox(1L, null, 20)).thenReturn(new InboxPageDto(matches, null, false));
 
         mockMvc.perform(get("/matches")
                         .with(user("test@example.com").roles("USER")))
@@ -168,7 +196,7 @@ class MatchWebControllerTest {
                         hasProperty("isActive", is(true))
                 ))));
 
-        verify(matchService, times(1)).getActiveMatches(1L);
+        verify(matchService, times(1)).getInbox(1L, null, 20);
     }
 
     @Test
@@ -2,6 +2,7 @@ package me.iru.datingapp.controller.web;
 
 import me.iru.datingapp.config.SecurityConfig;
 import me.iru.datingapp.dto.RatingDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.service.MatchingService;
@@ -219,5 +220,38 @@ class MatchingWebControllerTest {
 
         verify(matchingService, times(1)).getSuggestedUsers(eq(1L), any(PageRequest.class));
     }
-}
 
+    @Test
+    void testShowMatching_CursorMode() throws Exception {
+        SuggestionFeedDto feed = new SuggestionFeedDto(suggestions, "aWQ6Mw", true);
+
+        when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
+        when(matchingService.getSuggestionFeed(1L, "", 10)).thenReturn(feed);
+
+        mockMvc.perform(get("/matching")
+                        .with(user("test@example.com").roles("USER"))
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(view().name("matching"))
+                .andExpect(model().attribute("suggestions", hasSize(2)))
+                .andExpect(model().attribute("hasNext", true))
+                .andExpect(model().attribute("nextCursor", "aWQ6Mw"));
+
+        verify(matchingService, never()).getSuggestedUsers(any(), any());
+    }
+
+    @Test
+    void testRateUser_CursorModeRedirectsToSameCursor() throws Exception {
+        when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
+        doNothing().when(ratingService).rateUser(eq(1L), any(RatingDto.class));
+
+        mockMvc.perform(post("/matching/rate")
+                        .with(csrf())
+                        .with(user("test@example.com").roles("USER"))
+                        .param("ratedUserId", "2")
+                        .param("ratingType", "DISLIKE")
+                        .param("cursor", "aWQ6Mw"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/matching?cursor=aWQ6Mw"));
+    }
+}
@@ -3,6 +3,7 @@ package me.iru.datingapp.controller.web;
 import me.iru.datingapp.config.SecurityConfig;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.service.MatchService;
@@ -105,7 +106,8 @@ class MessageWebControllerTest {
 
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
         when(matchService.getMatchById(matchId, 1L)).thenReturn(match);
-        when(messageService.getMessageHistory(matchId, 1L)).thenReturn(messages);
+        when(messageService.getMessageWindow(matchId, 1L, null, null, 50))
+                .thenReturn(new MessageWindowDto(messages, "older", "newer", true, false));
 
         mockMvc.perform(get("/messages/{matchId}", matchId)
                         .with(user("test@example.com").roles("USER")))
@@ -115,11 +117,13 @@ class MessageWebControllerTest {
                 .andExpect(model().attribute("matchId", matchId))
                 .andExpect(model().attribute("currentUserId", 1L))
                 .andExpect(model().attribute("receiverId", 2L))
+                .andExpect(model().attribute("olderCursor", "older"))
+                .andExpect(model().attribute("hasOlder", true))
                 .andExpect(model().attributeExists("newMessage"));
 
         verify(userService, times(1)).getUserByEmail("test@example.com");
         verify(matchService, times(1)).getMatchById(matchId, 1L);
-        verify(messageService, times(1)).getMessageHistory(matchId, 1L);
+        verify(messageService, times(1)).getMessageWindow(matchId, 1L, null, null, 50);
     }
 
     @Test
@@ -128,7 +132,8 @@ class MessageWebControllerTest {
 
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
         when(matchService.getMatchById(matchId, 1L)).thenReturn(match);
-        when(messageService.getMessageHistory(matchId, 1L)).thenReturn(Collections.emptyList());
+        when(messageService.getMessageWindow(matchId, 1L, null, null, 50))
+                .thenReturn(new MessageWindowDto(Collections.emptyList(), null, null, false, false));
 
         mockMvc.perform(get("/messages/{matchId}", matchId)
                         .with(user("test@example.com").roles("USER")))
@@ -136,7 +141,7 @@ class MessageWebControllerTest {
                 .andExpect(view().name("chat"))
                 .andExpect(model().attribute("messages", hasSize(0)));
 
-        verify(messageService, times(1)).getMessageHistory(matchId, 1L);
+        verify(messageService, times(1)).getMessageWindow(matchId, 1L, null, null, 50);
     }
 
     @Test
@@ -147,7 +152,6 @@ class MessageWebControllerTest {
 
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
         when(messageService.sendMessage(any(MessageDto.class))).thenReturn(message1);
-        doNothing().when(notificationService).createMessageNotification(eq(receiverId), any(UserProfileDto.class), eq(matchId));
 
         mockMvc.perform(post("/messages")
                         .with(csrf())
@@ -160,7 +164,7 @@ class MessageWebControllerTest {
 
         verify(userService, times(1)).getUserByEmail("test@example.com");
         verify(messageService, times(1)).sendMessage(any(MessageDto.class));
-        verify(notificationService, times(1)).createMessageNotification(eq(receiverId), any(UserProfileDto.class), eq(matchId));
+        verify(notificationService, never()).createMessageNotification(anyLong(), any(UserProfileDto.class), anyLong());
     }
 
     @Test
@@ -192,7 +196,8 @@ class MessageWebControllerTest {
 
         when(userService.getUserByEmail("test@example.com")).thenReturn(currentUser);
         when(matchService.getMatchById(matchId, 1L)).thenReturn(match);
-        when(messageService.getMessageHistory(matchId, 1L)).thenReturn(messages);
+        when(messageService.getMessageWindow(matchId, 1L, null, null, 50))
+                .thenReturn(new MessageWindowDto(messages, "older", "newer", true, false));
 
         mockMvc.perform(get("/messages/{matchId}", matchId)
                         .with(user("test@example.com").roles("USER")))
@@ -200,7 +205,7 @@ class MessageWebControllerTest {
                 .andExpect(model().attribute("messages", hasItem(hasProperty("content", is("Hello!")))))
                 .andExpect(model().attribute("messages", hasItem(hasProperty("content", is("Hi there!")))));
 
-        verify(messageService, times(1)).getMessageHistory(matchId, 1L);
+        verify(messageService, times(1)).getMessageWindow(matchId, 1L, null, null, 50);
     }
 
     @Test
@@ -0,0 +1,130 @@
+package me.iru.datingapp.dao;
+
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mariadb.MariaDBContainer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class MatchingDaoTest {
+
+    @Container
+    static MariaDBContainer mariaDB = new MariaDBContainer("mariadb:latest")
+            .withDatabaseName("testdb")
+            .withReuse(true);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private MatchingDao matchingDao;
+
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        matchingDao = new MatchingDao(jdbcTemplate);
+
+        jdbcTemplate.execute("DELETE FROM messages");
+        jdbcTemplate.execute("DELETE FROM ratings");
+        jdbcTemplate.execute("DELETE FROM matches");
+        jdbcTemplate.execute("DELETE FROM users");
+
+        user1 = persistUser("user1@example.com", User.Gender.MALE);
+        user2 = persistUser("user2@example.com", User.Gender.FEMALE);
+        user3 = persistUser("user3@example.com", User.Gender.FEMALE);
+    }
+
+    @Test
+    void testInsertRatings() {
+        Map<Long, Rating.RatingType> ratings = new LinkedHashMap<>();
+        ratings.put(user2.getId(), Rating.RatingType.LIKE);
+        ratings.put(user3.getId(), Rating.RatingType.DISLIKE);
+
+        matchingDao.insertRatings(user1.getId(), ratings);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT rated_user_id, rating_type, created_at FROM ratings WHERE rater_id = ? ORDER BY rated_user_id",
+                user1.getId());
+        assertThat(rows).hasSize(2);
+        assertThat(((Number) rows.get(0).get("rated_user_id")).longValue()).isEqualTo(user2.getId());
+        assertThat(rows.get(0).get("rating_type")).isEqualTo("LIKE");
+        assertThat(rows.get(1).get("rating_type")).isEqualTo("DISLIKE");
+        assertThat(rows.get(0).get("created_at")).isNotNull();
+    }
+
+    @Test
+    void testInsertMatchIfAbsent_StoresCanonicalPair() {
+        Long matchId = matchingDao.insertMatchIfAbsent(user2.getId(), user1.getId());
+
+        assertThat(matchId).isNotNull();
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT user1_id, user2_id, is_active FROM matches WHERE id = ?", matchId);
+        assertThat(((Number) row.get("user1_id")).longValue()).isEqualTo(Math.min(user1.getId(), user2.getId()));
+        assertThat(((Number) row.get("user2_id")).longValue()).isEqualTo(Math.max(user1.getId(), user2.getId()));
+    }
+
+    @Test
+    void testInsertMatchIfAbsent_IsIdempotentInBothOrders() {
+        Long first = matchingDao.insertMatchIfAbsent(user1.getId(), user2.getId());
+        Long second = matchingDao.insertMatchIfAbsent(user2.getId(), user1.getId());
+        Long third = matchingDao.insertMatchIfAbsent(user1.getId(), user2.getId());
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNull();
+        assertThat(third).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM matches", Long.class)).isEqualTo(1L);
+    }
+
+    @Test
+    void testInsertMatchIfAbsent_FailsForUnknownUser() {
+        assertThatThrownBy(() -> matchingDao.insertMatchIfAbsent(user1.getId(), -1L))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testCountUsersBySegmentAmong() {
+        Map<User.Gender, Integer> counts = new LinkedHashMap<>();
+
+        matchingDao.countUsersBySegmentAmong(new long[]{user1.getId(), user2.getId(), user3.getId(), -1L},
+                (gender, age, users) -> counts.merge(gender, users, Integer::sum));
+
+        assertThat(counts).containsOnly(Map.entry(User.Gender.MALE, 1), Map.entry(User.Gender.FEMALE, 2));
+    }
+
+    private User persistUser(String email, User.Gender gender) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("User");
+        user.setLastName("Test");
+        user.setGender(gender);
+        user.setAge(25);
+        user.setCity("Warsaw");
+        return entityManager.persistAndFlush(user);
+    }
+}
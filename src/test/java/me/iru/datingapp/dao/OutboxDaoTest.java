@@ -0,0 +1,62 @@
+package me.iru.datingapp.dao;
+
+import me.iru.datingapp.entity.OutboxEvent;
+import me.iru.datingapp.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mariadb.MariaDBContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class OutboxDaoTest {
+
+    @Container
+    static MariaDBContainer mariaDB = new MariaDBContainer("mariadb:latest")
+            .withDatabaseName("testdb")
+            .withReuse(true);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxDao outboxDao;
+
+    @BeforeEach
+    void setUp() {
+        outboxDao = new OutboxDao(jdbcTemplate);
+        jdbcTemplate.execute("DELETE FROM outbox_events");
+    }
+
+    @Test
+    void testInsertEvents_ReadBackInOrder() {
+        outboxDao.insertEvents(List.of(
+                new OutboxEvent(OutboxEvent.EventType.RATING_CREATED, 1L, 2L, null, "LIKE"),
+                new OutboxEvent(OutboxEvent.EventType.MATCH_CREATED, 1L, 2L, 10L, null),
+                new OutboxEvent(OutboxEvent.EventType.MESSAGE_SENT, 2L, 1L, 20L, null)));
+
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForUpdate(PageRequest.of(0, 2));
+
+        assertThat(batch).extracting(OutboxEvent::getType)
+                .containsExactly(OutboxEvent.EventType.RATING_CREATED, OutboxEvent.EventType.MATCH_CREATED);
+        assertThat(batch.get(0).getDetail()).isEqualTo("LIKE");
+        assertThat(batch.get(0).getReferenceId()).isNull();
+        assertThat(batch.get(1).getReferenceId()).isEqualTo(10L);
+        assertThat(batch.get(0).getCreatedAt()).isNotNull();
+    }
+}
@@ -0,0 +1,142 @@
+package me.iru.datingapp.dao;
+
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mariadb.MariaDBContainer;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class RatingArchiveDaoTest {
+
+    private static final long DAY = 24L * 3600 * 1000;
+
+    @Container
+    static MariaDBContainer mariaDB = new MariaDBContainer("mariadb:latest")
+            .withDatabaseName("testdb")
+            .withReuse(true);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private RatingArchiveDao ratingArchiveDao;
+
+    private User rater;
+    private User user2;
+    private User user3;
+    private User user4;
+    private Timestamp cutoff;
+
+    @BeforeEach
+    void setUp() {
+        ratingArchiveDao = new RatingArchiveDao(jdbcTemplate);
+
+        jdbcTemplate.execute("DELETE FROM rating_archive");
+        jdbcTemplate.execute("DELETE FROM messages");
+        jdbcTemplate.execute("DELETE FROM ratings");
+        jdbcTemplate.execute("DELETE FROM matches");
+        jdbcTemplate.execute("DELETE FROM users");
+
+        rater = persistUser("rater@example.com");
+        user2 = persistUser("user2@example.com");
+        user3 = persistUser("user3@example.com");
+        user4 = persistUser("user4@example.com");
+        cutoff = new Timestamp(System.currentTimeMillis() - 30 * DAY);
+    }
+
+    @Test
+    void testCompactDislikes_MovesOldDislikesOnly() {
+        insertRating(rater, user2, "DISLIKE", 40);
+        insertRating(rater, user3, "LIKE", 40);
+        insertRating(rater, user4, "DISLIKE", 1);
+
+        int compacted = ratingArchiveDao.compactDislikes(rater.getId(), cutoff);
+
+        assertThat(compacted).isEqualTo(1);
+        assertThat(ratedUserIds()).containsExactlyInAnyOrder(user3.getId(), user4.getId());
+        assertThat(archivedUserIds()).containsExactly(user2.getId());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT rating_count FROM rating_archive WHERE rater_id = ?", Integer.class, rater.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void testCompactDislikes_MergesIntoExistingArchive() {
+        insertRating(rater, user2, "DISLIKE", 40);
+        ratingArchiveDao.compactDislikes(rater.getId(), cutoff);
+        insertRating(rater, user3, "DISLIKE", 35);
+
+        int compacted = ratingArchiveDao.compactDislikes(rater.getId(), cutoff);
+
+        assertThat(compacted).isEqualTo(1);
+        assertThat(ratedUserIds()).isEmpty();
+        assertThat(archivedUserIds()).containsExactlyInAnyOrder(user2.getId(), user3.getId());
+    }
+
+    @Test
+    void testCompactDislikes_NothingToCompact() {
+        insertRating(rater, user2, "DISLIKE", 1);
+
+        assertThat(ratingArchiveDao.compactDislikes(rater.getId(), cutoff)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rating_archive", Long.class)).isZero();
+    }
+
+    @Test
+    void testFindRatersWithDislikesBefore_PagesByRaterId() {
+        insertRating(rater, user2, "DISLIKE", 40);
+        insertRating(user2, rater, "DISLIKE", 40);
+        insertRating(user3, rater, "LIKE", 40);
+        insertRating(user4, rater, "DISLIKE", 1);
+
+        List<Long> first = ratingArchiveDao.findRatersWithDislikesBefore(0L, cutoff, 1);
+        List<Long> second = ratingArchiveDao.findRatersWithDislikesBefore(first.getLast(), cutoff, 10);
+
+        assertThat(first).containsExactly(rater.getId());
+        assertThat(second).containsExactly(user2.getId());
+    }
+
+    private void insertRating(User from, User to, String type, int daysAgo) {
+        jdbcTemplate.update("INSERT INTO ratings (rater_id, rated_user_id, rating_type, created_at) VALUES (?, ?, ?, ?)",
+                from.getId(), to.getId(), type, new Timestamp(System.currentTimeMillis() - daysAgo * DAY));
+    }
+
+    private List<Long> ratedUserIds() {
+        return jdbcTemplate.queryForList("SELECT rated_user_id FROM ratings WHERE rater_id = ?", Long.class, rater.getId());
+    }
+
+    private List<Long> archivedUserIds() {
+        List<Long> ids = new ArrayList<>();
+        ratingArchiveDao.streamArchivedUserIds(rater.getId(), ids::add);
+        return ids;
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("User");
+        user.setLastName("Test");
+        user.setGender(User.Gender.FEMALE);
+        user.setAge(25);
+        user.setCity("Warsaw");
+        return entityManager.persistAndFlush(user);
+    }
+}
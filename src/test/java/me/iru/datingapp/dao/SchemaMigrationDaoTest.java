@@ -0,0 +1,217 @@
+package me.iru.datingapp.dao;
+
+import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.Message;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mariadb.MariaDBContainer;
+
+import java.sql.Timestamp;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class SchemaMigrationDaoTest {
+
+    @Container
+    static MariaDBContainer mariaDB = new MariaDBContainer("mariadb:latest")
+            .withDatabaseName("testdb")
+            .withReuse(true);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private SchemaMigrationDao schemaMigrationDao;
+
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        schemaMigrationDao = new SchemaMigrationDao(jdbcTemplate);
+        schemaMigrationDao.createHistoryTable();
+
+        jdbcTemplate.execute("DELETE FROM schema_migrations");
+        jdbcTemplate.execute("DELETE FROM messages");
+        jdbcTemplate.execute("DELETE FROM matches");
+        jdbcTemplate.execute("DELETE FROM users");
+
+        user1 = persistUser("user1@example.com");
+        user2 = persistUser("user2@example.com");
+        user3 = persistUser("user3@example.com");
+    }
+
+    @Test
+    void testRecordMigration_OnlyOnce() {
+        assertThat(schemaMigrationDao.recordMigration("test-migration")).isTrue();
+        assertThat(schemaMigrationDao.recordMigration("test-migration")).isFalse();
+    }
+
+    @Test
+    void testCanonicalizeMatchPairs_SwapsReversedPair() {
+        Match match = persistMatch(user1, user2);
+        jdbcTemplate.update("""
+                UPDATE matches SET user1_id = ?, user2_id = ?, user1_last_read_message_id = 7, user1_unread_count = 3
+                WHERE id = ?
+                """, user2.getId(), user1.getId(), match.getId());
+
+        assertThat(schemaMigrationDao.canonicalizeMatchPairs()).isEqualTo(1);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", match.getId());
+        assertThat(((Number) row.get("user1_id")).longValue()).isEqualTo(user1.getId());
+        assertThat(((Number) row.get("user2_id")).longValue()).isEqualTo(user2.getId());
+        assertThat(((Number) row.get("user1_last_read_message_id")).longValue()).isZero();
+        assertThat(((Number) row.get("user2_last_read_message_id")).longValue()).isEqualTo(7L);
+        assertThat(((Number) row.get("user2_unread_count")).intValue()).isEqualTo(3);
+    }
+
+    @Test
+    void testCanonicalizeMatchPairs_MergesDuplicateIntoCanonicalMatch() {
+        Match keeper = persistMatch(user1, user2);
+        Match duplicate = persistMatch(user1, user3);
+        jdbcTemplate.update("UPDATE matches SET is_active = FALSE WHERE id = ?", keeper.getId());
+        jdbcTemplate.update("UPDATE matches SET user1_id = ?, user2_id = ? WHERE id = ?",
+                user2.getId(), user1.getId(), duplicate.getId());
+        Message moved = persistMessage(duplicate, user1, user2, "Hello from the duplicate");
+        jdbcTemplate.update("""
+                UPDATE matches SET last_message_id = ?, last_message_sender_id = ?, last_message_preview = 'Moved'
+                WHERE id = ?
+                """, moved.getId(), user1.getId(), duplicate.getId());
+
+        assertThat(schemaMigrationDao.canonicalizeMatchPairs()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM matches", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT match_id FROM messages", Long.class))
+                .isEqualTo(keeper.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT is_active FROM matches", Boolean.class)).isTrue();
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", keeper.getId());
+        assertThat(((Number) row.get("last_message_id")).longValue()).isEqualTo(moved.getId());
+        assertThat(row.get("last_message_preview")).isEqualTo("Moved");
+        assertThat(((Number) row.get("user2_unread_count")).intValue()).isEqualTo(1);
+    }
+
+    @Test
+    void testBackfillReadWatermarks_UsesNewestReadMessageAndRecountsUnread() {
+        Match match = persistMatch(user1, user2);
+        persistMessage(match, user2, user1, "Read", true);
+        Message lastRead = persistMessage(match, user2, user1, "Also read", true);
+        persistMessage(match, user2, user1, "Unread", false);
+        persistMessage(match, user1, user2, "Unread reply", false);
+        persistMessage(match, user1, user2, "Unread reply again", false);
+
+        schemaMigrationDao.backfillReadWatermarks();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", match.getId());
+        assertThat(((Number) row.get("user1_last_read_message_id")).longValue()).isEqualTo(lastRead.getId());
+        assertThat(((Number) row.get("user2_last_read_message_id")).longValue()).isZero();
+        assertThat(((Number) row.get("user1_unread_count")).intValue()).isEqualTo(1);
+        assertThat(((Number) row.get("user2_unread_count")).intValue()).isEqualTo(2);
+    }
+
+    @Test
+    void testBackfillReadWatermarks_KeepsFurtherWatermark() {
+        Match match = persistMatch(user1, user2);
+        persistMessage(match, user2, user1, "Read", true);
+        Message unflagged = persistMessage(match, user2, user1, "Read through the watermark", false);
+        jdbcTemplate.update("UPDATE matches SET user1_last_read_message_id = ? WHERE id = ?",
+                unflagged.getId(), match.getId());
+
+        schemaMigrationDao.backfillReadWatermarks();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", match.getId());
+        assertThat(((Number) row.get("user1_last_read_message_id")).longValue()).isEqualTo(unflagged.getId());
+        assertThat(((Number) row.get("user1_unread_count")).intValue()).isZero();
+    }
+
+    @Test
+    void testBackfillConversationSummaries_UsesNewestMessageOrMatchingTime() {
+        Match conversation = persistMatch(user1, user2);
+        Match silent = persistMatch(user1, user3);
+        persistMessage(conversation, user1, user2, "Hello");
+        Message newest = persistMessage(conversation, user2, user1, "x".repeat(Match.LAST_MESSAGE_PREVIEW_LENGTH + 50));
+        jdbcTemplate.update("UPDATE messages SET sent_at = '2024-05-01 12:00:00' WHERE id = ?", newest.getId());
+        jdbcTemplate.update("UPDATE matches SET last_activity_at = '1970-01-01 00:00:00'");
+        jdbcTemplate.update("UPDATE matches SET matched_at = '2024-03-01 08:00:00' WHERE id = ?", silent.getId());
+
+        schemaMigrationDao.backfillConversationSummaries();
+
+        Map<String, Object> summary = jdbcTemplate.queryForMap(
+                "SELECT * FROM matches WHERE id = ?", conversation.getId());
+        assertThat(((Number) summary.get("last_message_id")).longValue()).isEqualTo(newest.getId());
+        assertThat(((Number) summary.get("last_message_sender_id")).longValue()).isEqualTo(user2.getId());
+        assertThat((String) summary.get("last_message_preview")).hasSize(Match.LAST_MESSAGE_PREVIEW_LENGTH);
+        assertThat(summary.get("last_activity_at")).isEqualTo(Timestamp.valueOf("2024-05-01 12:00:00"));
+
+        Map<String, Object> empty = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", silent.getId());
+        assertThat(empty.get("last_message_id")).isNull();
+        assertThat(empty.get("last_activity_at")).isEqualTo(Timestamp.valueOf("2024-03-01 08:00:00"));
+    }
+
+    @Test
+    void testBackfillConversationSummaries_KeepsMaintainedSummaries() {
+        Match match = persistMatch(user1, user2);
+        Message message = persistMessage(match, user1, user2, "Hello");
+        jdbcTemplate.update("""
+                UPDATE matches SET last_message_id = ?, last_message_sender_id = ?, last_message_preview = 'Kept',
+                    last_activity_at = '2025-01-01 00:00:00'
+                WHERE id = ?
+                """, message.getId(), user1.getId(), match.getId());
+
+        assertThat(schemaMigrationDao.backfillConversationSummaries()).isZero();
+
+        Map<String, Object> summary = jdbcTemplate.queryForMap("SELECT * FROM matches WHERE id = ?", match.getId());
+        assertThat(summary.get("last_message_preview")).isEqualTo("Kept");
+        assertThat(summary.get("last_activity_at")).isEqualTo(Timestamp.valueOf("2025-01-01 00:00:00"));
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("User");
+        user.setLastName("Test");
+        user.setGender(User.Gender.FEMALE);
+        user.setAge(25);
+        user.setCity("Warsaw");
+        return entityManager.persistAndFlush(user);
+    }
+
+    private Match persistMatch(User first, User second) {
+        Match match = new Match();
+        match.setUser1(first);
+        match.setUser2(second);
+        match.setIsActive(true);
+        return entityManager.persistAndFlush(match);
+    }
+
+    private Message persistMessage(Match match, User sender, User receiver, String content) {
+        return persistMessage(match, sender, receiver, content, false);
+    }
+
+    private Message persistMessage(Match match, User sender, User receiver, String content, boolean read) {
+        Message message = new Message();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setMatch(match);
+        message.setContent(content);
+        message.setIsRead(read);
+        return entityManager.persistAndFlush(message);
+    }
+}
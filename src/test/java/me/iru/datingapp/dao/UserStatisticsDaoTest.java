@@ -246,12 +246,21 @@ class UserStatisticsDaoTest {
         message.setReceiver(user2);
         message.setMatch(match);
         message.setContent("Old message");
-        message.setIsRead(true);
+        message.setIsRead(false);
         message = entityManager.persistAndFlush(message);
 
+        Message unread = new Message();
+        unread.setSender(user1);
+        unread.setReceiver(user2);
+        unread.setMatch(match);
+        unread.setContent("Old unread message");
+        unread.setIsRead(true);
+        unread = entityManager.persistAndFlush(unread);
+
+        jdbcTemplate.update("UPDATE messages SET sent_at = DATE_SUB(NOW(), INTERVAL 100 DAY)");
         jdbcTemplate.update(
-                "UPDATE messages SET sent_at = DATE_SUB(NOW(), INTERVAL 100 DAY) WHERE id = ?",
-                message.getId()
+                "UPDATE matches SET user2_last_read_message_id = ? WHERE id = ?",
+                message.getId(), match.getId()
         );
 
         entityManager.clear();
@@ -259,6 +268,7 @@ class UserStatisticsDaoTest {
         int deletedCount = userStatisticsDao.deleteOldReadMessages(90);
 
         assertThat(deletedCount).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM messages", Long.class)).isEqualTo(unread.getId());
     }
 
     @Test
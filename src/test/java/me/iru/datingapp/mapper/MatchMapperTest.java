@@ -1,29 +1,19 @@
 package me.iru.datingapp.mapper;
 
 import me.iru.datingapp.dto.MatchDto;
-import me.iru.datingapp.dto.MessageDto;
 import me.iru.datingapp.entity.Match;
-import me.iru.datingapp.entity.Message;
 import me.iru.datingapp.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class MatchMapperTest {
 
-    @Mock
-    private MessageMapper messageMapper;
-
     private MatchMapper matchMapper;
     private User user1;
     private User user2;
@@ -32,7 +22,7 @@ class MatchMapperTest {
 
     @BeforeEach
     void setUp() {
-        matchMapper = new MatchMapper(messageMapper);
+        matchMapper = new MatchMapper();
         testDateTime = LocalDateTime.of(2026, 1, 12, 10, 30);
 
         user1 = new User();
@@ -116,80 +106,55 @@ class MatchMapperTest {
     }
 
     @Test
-    void testToDto_WithMessages() {
-        Message message1 = new Message();
-        message1.setId(1L);
-        message1.setSentAt(testDateTime);
-        message1.setContent("Message 1");
-
-        Message message2 = new Message();
-        message2.setId(2L);
-        message2.setSentAt(testDateTime.plusMinutes(5));
-        message2.setContent("Message 2");
-
-        Message message3 = new Message();
-        message3.setId(3L);
-        message3.setSentAt(testDateTime.plusMinutes(10));
-        message3.setContent("Message 3 - Latest");
-
-        testMatch.setMessages(List.of(message1, message2, message3));
-
-        MessageDto lastMessageDto = new MessageDto();
-        lastMessageDto.setId(3L);
-        lastMessageDto.setContent("Message 3 - Latest");
-
-        when(messageMapper.toDto(message3)).thenReturn(lastMessageDto);
+    void testToDto_WithConversationSummary() {
+        testMatch.setLastMessageId(3L);
+        testMatch.setLastMessageSenderId(2L);
+        testMatch.setLastMessagePreview("Message 3 - Latest");
+        testMatch.setLastActivityAt(testDateTime.plusMinutes(10));
+        testMatch.setUser1UnreadCount(2);
+        testMatch.setMessages(null);
 
         MatchDto result = matchMapper.toDto(testMatch, user1);
 
-        assertThat(result).isNotNull();
+        assertThat(result.getLastActivityAt()).isEqualTo(testDateTime.plusMinutes(10));
+        assertThat(result.getUnreadCount()).isEqualTo(2);
         assertThat(result.getLastMessage()).isNotNull();
         assertThat(result.getLastMessage().getId()).isEqualTo(3L);
         assertThat(result.getLastMessage().getContent()).isEqualTo("Message 3 - Latest");
-        verify(messageMapper).toDto(message3);
-    }
-
-    @Test
-    void testToDto_WithEmptyMessages() {
-        testMatch.setMessages(new ArrayList<>());
-
-        MatchDto result = matchMapper.toDto(testMatch, user1);
-
-        assertThat(result).isNotNull();
-        assertThat(result.getLastMessage()).isNull();
-        verifyNoInteractions(messageMapper);
+        assertThat(result.getLastMessage().getSenderId()).isEqualTo(2L);
+        assertThat(result.getLastMessage().getReceiverId()).isEqualTo(1L);
+        assertThat(result.getLastMessage().getSenderName()).isEqualTo("Jane Smith");
+        assertThat(result.getLastMessage().getSentAt()).isEqualTo(testDateTime.plusMinutes(10));
+        assertThat(result.getLastMessage().getIsRead()).isFalse();
     }
 
     @Test
-    void testToDto_WithNullMessages() {
+    void testToDto_WithoutMessagesInSummary() {
         testMatch.setMessages(null);
 
         MatchDto result = matchMapper.toDto(testMatch, user1);
 
         assertThat(result).isNotNull();
         assertThat(result.getLastMessage()).isNull();
-        verifyNoInteractions(messageMapper);
+        assertThat(result.getUnreadCount()).isZero();
     }
 
     @Test
-    void testToDto_WithSingleMessage() {
-        Message message = new Message();
-        message.setId(1L);
-        message.setSentAt(testDateTime);
-        message.setContent("Only message");
-
-        testMatch.setMessages(List.of(message));
-
-        MessageDto messageDto = new MessageDto();
-        messageDto.setId(1L);
-        messageDto.setContent("Only message");
-
-        when(messageMapper.toDto(message)).thenReturn(messageDto);
-
-        MatchDto result = matchMapper.toDto(testMatch, user1);
-
-        assertThat(result.getLastMessage()).isNotNull();
-        assertThat(result.getLastMessage().getId()).isEqualTo(1L);
+    void testToDto_UnreadCountAndReadStatePerSide() {
+        testMatch.setLastMessageId(5L);
+        testMatch.setLastMessageSenderId(1L);
+        testMatch.setLastMessagePreview("Seen?");
+        testMatch.setUser1UnreadCount(0);
+        testMatch.setUser2UnreadCount(3);
+        testMatch.setUser2LastReadMessageId(5L);
+
+        MatchDto senderView = matchMapper.toDto(testMatch, user1);
+        MatchDto receiverView = matchMapper.toDto(testMatch, user2);
+
+        assertThat(senderView.getUnreadCount()).isZero();
+        assertThat(receiverView.getUnreadCount()).isEqualTo(3);
+        assertThat(senderView.getLastMessage().getIsRead()).isTrue();
+        assertThat(receiverView.getLastMessage().getSenderId()).isEqualTo(1L);
     }
 
     @Test
@@ -400,32 +365,6 @@ class MatchMapperTest {
         assertThat(result.getMatchedUserName()).isEqualTo("Alexander von Humboldt-Wellington");
     }
 
-    @Test
-    void testToDto_MessagesInRandomOrder() {
-        Message oldest = new Message();
-        oldest.setId(1L);
-        oldest.setSentAt(testDateTime);
-
-        Message newest = new Message();
-        newest.setId(3L);
-        newest.setSentAt(testDateTime.plusMinutes(10));
-
-        Message middle = new Message();
-        middle.setId(2L);
-        middle.setSentAt(testDateTime.plusMinutes(5));
-
-        testMatch.setMessages(List.of(middle, newest, oldest));
-
-        MessageDto newestDto = new MessageDto();
-        newestDto.setId(3L);
-        when(messageMapper.toDto(newest)).thenReturn(newestDto);
-
-        MatchDto result = matchMapper.toDto(testMatch, user1);
-
-        assertThat(result.getLastMessage()).isNotNull();
-        assertThat(result.getLastMessage().getId()).isEqualTo(3L);
-    }
-
     @Test
     void testCreateMatch_OrderDoesNotMatter() {
         Match result1 = matchMapper.createMatch(user1, user2);
@@ -88,6 +88,16 @@ class MessageMapperTest {
         assertThat(result.getIsRead()).isTrue();
     }
 
+    @Test
+    void testToDto_ReadStateFromWatermark() {
+        testMessage.setIsRead(false);
+
+        assertThat(messageMapper.toDto(testMessage, 1L).getIsRead()).isTrue();
+        assertThat(messageMapper.toDto(testMessage, 0L).getIsRead()).isFalse();
+        assertThat(messageMapper.toDto(testMessage, null).getIsRead()).isFalse();
+        assertThat(messageMapper.toDto(null, 1L)).isNull();
+    }
+
     @Test
     void testToDto_LongMessage() {
         String longContent = "This is a very long message with lots of text. ".repeat(10);
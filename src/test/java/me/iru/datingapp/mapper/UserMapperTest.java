@@ -6,6 +6,7 @@ import me.iru.datingapp.dto.UserUpdateDto;
 import me.iru.datingapp.entity.Interest;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.entity.UserInterest;
+import me.iru.datingapp.matching.GeoIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -257,6 +258,30 @@ class UserMapperTest {
         assertThat(testUser.getPhotoUrl()).isEqualTo("/photos/updated.jpg");
     }
 
+    @Test
+    void testUpdateEntityFromDto_UpdateLocationSetsGeoCell() {
+        UserUpdateDto dto = new UserUpdateDto();
+        dto.setLatitude(52.2297);
+        dto.setLongitude(21.0122);
+
+        userMapper.updateEntityFromDto(dto, testUser);
+
+        assertThat(testUser.getLatitude()).isEqualTo(52.2297);
+        assertThat(testUser.getLongitude()).isEqualTo(21.0122);
+        assertThat(testUser.getGeoCell()).isEqualTo(GeoIndex.cellOf(52.2297, 21.0122));
+    }
+
+    @Test
+    void testUpdateEntityFromDto_PartialLocationIgnored() {
+        UserUpdateDto dto = new UserUpdateDto();
+        dto.setLatitude(52.2297);
+
+        userMapper.updateEntityFromDto(dto, testUser);
+
+        assertThat(testUser.getLatitude()).isNull();
+        assertThat(testUser.getGeoCell()).isNull();
+    }
+
     @Test
     void testUpdateEntityFromDto_WithNullDto() {
         String originalBio = testUser.getBio();
@@ -0,0 +1,56 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ActivityBufferTest {
+
+    @Test
+    void testRecordCoalescesToLatest() {
+        ActivityBuffer buffer = new ActivityBuffer(4);
+        buffer.record("anna@example.com", 1_000L);
+        buffer.record("anna@example.com", 3_000L);
+        buffer.record("anna@example.com", 2_000L);
+        buffer.record("ben@example.com", 5_000L);
+
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        assertThat(buffer.drain()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "anna@example.com", 3_000L,
+                "ben@example.com", 5_000L));
+    }
+
+    @Test
+    void testDrainEmptiesBuffer() {
+        ActivityBuffer buffer = new ActivityBuffer(3);
+        buffer.record("anna@example.com", 1_000L);
+
+        assertThat(buffer.drain()).hasSize(1);
+        assertThat(buffer.drain()).isEmpty();
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void testRestoreKeepsNewerActivity() {
+        ActivityBuffer buffer = new ActivityBuffer(1);
+        buffer.record("anna@example.com", 1_000L);
+        Map<String, Long> failed = buffer.drain();
+        buffer.record("anna@example.com", 4_000L);
+
+        buffer.restore(failed);
+        buffer.restore(Map.of("ben@example.com", 2_000L));
+
+        assertThat(buffer.drain()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "anna@example.com", 4_000L,
+                "ben@example.com", 2_000L));
+    }
+
+    @Test
+    void testRejectsNonPositiveStripes() {
+        assertThatThrownBy(() -> new ActivityBuffer(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateIndexTest {
+
+    private CandidateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CandidateIndex();
+        index.put(5L, User.Gender.FEMALE, 25);
+        index.put(1L, User.Gender.FEMALE, 30);
+        index.put(3L, User.Gender.MALE, 25);
+        index.put(4L, User.Gender.OTHER, 40);
+    }
+
+    @Test
+    void testQueryByGenderAndAge() {
+        assertThat(index.query(User.Gender.FEMALE, 20, 30)).containsExactly(1L, 5L);
+        assertThat(index.query(User.Gender.FEMALE, 26, 30)).containsExactly(1L);
+    }
+
+    @Test
+    void testQueryAnyGender() {
+        assertThat(index.query(null, 18, 100)).containsExactly(1L, 3L, 4L, 5L);
+        assertThat(index.query(null, null, null)).containsExactly(1L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void testQueryInvertedRangeIsEmpty() {
+        assertThat(index.query(null, 40, 30)).isEmpty();
+    }
+
+    @Test
+    void testPutMovesUserBetweenBuckets() {
+        index.put(5L, User.Gender.FEMALE, 35);
+
+        assertThat(index.query(User.Gender.FEMALE, 20, 30)).containsExactly(1L);
+        assertThat(index.query(User.Gender.FEMALE, 31, 40)).containsExactly(5L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testRemove() {
+        assertThat(index.remove(3L)).isTrue();
+        assertThat(index.remove(3L)).isFalse();
+        assertThat(index.contains(3L)).isFalse();
+        assertThat(index.query(User.Gender.MALE, 18, 120)).isEmpty();
+    }
+
+    @Test
+    void testAgesOutsideRangeAreClamped() {
+        index.put(9L, User.Gender.MALE, 150);
+
+        assertThat(index.query(User.Gender.MALE, 100, 200)).containsExactly(9L);
+    }
+
+    @Test
+    void testClear() {
+        index.clear();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.query(null, null, null)).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CoLikeMatrixTest {
+
+    private ForkJoinPool pool;
+    private CoLikeMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        matrix = new CoLikeMatrix(10, 100);
+        matrix.load(100L, 1L);
+        matrix.load(100L, 2L);
+        matrix.load(101L, 1L);
+        matrix.load(101L, 2L);
+        matrix.load(102L, 1L);
+        matrix.load(102L, 3L);
+        matrix.computeAll(pool, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testComputeAllRanksNeighboursByCosine() {
+        assertThat(matrix.neighboursOf(1L)).containsExactly(2L, 3L);
+        assertThat(matrix.neighboursOf(2L)).containsExactly(1L);
+        assertThat(matrix.neighboursOf(3L)).containsExactly(1L);
+        assertThat(matrix.neighboursOf(99L)).isEmpty();
+        assertThat(matrix.itemCount()).isEqualTo(3);
+        assertThat(matrix.likeCount()).isEqualTo(6);
+    }
+
+    @Test
+    void testSimilarToSumsAndNormalisesNeighbourScores() {
+        CoLikeMatrix.Similar similar = matrix.similarTo(102L, 10);
+
+        assertThat(similar.userIds()).containsExactly(1L, 2L, 3L);
+        assertThat(similar.scoreOf(2L)).isEqualTo(1.0, within(1e-6));
+        assertThat(similar.scoreOf(1L)).isEqualTo(Math.sqrt(0.5), within(1e-6));
+        assertThat(similar.scoreOf(3L)).isEqualTo(Math.sqrt(0.5), within(1e-6));
+        assertThat(similar.scoreOf(99L)).isZero();
+    }
+
+    @Test
+    void testSimilarToUnknownViewer() {
+        assertThat(matrix.similarTo(999L, 10).isEmpty()).isTrue();
+    }
+
+    @Test
+    void testSimilarToConsidersMostRecentLikes() {
+        CoLikeMatrix.Similar similar = matrix.similarTo(102L, 1);
+
+        assertThat(similar.userIds()).containsExactly(1L);
+    }
+
+    @Test
+    void testAddLikeRefreshesTouchedNeighbours() {
+        assertThat(matrix.addLike(102L, 2L)).isTrue();
+        assertThat(matrix.addLike(102L, 2L)).isFalse();
+
+        assertThat(matrix.refreshNeighbours(pool)).isEqualTo(3);
+        assertThat(matrix.refreshNeighbours(pool)).isZero();
+        assertThat(matrix.neighboursOf(3L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(matrix.neighboursOf(2L)).containsExactly(1L, 3L);
+        assertThat(matrix.likeCount()).isEqualTo(7);
+    }
+
+    @Test
+    void testMaxRaterLikesBoundsPairs() {
+        CoLikeMatrix bounded = new CoLikeMatrix(10, 1);
+        bounded.load(100L, 1L);
+        bounded.load(100L, 2L);
+        bounded.computeAll(pool, 2);
+
+        assertThat(bounded.neighboursOf(1L)).isEmpty();
+        assertThat(bounded.likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testWatermarkOnlyAdvances() {
+        matrix.advanceWatermark(10L);
+        matrix.advanceWatermark(5L);
+
+        assertThat(matrix.watermark()).isEqualTo(10L);
+    }
+}
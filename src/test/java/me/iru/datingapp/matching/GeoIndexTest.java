@@ -0,0 +1,126 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoIndexTest {
+
+    private static final double WARSAW_LAT = 52.2297;
+    private static final double WARSAW_LON = 21.0122;
+
+    @Test
+    void testHaversineKnownDistance() {
+        double warsawToKrakow = GeoIndex.haversineKm(WARSAW_LAT, WARSAW_LON, 50.0647, 19.9450);
+
+        assertThat(warsawToKrakow).isCloseTo(252, within(3.0));
+    }
+
+    @Test
+    void testWithinUsesExactDistance() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, WARSAW_LAT, WARSAW_LON);
+        index.put(2L, 52.4064, 20.9561);   // ~20 km north
+        index.put(3L, 50.0647, 19.9450);   // Krakow
+
+        assertThat(index.within(WARSAW_LAT, WARSAW_LON, 30)).containsExactly(1L, 2L);
+        assertThat(index.within(WARSAW_LAT, WARSAW_LON, 300)).containsExactly(1L, 2L, 3L);
+        assertThat(index.within(WARSAW_LAT, WARSAW_LON, 5)).containsExactly(1L);
+    }
+
+    @Test
+    void testWithinAcrossAntimeridian() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, 0, 179.95);
+        index.put(2L, 0, -179.95);
+
+        assertThat(index.within(0, 179.99, 20)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testWithinNearPole() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, 89.9, 0);
+        index.put(2L, 89.9, 180);
+
+        assertThat(index.within(89.95, 90, 50)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testPutMovesUserBetweenCells() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, WARSAW_LAT, WARSAW_LON);
+        index.put(1L, 50.0647, 19.9450);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.within(WARSAW_LAT, WARSAW_LON, 50)).isEmpty();
+        assertThat(index.locationOf(1L)).containsExactly(50.0647, 19.9450);
+    }
+
+    @Test
+    void testRemove() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, WARSAW_LAT, WARSAW_LON);
+
+        assertThat(index.remove(1L)).isTrue();
+        assertThat(index.remove(1L)).isFalse();
+        assertThat(index.contains(1L)).isFalse();
+        assertThat(index.within(WARSAW_LAT, WARSAW_LON, 10)).isEmpty();
+    }
+
+    @Test
+    void testFilterWithinKeepsOrderAndOptionallyUnlocated() {
+        GeoIndex index = new GeoIndex();
+        index.put(1L, WARSAW_LAT, WARSAW_LON);
+        index.put(2L, 50.0647, 19.9450);
+        index.put(3L, 52.4064, 20.9561);
+
+        long[] candidates = {3L, 2L, 9L, 1L};
+
+        assertThat(index.filterWithin(candidates, WARSAW_LAT, WARSAW_LON, 50, true)).containsExactly(3L, 9L, 1L);
+        assertThat(index.filterWithin(candidates, WARSAW_LAT, WARSAW_LON, 50, false)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void testDistancesOfRange() {
+        GeoIndex index = new GeoIndex();
+        index.put(2L, 50.0647, 19.9450);
+
+        double[] distances = new double[2];
+        index.distancesKm(WARSAW_LAT, WARSAW_LON, new long[]{1L, 2L, 9L}, 1, 3, distances);
+
+        assertThat(distances[0]).isCloseTo(252, within(3.0));
+        assertThat(distances[1]).isNaN();
+    }
+
+    @Test
+    void testWithinMatchesBruteForce() {
+        GeoIndex index = new GeoIndex();
+        Random random = new Random(7);
+        double[][] points = new double[2_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{49 + random.nextDouble() * 6, 14 + random.nextDouble() * 10};
+            index.put(i, points[i][0], points[i][1]);
+        }
+
+        for (int distance : new int[]{10, 50, 150}) {
+            long[] expected = IntStream.range(0, points.length)
+                    .filter(i -> GeoIndex.haversineKm(WARSAW_LAT, WARSAW_LON, points[i][0], points[i][1]) <= distance)
+                    .asLongStream()
+                    .toArray();
+
+            assertThat(index.within(WARSAW_LAT, WARSAW_LON, distance)).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void testCellOfRejectsInvalidCoordinates() {
+        assertThatThrownBy(() -> GeoIndex.cellOf(91, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GeoIndex.cellOf(0, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ImpressionLogTest {
+
+    @Test
+    void testRecordedUsersAreFound() {
+        ImpressionLog log = new ImpressionLog(8);
+        log.record(5L, 100);
+        log.record(7L, 100);
+
+        assertThat(log.mightContain(5L)).isTrue();
+        assertThat(log.mightContain(7L)).isTrue();
+        assertThat(log.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testWeightDecaysAndSumsImpressions() {
+        ImpressionLog log = new ImpressionLog(8);
+        log.record(5L, 100);
+        log.record(5L, 160);
+
+        assertThat(log.weightOf(5L, 160, 0, 60)).isEqualTo(1.5, within(1e-9));
+        assertThat(log.weightOf(5L, 160, 10, 60)).isEqualTo(0.5, within(1e-9));
+        assertThat(log.weightOf(6L, 160, 0, 60)).isZero();
+    }
+
+    @Test
+    void testFullLogDropsOldestImpression() {
+        ImpressionLog log = new ImpressionLog(2);
+        log.record(1L, 100);
+        log.record(2L, 100);
+        log.record(3L, 100);
+
+        assertThat(log.size()).isEqualTo(2);
+        assertThat(log.weightOf(1L, 100, 0, 60)).isZero();
+        assertThat(log.weightOf(2L, 100, 0, 60)).isEqualTo(1.0);
+        assertThat(log.weightOf(3L, 100, 0, 60)).isEqualTo(1.0);
+    }
+
+    @Test
+    void testBinaryFormRoundTrip() {
+        ImpressionLog log = new ImpressionLog(4);
+        log.record(1L, 100);
+        log.record(2L, 110);
+        log.record(3L, 120);
+
+        byte[] data = log.toBytes();
+        ImpressionLog restored = ImpressionLog.fromBytes(data, 4);
+        ImpressionLog truncated = ImpressionLog.fromBytes(data, 2);
+
+        assertThat(data).hasSize(1 + 4 + 3 * 12);
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.weightOf(2L, 110, 0, 60)).isEqualTo(1.0);
+        assertThat(truncated.size()).isEqualTo(2);
+        assertThat(truncated.weightOf(1L, 120, 0, 60)).isZero();
+        assertThat(truncated.weightOf(3L, 120, 0, 60)).isEqualTo(1.0);
+    }
+
+    @Test
+    void testFromBytesRejectsMalformedData() {
+        assertThatThrownBy(() -> ImpressionLog.fromBytes(new byte[]{9, 0, 0, 0, 0}, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImpressionLog.fromBytes(new byte[]{1, 0, 0, 0, 1}, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InboundLikeIndexTest {
+
+    @Test
+    void testAddKeepsLikersSortedAndUnique() {
+        InboundLikeIndex index = new InboundLikeIndex();
+        index.add(1L, 9L);
+        index.add(1L, 3L);
+        index.add(1L, 9L);
+        index.add(2L, 3L);
+
+        assertThat(index.likersOf(1L)).containsExactly(3L, 9L);
+        assertThat(index.hasLiked(3L, 2L)).isTrue();
+        assertThat(index.hasLiked(9L, 2L)).isFalse();
+        assertThat(index.likeCount()).isEqualTo(3);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testRemoveReleasesEmptyUsers() {
+        InboundLikeIndex index = new InboundLikeIndex();
+        index.add(1L, 3L);
+        index.add(1L, 4L);
+
+        index.remove(1L, 3L);
+        assertThat(index.likersOf(1L)).containsExactly(4L);
+
+        index.remove(1L, 4L);
+        index.remove(1L, 4L);
+        assertThat(index.likersOf(1L)).isEmpty();
+        assertThat(index.size()).isZero();
+        assertThat(index.likeCount()).isZero();
+    }
+
+    @Test
+    void testRemoveUserAndReuseSlot() {
+        InboundLikeIndex index = new InboundLikeIndex();
+        index.add(1L, 3L);
+        index.add(1L, 4L);
+
+        index.removeUser(1L);
+        index.add(5L, 6L);
+
+        assertThat(index.likersOf(1L)).isEmpty();
+        assertThat(index.likersOf(5L)).containsExactly(6L);
+        assertThat(index.likeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testClear() {
+        InboundLikeIndex index = new InboundLikeIndex();
+        index.add(1L, 3L);
+
+        index.clear();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.likeCount()).isZero();
+    }
+}
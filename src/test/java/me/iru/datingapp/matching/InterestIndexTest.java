@@ -0,0 +1,113 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class InterestIndexTest {
+
+    @Test
+    void testAddRemoveAndOverlap() {
+        InterestIndex index = new InterestIndex();
+        index.add(1L, 3L);
+        index.add(1L, 70L);
+        index.add(2L, 70L);
+        index.add(2L, 4L);
+
+        assertThat(index.overlap(1L, 2L)).isEqualTo(1);
+        assertThat(index.interestCount(1L)).isEqualTo(2);
+
+        index.remove(1L, 70L);
+
+        assertThat(index.overlap(1L, 2L)).isZero();
+        assertThat(index.interestCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void testSetReplacesInterests() {
+        InterestIndex index = new InterestIndex();
+        index.add(1L, 1L);
+
+        index.set(1L, new long[]{5L, 6L, 200L});
+
+        assertThat(index.interestCount(1L)).isEqualTo(3);
+        index.set(2L, new long[]{1L});
+        assertThat(index.overlap(1L, 2L)).isZero();
+    }
+
+    @Test
+    void testRankOrdersByJaccardAndKeepsTiesStable() {
+        InterestIndex index = new InterestIndex();
+        index.set(1L, new long[]{1L, 2L, 3L});
+        index.set(10L, new long[]{9L});
+        index.set(11L, new long[]{1L, 2L, 3L});
+        index.set(12L, new long[]{1L, 9L});
+        index.set(13L, new long[]{8L});
+
+        long[] ranked = index.rank(1L, new long[]{10L, 12L, 13L, 11L, 14L});
+
+        assertThat(ranked).containsExactly(11L, 12L, 10L, 13L, 14L);
+    }
+
+    @Test
+    void testSimilaritiesOfRange() {
+        InterestIndex index = new InterestIndex();
+        index.set(1L, new long[]{1L, 2L, 3L});
+        index.set(11L, new long[]{1L, 2L, 3L});
+        index.set(12L, new long[]{1L, 9L});
+
+        double[] similarities = new double[3];
+        index.similarities(1L, new long[]{99L, 11L, 12L, 13L}, 1, 4, similarities);
+
+        assertThat(similarities[0]).isEqualTo(1.0);
+        assertThat(similarities[1]).isCloseTo(0.25, within(1e-9));
+        assertThat(similarities[2]).isZero();
+    }
+
+    @Test
+    void testRankWithoutViewerInterestsKeepsOrder() {
+        InterestIndex index = new InterestIndex();
+        index.set(10L, new long[]{1L});
+
+        assertThat(index.rank(1L, new long[]{3L, 10L, 2L})).containsExactly(3L, 10L, 2L);
+    }
+
+    @Test
+    void testRemoveInterestClearsEveryUser() {
+        InterestIndex index = new InterestIndex();
+        index.set(1L, new long[]{1L, 2L});
+        index.set(2L, new long[]{2L});
+
+        index.removeInterest(2L);
+
+        assertThat(index.interestCount(1L)).isEqualTo(1);
+        assertThat(index.interestCount(2L)).isZero();
+    }
+
+    @Test
+    void testRemoveUserReusesSlot() {
+        InterestIndex index = new InterestIndex();
+        index.set(1L, new long[]{1L});
+        index.removeUser(1L);
+        index.set(2L, new long[]{2L});
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.interestCount(1L)).isZero();
+        assertThat(index.interestCount(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void testJaccard() {
+        assertThat(InterestIndex.jaccard(new long[]{0b1110}, new long[]{0b0111})).isCloseTo(0.5, within(1e-9));
+        assertThat(InterestIndex.jaccard(new long[0], new long[0])).isZero();
+    }
+
+    @Test
+    void testNegativeInterestIdRejected() {
+        InterestIndex index = new InterestIndex();
+
+        assertThatThrownBy(() -> index.add(1L, -1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
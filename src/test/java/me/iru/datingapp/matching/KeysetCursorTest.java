@@ -0,0 +1,44 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+
+    @Test
+    void testRoundTrip() {
+        String token = KeysetCursor.encode("msg:", AT, 42L);
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode("msg:", token)).isEqualTo(new KeysetCursor(AT, 42L));
+    }
+
+    @Test
+    void testRejectsTokenOfOtherListing() {
+        String token = KeysetCursor.encode("inbox:", AT, 42L);
+
+        assertThatThrownBy(() -> KeysetCursor.decode("msg:", token))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRejectsMalformedTokens() {
+        String badTime = Base64.getUrlEncoder().encodeToString("msg:yesterday_42".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString(("msg:" + AT + "_x").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode("msg:", "not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("msg:", badTime))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("msg:", badId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
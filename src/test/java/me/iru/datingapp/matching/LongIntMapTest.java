@@ -0,0 +1,86 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntMapTest {
+
+    @Test
+    void testPutAndGet() {
+        LongIntMap map = new LongIntMap();
+        map.put(1L, 10);
+        map.put(2L, 20);
+
+        assertThat(map.get(1L, -1)).isEqualTo(10);
+        assertThat(map.get(2L, -1)).isEqualTo(20);
+        assertThat(map.get(3L, -1)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testPutOverwritesExistingKey() {
+        LongIntMap map = new LongIntMap();
+        map.put(5L, 1);
+        map.put(5L, 2);
+
+        assertThat(map.get(5L, -1)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testAddToStartsFromZero() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.addTo(3L, 2)).isEqualTo(2);
+        assertThat(map.addTo(3L, 5)).isEqualTo(7);
+        assertThat(map.get(3L, -1)).isEqualTo(7);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemove() {
+        LongIntMap map = new LongIntMap();
+        map.put(7L, 70);
+
+        assertThat(map.remove(7L, -1)).isEqualTo(70);
+        assertThat(map.remove(7L, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(7L)).isFalse();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void testRejectsReservedKey() {
+        LongIntMap map = new LongIntMap();
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        LongIntMap map = new LongIntMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000) + 1;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key, -1)).isEqualTo(expected.getOrDefault(key, -1));
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key, -1)).isEqualTo(value));
+        assertThat(map.keys()).hasSize(expected.size());
+    }
+}
@@ -0,0 +1,74 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreferenceIndexTest {
+
+    @Test
+    void testFilterAcceptingChecksGenderAndAge() {
+        PreferenceIndex index = new PreferenceIndex();
+        index.putProfile(1L, User.Gender.MALE, 30);
+        index.put(2L, User.Gender.FEMALE, 28, User.Gender.MALE, 25, 35);
+        index.put(3L, User.Gender.FEMALE, 28, User.Gender.FEMALE, 25, 35);
+        index.put(4L, User.Gender.FEMALE, 22, null, 18, 25);
+        index.put(5L, User.Gender.OTHER, 40, null, 18, 99);
+
+        assertThat(index.filterAccepting(1L, new long[]{2L, 3L, 4L, 5L})).containsExactly(2L, 5L);
+    }
+
+    @Test
+    void testDefaultsFollowAge() {
+        PreferenceIndex index = new PreferenceIndex();
+        index.putProfile(1L, User.Gender.MALE, 30);
+        index.putProfile(2L, User.Gender.FEMALE, 33);
+        index.putProfile(3L, User.Gender.FEMALE, 40);
+
+        assertThat(index.filterAccepting(1L, new long[]{2L, 3L})).containsExactly(2L);
+
+        index.putProfile(3L, User.Gender.FEMALE, 35);
+
+        assertThat(index.filterAccepting(1L, new long[]{2L, 3L})).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testProfileUpdateKeepsExplicitPreference() {
+        PreferenceIndex index = new PreferenceIndex();
+        index.putProfile(1L, User.Gender.MALE, 30);
+        index.putProfile(2L, User.Gender.FEMALE, 60);
+        index.putPreference(2L, User.Gender.MALE, 25, 35);
+
+        index.putProfile(2L, User.Gender.FEMALE, 61);
+        assertThat(index.filterAccepting(1L, new long[]{2L})).containsExactly(2L);
+
+        index.clearPreference(2L);
+        assertThat(index.filterAccepting(1L, new long[]{2L})).isEmpty();
+    }
+
+    @Test
+    void testUnknownUsersAreKept() {
+        PreferenceIndex index = new PreferenceIndex();
+        index.put(2L, User.Gender.FEMALE, 28, User.Gender.FEMALE, 25, 35);
+
+        assertThat(index.filterAccepting(1L, new long[]{2L, 3L})).containsExactly(2L, 3L);
+
+        index.putProfile(1L, User.Gender.MALE, 30);
+
+        assertThat(index.filterAccepting(1L, new long[]{2L, 3L})).containsExactly(3L);
+    }
+
+    @Test
+    void testPutPreferenceRequiresIndexedUser() {
+        PreferenceIndex index = new PreferenceIndex();
+
+        assertThat(index.putPreference(7L, null, 18, 30)).isFalse();
+        assertThat(index.contains(7L)).isFalse();
+
+        index.putProfile(7L, User.Gender.OTHER, 25);
+        assertThat(index.putPreference(7L, null, 18, 30)).isTrue();
+        assertThat(index.remove(7L)).isTrue();
+        assertThat(index.size()).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriorityLaneTest {
+
+    @Test
+    void testInterleavesAtRatioKeepingRankedOrder() {
+        long[] ranked = {1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L};
+
+        long[] result = PriorityLane.interleave(ranked, new long[]{6L, 8L, 9L}, 0.25);
+
+        assertThat(result).containsExactly(6L, 1L, 2L, 3L, 8L, 4L, 5L, 7L, 9L);
+    }
+
+    @Test
+    void testLaneFillsWhenRestRunsOut() {
+        long[] result = PriorityLane.interleave(new long[]{1L, 2L, 3L, 4L}, new long[]{2L, 3L, 4L}, 0.25);
+
+        assertThat(result).containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void testFullRatioPutsLaneFirst() {
+        long[] result = PriorityLane.interleave(new long[]{1L, 2L, 3L, 4L}, new long[]{3L, 4L}, 1.0);
+
+        assertThat(result).containsExactly(3L, 4L, 1L, 2L);
+    }
+
+    @Test
+    void testIgnoresLaneIdsOutsideCandidates() {
+        long[] ranked = {1L, 2L, 3L};
+
+        assertThat(PriorityLane.interleave(ranked, new long[]{7L, 8L}, 0.5)).containsExactly(1L, 2L, 3L);
+        assertThat(PriorityLane.interleave(ranked, new long[]{3L}, 0)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testRejectsInvalidRatio() {
+        assertThatThrownBy(() -> PriorityLane.interleave(new long[]{1L}, new long[]{1L}, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,157 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoaringBitmapTest {
+
+    @Test
+    void testAddContainsAndRemove() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+
+        assertThat(bitmap.add(5L)).isTrue();
+        assertThat(bitmap.add(5L)).isFalse();
+        assertThat(bitmap.add(70_000L)).isTrue();
+
+        assertThat(bitmap.contains(5L)).isTrue();
+        assertThat(bitmap.contains(70_000L)).isTrue();
+        assertThat(bitmap.contains(6L)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+
+        assertThat(bitmap.remove(5L)).isTrue();
+        assertThat(bitmap.remove(5L)).isFalse();
+        assertThat(bitmap.contains(5L)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemovingLastValueDropsContainer() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(1L);
+        bitmap.remove(1L);
+
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.toArray()).isEmpty();
+    }
+
+    @Test
+    void testNegativeIds() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+
+        assertThatThrownBy(() -> bitmap.add(-1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(bitmap.contains(-1L)).isFalse();
+        assertThat(bitmap.remove(-1L)).isFalse();
+    }
+
+    @Test
+    void testDenseContainerConvertsToBitmapAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long id = 0; id < 10_000; id += 2) {
+            bitmap.add(id);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(5_000);
+        assertThat(bitmap.contains(9_998L)).isTrue();
+        assertThat(bitmap.contains(9_999L)).isFalse();
+        assertThat(bitmap.sizeInBytes()).isLessThan(10_000L);
+
+        for (long id = 0; id < 4_000; id += 2) {
+            bitmap.remove(id);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(3_000);
+        assertThat(bitmap.contains(4_000L)).isTrue();
+        assertThat(bitmap.contains(2_000L)).isFalse();
+    }
+
+    @Test
+    void testRunOptimizeCompressesConsecutiveIds() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long id = 1; id <= 50_000; id++) {
+            bitmap.add(id);
+        }
+        long before = bitmap.sizeInBytes();
+
+        bitmap.runOptimize();
+
+        assertThat(bitmap.sizeInBytes()).isLessThan(before / 10);
+        assertThat(bitmap.cardinality()).isEqualTo(50_000);
+        assertThat(bitmap.contains(1L)).isTrue();
+        assertThat(bitmap.contains(50_000L)).isTrue();
+        assertThat(bitmap.contains(0L)).isFalse();
+        assertThat(bitmap.contains(50_001L)).isFalse();
+    }
+
+    @Test
+    void testRunContainerStaysMutable() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long id = 100; id < 200; id++) {
+            bitmap.add(id);
+        }
+        bitmap.runOptimize();
+
+        assertThat(bitmap.add(500L)).isTrue();
+        assertThat(bitmap.remove(150L)).isTrue();
+
+        assertThat(bitmap.contains(500L)).isTrue();
+        assertThat(bitmap.contains(150L)).isFalse();
+        assertThat(bitmap.contains(151L)).isTrue();
+        assertThat(bitmap.cardinality()).isEqualTo(100);
+    }
+
+    @Test
+    void testSerializeRoundTrip() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long id = 0; id < 3_000; id++) {
+            bitmap.add(id);
+        }
+        for (long id = 100_000; id < 120_000; id += 3) {
+            bitmap.add(id);
+        }
+        bitmap.add(5_000_000_000L);
+        bitmap.runOptimize();
+
+        RoaringBitmap copy = RoaringBitmap.deserialize(bitmap.serialize());
+
+        assertThat(copy.toArray()).containsExactly(bitmap.toArray());
+    }
+
+    @Test
+    void testDeserializeRejectsTruncatedData() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(42L);
+        byte[] data = bitmap.serialize();
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+
+        assertThatThrownBy(() -> RoaringBitmap.deserialize(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMatchesTreeSetUnderRandomOperations() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(200_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(bitmap.remove(id)).isEqualTo(expected.remove(id));
+            } else {
+                assertThat(bitmap.add(id)).isEqualTo(expected.add(id));
+            }
+            if (i % 10_000 == 0) {
+                bitmap.runOptimize();
+            }
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+    }
+}
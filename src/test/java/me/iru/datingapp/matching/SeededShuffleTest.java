@@ -0,0 +1,52 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeededShuffleTest {
+
+    private static final long[] CANDIDATES = LongStream.rangeClosed(1, 1_000).toArray();
+
+    @Test
+    void testSameSeedGivesSameOrder() {
+        long seed = SeededShuffle.seedOf(7L, 100L);
+
+        assertThat(SeededShuffle.shuffle(CANDIDATES, seed)).containsExactly(SeededShuffle.shuffle(CANDIDATES, seed));
+        assertThat(SeededShuffle.shuffle(CANDIDATES, seed)).containsExactlyInAnyOrder(CANDIDATES);
+    }
+
+    @Test
+    void testViewersAndEpochsGetDifferentOrders() {
+        long[] first = SeededShuffle.shuffle(CANDIDATES, SeededShuffle.seedOf(7L, 100L));
+        long[] otherViewer = SeededShuffle.shuffle(CANDIDATES, SeededShuffle.seedOf(8L, 100L));
+        long[] nextEpoch = SeededShuffle.shuffle(CANDIDATES, SeededShuffle.seedOf(7L, 101L));
+
+        assertThat(first).isNotEqualTo(CANDIDATES);
+        assertThat(otherViewer).isNotEqualTo(first);
+        assertThat(nextEpoch).isNotEqualTo(first);
+    }
+
+    @Test
+    void testRemovingCandidateKeepsRelativeOrder() {
+        long seed = SeededShuffle.seedOf(7L, 100L);
+        long[] all = SeededShuffle.shuffle(CANDIDATES, seed);
+        long[] fewer = SeededShuffle.shuffle(Arrays.copyOf(CANDIDATES, CANDIDATES.length - 1), seed);
+
+        long[] expected = Arrays.stream(all).filter(id -> id != CANDIDATES.length).toArray();
+        assertThat(fewer).containsExactly(expected);
+    }
+
+    @Test
+    void testFirstPositionsAreSpreadAcrossViewers() {
+        long[] firstCounts = new long[CANDIDATES.length + 1];
+        for (long viewer = 0; viewer < 2_000; viewer++) {
+            firstCounts[(int) SeededShuffle.shuffle(CANDIDATES, SeededShuffle.seedOf(viewer, 1L))[0]]++;
+        }
+
+        assertThat(Arrays.stream(firstCounts).max().orElseThrow()).isLessThan(15);
+    }
+}
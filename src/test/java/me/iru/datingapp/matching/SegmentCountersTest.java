@@ -0,0 +1,60 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentCountersTest {
+
+    @Test
+    void testSumMatchesGenderAndAgeRange() {
+        SegmentCounters counters = new SegmentCounters(0);
+        counters.add(User.Gender.FEMALE, 22, 3);
+        counters.add(User.Gender.FEMALE, 30, 2);
+        counters.add(User.Gender.FEMALE, 31, 5);
+        counters.add(User.Gender.MALE, 25, 4);
+
+        assertThat(counters.sum(User.Gender.FEMALE, 20, 30)).isEqualTo(5);
+        assertThat(counters.sum(User.Gender.FEMALE, null, null)).isEqualTo(10);
+        assertThat(counters.sum(null, 25, 30)).isEqualTo(6);
+        assertThat(counters.sum(User.Gender.OTHER, null, null)).isZero();
+    }
+
+    @Test
+    void testEmptyAgeRangeSumsToZero() {
+        SegmentCounters counters = new SegmentCounters(0);
+        counters.add(User.Gender.MALE, 25, 1);
+
+        assertThat(counters.sum(null, 30, 20)).isZero();
+    }
+
+    @Test
+    void testNegativeDeltaAndClampedAges() {
+        SegmentCounters counters = new SegmentCounters(0);
+        counters.add(User.Gender.MALE, 25, 2);
+        counters.add(User.Gender.MALE, 25, -1);
+        counters.add(User.Gender.MALE, 200, 1);
+
+        assertThat(counters.get(User.Gender.MALE, 25)).isEqualTo(1);
+        assertThat(counters.get(User.Gender.MALE, SegmentCounters.MAX_AGE)).isEqualTo(1);
+        assertThat(counters.sum(User.Gender.MALE, 100, null)).isEqualTo(1);
+    }
+
+    @Test
+    void testMatches() {
+        assertThat(SegmentCounters.matches(User.Gender.MALE, 25, null, 20, 30)).isTrue();
+        assertThat(SegmentCounters.matches(User.Gender.MALE, 25, User.Gender.FEMALE, 20, 30)).isFalse();
+        assertThat(SegmentCounters.matches(User.Gender.MALE, 35, User.Gender.MALE, 20, 30)).isFalse();
+        assertThat(SegmentCounters.matches(User.Gender.MALE, 35, User.Gender.MALE, null, null)).isTrue();
+    }
+
+    @Test
+    void testGenderIsRequired() {
+        SegmentCounters counters = new SegmentCounters(0);
+
+        assertThatThrownBy(() -> counters.add(null, 25, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
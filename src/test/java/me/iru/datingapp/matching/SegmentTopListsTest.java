@@ -0,0 +1,62 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentTopListsTest {
+
+    @Test
+    void testTopForServesCityFirstThenOtherCities() {
+        SegmentTopLists lists = SegmentTopLists.builder(5, 10)
+                .add(1L, User.Gender.FEMALE, 25, "Paris", 1.0)
+                .add(2L, User.Gender.FEMALE, 26, " paris ", 3.0)
+                .add(3L, User.Gender.FEMALE, 27, "Lyon", 5.0)
+                .add(4L, User.Gender.FEMALE, 28, null, 2.0)
+                .build();
+
+        assertThat(lists.topFor(User.Gender.FEMALE, 20, 30, "PARIS", 10)).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(lists.topFor(User.Gender.FEMALE, 20, 30, "Nice", 10)).containsExactly(3L, 2L, 4L, 1L);
+        assertThat(lists.topFor(User.Gender.FEMALE, 20, 30, null, 2)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void testTopForFiltersGenderAndExactAge() {
+        SegmentTopLists lists = SegmentTopLists.builder(10, 10)
+                .add(1L, User.Gender.FEMALE, 21, "Paris", 1.0)
+                .add(2L, User.Gender.FEMALE, 29, "Paris", 2.0)
+                .add(3L, User.Gender.MALE, 25, "Paris", 3.0)
+                .build();
+
+        assertThat(lists.topFor(User.Gender.FEMALE, 20, 25, "Paris", 10)).containsExactly(1L);
+        assertThat(lists.topFor(null, 20, 29, "Paris", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(lists.topFor(User.Gender.OTHER, 18, 99, "Paris", 10)).isEmpty();
+    }
+
+    @Test
+    void testSegmentsKeepOnlyBestCandidates() {
+        SegmentTopLists lists = SegmentTopLists.builder(5, 2)
+                .add(1L, User.Gender.MALE, 30, "Rome", 1.0)
+                .add(2L, User.Gender.MALE, 31, "Rome", 4.0)
+                .add(3L, User.Gender.MALE, 32, "Rome", 3.0)
+                .build();
+
+        assertThat(lists.topFor(User.Gender.MALE, 30, 34, "Rome", 10)).containsExactly(2L, 3L);
+        assertThat(lists.segmentCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testEmpty() {
+        assertThat(SegmentTopLists.EMPTY.topFor(null, 18, 100, "Paris", 10)).isEmpty();
+    }
+
+    @Test
+    void testRejectsNonPositiveSizes() {
+        assertThatThrownBy(() -> SegmentTopLists.builder(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SegmentTopLists.builder(5, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
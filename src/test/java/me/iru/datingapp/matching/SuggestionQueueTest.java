@@ -0,0 +1,80 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SuggestionQueueTest {
+
+    @Test
+    void testNewQueueIsNotFilled() {
+        SuggestionQueue queue = new SuggestionQueue(3);
+
+        assertThat(queue.isFilled()).isFalse();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void testRefillKeepsRankedOrderUpToCapacity() {
+        SuggestionQueue queue = new SuggestionQueue(3);
+
+        queue.refill(new long[]{9L, 4L, 7L, 1L}, id -> true);
+
+        assertThat(queue.isFilled()).isTrue();
+        assertThat(queue.snapshot(10).userIds()).containsExactly(9L, 4L, 7L);
+        assertThat(queue.total()).isEqualTo(4);
+        assertThat(queue.isComplete()).isFalse();
+    }
+
+    @Test
+    void testRefillReplacesWithHeadOfEligibleCandidates() {
+        SuggestionQueue queue = new SuggestionQueue(3);
+        queue.refill(new long[]{9L, 4L}, id -> true);
+        queue.remove(9L);
+
+        queue.refill(new long[]{4L, 5L, 6L, 8L}, id -> id != 5L);
+
+        assertThat(queue.snapshot(3).userIds()).containsExactly(4L, 6L, 8L);
+    }
+
+    @Test
+    void testRefillFollowsOrderOfNewList() {
+        SuggestionQueue queue = new SuggestionQueue(3);
+        queue.refill(new long[]{1L, 2L}, id -> true);
+
+        queue.refill(new long[]{2L, 1L, 3L}, id -> true);
+
+        assertThat(queue.snapshot(3).userIds()).containsExactly(2L, 1L, 3L);
+        assertThat(queue.total()).isEqualTo(3);
+    }
+
+    @Test
+    void testRemoveConsumesEntryAndTotal() {
+        SuggestionQueue queue = new SuggestionQueue(5);
+        queue.refill(new long[]{1L, 2L, 3L}, id -> true);
+
+        assertThat(queue.remove(2L)).isTrue();
+        assertThat(queue.remove(2L)).isFalse();
+
+        SuggestionQueue.Snapshot snapshot = queue.snapshot(5);
+        assertThat(snapshot.userIds()).containsExactly(1L, 3L);
+        assertThat(snapshot.total()).isEqualTo(2);
+        assertThat(queue.isComplete()).isTrue();
+    }
+
+    @Test
+    void testRefillClaimIsExclusive() {
+        SuggestionQueue queue = new SuggestionQueue(1);
+
+        assertThat(queue.startRefill()).isTrue();
+        assertThat(queue.startRefill()).isFalse();
+        queue.finishRefill();
+        assertThat(queue.startRefill()).isTrue();
+    }
+
+    @Test
+    void testCapacityMustBePositive() {
+        assertThatThrownBy(() -> new SuggestionQueue(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
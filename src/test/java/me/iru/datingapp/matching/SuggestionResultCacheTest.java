@@ -0,0 +1,105 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SuggestionResultCacheTest {
+
+    @Test
+    void testGetReturnsStoredListAndCountsHits() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 100, 1000);
+        SuggestionResultCache.Key key = cache.keyOf(1L);
+
+        assertThat(cache.get(key, 0)).isNull();
+        assertThat(cache.put(key, new long[]{3L, 2L}, 0)).isTrue();
+
+        assertThat(cache.get(key, 500)).containsExactly(3L, 2L);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void testVersionBumpRetiresList() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 100, 1000);
+        cache.put(cache.keyOf(1L), new long[]{3L}, 0);
+        cache.put(cache.keyOf(2L), new long[]{4L}, 0);
+
+        cache.bumpPreferenceVersion(1L);
+        cache.bumpRatingVersion(2L);
+
+        assertThat(cache.keyOf(1L).preferenceVersion()).isEqualTo(1);
+        assertThat(cache.keyOf(2L).ratingVersion()).isEqualTo(1);
+        assertThat(cache.get(cache.keyOf(1L), 0)).isNull();
+        assertThat(cache.get(cache.keyOf(2L), 0)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.weight()).isZero();
+    }
+
+    @Test
+    void testPutUnderStaleKeyIsIgnored() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 100, 1000);
+        SuggestionResultCache.Key key = cache.keyOf(1L);
+
+        cache.bumpRatingVersion(1L);
+
+        assertThat(cache.put(key, new long[]{3L}, 0)).isFalse();
+        assertThat(cache.get(cache.keyOf(1L), 0)).isNull();
+    }
+
+    @Test
+    void testExpiredListIsDropped() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 100, 1000);
+        SuggestionResultCache.Key key = cache.keyOf(1L);
+        cache.put(key, new long[]{3L}, 0);
+
+        assertThat(cache.get(key, 1001)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByCountAndWeight() {
+        SuggestionResultCache cache = new SuggestionResultCache(2, 5, 1000);
+        cache.put(cache.keyOf(1L), new long[]{1L, 2L}, 0);
+        cache.put(cache.keyOf(2L), new long[]{3L}, 0);
+        cache.get(cache.keyOf(1L), 0);
+
+        cache.put(cache.keyOf(3L), new long[]{4L}, 0);
+
+        assertThat(cache.get(cache.keyOf(2L), 0)).isNull();
+        assertThat(cache.get(cache.keyOf(1L), 0)).containsExactly(1L, 2L);
+
+        cache.put(cache.keyOf(4L), new long[]{5L, 6L, 7L}, 0);
+
+        assertThat(cache.weight()).isLessThanOrEqualTo(5);
+        assertThat(cache.get(cache.keyOf(4L), 0)).containsExactly(5L, 6L, 7L);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+    }
+
+    @Test
+    void testListHeavierThanBoundIsNotStored() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 2, 1000);
+
+        assertThat(cache.put(cache.keyOf(1L), new long[]{1L, 2L, 3L}, 0)).isFalse();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testRemoveResetsVersions() {
+        SuggestionResultCache cache = new SuggestionResultCache(10, 100, 1000);
+        cache.bumpPreferenceVersion(1L);
+        cache.put(cache.keyOf(1L), new long[]{3L}, 0);
+
+        cache.remove(1L);
+
+        assertThat(cache.keyOf(1L)).isEqualTo(new SuggestionResultCache.Key(1L, 0, 0));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testRejectsNegativeBounds() {
+        assertThatThrownBy(() -> new SuggestionResultCache(-1, 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
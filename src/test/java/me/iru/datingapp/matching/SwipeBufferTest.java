@@ -0,0 +1,100 @@
+package me.iru.datingapp.matching;
+
+import me.iru.datingapp.entity.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SwipeBufferTest {
+
+    @Test
+    void testAddRejectsPendingSwipe() {
+        SwipeBuffer buffer = new SwipeBuffer(4);
+
+        assertThat(buffer.add(1L, 2L, Rating.RatingType.LIKE, 1_000L)).isTrue();
+        assertThat(buffer.add(1L, 2L, Rating.RatingType.DISLIKE, 2_000L)).isFalse();
+
+        assertThat(buffer.pendingType(1L, 2L)).isEqualTo(Rating.RatingType.LIKE);
+        assertThat(buffer.pendingType(2L, 1L)).isNull();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemoveMatchesType() {
+        SwipeBuffer buffer = new SwipeBuffer(4);
+        buffer.add(1L, 2L, Rating.RatingType.DISLIKE, 1_000L);
+
+        assertThat(buffer.remove(1L, 2L, Rating.RatingType.LIKE)).isNull();
+        assertThat(buffer.remove(1L, 2L, null)).isEqualTo(Rating.RatingType.DISLIKE);
+        assertThat(buffer.remove(1L, 2L, null)).isNull();
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void testForEachPendingListsRatersSwipes() {
+        SwipeBuffer buffer = new SwipeBuffer(4);
+        buffer.add(1L, 2L, Rating.RatingType.LIKE, 1_000L);
+        buffer.add(1L, 3L, Rating.RatingType.DISLIKE, 2_000L);
+        buffer.add(4L, 5L, Rating.RatingType.LIKE, 1_000L);
+
+        List<Long> pending = new ArrayList<>();
+        buffer.forEachPending(1L, pending::add);
+
+        assertThat(pending).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testDrainDueTakesIdleRaters() {
+        SwipeBuffer buffer = new SwipeBuffer(4);
+        buffer.add(1L, 2L, Rating.RatingType.LIKE, 1_000L);
+        buffer.add(1L, 3L, Rating.RatingType.DISLIKE, 2_000L);
+        buffer.add(4L, 2L, Rating.RatingType.LIKE, 1_000L);
+        buffer.add(4L, 3L, Rating.RatingType.LIKE, 6_000L);
+
+        Map<Long, Map<Long, Rating.RatingType>> due = buffer.drainDue(5_000L, 100);
+
+        assertThat(due).containsOnlyKeys(1L);
+        assertThat(due.get(1L)).containsExactly(
+                Map.entry(2L, Rating.RatingType.LIKE),
+                Map.entry(3L, Rating.RatingType.DISLIKE));
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        assertThat(buffer.drainDue(5_000L, 100)).isEmpty();
+    }
+
+    @Test
+    void testDrainDueTakesOldSwipesOfBusyRaters() {
+        SwipeBuffer buffer = new SwipeBuffer(1);
+        buffer.add(1L, 2L, Rating.RatingType.LIKE, 1_000L);
+        buffer.add(1L, 3L, Rating.RatingType.LIKE, 2_000L);
+        buffer.add(1L, 4L, Rating.RatingType.DISLIKE, 6_000L);
+
+        Map<Long, Map<Long, Rating.RatingType>> due = buffer.drainDue(5_000L, 3);
+
+        assertThat(due.get(1L)).containsOnlyKeys(2L, 3L);
+        assertThat(buffer.pendingType(1L, 4L)).isEqualTo(Rating.RatingType.DISLIKE);
+    }
+
+    @Test
+    void testRestoreKeepsNewerSwipe() {
+        SwipeBuffer buffer = new SwipeBuffer(2);
+        buffer.add(1L, 2L, Rating.RatingType.LIKE, 1_000L);
+        Map<Long, Rating.RatingType> failed = buffer.drainDue(1_000L, 100).get(1L);
+        buffer.add(1L, 2L, Rating.RatingType.DISLIKE, 3_000L);
+
+        buffer.restore(1L, failed, 4_000L);
+
+        assertThat(buffer.pendingType(1L, 2L)).isEqualTo(Rating.RatingType.DISLIKE);
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRejectsNonPositiveStripes() {
+        assertThatThrownBy(() -> new SwipeBuffer(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
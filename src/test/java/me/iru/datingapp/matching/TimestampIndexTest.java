@@ -0,0 +1,43 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimestampIndexTest {
+
+    @Test
+    void testPutStoresMinutePrecision() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(1L, 120_000L + 59_999L);
+
+        assertThat(index.minuteOf(1L)).isEqualTo(2);
+        assertThat(index.minuteOf(2L)).isEqualTo(TimestampIndex.MISSING);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testMinutesOfRange() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(1L, 60_000L);
+        index.put(3L, 180_000L);
+
+        int[] minutes = new int[2];
+        index.minutesOf(new long[]{9L, 1L, 2L, 3L}, 1, 3, minutes);
+
+        assertThat(minutes).containsExactly(1, TimestampIndex.MISSING);
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(1L, 60_000L);
+        index.put(2L, 60_000L);
+
+        assertThat(index.remove(1L)).isTrue();
+        assertThat(index.remove(1L)).isFalse();
+
+        index.clear();
+        assertThat(index.size()).isZero();
+    }
+}
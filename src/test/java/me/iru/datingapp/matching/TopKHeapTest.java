@@ -0,0 +1,61 @@
+package me.iru.datingapp.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopKHeapTest {
+
+    @Test
+    void testKeepsBestEntriesInOrder() {
+        TopKHeap heap = new TopKHeap(3);
+        double[] scores = {0.1, 0.9, 0.4, 0.7, 0.2, 0.8};
+        for (int i = 0; i < scores.length; i++) {
+            heap.offer(i, scores[i]);
+        }
+
+        assertThat(heap.size()).isEqualTo(3);
+        assertThat(heap.drainSorted()).containsExactly(1, 5, 3);
+        assertThat(heap.size()).isZero();
+    }
+
+    @Test
+    void testEqualScoresPreferLowerPosition() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(7, 0.5);
+        heap.offer(3, 0.5);
+        heap.offer(5, 0.5);
+
+        assertThat(heap.drainSorted()).containsExactly(3, 5);
+    }
+
+    @Test
+    void testRejectsWorseEntryWhenFull() {
+        TopKHeap heap = new TopKHeap(1);
+        heap.offer(0, 0.5);
+
+        assertThat(heap.offer(1, 0.2)).isFalse();
+        assertThat(heap.offer(2, 0.6)).isTrue();
+        assertThat(heap.drainSorted()).containsExactly(2);
+    }
+
+    @Test
+    void testMergeMatchesSingleHeap() {
+        TopKHeap left = new TopKHeap(3);
+        TopKHeap right = new TopKHeap(3);
+        TopKHeap single = new TopKHeap(3);
+        for (int i = 0; i < 20; i++) {
+            double score = (i * 37 % 11) / 10.0;
+            (i < 10 ? left : right).offer(i, score);
+            single.offer(i, score);
+        }
+
+        assertThat(left.merge(right).drainSorted()).containsExactly(single.drainSorted());
+    }
+
+    @Test
+    void testCapacityMustBePositive() {
+        assertThatThrownBy(() -> new TopKHeap(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,14 +1,17 @@
 package me.iru.datingapp.repository;
 
 import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.Message;
 import me.iru.datingapp.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -277,5 +280,164 @@ class MatchRepositoryTest {
 
         assertThat(user1Matches).hasSize(2);
     }
-}
 
+    @Test
+    void testSaveMatch_StoresCanonicalPair() {
+        User higher = user1.getId() > user2.getId() ? user1 : user2;
+        User lower = higher == user1 ? user2 : user1;
+        Match match = new Match();
+        match.setUser1(higher);
+        match.setUser2(lower);
+        match.setIsActive(true);
+
+        Match savedMatch = matchRepository.save(match);
+
+        assertThat(savedMatch.getUser1().getId()).isEqualTo(lower.getId());
+        assertThat(savedMatch.getUser2().getId()).isEqualTo(higher.getId());
+        assertThat(matchRepository.findMatchBetweenUsers(higher.getId(), lower.getId())).isPresent();
+        assertThat(matchRepository.existsMatchBetweenUsers(lower.getId(), higher.getId())).isTrue();
+    }
+
+    @Test
+    void testAdvanceLastReadMessageId() {
+        Match match = new Match();
+        match.setUser1(user1);
+        match.setUser2(user2);
+        match.setIsActive(true);
+        Match savedMatch = entityManager.persistAndFlush(match);
+
+        assertThat(matchRepository.advanceLastReadMessageId(savedMatch.getId(), user2.getId(), 10L)).isEqualTo(1);
+        assertThat(matchRepository.advanceLastReadMessageId(savedMatch.getId(), user2.getId(), 10L)).isZero();
+        assertThat(matchRepository.advanceLastReadMessageId(savedMatch.getId(), user2.getId(), 5L)).isZero();
+        assertThat(matchRepository.advanceLastReadMessageId(savedMatch.getId(), user3.getId(), 20L)).isZero();
+        entityManager.clear();
+
+        Match updatedMatch = matchRepository.findById(savedMatch.getId()).orElseThrow();
+        assertThat(updatedMatch.getLastReadMessageId(user2.getId())).isEqualTo(10L);
+        assertThat(updatedMatch.getLastReadMessageId(user1.getId())).isZero();
+        assertThat(updatedMatch.getLastReadMessageId(user3.getId())).isNull();
+    }
+
+    @Test
+    void testFindInboxAsUser1_KeysetPages() {
+        Match older = persistMatch(user1, user2, LocalDateTime.of(2025, 1, 1, 12, 0));
+        Match newer = persistMatch(user1, user3, LocalDateTime.of(2025, 1, 1, 13, 0));
+        persistMatch(user2, user3, LocalDateTime.of(2025, 1, 1, 14, 0));
+        Match inactive = new Match();
+        inactive.setUser1(user1);
+        inactive.setUser2(persistUser("user4@example.com"));
+        inactive.setIsActive(false);
+        inactive.setLastActivityAt(LocalDateTime.of(2025, 1, 1, 15, 0));
+        entityManager.persistAndFlush(inactive);
+        entityManager.clear();
+
+        List<Match> first = matchRepository.findInboxAsUser1(user1.getId(), PageRequest.of(0, 1));
+        assertThat(first).extracting(Match::getId).containsExactly(newer.getId());
+
+        Match last = first.getFirst();
+        List<Match> second = matchRepository.findInboxAsUser1Before(
+                user1.getId(), last.getLastActivityAt(), last.getId(), PageRequest.of(0, 5));
+        assertThat(second).extracting(Match::getId).containsExactly(older.getId());
+        assertThat(second.getFirst().getUser2().getEmail()).isEqualTo("user2@example.com");
+    }
+
+    @Test
+    void testFindInboxAsUser2_KeysetPages() {
+        Match older = persistMatch(user1, user3, LocalDateTime.of(2025, 1, 1, 12, 0));
+        Match newer = persistMatch(user2, user3, LocalDateTime.of(2025, 1, 1, 13, 0));
+        persistMatch(user1, user2, LocalDateTime.of(2025, 1, 1, 14, 0));
+        entityManager.clear();
+
+        List<Match> first = matchRepository.findInboxAsUser2(user3.getId(), PageRequest.of(0, 1));
+        assertThat(first).extracting(Match::getId).containsExactly(newer.getId());
+
+        Match last = first.getFirst();
+        List<Match> second = matchRepository.findInboxAsUser2Before(
+                user3.getId(), last.getLastActivityAt(), last.getId(), PageRequest.of(0, 5));
+        assertThat(second).extracting(Match::getId).containsExactly(older.getId());
+        assertThat(second.getFirst().getUser1().getEmail()).isEqualTo("user1@example.com");
+    }
+
+    @Test
+    void testRecordLastMessage() {
+        Match match = persistMatch(user1, user2, LocalDateTime.of(2025, 1, 1, 12, 0));
+        LocalDateTime sentAt = LocalDateTime.of(2025, 1, 1, 12, 30);
+
+        matchRepository.recordLastMessage(match.getId(), 10L, user1.getId(), "Hi", sentAt);
+        matchRepository.recordLastMessage(match.getId(), 5L, user2.getId(), "Committed late", sentAt.minusMinutes(1));
+        entityManager.clear();
+
+        Match updated = matchRepository.findById(match.getId()).orElseThrow();
+        assertThat(updated.getLastMessageId()).isEqualTo(10L);
+        assertThat(updated.getLastMessageSenderId()).isEqualTo(user1.getId());
+        assertThat(updated.getLastMessagePreview()).isEqualTo("Hi");
+        assertThat(updated.getLastActivityAt()).isEqualTo(sentAt);
+        assertThat(updated.getUnreadCount(user2.getId())).isEqualTo(1);
+        assertThat(updated.getUnreadCount(user1.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void testAdvanceLastReadMessageId_RecountsUnread() {
+        Match match = persistMatch(user1, user2, LocalDateTime.of(2025, 1, 1, 12, 0));
+        Message first = persistMessage(match, "First");
+        Message second = persistMessage(match, "Second");
+        Message third = persistMessage(match, "Third");
+        for (Message message : List.of(first, second, third)) {
+            matchRepository.recordLastMessage(match.getId(), message.getId(), user1.getId(),
+                    message.getContent(), message.getSentAt());
+        }
+
+        matchRepository.advanceLastReadMessageId(match.getId(), user2.getId(), first.getId());
+        entityManager.clear();
+        assertThat(matchRepository.findById(match.getId()).orElseThrow().getUnreadCount(user2.getId())).isEqualTo(2);
+
+        matchRepository.advanceLastReadMessageId(match.getId(), user2.getId(), third.getId());
+        entityManager.clear();
+        assertThat(matchRepository.findById(match.getId()).orElseThrow().getUnreadCount(user2.getId())).isZero();
+    }
+
+    @Test
+    void testClearConversationSummary() {
+        Match match = persistMatch(user1, user2, LocalDateTime.of(2025, 1, 1, 12, 0));
+        matchRepository.recordLastMessage(match.getId(), 10L, user1.getId(), "Hi", LocalDateTime.of(2025, 1, 1, 12, 30));
+
+        matchRepository.clearConversationSummary(match.getId());
+        entityManager.clear();
+
+        Match updated = matchRepository.findById(match.getId()).orElseThrow();
+        assertThat(updated.getLastMessageId()).isNull();
+        assertThat(updated.getLastMessagePreview()).isNull();
+        assertThat(updated.getUnreadCount(user2.getId())).isZero();
+        assertThat(updated.getLastActivityAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 30));
+    }
+
+    private Match persistMatch(User first, User second, LocalDateTime lastActivityAt) {
+        Match match = new Match();
+        match.setUser1(first);
+        match.setUser2(second);
+        match.setIsActive(true);
+        match.setLastActivityAt(lastActivityAt);
+        return entityManager.persistAndFlush(match);
+    }
+
+    private Message persistMessage(Match match, String content) {
+        Message message = new Message();
+        message.setSender(match.getUser1());
+        message.setReceiver(match.getUser2());
+        message.setMatch(match);
+        message.setContent(content);
+        return entityManager.persistAndFlush(message);
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFirstName("User");
+        user.setLastName("Four");
+        user.setGender(User.Gender.MALE);
+        user.setAge(35);
+        user.setCity("Gdansk");
+        return entityManager.persistAndFlush(user);
+    }
+}
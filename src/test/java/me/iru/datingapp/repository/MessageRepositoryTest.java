@@ -353,5 +353,52 @@ class MessageRepositoryTest {
 
         assertThat(messageRepository.findById(savedMessage.getId())).isEmpty();
     }
-}
 
+    @Test
+    void testKeysetWindows() {
+        persistMessage(user1, user2, match1, "First");
+        persistMessage(user2, user1, match1, "Second");
+        persistMessage(user1, user2, match1, "Third");
+        persistMessage(user1, user3, match2, "Other match");
+        entityManager.clear();
+
+        List<Message> latest = messageRepository.findLatestByMatchId(match1.getId(), PageRequest.of(0, 2));
+        assertThat(latest).extracting(Message::getContent).containsExactly("Third", "Second");
+
+        Message second = latest.get(1);
+        List<Message> before = messageRepository.findByMatchIdBefore(
+                match1.getId(), second.getSentAt(), second.getId(), PageRequest.of(0, 2));
+        assertThat(before).extracting(Message::getContent).containsExactly("First");
+
+        Message first = before.getFirst();
+        List<Message> after = messageRepository.findByMatchIdAfter(
+                match1.getId(), first.getSentAt(), first.getId(), PageRequest.of(0, 5));
+        assertThat(after).extracting(Message::getContent).containsExactly("Second", "Third");
+    }
+
+    @Test
+    void testCountUnreadAfterWatermark() {
+        Message first = persistMessage(user1, user2, match1, "First");
+        persistMessage(user1, user2, match1, "Second");
+        persistMessage(user2, user1, match1, "Reply");
+        persistMessage(user1, user3, match2, "Other match");
+
+        match1.setUser2LastReadMessageId(first.getId());
+        entityManager.persistAndFlush(match1);
+        entityManager.clear();
+
+        assertThat(messageRepository.countUnreadAfterWatermark(user2.getId())).isEqualTo(1L);
+        assertThat(messageRepository.countUnreadAfterWatermark(user1.getId())).isEqualTo(1L);
+        assertThat(messageRepository.countUnreadAfterWatermark(user3.getId())).isEqualTo(1L);
+    }
+
+    private Message persistMessage(User sender, User receiver, Match match, String content) {
+        Message message = new Message();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setMatch(match);
+        message.setContent(content);
+        message.setIsRead(false);
+        return entityManager.persistAndFlush(message);
+    }
+}
@@ -279,5 +279,37 @@ class RatingRepositoryTest {
         assertThat(updatedRating).isPresent();
         assertThat(updatedRating.get().getRatingType()).isEqualTo(Rating.RatingType.DISLIKE);
     }
-}
 
+    @Test
+    void testFindRatedUserIdsByRaterIdAndRatedUserIdIn() {
+        Rating rating = new Rating();
+        rating.setRater(user1);
+        rating.setRatedUser(user2);
+        rating.setRatingType(Rating.RatingType.DISLIKE);
+        ratingRepository.save(rating);
+
+        List<Long> ratedIds = ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(
+                user1.getId(), List.of(user2.getId(), user3.getId()));
+
+        assertThat(ratedIds).containsExactly(user2.getId());
+    }
+
+    @Test
+    void testFindLikerIdsAmong() {
+        Rating like = new Rating();
+        like.setRater(user2);
+        like.setRatedUser(user1);
+        like.setRatingType(Rating.RatingType.LIKE);
+        ratingRepository.save(like);
+
+        Rating dislike = new Rating();
+        dislike.setRater(user3);
+        dislike.setRatedUser(user1);
+        dislike.setRatingType(Rating.RatingType.DISLIKE);
+        ratingRepository.save(dislike);
+
+        List<Long> likerIds = ratingRepository.findLikerIdsAmong(user1.getId(), List.of(user2.getId(), user3.getId()));
+
+        assertThat(likerIds).containsExactly(user2.getId());
+    }
+}
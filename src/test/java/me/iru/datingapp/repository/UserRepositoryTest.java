@@ -1,5 +1,7 @@
 package me.iru.datingapp.repository;
 
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.entity.SearchPreference;
 import me.iru.datingapp.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,6 +24,12 @@ class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private SearchPreferenceRepository searchPreferenceRepository;
+
     private User testUser1;
     private User testUser2;
     private User testUser3;
@@ -147,6 +156,16 @@ class UserRepositoryTest {
         assertThat(notExists).isFalse();
     }
 
+    @Test
+    void testFindExistingIds() {
+        userRepository.save(testUser1);
+        userRepository.save(testUser2);
+
+        List<Long> existing = userRepository.findExistingIds(List.of(testUser1.getId(), testUser2.getId(), -1L));
+
+        assertThat(existing).containsExactlyInAnyOrder(testUser1.getId(), testUser2.getId());
+    }
+
     @Test
     void testFindAllWithPagination() {
         userRepository.save(testUser1);
@@ -242,5 +261,81 @@ class UserRepositoryTest {
                 .extracting(User::getCity)
                 .containsOnly("Warsaw");
     }
-}
 
+    @Test
+    void testFindUnratedBySearchCriteria_ExcludesSelfAndRated() {
+        User viewer = userRepository.save(testUser1);
+        User rated = userRepository.save(testUser2);
+        User unrated = userRepository.save(testUser3);
+
+        Rating rating = new Rating();
+        rating.setRater(viewer);
+        rating.setRatedUser(rated);
+        rating.setRatingType(Rating.RatingType.DISLIKE);
+        ratingRepository.save(rating);
+
+        Page<User> results = userRepository.findUnratedBySearchCriteria(
+                viewer.getId(), null, 18, 100, User.Gender.MALE, 25, PageRequest.of(0, 10));
+
+        assertThat(results.getTotalElements()).isEqualTo(1);
+        assertThat(results.getContent())
+                .extracting(User::getId)
+                .containsExactly(unrated.getId());
+    }
+
+    @Test
+    void testFindUnratedBySearchCriteria_ExcludesCandidatesNotAcceptingViewer() {
+        User viewer = userRepository.save(testUser1);
+        User picky = userRepository.save(testUser2);
+        User accepting = userRepository.save(testUser3);
+
+        SearchPreference preference = new SearchPreference();
+        preference.setUser(picky);
+        preference.setPreferredGender(User.Gender.FEMALE);
+        preference.setMinAge(18);
+        preference.setMaxAge(40);
+        searchPreferenceRepository.save(preference);
+
+        Page<User> results = userRepository.findUnratedBySearchCriteria(
+                viewer.getId(), null, 18, 100, User.Gender.MALE, 25, PageRequest.of(0, 10));
+        long tooOldForDefaults = userRepository.countUnratedBySearchCriteria(
+                viewer.getId(), null, 18, 100, User.Gender.MALE, 40);
+
+        assertThat(results.getContent())
+                .extracting(User::getId)
+                .containsExactly(accepting.getId());
+        assertThat(tooOldForDefaults).isZero();
+    }
+
+    @Test
+    void testCountUnratedBySearchCriteria_ExcludesSelfAndRated() {
+        User viewer = userRepository.save(testUser1);
+        User rated = userRepository.save(testUser2);
+        userRepository.save(testUser3);
+
+        Rating rating = new Rating();
+        rating.setRater(viewer);
+        rating.setRatedUser(rated);
+        rating.setRatingType(Rating.RatingType.LIKE);
+        ratingRepository.save(rating);
+
+        long count = userRepository.countUnratedBySearchCriteria(viewer.getId(), null, 18, 100, User.Gender.MALE, 25);
+
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    void testFindUnratedBySearchCriteriaAfter_KeysetOrder() {
+        User viewer = userRepository.save(testUser1);
+        User second = userRepository.save(testUser2);
+        User third = userRepository.save(testUser3);
+
+        List<User> firstSlice = userRepository.findUnratedBySearchCriteriaAfter(
+                viewer.getId(), null, 18, 100, User.Gender.MALE, 25, 0L, PageRequest.of(0, 1));
+        List<User> secondSlice = userRepository.findUnratedBySearchCriteriaAfter(
+                viewer.getId(), null, 18, 100, User.Gender.MALE, 25, firstSlice.getLast().getId(), PageRequest.of(0, 1));
+
+        assertThat(firstSlice).extracting(User::getId).containsExactly(second.getId());
+        assertThat(secondSlice).extracting(User::getId).containsExactly(third.getId());
+    }
+}
@@ -0,0 +1,63 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.TimestampIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityScoringServiceTest {
+
+    @Mock
+    private LastActiveService lastActiveService;
+
+    private ActivityScoringService activityScoringService;
+
+    @BeforeEach
+    void setUp() {
+        activityScoringService = new ActivityScoringService(lastActiveService, 0.3, 7);
+    }
+
+    @Test
+    void testPrepare_DecaysWithInactivity() {
+        int now = TimestampIndex.toMinute(System.currentTimeMillis());
+        when(lastActiveService.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            int[] minutes = invocation.getArgument(3);
+            minutes[0] = now;
+            minutes[1] = now - 7 * 24 * 60;
+            minutes[2] = TimestampIndex.MISSING;
+            return null;
+        }).when(lastActiveService).lastActiveMinutesOf(any(), eq(0), eq(3), any());
+        long[] candidates = {2L, 3L, 4L};
+
+        double[] scores = new double[3];
+        activityScoringService.prepare(1L, candidates).score(candidates, 0, 3, scores);
+
+        assertThat(scores[0]).isEqualTo(1.0, within(0.01));
+        assertThat(scores[1]).isEqualTo(0.5, within(0.01));
+        assertThat(scores[2]).isZero();
+    }
+
+    @Test
+    void testPrepare_NotReady() {
+        assertThat(activityScoringService.prepare(1L, new long[]{2L})).isNull();
+        verify(lastActiveService, never()).lastActiveMinutesOf(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void testRejectsNonPositiveHalfLife() {
+        assertThatThrownBy(() -> new ActivityScoringService(lastActiveService, 0.3, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -33,6 +33,9 @@ class AdminServiceTest {
     @Mock
     private RatingRepository ratingRepository;
 
+    @Mock
+    private SuggestionCacheService suggestionCacheService;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -538,5 +541,13 @@ class AdminServiceTest {
         verify(messageRepository, times(1)).count();
         verify(ratingRepository, times(1)).count();
     }
-}
 
+    @Test
+    void testGetSuggestionCacheStatistics() {
+        when(suggestionCacheService.getStatistics()).thenReturn(Map.of("hits", 4L, "misses", 2L));
+
+        Map<String, Long> result = adminService.getSuggestionCacheStatistics();
+
+        assertThat(result).containsEntry("hits", 4L).containsEntry("misses", 2L);
+    }
+}
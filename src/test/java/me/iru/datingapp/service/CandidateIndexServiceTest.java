@@ -0,0 +1,90 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CandidateIndexServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private CandidateIndexService candidateIndexService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        candidateIndexService = new CandidateIndexService(matchingDao, true);
+
+        user = new User();
+        user.setId(10L);
+        user.setGender(User.Gender.FEMALE);
+        user.setAge(27);
+    }
+
+    @Test
+    void testRebuild_LoadsUsersFromDao() {
+        doAnswer(invocation -> {
+            MatchingDao.UserProfileHandler handler = invocation.getArgument(0);
+            handler.handle(1L, User.Gender.MALE, 30);
+            handler.handle(2L, User.Gender.FEMALE, 22);
+            return null;
+        }).when(matchingDao).streamUserProfiles(any());
+
+        candidateIndexService.rebuild();
+
+        assertThat(candidateIndexService.isReady()).isTrue();
+        assertThat(candidateIndexService.findCandidates(null, 18, 100)).containsExactly(1L, 2L);
+        assertThat(candidateIndexService.findCandidates(User.Gender.FEMALE, 18, 25)).containsExactly(2L);
+    }
+
+    @Test
+    void testRebuild_Disabled() {
+        candidateIndexService = new CandidateIndexService(matchingDao, false);
+
+        candidateIndexService.rebuild();
+
+        assertThat(candidateIndexService.isReady()).isFalse();
+        verify(matchingDao, never()).streamUserProfiles(any());
+    }
+
+    @Test
+    void testIndexUser_AddsAndUpdates() {
+        candidateIndexService.indexUser(user);
+        assertThat(candidateIndexService.findCandidates(User.Gender.FEMALE, 25, 30)).containsExactly(10L);
+
+        user.setAge(35);
+        candidateIndexService.indexUser(user);
+
+        assertThat(candidateIndexService.findCandidates(User.Gender.FEMALE, 25, 30)).isEmpty();
+        assertThat(candidateIndexService.findCandidates(User.Gender.FEMALE, 31, 40)).containsExactly(10L);
+    }
+
+    @Test
+    void testIndexUser_IgnoresUnsavedUser() {
+        user.setId(null);
+
+        candidateIndexService.indexUser(user);
+
+        assertThat(candidateIndexService.findCandidates(null, null, null)).isEmpty();
+    }
+
+    @Test
+    void testRemoveUser() {
+        candidateIndexService.indexUser(user);
+
+        candidateIndexService.removeUser(10L);
+
+        assertThat(candidateIndexService.findCandidates(null, null, null)).isEmpty();
+    }
+}
@@ -0,0 +1,199 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dto.ChatEventDto;
+import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.Message;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.event.ChatPushEvent;
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.repository.MatchRepository;
+import me.iru.datingapp.repository.MessageRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<ChatPushEvent> pushCaptor;
+
+    @InjectMocks
+    private ChatService chatService;
+
+    private User sender;
+    private User receiver;
+    private Match match;
+
+    @BeforeEach
+    void setUp() {
+        sender = new User();
+        sender.setId(1L);
+        sender.setEmail("sender@example.com");
+
+        receiver = new User();
+        receiver.setId(2L);
+        receiver.setEmail("receiver@example.com");
+
+        match = new Match();
+        match.setId(10L);
+        match.setUser1(sender);
+        match.setUser2(receiver);
+        match.setIsActive(true);
+    }
+
+    @Test
+    void testSendMessage_SavesAndPushesToBothParticipants() {
+        MessageDto saved = new MessageDto();
+        saved.setId(100L);
+        saved.setMatchId(10L);
+        saved.setContent("Hello!");
+        when(userRepository.findByEmail("receiver@example.com")).thenReturn(Optional.of(receiver));
+        when(matchRepository.findById(10L)).thenReturn(Optional.of(match));
+        when(messageService.sendMessage(any(MessageDto.class))).thenReturn(saved);
+
+        MessageDto result = chatService.sendMessage("receiver@example.com", 10L, "Hello!");
+
+        assertThat(result).isSameAs(saved);
+        ArgumentCaptor<MessageDto> dtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
+        verify(messageService).sendMessage(dtoCaptor.capture());
+        assertThat(dtoCaptor.getValue().getSenderId()).isEqualTo(2L);
+        assertThat(dtoCaptor.getValue().getReceiverId()).isEqualTo(1L);
+        assertThat(dtoCaptor.getValue().getMatchId()).isEqualTo(10L);
+
+        verifyNoInteractions(messagingTemplate);
+        pushPublishedEvent();
+        ArgumentCaptor<ChatEventDto> eventCaptor = ArgumentCaptor.forClass(ChatEventDto.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("receiver@example.com"), eq(ChatService.USER_DESTINATION), eventCaptor.capture());
+        verify(messagingTemplate).convertAndSendToUser(eq("sender@example.com"), eq(ChatService.USER_DESTINATION), any(ChatEventDto.class));
+        assertThat(eventCaptor.getValue().getType()).isEqualTo(ChatEventDto.Type.MESSAGE);
+        assertThat(eventCaptor.getValue().getMatchId()).isEqualTo(10L);
+        assertThat(eventCaptor.getValue().getMessage()).isSameAs(saved);
+    }
+
+    @Test
+    void testSendMessage_BlankContent() {
+        assertThatThrownBy(() -> chatService.sendMessage("sender@example.com", 10L, "  "))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(messageService, eventPublisher, messagingTemplate);
+    }
+
+    @Test
+    void testSendMessage_MatchNotFound() {
+        when(userRepository.findByEmail("sender@example.com")).thenReturn(Optional.of(sender));
+        when(matchRepository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> chatService.sendMessage("sender@example.com", 10L, "Hello!"))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verifyNoInteractions(messageService, eventPublisher, messagingTemplate);
+    }
+
+    @Test
+    void testSendMessage_FailedPushDoesNotFailSend() {
+        MessageDto saved = new MessageDto();
+        saved.setId(100L);
+        when(userRepository.findByEmail("sender@example.com")).thenReturn(Optional.of(sender));
+        when(matchRepository.findById(10L)).thenReturn(Optional.of(match));
+        when(messageService.sendMessage(any(MessageDto.class))).thenReturn(saved);
+        lenient().doThrow(new MessageDeliveryException("closed"))
+                .when(messagingTemplate).convertAndSendToUser(eq("sender@example.com"), any(), any());
+
+        assertThat(chatService.sendMessage("sender@example.com", 10L, "Hello!")).isSameAs(saved);
+        pushPublishedEvent();
+
+        verify(messagingTemplate).convertAndSendToUser(eq("receiver@example.com"), eq(ChatService.USER_DESTINATION), any(ChatEventDto.class));
+    }
+
+    @Test
+    void testMarkAsRead_PushesReceipt() {
+        when(userRepository.findByEmail("receiver@example.com")).thenReturn(Optional.of(receiver));
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(message()));
+        when(messageService.markAsRead(100L, 2L)).thenReturn(true);
+
+        chatService.markAsRead("receiver@example.com", 10L, 100L);
+
+        verify(messageService).markAsRead(100L, 2L);
+        pushPublishedEvent();
+        ArgumentCaptor<ChatEventDto> eventCaptor = ArgumentCaptor.forClass(ChatEventDto.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("sender@example.com"), eq(ChatService.USER_DESTINATION), eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getType()).isEqualTo(ChatEventDto.Type.READ);
+        assertThat(eventCaptor.getValue().getMessageId()).isEqualTo(100L);
+    }
+
+    @Test
+    void testMarkAsRead_AlreadyReadSkipsReceipt() {
+        when(userRepository.findByEmail("receiver@example.com")).thenReturn(Optional.of(receiver));
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(message()));
+        when(messageService.markAsRead(100L, 2L)).thenReturn(false);
+
+        chatService.markAsRead("receiver@example.com", 10L, 100L);
+
+        verifyNoInteractions(eventPublisher, messagingTemplate);
+    }
+
+    @Test
+    void testMarkAsRead_MessageOfOtherMatch() {
+        when(userRepository.findByEmail("receiver@example.com")).thenReturn(Optional.of(receiver));
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(message()));
+
+        assertThatThrownBy(() -> chatService.markAsRead("receiver@example.com", 11L, 100L))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verifyNoInteractions(messageService, eventPublisher, messagingTemplate);
+    }
+
+    /**
+     * Delivers the published push the way the after-commit listener does
+     */
+    private void pushPublishedEvent() {
+        verify(eventPublisher).publishEvent(pushCaptor.capture());
+        chatService.onChatPush(pushCaptor.getValue());
+    }
+
+    private Message message() {
+        Message message = new Message();
+        message.setId(100L);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setMatch(match);
+        return message;
+    }
+}
@@ -0,0 +1,43 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.matching.CoLikeMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoLikeScoringServiceTest {
+
+    @Mock
+    private CoLikeService coLikeService;
+
+    private CoLikeScoringService coLikeScoringService;
+
+    @BeforeEach
+    void setUp() {
+        coLikeScoringService = new CoLikeScoringService(coLikeService, 0.4);
+    }
+
+    @Test
+    void testPrepare_ScoresSimilarUsers() {
+        when(coLikeService.similarTo(1L)).thenReturn(new CoLikeMatrix.Similar(new long[]{2L, 4L}, new double[]{1.0, 0.5}));
+        long[] candidates = {2L, 3L, 4L};
+
+        double[] scores = new double[2];
+        coLikeScoringService.prepare(1L, candidates).score(candidates, 1, 3, scores);
+
+        assertThat(scores).containsExactly(0.0, 0.5);
+    }
+
+    @Test
+    void testPrepare_NoSimilarUsers() {
+        when(coLikeService.similarTo(1L)).thenReturn(CoLikeMatrix.Similar.EMPTY);
+
+        assertThat(coLikeScoringService.prepare(1L, new long[]{2L})).isNull();
+    }
+}
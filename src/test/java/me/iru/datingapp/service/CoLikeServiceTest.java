@@ -0,0 +1,138 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoLikeServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private CoLikeService coLikeService;
+
+    @BeforeEach
+    void setUp() {
+        coLikeService = new CoLikeService(matchingDao, true, 10, 100, 100, 1000, 0, 24, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coLikeService.shutdown();
+    }
+
+    private void streamInitialLikes() {
+        doAnswer(invocation -> {
+            MatchingDao.RatedLikeHandler handler = invocation.getArgument(2);
+            handler.handle(1L, 100L, 1L);
+            handler.handle(2L, 100L, 2L);
+            handler.handle(3L, 101L, 1L);
+            handler.handle(4L, 101L, 2L);
+            handler.handle(5L, 102L, 1L);
+            return null;
+        }).when(matchingDao).streamLikesAfter(eq(0L), eq(1000), any());
+    }
+
+    @Test
+    void testRebuild_PromotesSimilarCandidates() {
+        streamInitialLikes();
+
+        coLikeService.rebuild();
+
+        assertThat(coLikeService.isReady()).isTrue();
+        assertThat(coLikeService.promoteSimilar(102L, new long[]{5L, 2L, 6L})).containsExactly(2L, 5L, 6L);
+        assertThat(coLikeService.similarTo(102L).scoreOf(2L)).isEqualTo(1.0);
+    }
+
+    @Test
+    void testPromoteSimilar_NoSimilarUsersKeepsOrder() {
+        streamInitialLikes();
+        coLikeService.rebuild();
+
+        long[] candidates = {5L, 6L};
+
+        assertThat(coLikeService.promoteSimilar(999L, candidates)).isSameAs(candidates);
+        assertThat(coLikeService.promoteSimilar(102L, candidates)).isSameAs(candidates);
+    }
+
+    @Test
+    void testRefresh_AppliesLikesAboveWatermark() {
+        streamInitialLikes();
+        coLikeService.rebuild();
+        doAnswer(invocation -> {
+            MatchingDao.RatedLikeHandler handler = invocation.getArgument(2);
+            handler.handle(6L, 103L, 3L);
+            handler.handle(7L, 103L, 1L);
+            return null;
+        }).when(matchingDao).streamLikesAfter(eq(5L), eq(1000), any());
+
+        coLikeService.refresh();
+        coLikeService.refresh();
+
+        verify(matchingDao, times(1)).streamLikesAfter(eq(5L), eq(1000), any());
+        verify(matchingDao).streamLikesAfter(eq(7L), eq(1000), any());
+        assertThat(coLikeService.similarTo(102L).scoreOf(3L)).isGreaterThan(0.0);
+    }
+
+    @Test
+    void testRefresh_RescansBelowWatermarkForLateCommits() {
+        CoLikeService rescanning = new CoLikeService(matchingDao, true, 10, 100, 100, 1000, 3, 24, 2);
+        streamInitialLikes();
+        rescanning.rebuild();
+        doAnswer(invocation -> {
+            MatchingDao.RatedLikeHandler handler = invocation.getArgument(2);
+            handler.handle(3L, 101L, 1L);
+            handler.handle(4L, 101L, 2L);
+            handler.handle(5L, 102L, 1L);
+            handler.handle(7L, 103L, 1L);
+            return null;
+        }).when(matchingDao).streamLikesAfter(eq(2L), eq(1000), any());
+        doAnswer(invocation -> {
+            MatchingDao.RatedLikeHandler handler = invocation.getArgument(2);
+            handler.handle(5L, 102L, 1L);
+            handler.handle(6L, 103L, 3L);
+            handler.handle(7L, 103L, 1L);
+            return null;
+        }).when(matchingDao).streamLikesAfter(eq(4L), eq(1000), any());
+
+        rescanning.refresh();
+        assertThat(rescanning.similarTo(102L).scoreOf(3L)).isZero();
+        rescanning.refresh();
+
+        verify(matchingDao).streamLikesAfter(eq(2L), eq(1000), any());
+        verify(matchingDao).streamLikesAfter(eq(4L), eq(1000), any());
+        assertThat(rescanning.similarTo(102L).scoreOf(3L)).isGreaterThan(0.0);
+        rescanning.shutdown();
+    }
+
+    @Test
+    void testRefresh_NotBuiltYet() {
+        coLikeService.refresh();
+
+        verify(matchingDao, never()).streamLikesAfter(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void testRebuild_Disabled() {
+        CoLikeService disabled = new CoLikeService(matchingDao, false, 10, 100, 100, 1000, 0, 24, 1);
+
+        disabled.rebuild();
+
+        assertThat(disabled.isReady()).isFalse();
+        assertThat(disabled.promoteSimilar(1L, new long[]{2L})).containsExactly(2L);
+        verify(matchingDao, never()).streamLikesAfter(anyLong(), anyInt(), any());
+        disabled.shutdown();
+    }
+}
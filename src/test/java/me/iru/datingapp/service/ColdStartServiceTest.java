@@ -0,0 +1,140 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColdStartServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
+
+    @Mock
+    private PreferenceIndexService preferenceIndexService;
+
+    @Mock
+    private GeoIndexService geoIndexService;
+
+    @Mock
+    private ImpressionService impressionService;
+
+    private ColdStartService coldStartService;
+    private User user;
+    private SearchPreference preferences;
+
+    @BeforeEach
+    void setUp() {
+        coldStartService = new ColdStartService(matchingDao, ratedUserCacheService, preferenceIndexService, geoIndexService,
+                impressionService, true, 10, 200, 5, 7);
+
+        user = new User();
+        user.setId(1L);
+        user.setGender(User.Gender.MALE);
+        user.setAge(30);
+        user.setCity("Paris");
+
+        preferences = new SearchPreference();
+        preferences.setPreferredGender(User.Gender.FEMALE);
+        preferences.setMinAge(25);
+        preferences.setMaxAge(35);
+    }
+
+    private void streamPopularity() {
+        long now = System.currentTimeMillis();
+        doAnswer(invocation -> {
+            MatchingDao.UserPopularityHandler handler = invocation.getArgument(0);
+            handler.handle(1L, User.Gender.MALE, 30, "Paris", now, 0);
+            handler.handle(2L, User.Gender.FEMALE, 28, "Paris", now, 1);
+            handler.handle(3L, User.Gender.FEMALE, 29, "Paris", now, 5);
+            handler.handle(4L, User.Gender.FEMALE, 31, "Paris", now - 70L * 24 * 60 * 60 * 1000, 50);
+            handler.handle(5L, User.Gender.FEMALE, 33, "Lyon", now, 2);
+            return null;
+        }).when(matchingDao).streamUserPopularity(any());
+    }
+
+    @Test
+    void testSuggest_RanksByLikesAndActivity() {
+        streamPopularity();
+        when(ratedUserCacheService.countRated(1L)).thenReturn(0L);
+        when(ratedUserCacheService.filterUnrated(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(preferenceIndexService.filterMutual(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(geoIndexService.filterByDistance(anyLong(), any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(impressionService.demoteShown(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        coldStartService.rebuild();
+
+        assertThat(coldStartService.isReady()).isTrue();
+        assertThat(coldStartService.suggest(user, preferences)).containsExactly(3L, 2L, 4L, 5L);
+    }
+
+    @Test
+    void testSuggest_RemovesRatedAndNotAccepting() {
+        streamPopularity();
+        when(ratedUserCacheService.countRated(1L)).thenReturn(1L);
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{3L, 2L, 4L, 5L})).thenReturn(new long[]{3L, 4L, 5L});
+        when(preferenceIndexService.filterMutual(1L, new long[]{3L, 4L, 5L})).thenReturn(new long[]{4L, 5L});
+        when(geoIndexService.filterByDistance(1L, new long[]{4L, 5L}, null)).thenReturn(new long[]{4L, 5L});
+        when(impressionService.demoteShown(1L, new long[]{4L, 5L})).thenReturn(new long[]{5L, 4L});
+
+        coldStartService.rebuild();
+
+        assertThat(coldStartService.suggest(user, preferences)).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void testSuggest_RemovesFarAwayCandidates() {
+        streamPopularity();
+        preferences.setMaxDistance(20);
+        when(ratedUserCacheService.countRated(1L)).thenReturn(0L);
+        when(ratedUserCacheService.filterUnrated(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(preferenceIndexService.filterMutual(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(geoIndexService.filterByDistance(1L, new long[]{3L, 2L, 4L, 5L}, 20)).thenReturn(new long[]{3L, 2L, 4L});
+        when(impressionService.demoteShown(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        coldStartService.rebuild();
+
+        assertThat(coldStartService.suggest(user, preferences)).containsExactly(3L, 2L, 4L);
+    }
+
+    @Test
+    void testSuggest_SkipsUsersWithManyRatings() {
+        streamPopularity();
+        when(ratedUserCacheService.countRated(1L)).thenReturn(11L);
+
+        coldStartService.rebuild();
+
+        assertThat(coldStartService.suggest(user, preferences)).isNull();
+        verify(ratedUserCacheService, never()).filterUnrated(anyLong(), any());
+    }
+
+    @Test
+    void testSuggest_NotBuiltYet() {
+        assertThat(coldStartService.suggest(user, preferences)).isNull();
+        verifyNoInteractions(ratedUserCacheService);
+    }
+
+    @Test
+    void testRebuild_Disabled() {
+        ColdStartService disabled = new ColdStartService(matchingDao, ratedUserCacheService, preferenceIndexService, geoIndexService,
+                impressionService, false, 10, 200, 5, 7);
+
+        disabled.rebuild();
+
+        assertThat(disabled.isReady()).isFalse();
+        verifyNoInteractions(matchingDao);
+    }
+}
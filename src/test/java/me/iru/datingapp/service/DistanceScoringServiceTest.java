@@ -0,0 +1,64 @@
+package me.iru.datingapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DistanceScoringServiceTest {
+
+    @Mock
+    private GeoIndexService geoIndexService;
+
+    private DistanceScoringService distanceScoringService;
+
+    @BeforeEach
+    void setUp() {
+        distanceScoringService = new DistanceScoringService(geoIndexService, 0.3, 25);
+    }
+
+    @Test
+    void testPrepare_ScoresCloserCandidatesHigher() {
+        long[] candidates = {2L, 3L, 4L};
+        when(geoIndexService.locationOf(1L)).thenReturn(new double[]{52.0, 21.0});
+        doAnswer(invocation -> {
+            double[] distances = invocation.getArgument(5);
+            distances[0] = 0;
+            distances[1] = 25;
+            distances[2] = Double.NaN;
+            return null;
+        }).when(geoIndexService).distancesKm(eq(52.0), eq(21.0), any(), anyInt(), anyInt(), any());
+
+        double[] scores = new double[3];
+        distanceScoringService.prepare(1L, candidates).score(candidates, 0, 3, scores);
+
+        assertThat(scores[0]).isEqualTo(1.0);
+        assertThat(scores[1]).isCloseTo(0.5, within(1e-9));
+        assertThat(scores[2]).isZero();
+    }
+
+    @Test
+    void testPrepare_ViewerWithoutLocation() {
+        when(geoIndexService.locationOf(1L)).thenReturn(null);
+
+        assertThat(distanceScoringService.prepare(1L, new long[]{2L})).isNull();
+        verify(geoIndexService, never()).distancesKm(anyDouble(), anyDouble(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void testScaleMustBePositive() {
+        assertThatThrownBy(() -> new DistanceScoringService(geoIndexService, 1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIndexServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private GeoIndexService geoIndexService;
+
+    @BeforeEach
+    void setUp() {
+        geoIndexService = new GeoIndexService(matchingDao, true, true);
+    }
+
+    private void rebuildWithSampleUsers() {
+        doAnswer(invocation -> {
+            MatchingDao.UserLocationHandler handler = invocation.getArgument(0);
+            handler.handle(1L, 52.2297, 21.0122);   // Warsaw
+            handler.handle(2L, 52.4064, 20.9561);   // ~20 km north
+            handler.handle(3L, 50.0647, 19.9450);   // Krakow
+            return null;
+        }).when(matchingDao).streamUserLocations(any());
+        geoIndexService.rebuild();
+    }
+
+    @Test
+    void testFilterByDistance_PrunesFarCandidates() {
+        rebuildWithSampleUsers();
+
+        long[] result = geoIndexService.filterByDistance(1L, new long[]{2L, 3L, 4L}, 50);
+
+        assertThat(geoIndexService.isReady()).isTrue();
+        assertThat(result).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void testFilterByDistance_NoLimitOrUnknownViewerKeepsAll() {
+        rebuildWithSampleUsers();
+        long[] candidates = {2L, 3L};
+
+        assertThat(geoIndexService.filterByDistance(1L, candidates, null)).containsExactly(2L, 3L);
+        assertThat(geoIndexService.filterByDistance(99L, candidates, 10)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testFilterByDistance_NotReadyKeepsAll() {
+        assertThat(geoIndexService.filterByDistance(1L, new long[]{3L}, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void testIndexUser_MovesAndRemoves() {
+        rebuildWithSampleUsers();
+
+        User user = new User();
+        user.setId(3L);
+        user.setLatitude(52.23);
+        user.setLongitude(21.01);
+        geoIndexService.indexUser(user);
+        assertThat(geoIndexService.filterByDistance(1L, new long[]{3L}, 10)).containsExactly(3L);
+
+        user.setLatitude(null);
+        user.setLongitude(null);
+        geoIndexService.indexUser(user);
+        geoIndexService.removeUser(2L);
+        assertThat(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, 10)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testExcludeUnlocatedCandidates() {
+        geoIndexService = new GeoIndexService(matchingDao, true, false);
+        rebuildWithSampleUsers();
+
+        assertThat(geoIndexService.filterByDistance(1L, new long[]{2L, 4L}, 50)).containsExactly(2L);
+    }
+}
@@ -0,0 +1,121 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.entity.UserImpressions;
+import me.iru.datingapp.matching.ImpressionLog;
+import me.iru.datingapp.matching.TimestampIndex;
+import me.iru.datingapp.repository.UserImpressionsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImpressionServiceTest {
+
+    @Mock
+    private UserImpressionsRepository userImpressionsRepository;
+
+    @Captor
+    private ArgumentCaptor<List<UserImpressions>> rows;
+
+    private ImpressionService impressionService;
+
+    @BeforeEach
+    void setUp() {
+        impressionService = new ImpressionService(userImpressionsRepository, true, 16, 100, 0, 24, 2);
+    }
+
+    @Test
+    void testDemoteShown_MovesShownCandidatesBack() {
+        impressionService.recordShown(1L, new long[]{2L});
+
+        long[] demoted = impressionService.demoteShown(1L, new long[]{2L, 3L, 4L});
+
+        assertThat(demoted).containsExactly(3L, 2L, 4L);
+        verify(userImpressionsRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testDemoteShown_IgnoresRecentImpressions() {
+        ImpressionService graced = new ImpressionService(userImpressionsRepository, true, 16, 100, 10, 24, 2);
+        graced.recordShown(1L, new long[]{2L});
+        long[] candidates = {2L, 3L};
+
+        assertThat(graced.demoteShown(1L, candidates)).isSameAs(candidates);
+    }
+
+    @Test
+    void testDemoteShown_LoadsStoredLog() {
+        ImpressionLog stored = new ImpressionLog(16);
+        stored.record(2L, TimestampIndex.toMinute(System.currentTimeMillis()) - 60);
+        when(userImpressionsRepository.findById(1L))
+                .thenReturn(Optional.of(new UserImpressions(1L, stored.toBytes(), LocalDateTime.now())));
+
+        assertThat(impressionService.demoteShown(1L, new long[]{2L, 3L})).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesChangedLogsOnce() {
+        impressionService.recordShown(1L, new long[]{2L, 3L});
+        impressionService.recordShown(1L, new long[]{4L});
+
+        impressionService.flush();
+        impressionService.flush();
+
+        verify(userImpressionsRepository, times(1)).saveAll(rows.capture());
+        assertThat(rows.getValue()).hasSize(1);
+        assertThat(rows.getValue().getFirst().getUserId()).isEqualTo(1L);
+        assertThat(ImpressionLog.fromBytes(rows.getValue().getFirst().getData(), 16).size()).isEqualTo(3);
+    }
+
+    @Test
+    void testFlush_RetriesAfterFailure() {
+        impressionService.recordShown(1L, new long[]{2L});
+        when(userImpressionsRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+
+        impressionService.flush();
+        impressionService.flush();
+
+        verify(userImpressionsRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testRecordShown_Disabled() {
+        ImpressionService disabled = new ImpressionService(userImpressionsRepository, false, 16, 100, 0, 24, 2);
+        long[] candidates = {2L, 3L};
+
+        disabled.recordShown(1L, new long[]{2L});
+        disabled.flush();
+
+        assertThat(disabled.demoteShown(1L, candidates)).isSameAs(candidates);
+        verifyNoInteractions(userImpressionsRepository);
+    }
+
+    @Test
+    void testRemoveUser_DropsLog() {
+        impressionService.recordShown(1L, new long[]{2L});
+
+        impressionService.removeUser(1L);
+        impressionService.flush();
+
+        assertThat(impressionService.getCachedUserCount()).isZero();
+        verify(userImpressionsRepository).deleteById(1L);
+        verify(userImpressionsRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,94 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InboundLikeServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private InboundLikeService inboundLikeService;
+
+    @BeforeEach
+    void setUp() {
+        inboundLikeService = new InboundLikeService(matchingDao, true, 0.5);
+    }
+
+    private void rebuildWithSampleLikes() {
+        doAnswer(invocation -> {
+            MatchingDao.LikeHandler handler = invocation.getArgument(0);
+            handler.handle(4L, 1L);
+            handler.handle(3L, 1L);
+            handler.handle(1L, 2L);
+            return null;
+        }).when(matchingDao).streamLikes(any());
+        inboundLikeService.rebuild();
+    }
+
+    @Test
+    void testRebuildIndexesLikesByLikedUser() {
+        rebuildWithSampleLikes();
+
+        assertThat(inboundLikeService.isReady()).isTrue();
+        assertThat(inboundLikeService.likersOf(1L)).containsExactly(3L, 4L);
+        assertThat(inboundLikeService.likersOf(2L)).containsExactly(1L);
+    }
+
+    @Test
+    void testPrioritizeLikers() {
+        rebuildWithSampleLikes();
+
+        long[] result = inboundLikeService.prioritizeLikers(1L, new long[]{5L, 6L, 7L, 4L});
+
+        assertThat(result).containsExactly(4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    void testRecordAndRemoveLike() {
+        rebuildWithSampleLikes();
+
+        inboundLikeService.recordLike(8L, 2L);
+        inboundLikeService.removeLike(1L, 2L);
+
+        assertThat(inboundLikeService.likersOf(2L)).containsExactly(8L);
+
+        inboundLikeService.removeUser(2L);
+        assertThat(inboundLikeService.likersOf(2L)).isEmpty();
+    }
+
+    @Test
+    void testNotReadyKeepsOrder() {
+        long[] candidates = {5L, 4L};
+
+        assertThat(inboundLikeService.prioritizeLikers(1L, candidates)).containsExactly(5L, 4L);
+        assertThat(inboundLikeService.likersOf(1L)).isEmpty();
+    }
+
+    @Test
+    void testDisabledSkipsLoading() {
+        inboundLikeService = new InboundLikeService(matchingDao, false, 0.5);
+
+        inboundLikeService.rebuild();
+        inboundLikeService.recordLike(1L, 2L);
+
+        assertThat(inboundLikeService.isReady()).isFalse();
+        verifyNoInteractions(matchingDao);
+    }
+
+    @Test
+    void testRejectsInvalidRatio() {
+        assertThatThrownBy(() -> new InboundLikeService(matchingDao, true, -0.1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
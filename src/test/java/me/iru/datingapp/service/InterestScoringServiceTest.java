@@ -0,0 +1,44 @@
+package me.iru.datingapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterestScoringServiceTest {
+
+    @Mock
+    private InterestVectorService interestVectorService;
+
+    private InterestScoringService interestScoringService;
+
+    @BeforeEach
+    void setUp() {
+        interestScoringService = new InterestScoringService(interestVectorService, 1.5);
+    }
+
+    @Test
+    void testPrepare_DelegatesToInterestVectors() {
+        long[] candidates = {2L, 3L};
+        double[] scores = new double[2];
+        when(interestVectorService.isReady()).thenReturn(true);
+
+        interestScoringService.prepare(1L, candidates).score(candidates, 0, 2, scores);
+
+        verify(interestVectorService).similarities(1L, candidates, 0, 2, scores);
+        assertThat(interestScoringService.getWeight()).isEqualTo(1.5);
+        assertThat(interestScoringService.getName()).isEqualTo("interest");
+    }
+
+    @Test
+    void testPrepare_NotReady() {
+        when(interestVectorService.isReady()).thenReturn(false);
+
+        assertThat(interestScoringService.prepare(1L, new long[]{2L})).isNull();
+    }
+}
@@ -32,6 +32,9 @@ class InterestServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private InterestVectorService interestVectorService;
+
     @InjectMocks
     private InterestService interestService;
 
@@ -151,6 +154,7 @@ class InterestServiceTest {
         verify(interestRepository).findById(1L);
         verify(userInterestRepository).existsByUserIdAndInterestId(1L, 1L);
         verify(userInterestRepository).save(any(UserInterest.class));
+        verify(interestVectorService).addInterest(1L, 1L);
     }
 
     @Test
@@ -209,6 +213,7 @@ class InterestServiceTest {
         verify(interestRepository).existsById(1L);
         verify(userInterestRepository).existsByUserIdAndInterestId(1L, 1L);
         verify(userInterestRepository).deleteByUserIdAndInterestId(1L, 1L);
+        verify(interestVectorService).removeInterest(1L, 1L);
     }
 
     @Test
@@ -268,6 +273,7 @@ class InterestServiceTest {
         verify(userRepository).existsById(1L);
         verify(userInterestRepository).findByUserId(1L);
         verify(userInterestRepository).deleteAll(anyList());
+        verify(interestVectorService).replaceInterests(1L, List.of());
     }
 
     @Test
@@ -442,6 +448,7 @@ class InterestServiceTest {
 
         verify(interestRepository).findById(1L);
         verify(interestRepository).delete(testInterest);
+        verify(interestVectorService).removeInterestFromAll(1L);
     }
 
     @Test
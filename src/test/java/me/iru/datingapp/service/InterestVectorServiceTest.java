@@ -0,0 +1,86 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterestVectorServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private InterestVectorService interestVectorService;
+
+    @BeforeEach
+    void setUp() {
+        interestVectorService = new InterestVectorService(matchingDao, true);
+    }
+
+    private void rebuildWith(long[][] rows) {
+        doAnswer(invocation -> {
+            MatchingDao.UserInterestHandler handler = invocation.getArgument(0);
+            for (long[] row : rows) {
+                handler.handle(row[0], row[1]);
+            }
+            return null;
+        }).when(matchingDao).streamUserInterests(any());
+        interestVectorService.rebuild();
+    }
+
+    @Test
+    void testRebuild_LoadsInterestsFromDao() {
+        rebuildWith(new long[][]{{1L, 1L}, {1L, 2L}, {2L, 2L}, {3L, 5L}});
+
+        assertThat(interestVectorService.isReady()).isTrue();
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isEqualTo(1);
+        assertThat(interestVectorService.rankByInterests(1L, new long[]{3L, 2L})).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testRankByInterests_NotReadyKeepsOrder() {
+        interestVectorService.addInterest(1L, 1L);
+        interestVectorService.addInterest(2L, 1L);
+
+        assertThat(interestVectorService.rankByInterests(1L, new long[]{3L, 2L})).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        rebuildWith(new long[][]{{1L, 1L}});
+
+        interestVectorService.addInterest(2L, 1L);
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isEqualTo(1);
+
+        interestVectorService.removeInterest(2L, 1L);
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isZero();
+
+        interestVectorService.replaceInterests(2L, List.of(1L, 4L));
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isEqualTo(1);
+
+        interestVectorService.removeInterestFromAll(1L);
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isZero();
+    }
+
+    @Test
+    void testDisabled_IgnoresUpdatesAndSkipsRebuild() {
+        interestVectorService = new InterestVectorService(matchingDao, false);
+
+        interestVectorService.rebuild();
+        interestVectorService.addInterest(1L, 1L);
+        interestVectorService.addInterest(2L, 1L);
+
+        assertThat(interestVectorService.isReady()).isFalse();
+        assertThat(interestVectorService.sharedInterests(1L, 2L)).isZero();
+        verify(matchingDao, never()).streamUserInterests(any());
+    }
+}
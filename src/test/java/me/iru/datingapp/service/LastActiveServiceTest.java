@@ -0,0 +1,115 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.matching.ActivityBuffer;
+import me.iru.datingapp.matching.TimestampIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastActiveServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private ActivityBuffer activityBuffer;
+    private LastActiveService lastActiveService;
+
+    @BeforeEach
+    void setUp() {
+        activityBuffer = new ActivityBuffer(4);
+        lastActiveService = new LastActiveService(matchingDao, activityBuffer, true);
+    }
+
+    private int minuteOf(long userId) {
+        int[] minutes = new int[1];
+        lastActiveService.lastActiveMinutesOf(new long[]{userId}, 0, 1, minutes);
+        return minutes[0];
+    }
+
+    @Test
+    void testRebuild_LoadsLastActiveTimes() {
+        doAnswer(invocation -> {
+            MatchingDao.UserTimestampHandler handler = invocation.getArgument(0);
+            handler.handle(1L, 120_000L);
+            return null;
+        }).when(matchingDao).streamUserLastActiveTimes(any());
+
+        lastActiveService.rebuild();
+
+        assertThat(lastActiveService.isReady()).isTrue();
+        assertThat(minuteOf(1L)).isEqualTo(2);
+        assertThat(minuteOf(2L)).isEqualTo(TimestampIndex.MISSING);
+    }
+
+    @Test
+    void testFlush_WritesCoalescedActivityOnce() {
+        activityBuffer.record("anna@example.com", 60_000L);
+        activityBuffer.record("anna@example.com", 180_000L);
+        activityBuffer.record("ben@example.com", 120_000L);
+        doAnswer(invocation -> {
+            MatchingDao.UserTimestampHandler handler = invocation.getArgument(1);
+            handler.handle(1L, 180_000L);
+            handler.handle(2L, 120_000L);
+            return null;
+        }).when(matchingDao).streamUsersActiveSince(eq(120_000L), any());
+
+        lastActiveService.flush();
+        lastActiveService.flush();
+
+        verify(matchingDao, times(1)).updateLastActive(Map.of(
+                "anna@example.com", 180_000L,
+                "ben@example.com", 120_000L));
+        assertThat(minuteOf(1L)).isEqualTo(3);
+        assertThat(minuteOf(2L)).isEqualTo(2);
+    }
+
+    @Test
+    void testFlush_RestoresActivityOnFailure() {
+        activityBuffer.record("anna@example.com", 60_000L);
+        when(matchingDao.updateLastActive(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        lastActiveService.flush();
+
+        assertThat(activityBuffer.pendingCount()).isEqualTo(1);
+        verify(matchingDao, never()).streamUsersActiveSince(anyLong(), any());
+    }
+
+    @Test
+    void testFlush_Disabled() {
+        LastActiveService disabled = new LastActiveService(matchingDao, activityBuffer, false);
+        activityBuffer.record("anna@example.com", 60_000L);
+
+        disabled.rebuild();
+        disabled.flush();
+
+        assertThat(disabled.isReady()).isFalse();
+        verifyNoInteractions(matchingDao);
+    }
+
+    @Test
+    void testRemoveUser() {
+        doAnswer(invocation -> {
+            MatchingDao.UserTimestampHandler handler = invocation.getArgument(0);
+            handler.handle(1L, 120_000L);
+            return null;
+        }).when(matchingDao).streamUserLastActiveTimes(any());
+        lastActiveService.rebuild();
+
+        lastActiveService.removeUser(1L);
+
+        assertThat(minuteOf(1L)).isEqualTo(TimestampIndex.MISSING);
+    }
+}
@@ -1,21 +1,30 @@
 package me.iru.datingapp.service;
 
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dto.InboxPageDto;
 import me.iru.datingapp.dto.MatchDto;
 import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.MatchMapper;
 import me.iru.datingapp.repository.MatchRepository;
 import me.iru.datingapp.repository.MessageRepository;
+import me.iru.datingapp.repository.RatingRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,6 +48,18 @@ class MatchServiceTest {
     @Mock
     private MatchMapper matchMapper;
 
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> eventsCaptor;
+
     @InjectMocks
     private MatchService matchService;
 
@@ -103,6 +124,64 @@ class MatchServiceTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void testGetInbox_MergesBothSidesByLastActivity() {
+        Match older = inboxMatch(2L, 5);
+        Match oldest = inboxMatch(3L, 1);
+        match.setLastActivityAt(LocalDateTime.of(2025, 1, 1, 12, 10));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(matchRepository.findInboxAsUser1(1L, PageRequest.of(0, 3))).thenReturn(List.of(match, oldest));
+        when(matchRepository.findInboxAsUser2(1L, PageRequest.of(0, 3))).thenReturn(List.of(older));
+        when(matchMapper.toDto(any(Match.class), eq(user1))).thenReturn(matchDto);
+
+        InboxPageDto first = matchService.getInbox(1L, null, 2);
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getNextCursor()).isNotBlank();
+
+        when(matchRepository.findInboxAsUser1Before(1L, older.getLastActivityAt(), 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(oldest));
+        when(matchRepository.findInboxAsUser2Before(1L, older.getLastActivityAt(), 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of());
+
+        InboxPageDto second = matchService.getInbox(1L, first.getNextCursor(), 2);
+
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        verify(matchMapper, times(3)).toDto(any(Match.class), eq(user1));
+    }
+
+    @Test
+    void testGetInbox_CapsSize() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+
+        matchService.getInbox(1L, null, 1000);
+
+        verify(matchRepository).findInboxAsUser1(1L, PageRequest.of(0, 101));
+        verify(matchRepository).findInboxAsUser2(1L, PageRequest.of(0, 101));
+    }
+
+    @Test
+    void testGetInbox_InvalidCursor() {
+        assertThatThrownBy(() -> matchService.getInbox(1L, "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid inbox cursor");
+
+        verify(matchRepository, never()).findInboxAsUser1Before(anyLong(), any(), anyLong(), any());
+        verify(matchRepository, never()).findInboxAsUser2Before(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testGetInbox_UserNotFound() {
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> matchService.getInbox(999L, null, 20))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("User not found");
+    }
+
     @Test
     void testGetAllMatches_Success() {
         Match inactiveMatch = new Match();
@@ -201,5 +280,57 @@ class MatchServiceTest {
         verify(matchRepository).findById(1L);
         verify(matchRepository).delete(match);
     }
-}
 
+    @Test
+    void testCreateMutualMatches_CreatesMatchForLikersOnly() {
+        when(ratingRepository.findLikerIdsAmong(1L, List.of(2L, 3L))).thenReturn(List.of(2L));
+        when(matchingDao.insertMatchIfAbsent(1L, 2L)).thenReturn(10L);
+
+        Map<Long, Long> created = matchService.createMutualMatches(1L, List.of(2L, 3L));
+
+        assertThat(created).containsExactly(Map.entry(2L, 10L));
+        verify(matchingDao, never()).insertMatchIfAbsent(1L, 3L);
+
+        verify(outboxService).publishAll(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue()).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(OutboxEvent.EventType.MATCH_CREATED);
+            assertThat(event.getActorId()).isEqualTo(1L);
+            assertThat(event.getSubjectId()).isEqualTo(2L);
+            assertThat(event.getReferenceId()).isEqualTo(10L);
+        });
+    }
+
+    @Test
+    void testCreateMutualMatches_MatchAlreadyExists() {
+        when(ratingRepository.findLikerIdsAmong(1L, List.of(2L))).thenReturn(List.of(2L));
+        when(matchingDao.insertMatchIfAbsent(1L, 2L)).thenReturn(null);
+
+        Map<Long, Long> created = matchService.createMutualMatches(1L, List.of(2L));
+
+        assertThat(created).isEmpty();
+        verify(outboxService).publishAll(List.of());
+    }
+
+    @Test
+    void testCreateMutualMatches_NoReciprocalLike() {
+        when(ratingRepository.findLikerIdsAmong(1L, List.of(2L))).thenReturn(List.of());
+
+        Map<Long, Long> created = matchService.createMutualMatches(1L, List.of(2L));
+
+        assertThat(created).isEmpty();
+        verify(matchingDao, never()).insertMatchIfAbsent(anyLong(), anyLong());
+        verify(outboxService, never()).publishAll(any());
+    }
+
+    private Match inboxMatch(Long id, int minutes) {
+        User other = new User();
+        other.setId(id + 10);
+        Match inboxMatch = new Match();
+        inboxMatch.setId(id);
+        inboxMatch.setUser1(user1);
+        inboxMatch.setUser2(other);
+        inboxMatch.setIsActive(true);
+        inboxMatch.setLastActivityAt(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(minutes));
+        return inboxMatch;
+    }
+}
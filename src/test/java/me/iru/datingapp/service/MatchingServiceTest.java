@@ -1,12 +1,13 @@
 package me.iru.datingapp.service;
 
+import me.iru.datingapp.dto.SuggestionCountDto;
+import me.iru.datingapp.dto.SuggestionFeedDto;
 import me.iru.datingapp.dto.UserProfileDto;
-import me.iru.datingapp.entity.Rating;
 import me.iru.datingapp.entity.SearchPreference;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.UserMapper;
-import me.iru.datingapp.repository.RatingRepository;
+import me.iru.datingapp.matching.SuggestionQueue;
 import me.iru.datingapp.repository.SearchPreferenceRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,11 +24,13 @@ import org.springframework.data.domain.Pageable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,10 +43,31 @@ class MatchingServiceTest {
     private SearchPreferenceRepository searchPreferenceRepository;
 
     @Mock
-    private RatingRepository ratingRepository;
+    private UserMapper userMapper;
 
     @Mock
-    private UserMapper userMapper;
+    private CandidateIndexService candidateIndexService;
+
+    @Mock
+    private SuggestionRankingService suggestionRankingService;
+
+    @Mock
+    private SuggestionQueueService suggestionQueueService;
+
+    @Mock
+    private SuggestionCountService suggestionCountService;
+
+    @Mock
+    private SuggestionCacheService suggestionCacheService;
+
+    @Mock
+    private ColdStartService coldStartService;
+
+    @Mock
+    private ImpressionService impressionService;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
 
     @InjectMocks
     private MatchingService matchingService;
@@ -90,17 +114,23 @@ class MatchingServiceTest {
         profileDto2.setEmail("user3@example.com");
     }
 
+    private void passThroughResultCache() {
+        when(suggestionCacheService.getRanked(anyLong(), any())).thenAnswer(invocation -> {
+            Supplier<long[]> ranker = invocation.getArgument(1);
+            return ranker.get();
+        });
+    }
+
     @Test
     void testGetSuggestedUsers_Success() {
         Pageable pageable = PageRequest.of(0, 10);
         List<User> users = List.of(suggestedUser1, suggestedUser2);
-        Page<User> userPage = new PageImpl<>(users);
+        Page<User> userPage = new PageImpl<>(users, pageable, 2);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
         when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
-        when(ratingRepository.findByRaterId(1L)).thenReturn(new ArrayList<>());
-        when(userRepository.findBySearchCriteria(
-                eq(User.Gender.FEMALE), eq(20), eq(30), any(), eq(pageable)))
+        when(userRepository.findUnratedBySearchCriteria(
+                eq(1L), eq(User.Gender.FEMALE), eq(20), eq(30), eq(User.Gender.MALE), eq(25), eq(pageable)))
                 .thenReturn(userPage);
         when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
         when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
@@ -109,9 +139,10 @@ class MatchingServiceTest {
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(2);
         verify(userRepository).findById(1L);
         verify(searchPreferenceRepository).findByUserId(1L);
-        verify(ratingRepository).findByRaterId(1L);
+        verify(suggestionRankingService, never()).rankCandidates(anyLong(), any());
     }
 
     @Test
@@ -128,38 +159,13 @@ class MatchingServiceTest {
     }
 
     @Test
-    void testGetSuggestedUsers_ExcludesCurrentUser() {
+    void testGetSuggestedUsers_ExclusionDelegatedToQuery() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<User> users = List.of(currentUser, suggestedUser1);
-        Page<User> userPage = new PageImpl<>(users);
+        Page<User> userPage = new PageImpl<>(List.of(suggestedUser2), pageable, 1);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
         when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
-        when(ratingRepository.findByRaterId(1L)).thenReturn(new ArrayList<>());
-        when(userRepository.findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable)))
-                .thenReturn(userPage);
-        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
-
-        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
-
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().getFirst().getId()).isEqualTo(2L);
-    }
-
-    @Test
-    void testGetSuggestedUsers_ExcludesRatedUsers() {
-        Pageable pageable = PageRequest.of(0, 10);
-        List<User> users = List.of(suggestedUser1, suggestedUser2);
-        Page<User> userPage = new PageImpl<>(users);
-
-        Rating rating = new Rating();
-        rating.setRatedUser(suggestedUser1);
-        List<Rating> ratings = List.of(rating);
-
-        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
-        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
-        when(ratingRepository.findByRaterId(1L)).thenReturn(ratings);
-        when(userRepository.findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable)))
+        when(userRepository.findUnratedBySearchCriteria(eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(pageable)))
                 .thenReturn(userPage);
         when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
 
@@ -167,6 +173,7 @@ class MatchingServiceTest {
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().getFirst().getId()).isEqualTo(3L);
+        verify(userRepository, never()).findBySearchCriteria(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -177,15 +184,14 @@ class MatchingServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
         when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.empty());
-        when(ratingRepository.findByRaterId(1L)).thenReturn(new ArrayList<>());
-        when(userRepository.findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable)))
+        when(userRepository.findUnratedBySearchCriteria(eq(1L), isNull(), eq(20), eq(30), eq(User.Gender.MALE), eq(25), eq(pageable)))
                 .thenReturn(userPage);
         when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
 
         Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
 
         assertThat(result).isNotNull();
-        verify(userRepository).findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable));
+        verify(userRepository).findUnratedBySearchCriteria(eq(1L), isNull(), eq(20), eq(30), eq(User.Gender.MALE), eq(25), eq(pageable));
     }
 
     @Test
@@ -205,8 +211,7 @@ class MatchingServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
         when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
-        when(ratingRepository.findByRaterId(1L)).thenReturn(new ArrayList<>());
-        when(userRepository.findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable)))
+        when(userRepository.findUnratedBySearchCriteria(eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(pageable)))
                 .thenReturn(emptyPage);
 
         Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
@@ -222,8 +227,7 @@ class MatchingServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
         when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
-        when(ratingRepository.findByRaterId(1L)).thenReturn(new ArrayList<>());
-        when(userRepository.findBySearchCriteria(any(), anyInt(), anyInt(), any(), eq(pageable)))
+        when(userRepository.findUnratedBySearchCriteria(eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(pageable)))
                 .thenReturn(userPage);
         when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
         when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
@@ -232,8 +236,304 @@ class MatchingServiceTest {
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(10);
         assertThat(result.getPageable().getPageNumber()).isEqualTo(1);
         assertThat(result.getPageable().getPageSize()).isEqualTo(5);
     }
-}
 
+    @Test
+    void testGetSuggestionFeed_FirstSliceHasNext() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), eq(User.Gender.FEMALE), eq(20), eq(30), eq(User.Gender.MALE), eq(25), eq(0L), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(suggestedUser1, suggestedUser2));
+        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
+
+        SuggestionFeedDto result = matchingService.getSuggestionFeed(1L, "", 1);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().getFirst().getId()).isEqualTo(2L);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    void testGetSuggestionFeed_SkipsArchivedRatingsAndRefills() {
+        User suggestedUser3 = new User();
+        suggestedUser3.setId(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(suggestedUser1, suggestedUser2));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(3L), any(Pageable.class)))
+                .thenReturn(List.of(suggestedUser3));
+        when(ratedUserCacheService.hasRated(1L, 2L)).thenReturn(true);
+        when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
+
+        SuggestionFeedDto result = matchingService.getSuggestionFeed(1L, null, 1);
+
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(3L);
+        assertThat(result.isHasNext()).isTrue();
+    }
+
+    @Test
+    void testGetSuggestionFeed_BoundsRefillsOverArchivedRatings() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(6);
+                    Pageable pageable = invocation.getArgument(7);
+                    List<User> users = new ArrayList<>();
+                    for (long id = afterId + 1; id <= afterId + pageable.getPageSize(); id++) {
+                        User user = new User();
+                        user.setId(id);
+                        users.add(user);
+                    }
+                    return users;
+                });
+        when(ratedUserCacheService.hasRated(eq(1L), anyLong())).thenReturn(true);
+
+        SuggestionFeedDto result = matchingService.getSuggestionFeed(1L, null, 1);
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getNextCursor()).isNotNull();
+        verify(userRepository, times(4)).findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void testGetSuggestionFeed_NextCursorResumesAfterLastId() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(suggestedUser1, suggestedUser2));
+        when(userRepository.findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(suggestedUser2));
+        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
+        when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
+
+        SuggestionFeedDto first = matchingService.getSuggestionFeed(1L, null, 1);
+        SuggestionFeedDto second = matchingService.getSuggestionFeed(1L, first.getNextCursor(), 1);
+
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.getContent().getFirst().getId()).isEqualTo(3L);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testGetSuggestionFeed_InvalidCursor() {
+        assertThatThrownBy(() -> matchingService.getSuggestionFeed(1L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid suggestion cursor");
+
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetSuggestionFeed_InvalidSize() {
+        assertThatThrownBy(() -> matchingService.getSuggestionFeed(1L, null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("size must be positive");
+
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetSuggestionFeed_CapsSize() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+
+        SuggestionFeedDto result = matchingService.getSuggestionFeed(1L, null, 1_000_000);
+
+        assertThat(result.getContent()).isEmpty();
+        verify(userRepository).findUnratedBySearchCriteriaAfter(
+                eq(1L), any(), anyInt(), anyInt(), any(), anyInt(), eq(0L), eq(PageRequest.of(0, 101)));
+    }
+
+    @Test
+    void testGetSuggestedUsers_FromCandidateIndex() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L, searchPreference)).thenReturn(new long[]{2L, 3L});
+        passThroughResultCache();
+        when(userRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(suggestedUser2, suggestedUser1));
+        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
+        when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(2L, 3L);
+        verify(userRepository, never()).findUnratedBySearchCriteria(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetSuggestedUsers_FromCandidateIndexSecondPage() {
+        Pageable pageable = PageRequest.of(1, 1);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L, searchPreference)).thenReturn(new long[]{2L, 3L});
+        passThroughResultCache();
+        when(userRepository.findAllById(List.of(3L))).thenReturn(List.of(suggestedUser2));
+        when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(3L);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    void testGetSuggestedUsers_FromResultCache() {
+        Pageable pageable = PageRequest.of(1, 1);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionCacheService.getRanked(eq(1L), any())).thenReturn(new long[]{3L, 2L});
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(suggestedUser1));
+        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(2L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        verify(suggestionRankingService, never()).rankCandidates(anyLong(), any());
+    }
+
+    @Test
+    void testGetSuggestedUsers_FromColdStartLists() {
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(coldStartService.suggest(currentUser, searchPreference)).thenReturn(new long[]{2L, 3L});
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(suggestedUser1));
+        when(userMapper.toDto(suggestedUser1)).thenReturn(profileDto1);
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(2L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        verify(impressionService).recordShown(1L, new long[]{2L});
+        verify(candidateIndexService, never()).isReady();
+        verify(suggestionCacheService, never()).getRanked(anyLong(), any());
+    }
+
+    @Test
+    void testGetSuggestedUsers_PageBeyondColdStartLists() {
+        Pageable pageable = PageRequest.of(2, 1);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(coldStartService.suggest(currentUser, searchPreference)).thenReturn(new long[]{2L, 3L});
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionCacheService.getRanked(eq(1L), any())).thenReturn(new long[]{3L, 2L, 4L});
+        when(userRepository.findAllById(List.of(4L))).thenReturn(List.of());
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void testGetAvailableSuggestionsCount_FromCandidateIndex() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionRankingService.countCandidates(1L, searchPreference)).thenReturn(1L);
+
+        long count = matchingService.getAvailableSuggestionsCount(1L);
+
+        assertThat(count).isEqualTo(1L);
+        verify(userRepository, never()).findBySearchCriteria(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetAvailableSuggestionsCount_FromDatabaseCountQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.countUnratedBySearchCriteria(1L, User.Gender.FEMALE, 20, 30, User.Gender.MALE, 25)).thenReturn(1L);
+
+        long count = matchingService.getAvailableSuggestionsCount(1L);
+
+        assertThat(count).isEqualTo(1L);
+        verify(userRepository, never()).findBySearchCriteria(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testEstimateAvailableSuggestionsCount_FromCounters() {
+        when(suggestionCountService.isReady()).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(suggestionCountService.estimate(currentUser, searchPreference)).thenReturn(42L);
+        when(suggestionCountService.getMaxStalenessSeconds()).thenReturn(300L);
+
+        SuggestionCountDto result = matchingService.estimateAvailableSuggestionsCount(1L, false);
+
+        assertThat(result.getCount()).isEqualTo(42L);
+        assertThat(result.isExact()).isFalse();
+        assertThat(result.getMaxStalenessSeconds()).isEqualTo(300L);
+        verify(userRepository, never()).countUnratedBySearchCriteria(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testEstimateAvailableSuggestionsCount_ExactRequested() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.countUnratedBySearchCriteria(1L, User.Gender.FEMALE, 20, 30, User.Gender.MALE, 25)).thenReturn(7L);
+
+        SuggestionCountDto result = matchingService.estimateAvailableSuggestionsCount(1L, true);
+
+        assertThat(result.getCount()).isEqualTo(7L);
+        assertThat(result.isExact()).isTrue();
+        assertThat(result.getMaxStalenessSeconds()).isZero();
+        verify(suggestionCountService, never()).estimate(any(), any());
+    }
+
+    @Test
+    void testEstimateAvailableSuggestionsCount_CountersNotReady() {
+        when(suggestionCountService.isReady()).thenReturn(false);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(userRepository.countUnratedBySearchCriteria(1L, User.Gender.FEMALE, 20, 30, User.Gender.MALE, 25)).thenReturn(3L);
+
+        SuggestionCountDto result = matchingService.estimateAvailableSuggestionsCount(1L, false);
+
+        assertThat(result.getCount()).isEqualTo(3L);
+        assertThat(result.isExact()).isTrue();
+    }
+
+    @Test
+    void testGetSuggestedUsers_FromSuggestionQueue() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.of(searchPreference));
+        when(candidateIndexService.isReady()).thenReturn(true);
+        when(suggestionQueueService.peek(1L, 10)).thenReturn(new SuggestionQueue.Snapshot(new long[]{3L}, 25));
+        when(userRepository.findAllById(List.of(3L))).thenReturn(List.of(suggestedUser2));
+        when(userMapper.toDto(suggestedUser2)).thenReturn(profileDto2);
+
+        Page<UserProfileDto> result = matchingService.getSuggestedUsers(1L, pageable);
+
+        assertThat(result.getContent()).extracting(UserProfileDto::getId).containsExactly(3L);
+        assertThat(result.getTotalElements()).isEqualTo(25);
+        verify(suggestionRankingService, never()).rankCandidates(anyLong(), any());
+    }
+}
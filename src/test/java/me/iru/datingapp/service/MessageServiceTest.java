@@ -1,8 +1,10 @@
 package me.iru.datingapp.service;
 
 import me.iru.datingapp.dto.MessageDto;
+import me.iru.datingapp.dto.MessageWindowDto;
 import me.iru.datingapp.entity.Match;
 import me.iru.datingapp.entity.Message;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.MatchNotActiveException;
 import me.iru.datingapp.exception.ResourceNotFoundException;
@@ -21,6 +23,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +47,9 @@ class MessageServiceTest {
     @Mock
     private MessageMapper messageMapper;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private MessageService messageService;
 
@@ -98,6 +104,24 @@ class MessageServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).isEqualTo("Hello!");
         verify(messageRepository).save(any(Message.class));
+        verify(matchRepository).recordLastMessage(1L, 1L, 1L, "Hello!", message.getSentAt());
+        verify(outboxService).publish(OutboxEvent.EventType.MESSAGE_SENT, 1L, 2L, message.getId(), null);
+    }
+
+    @Test
+    void testSendMessage_TruncatesSummaryPreview() {
+        message.setContent("x".repeat(Match.LAST_MESSAGE_PREVIEW_LENGTH + 50));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiver));
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageMapper.toEntity(any(MessageDto.class), eq(sender), eq(receiver), eq(match)))
+                .thenReturn(message);
+        when(messageRepository.save(any(Message.class))).thenReturn(message);
+
+        messageService.sendMessage(messageDto);
+
+        verify(matchRepository).recordLastMessage(eq(1L), eq(1L), eq(1L),
+                argThat(preview -> preview.length() == Match.LAST_MESSAGE_PREVIEW_LENGTH), any());
     }
 
     @Test
@@ -170,14 +194,133 @@ class MessageServiceTest {
     @Test
     void testGetMessageHistory_Success() {
         when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
-        when(messageRepository.findByMatchIdOrderBySentAtAsc(1L)).thenReturn(List.of(message));
-        when(messageMapper.toDto(any(Message.class))).thenReturn(messageDto);
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 51))).thenReturn(List.of(message));
+        when(messageMapper.toDto(any(Message.class), any())).thenReturn(messageDto);
 
         List<MessageDto> result = messageService.getMessageHistory(1L, 1L);
 
         assertThat(result).isNotNull();
         assertThat(result).hasSize(1);
-        verify(messageRepository).findByMatchIdOrderBySentAtAsc(1L);
+        verify(matchRepository).advanceLastReadMessageId(1L, 1L, 1L);
+        verify(messageRepository).findLatestByMatchId(1L, PageRequest.of(0, 51));
+        verify(messageRepository, never()).findByMatchIdOrderBySentAtAsc(anyLong());
+    }
+
+    @Test
+    void testGetMessageWindow_LatestInSentOrder() {
+        Message older = windowMessage(1L, 0);
+        Message newer = windowMessage(2L, 1);
+        Message oldest = windowMessage(3L, -1);
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 3))).thenReturn(List.of(newer, older, oldest));
+        when(messageMapper.toDto(any(Message.class), any())).thenAnswer(invocation -> dtoOf(invocation.getArgument(0)));
+
+        MessageWindowDto window = messageService.getMessageWindow(1L, 1L, null, null, 2);
+
+        assertThat(window.getContent()).extracting(MessageDto::getId).containsExactly(1L, 2L);
+        assertThat(window.isHasOlder()).isTrue();
+        assertThat(window.isHasNewer()).isFalse();
+        assertThat(window.getOlderCursor()).isNotBlank();
+        assertThat(window.getNewerCursor()).isNotBlank();
+    }
+
+    @Test
+    void testGetMessageWindow_PagesBackAndForthFromCursors() {
+        Message first = windowMessage(1L, 0);
+        Message second = windowMessage(2L, 1);
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 2))).thenReturn(List.of(second, first));
+        when(messageMapper.toDto(any(Message.class), any())).thenAnswer(invocation -> dtoOf(invocation.getArgument(0)));
+        MessageWindowDto latest = messageService.getMessageWindow(1L, 1L, null, null, 1);
+
+        when(messageRepository.findByMatchIdBefore(1L, second.getSentAt(), 2L, PageRequest.of(0, 2))).thenReturn(List.of(first));
+        MessageWindowDto older = messageService.getMessageWindow(1L, 1L, latest.getOlderCursor(), null, 1);
+
+        assertThat(older.getContent()).extracting(MessageDto::getId).containsExactly(1L);
+        assertThat(older.isHasOlder()).isFalse();
+        assertThat(older.isHasNewer()).isTrue();
+
+        when(messageRepository.findByMatchIdAfter(1L, first.getSentAt(), 1L, PageRequest.of(0, 2))).thenReturn(List.of(second));
+        MessageWindowDto newer = messageService.getMessageWindow(1L, 1L, null, older.getNewerCursor(), 1);
+
+        assertThat(newer.getContent()).extracting(MessageDto::getId).containsExactly(2L);
+        assertThat(newer.isHasOlder()).isTrue();
+        assertThat(newer.isHasNewer()).isFalse();
+    }
+
+    @Test
+    void testGetMessageWindow_AdvancesWatermarkOnceAndDerivesReadState() {
+        Message first = windowMessage(1L, 0);
+        Message second = windowMessage(2L, 1);
+        Message reply = windowMessage(3L, 2);
+        reply.setSender(receiver);
+        reply.setReceiver(sender);
+        match.setUser1LastReadMessageId(3L);
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 51))).thenReturn(List.of(reply, second, first));
+        when(matchRepository.advanceLastReadMessageId(1L, 2L, 3L)).thenReturn(1);
+
+        messageService.getMessageWindow(1L, 2L, null, null, 50);
+
+        verify(matchRepository, times(1)).advanceLastReadMessageId(anyLong(), anyLong(), anyLong());
+        verify(messageMapper).toDto(first, 3L);
+        verify(messageMapper).toDto(second, 3L);
+        verify(messageMapper).toDto(reply, 3L);
+        verify(messageRepository, never()).save(any(Message.class));
+    }
+
+    @Test
+    void testGetMessageWindow_NoWriteWhenNothingNew() {
+        match.setUser2LastReadMessageId(5L);
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 51))).thenReturn(List.of(windowMessage(5L, 0)));
+
+        messageService.getMessageWindow(1L, 2L, null, null, 50);
+
+        verify(matchRepository, never()).advanceLastReadMessageId(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testGetMessageWindow_PagingBackDoesNotWrite() {
+        Message first = windowMessage(1L, 0);
+        Message second = windowMessage(2L, 1);
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 2))).thenReturn(List.of(second, first));
+        when(messageMapper.toDto(any(Message.class), any())).thenAnswer(invocation -> dtoOf(invocation.getArgument(0)));
+        MessageWindowDto latest = messageService.getMessageWindow(1L, 1L, null, null, 1);
+        clearInvocations(matchRepository);
+        when(messageRepository.findByMatchIdBefore(eq(1L), any(LocalDateTime.class), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(first));
+
+        messageService.getMessageWindow(1L, 1L, latest.getOlderCursor(), null, 1);
+
+        verify(matchRepository, never()).advanceLastReadMessageId(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testGetMessageWindow_CapsSize() {
+        when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
+
+        messageService.getMessageWindow(1L, 1L, null, null, 10_000);
+
+        verify(messageRepository).findLatestByMatchId(1L, PageRequest.of(0, 201));
+    }
+
+    @Test
+    void testGetMessageWindow_MalformedCursor() {
+        assertThatThrownBy(() -> messageService.getMessageWindow(1L, 1L, "not-a-cursor", null, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid message cursor");
+
+        verifyNoInteractions(matchRepository, messageRepository);
+    }
+
+    @Test
+    void testGetMessageWindow_BothCursors() {
+        assertThatThrownBy(() -> messageService.getMessageWindow(1L, 1L, "a", "b", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(matchRepository, messageRepository);
     }
 
     @Test
@@ -202,23 +345,31 @@ class MessageServiceTest {
 
     @Test
     void testGetUnreadMessageCount_Success() {
-        when(messageRepository.findUnreadMessagesByUserId(2L))
-                .thenReturn(List.of(message, message, message, message, message));
+        when(messageRepository.countUnreadAfterWatermark(2L)).thenReturn(5L);
 
         long result = messageService.getUnreadMessageCount(2L);
 
         assertThat(result).isEqualTo(5L);
-        verify(messageRepository).findUnreadMessagesByUserId(2L);
+        verify(messageRepository).countUnreadAfterWatermark(2L);
     }
 
     @Test
     void testMarkAsRead_Success() {
         when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
-        when(messageRepository.save(any(Message.class))).thenReturn(message);
+        when(matchRepository.advanceLastReadMessageId(1L, 2L, 1L)).thenReturn(1);
 
-        messageService.markAsRead(1L, 2L);
+        assertThat(messageService.markAsRead(1L, 2L)).isTrue();
 
-        verify(messageRepository).save(argThat(Message::getIsRead));
+        verify(matchRepository).advanceLastReadMessageId(1L, 2L, 1L);
+        verify(messageRepository, never()).save(any(Message.class));
+    }
+
+    @Test
+    void testMarkAsRead_AlreadyRead() {
+        when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
+        when(matchRepository.advanceLastReadMessageId(1L, 2L, 1L)).thenReturn(0);
+
+        assertThat(messageService.markAsRead(1L, 2L)).isFalse();
     }
 
     @Test
@@ -238,6 +389,7 @@ class MessageServiceTest {
                 .hasMessageContaining("access denied");
 
         verify(messageRepository, never()).save(any(Message.class));
+        verify(matchRepository, never()).advanceLastReadMessageId(anyLong(), anyLong(), anyLong());
     }
 
 
@@ -267,6 +419,7 @@ class MessageServiceTest {
         verify(matchRepository).findById(1L);
         verify(messageRepository).findByMatchIdOrderBySentAtAsc(1L);
         verify(messageRepository).deleteAll(messages);
+        verify(matchRepository).clearConversationSummary(1L);
     }
 
     @Test
@@ -351,8 +504,9 @@ class MessageServiceTest {
 
         when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
         when(messageRepository.findByMatchId(1L, pageable)).thenReturn(messagePage);
-        when(messageMapper.toDto(message1)).thenReturn(dto1);
-        when(messageMapper.toDto(message2)).thenReturn(dto2);
+        match.setUser2LastReadMessageId(1L);
+        when(messageMapper.toDto(message1, 1L)).thenReturn(dto1);
+        when(messageMapper.toDto(message2, 0L)).thenReturn(dto2);
 
         Page<MessageDto> result = messageService.getMessageHistoryPaginated(1L, 1L, pageable);
 
@@ -417,7 +571,7 @@ class MessageServiceTest {
 
         when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
         when(messageRepository.findByMatchId(1L, pageable)).thenReturn(messagePage);
-        when(messageMapper.toDto(message)).thenReturn(messageDto);
+        when(messageMapper.toDto(message, 0L)).thenReturn(messageDto);
 
         Page<MessageDto> result = messageService.getMessageHistoryPaginated(1L, 2L, pageable);
 
@@ -436,7 +590,7 @@ class MessageServiceTest {
 
         when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
         when(messageRepository.findByMatchId(1L, pageable)).thenReturn(messagePage);
-        when(messageMapper.toDto(message)).thenReturn(messageDto);
+        when(messageMapper.toDto(message, 0L)).thenReturn(messageDto);
 
         Page<MessageDto> result = messageService.getMessageHistoryPaginated(1L, 1L, pageable);
 
@@ -456,6 +610,34 @@ class MessageServiceTest {
 
         verify(messageRepository).findById(1L);
         verify(messageRepository).delete(message);
+        verify(matchRepository).removeUnreadMessage(1L, 2L, 1L);
+        verify(matchRepository, never()).replaceLastMessage(anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testDeleteMessage_LastMessageReplacedInSummary() {
+        Message previous = windowMessage(1L, 0);
+        previous.setContent("Previous");
+        Message last = windowMessage(2L, 1);
+        match.setLastMessageId(2L);
+        when(messageRepository.findById(2L)).thenReturn(Optional.of(last));
+        when(messageRepository.findByMatchIdBefore(1L, last.getSentAt(), 2L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(previous));
+
+        messageService.deleteMessage(2L, 1L);
+
+        verify(matchRepository).replaceLastMessage(1L, 2L, 1L, 1L, "Previous");
+    }
+
+    @Test
+    void testDeleteMessage_OnlyMessageClearsSummary() {
+        match.setLastMessageId(1L);
+        message.setSentAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
+
+        messageService.deleteMessage(1L, 1L);
+
+        verify(matchRepository).replaceLastMessage(1L, 1L, null, null, null);
     }
 
     @Test
@@ -508,11 +690,27 @@ class MessageServiceTest {
     @Test
     void testGetMessageHistory_EmptyList() {
         when(matchRepository.findById(1L)).thenReturn(Optional.of(match));
-        when(messageRepository.findByMatchIdOrderBySentAtAsc(1L)).thenReturn(List.of());
+        when(messageRepository.findLatestByMatchId(1L, PageRequest.of(0, 51))).thenReturn(List.of());
 
         List<MessageDto> result = messageService.getMessageHistory(1L, 1L);
 
         assertThat(result).isEmpty();
     }
+
+    private Message windowMessage(Long id, int minutes) {
+        Message windowMessage = new Message();
+        windowMessage.setId(id);
+        windowMessage.setSender(sender);
+        windowMessage.setReceiver(receiver);
+        windowMessage.setMatch(match);
+        windowMessage.setSentAt(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(minutes));
+        return windowMessage;
+    }
+
+    private static MessageDto dtoOf(Message message) {
+        MessageDto dto = new MessageDto();
+        dto.setId(message.getId());
+        return dto;
+    }
 }
 
@@ -2,6 +2,7 @@ package me.iru.datingapp.service;
 
 import me.iru.datingapp.dto.NotificationDto;
 import me.iru.datingapp.entity.Notification;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.mapper.NotificationMapper;
@@ -10,6 +11,8 @@ import me.iru.datingapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +27,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -39,6 +43,9 @@ class NotificationServiceTest {
     @Mock
     private NotificationMapper notificationMapper;
 
+    @Captor
+    private ArgumentCaptor<List<Notification>> captor;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -274,5 +281,37 @@ class NotificationServiceTest {
 
         verify(notificationRepository).deleteByUserId(1L);
     }
-}
 
+    @Test
+    void createNotifications_shouldNotifyBothUsersOfMatchAndReceiverOfMessage() {
+        List<OutboxEvent> events = List.of(
+                new OutboxEvent(OutboxEvent.EventType.MATCH_CREATED, 1L, 2L, 10L, null),
+                new OutboxEvent(OutboxEvent.EventType.MESSAGE_SENT, 2L, 1L, 20L, null));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user, relatedUser));
+
+        int created = notificationService.createNotifications(events);
+
+        assertThat(created).isEqualTo(3);
+        verify(notificationRepository).saveAll(captor.capture());
+        List<Notification> saved = captor.getValue();
+        assertThat(saved).extracting(n -> n.getUser().getId(), Notification::getType, Notification::getRelatedEntityId)
+                .containsExactly(
+                        tuple(1L, Notification.NotificationType.NEW_MATCH, 10L),
+                        tuple(2L, Notification.NotificationType.NEW_MATCH, 10L),
+                        tuple(1L, Notification.NotificationType.NEW_MESSAGE, 20L));
+        assertThat(saved.get(0).getMessage()).contains("Jane Smith");
+        assertThat(saved.get(2).getMessage()).isEqualTo("Jane Smith sent you a message");
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void createNotifications_shouldSkipEventsOfDeletedUsers() {
+        List<OutboxEvent> events = List.of(new OutboxEvent(OutboxEvent.EventType.MATCH_CREATED, 1L, 3L, 10L, null));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+
+        int created = notificationService.createNotifications(events);
+
+        assertThat(created).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.entity.OutboxEvent;
+import me.iru.datingapp.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private MatchService matchService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private OutboxRelayService outboxRelayService;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelayService = new OutboxRelayService(outboxEventRepository, matchService, notificationService, true, 100);
+    }
+
+    private static OutboxEvent event(long id, OutboxEvent.EventType type, long actorId, long subjectId, String detail) {
+        OutboxEvent event = new OutboxEvent(type, actorId, subjectId, null, detail);
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    void testRelay_GroupsLikesByRaterAndNotifiesInBulk() {
+        OutboxEvent match = event(4, OutboxEvent.EventType.MATCH_CREATED, 5L, 6L, null);
+        OutboxEvent message = event(5, OutboxEvent.EventType.MESSAGE_SENT, 5L, 6L, null);
+        when(outboxEventRepository.findBatchForUpdate(PageRequest.of(0, 100))).thenReturn(List.of(
+                event(1, OutboxEvent.EventType.RATING_CREATED, 1L, 2L, "LIKE"),
+                event(2, OutboxEvent.EventType.RATING_CREATED, 1L, 3L, "LIKE"),
+                event(3, OutboxEvent.EventType.RATING_CREATED, 1L, 4L, "DISLIKE"),
+                match,
+                message));
+        when(notificationService.createNotifications(List.of(match, message))).thenReturn(3);
+
+        int relayed = outboxRelayService.relay();
+
+        assertThat(relayed).isEqualTo(5);
+        verify(matchService).createMutualMatches(1L, List.of(2L, 3L));
+        verify(notificationService).createNotifications(List.of(match, message));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L, 4L, 5L));
+    }
+
+    @Test
+    void testRelay_EmptyOutbox() {
+        when(outboxEventRepository.findBatchForUpdate(any())).thenReturn(List.of());
+
+        int relayed = outboxRelayService.relay();
+
+        assertThat(relayed).isZero();
+        verify(matchService, never()).createMutualMatches(anyLong(), any());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRelay_Disabled() {
+        outboxRelayService = new OutboxRelayService(outboxEventRepository, matchService, notificationService, false, 100);
+
+        assertThat(outboxRelayService.relay()).isZero();
+
+        verify(outboxEventRepository, never()).findBatchForUpdate(any());
+    }
+}
@@ -0,0 +1,50 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.OutboxDao;
+import me.iru.datingapp.entity.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxDao outboxDao;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> captor;
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @Test
+    void testPublish_InsertsEvent() {
+        outboxService.publish(OutboxEvent.EventType.MESSAGE_SENT, 1L, 2L, 30L, null);
+
+        verify(outboxDao).insertEvents(captor.capture());
+        assertThat(captor.getValue()).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(OutboxEvent.EventType.MESSAGE_SENT);
+            assertThat(event.getActorId()).isEqualTo(1L);
+            assertThat(event.getSubjectId()).isEqualTo(2L);
+            assertThat(event.getReferenceId()).isEqualTo(30L);
+        });
+    }
+
+    @Test
+    void testPublishAll_SkipsEmptyBatch() {
+        outboxService.publishAll(List.of());
+
+        verify(outboxDao, never()).insertEvents(any());
+    }
+}
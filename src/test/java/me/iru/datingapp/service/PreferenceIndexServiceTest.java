@@ -0,0 +1,93 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PreferenceIndexServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private PreferenceIndexService preferenceIndexService;
+
+    @BeforeEach
+    void setUp() {
+        preferenceIndexService = new PreferenceIndexService(matchingDao, true);
+    }
+
+    private void rebuildWithSampleUsers() {
+        doAnswer(invocation -> {
+            MatchingDao.UserPreferenceHandler handler = invocation.getArgument(0);
+            handler.handle(1L, User.Gender.MALE, 30, null, null, null);
+            handler.handle(2L, User.Gender.FEMALE, 29, User.Gender.MALE, 25, 35);
+            handler.handle(3L, User.Gender.FEMALE, 29, User.Gender.FEMALE, 25, 35);
+            handler.handle(4L, User.Gender.FEMALE, 45, null, null, null);
+            return null;
+        }).when(matchingDao).streamUserPreferences(any());
+        preferenceIndexService.rebuild();
+    }
+
+    @Test
+    void testFilterMutual_UsesExplicitAndDefaultPreferences() {
+        rebuildWithSampleUsers();
+
+        long[] result = preferenceIndexService.filterMutual(1L, new long[]{2L, 3L, 4L});
+
+        assertThat(preferenceIndexService.isReady()).isTrue();
+        assertThat(result).containsExactly(2L);
+    }
+
+    @Test
+    void testFilterMutual_NotReadyKeepsAll() {
+        assertThat(preferenceIndexService.filterMutual(1L, new long[]{3L})).containsExactly(3L);
+    }
+
+    @Test
+    void testIndexPreference_UpdatesAndClears() {
+        rebuildWithSampleUsers();
+
+        User candidate = new User();
+        candidate.setId(3L);
+        candidate.setGender(User.Gender.FEMALE);
+        candidate.setAge(29);
+
+        SearchPreference preference = new SearchPreference();
+        preference.setUser(candidate);
+        preference.setPreferredGender(null);
+        preference.setMinAge(18);
+        preference.setMaxAge(40);
+        preferenceIndexService.indexPreference(preference);
+        assertThat(preferenceIndexService.filterMutual(1L, new long[]{3L})).containsExactly(3L);
+
+        preferenceIndexService.clearPreference(3L);
+        assertThat(preferenceIndexService.filterMutual(1L, new long[]{3L})).containsExactly(3L);
+
+        candidate.setAge(20);
+        preferenceIndexService.indexUser(candidate);
+        assertThat(preferenceIndexService.filterMutual(1L, new long[]{3L})).isEmpty();
+
+        preferenceIndexService.removeUser(3L);
+        assertThat(preferenceIndexService.filterMutual(1L, new long[]{3L})).containsExactly(3L);
+    }
+
+    @Test
+    void testDisabled_DoesNotLoad() {
+        PreferenceIndexService disabled = new PreferenceIndexService(matchingDao, false);
+
+        disabled.rebuild();
+
+        assertThat(disabled.isReady()).isFalse();
+        verify(matchingDao, never()).streamUserPreferences(any());
+    }
+}
@@ -0,0 +1,166 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dao.RatingArchiveDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatedUserCacheServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private RatingArchiveDao ratingArchiveDao;
+
+    @Mock
+    private SwipeBufferService swipeBufferService;
+
+    private RatedUserCacheService ratedUserCacheService;
+
+    @BeforeEach
+    void setUp() {
+        ratedUserCacheService = new RatedUserCacheService(matchingDao, ratingArchiveDao, swipeBufferService, 1_000_000L);
+    }
+
+    private void stubRatedUsers(long raterId, long... ratedUserIds) {
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            for (long id : ratedUserIds) {
+                consumer.accept(id);
+            }
+            return null;
+        }).when(matchingDao).streamRatedUserIds(eq(raterId), any());
+    }
+
+    @Test
+    void testFilterUnrated_LoadsOnceAndKeepsOrder() {
+        stubRatedUsers(1L, 3L, 5L);
+
+        long[] first = ratedUserCacheService.filterUnrated(1L, new long[]{5L, 2L, 3L, 4L});
+        long[] second = ratedUserCacheService.filterUnrated(1L, new long[]{3L, 6L});
+
+        assertThat(first).containsExactly(2L, 4L);
+        assertThat(second).containsExactly(6L);
+        verify(matchingDao, times(1)).streamRatedUserIds(eq(1L), any());
+    }
+
+    @Test
+    void testFilterUnrated_ExcludesArchivedRatings() {
+        stubRatedUsers(1L, 3L);
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(4L);
+            return null;
+        }).when(ratingArchiveDao).streamArchivedUserIds(eq(1L), any());
+
+        assertThat(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L, 4L})).containsExactly(2L);
+        assertThat(ratedUserCacheService.countRated(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void testCountUnrated() {
+        stubRatedUsers(1L, 2L);
+
+        assertThat(ratedUserCacheService.countUnrated(1L, new long[]{2L, 3L, 4L})).isEqualTo(2);
+    }
+
+    @Test
+    void testCountRated() {
+        stubRatedUsers(1L, 2L, 9L);
+
+        assertThat(ratedUserCacheService.countRated(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void testRecordAndRemoveRating_UpdateLoadedBitmap() {
+        stubRatedUsers(1L);
+        assertThat(ratedUserCacheService.hasRated(1L, 7L)).isFalse();
+
+        ratedUserCacheService.recordRating(1L, 7L);
+        assertThat(ratedUserCacheService.hasRated(1L, 7L)).isTrue();
+
+        ratedUserCacheService.removeRating(1L, 7L);
+        assertThat(ratedUserCacheService.hasRated(1L, 7L)).isFalse();
+
+        verify(matchingDao, times(1)).streamRatedUserIds(eq(1L), any());
+    }
+
+    @Test
+    void testHasRated_IncludesBufferedSwipes() {
+        stubRatedUsers(1L, 3L);
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(4L);
+            return null;
+        }).when(swipeBufferService).forEachPending(eq(1L), any());
+
+        assertThat(ratedUserCacheService.hasRated(1L, 4L)).isTrue();
+        assertThat(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L, 4L})).containsExactly(2L);
+    }
+
+    @Test
+    void testRecordAndRemoveRating_AppliedToBitmapBeingLoaded() {
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(3L);
+            ratedUserCacheService.recordRating(1L, 7L);
+            ratedUserCacheService.removeRating(1L, 3L);
+            return null;
+        }).when(matchingDao).streamRatedUserIds(eq(1L), any());
+
+        assertThat(ratedUserCacheService.filterUnrated(1L, new long[]{3L, 7L, 8L})).containsExactly(3L, 8L);
+        assertThat(ratedUserCacheService.countRated(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void testRecordRating_IgnoresUnloadedRater() {
+        ratedUserCacheService.recordRating(1L, 7L);
+
+        assertThat(ratedUserCacheService.getCachedUserCount()).isZero();
+        verify(matchingDao, never()).streamRatedUserIds(anyLong(), any());
+    }
+
+    @Test
+    void testEvict_ReloadsOnNextAccess() {
+        stubRatedUsers(1L, 2L);
+        ratedUserCacheService.hasRated(1L, 2L);
+
+        ratedUserCacheService.evict(1L);
+
+        assertThat(ratedUserCacheService.getCachedUserCount()).isZero();
+        assertThat(ratedUserCacheService.getCachedBytes()).isZero();
+        assertThat(ratedUserCacheService.hasRated(1L, 2L)).isTrue();
+        verify(matchingDao, times(2)).streamRatedUserIds(eq(1L), any());
+    }
+
+    @Test
+    void testSizeLimit_EvictsLeastRecentlyUsed() {
+        ratedUserCacheService = new RatedUserCacheService(matchingDao, ratingArchiveDao, swipeBufferService, 1L);
+        stubRatedUsers(1L, 10L);
+        stubRatedUsers(2L, 20L);
+
+        ratedUserCacheService.hasRated(1L, 10L);
+        ratedUserCacheService.hasRated(2L, 20L);
+
+        assertThat(ratedUserCacheService.getCachedUserCount()).isEqualTo(1);
+
+        ratedUserCacheService.hasRated(2L, 20L);
+        ratedUserCacheService.hasRated(1L, 10L);
+
+        verify(matchingDao, times(1)).streamRatedUserIds(eq(2L), any());
+        verify(matchingDao, times(2)).streamRatedUserIds(eq(1L), any());
+    }
+}
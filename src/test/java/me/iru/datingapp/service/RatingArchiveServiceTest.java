@@ -0,0 +1,98 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.RatingArchiveDao;
+import me.iru.datingapp.repository.RatingArchiveRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingArchiveServiceTest {
+
+    @Mock
+    private RatingArchiveDao ratingArchiveDao;
+
+    @Mock
+    private RatingArchiveRepository ratingArchiveRepository;
+
+    @Test
+    void testCompact_WalksRatersInBatches() {
+        RatingArchiveService ratingArchiveService =
+                new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, true, 30, 2);
+        when(ratingArchiveDao.findRatersWithDislikesBefore(eq(0L), any(), eq(2))).thenReturn(List.of(1L, 4L));
+        when(ratingArchiveDao.findRatersWithDislikesBefore(eq(4L), any(), eq(2))).thenReturn(List.of(7L));
+        when(ratingArchiveDao.compactDislikes(anyLong(), any())).thenReturn(3);
+
+        assertThat(ratingArchiveService.compact()).isEqualTo(9);
+
+        verify(ratingArchiveDao).compactDislikes(eq(1L), any());
+        verify(ratingArchiveDao).compactDislikes(eq(4L), any());
+        verify(ratingArchiveDao).compactDislikes(eq(7L), any());
+        verify(ratingArchiveDao, times(2)).findRatersWithDislikesBefore(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void testCompact_UsesCutoffOfMinimumAge() {
+        RatingArchiveService ratingArchiveService =
+                new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, true, 30, 10);
+        when(ratingArchiveDao.findRatersWithDislikesBefore(anyLong(), any(), anyInt())).thenReturn(List.of());
+        long before = System.currentTimeMillis();
+
+        ratingArchiveService.compact();
+
+        verify(ratingArchiveDao).findRatersWithDislikesBefore(eq(0L), argThat((Timestamp cutoff) ->
+                cutoff.getTime() <= before - 30L * 24 * 3600 * 1000 + 1000
+                        && cutoff.getTime() >= before - 30L * 24 * 3600 * 1000), eq(10));
+        verify(ratingArchiveDao, never()).compactDislikes(anyLong(), any());
+    }
+
+    @Test
+    void testCompact_SkipsFailedRater() {
+        RatingArchiveService ratingArchiveService =
+                new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, true, 30, 10);
+        when(ratingArchiveDao.findRatersWithDislikesBefore(anyLong(), any(), anyInt())).thenReturn(List.of(1L, 2L));
+        when(ratingArchiveDao.compactDislikes(eq(1L), any())).thenThrow(new CannotAcquireLockException("deadlock"));
+        when(ratingArchiveDao.compactDislikes(eq(2L), any())).thenReturn(5);
+
+        assertThat(ratingArchiveService.compact()).isEqualTo(5);
+    }
+
+    @Test
+    void testCompact_Disabled() {
+        RatingArchiveService ratingArchiveService =
+                new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, false, 30, 10);
+
+        assertThat(ratingArchiveService.compact()).isZero();
+
+        verifyNoInteractions(ratingArchiveDao);
+    }
+
+    @Test
+    void testRemoveUser_DeletesArchive() {
+        RatingArchiveService ratingArchiveService =
+                new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, true, 30, 10);
+
+        ratingArchiveService.removeUser(1L);
+
+        verify(ratingArchiveRepository).deleteById(1L);
+    }
+
+    @Test
+    void testRejectsNonPositiveBatchSize() {
+        assertThatThrownBy(() -> new RatingArchiveService(ratingArchiveDao, ratingArchiveRepository, true, 30, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,27 +1,36 @@
 package me.iru.datingapp.service;
 
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dto.BatchRatingDto;
 import me.iru.datingapp.dto.RatingDto;
-import me.iru.datingapp.entity.Match;
+import me.iru.datingapp.dto.RatingResultDto;
+import me.iru.datingapp.entity.OutboxEvent;
 import me.iru.datingapp.entity.Rating;
 import me.iru.datingapp.entity.User;
 import me.iru.datingapp.exception.ResourceNotFoundException;
-import me.iru.datingapp.repository.MatchRepository;
 import me.iru.datingapp.repository.RatingRepository;
 import me.iru.datingapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,10 +43,34 @@ class RatingServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private MatchRepository matchRepository;
+    private OutboxService outboxService;
 
     @Mock
-    private NotificationService notificationService;
+    private MatchService matchService;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
+
+    @Mock
+    private SuggestionQueueService suggestionQueueService;
+
+    @Mock
+    private SuggestionCountService suggestionCountService;
+
+    @Mock
+    private InboundLikeService inboundLikeService;
+
+    @Mock
+    private SuggestionCacheService suggestionCacheService;
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private SwipeBufferService swipeBufferService;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> eventsCaptor;
 
     @InjectMocks
     private RatingService ratingService;
@@ -71,7 +104,6 @@ class RatingServiceTest {
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
         when(ratingRepository.existsByRaterIdAndRatedUserId(1L, 2L)).thenReturn(false);
         when(ratingRepository.save(any(Rating.class))).thenReturn(new Rating());
-        when(ratingRepository.findByRaterIdAndRatedUserId(2L, 1L)).thenReturn(Optional.empty());
 
         ratingService.rateUser(1L, ratingDto);
 
@@ -82,6 +114,12 @@ class RatingServiceTest {
         assertThat(savedRating.getRater()).isEqualTo(user1);
         assertThat(savedRating.getRatedUser()).isEqualTo(user2);
         assertThat(savedRating.getRatingType()).isEqualTo(Rating.RatingType.LIKE);
+        verify(ratedUserCacheService).recordRating(1L, 2L);
+        verify(suggestionQueueService).consume(1L, 2L);
+        verify(suggestionCountService).ratingAdded(1L, user2);
+        verify(suggestionCacheService).invalidateRatings(1L);
+        verify(inboundLikeService).recordLike(1L, 2L);
+        verify(outboxService).publish(OutboxEvent.EventType.RATING_CREATED, 1L, 2L, null, "LIKE");
     }
 
     @Test
@@ -96,7 +134,8 @@ class RatingServiceTest {
 
         verify(ratingRepository).save(any(Rating.class));
         verify(ratingRepository, never()).findByRaterIdAndRatedUserId(anyLong(), anyLong());
-        verify(matchRepository, never()).save(any(Match.class));
+        verify(outboxService).publish(OutboxEvent.EventType.RATING_CREATED, 1L, 2L, null, "DISLIKE");
+        verify(inboundLikeService, never()).recordLike(anyLong(), anyLong());
     }
 
     @Test
@@ -131,82 +170,114 @@ class RatingServiceTest {
         ratingService.rateUser(1L, ratingDto);
 
         verify(ratingRepository, never()).save(any(Rating.class));
+        verify(outboxService, never()).publish(any(), any(), any(), any(), any());
     }
 
     @Test
-    void testMutualLike_CreatesMatch() {
-        Rating reciprocalRating = new Rating();
-        reciprocalRating.setRater(user2);
-        reciprocalRating.setRatedUser(user1);
-        reciprocalRating.setRatingType(Rating.RatingType.LIKE);
-
+    void testRateUser_BuffersSwipe() {
+        ratingDto.setRatingType(Rating.RatingType.DISLIKE);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(ratingRepository.existsByRaterIdAndRatedUserId(1L, 2L)).thenReturn(false);
-        when(ratingRepository.save(any(Rating.class))).thenReturn(new Rating());
-        when(ratingRepository.findByRaterIdAndRatedUserId(2L, 1L)).thenReturn(Optional.of(reciprocalRating));
-        when(matchRepository.existsMatchBetweenUsers(1L, 2L)).thenReturn(false);
-        when(matchRepository.save(any(Match.class))).thenReturn(new Match());
+        when(swipeBufferService.isEnabled()).thenReturn(true);
+        when(swipeBufferService.buffer(1L, 2L, Rating.RatingType.DISLIKE)).thenReturn(true);
 
         ratingService.rateUser(1L, ratingDto);
 
-        ArgumentCaptor<Match> matchCaptor = ArgumentCaptor.forClass(Match.class);
-        verify(matchRepository).save(matchCaptor.capture());
-        Match savedMatch = matchCaptor.getValue();
-
-        assertThat(savedMatch.getUser1()).isEqualTo(user1);
-        assertThat(savedMatch.getUser2()).isEqualTo(user2);
-        assertThat(savedMatch.getIsActive()).isTrue();
+        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(outboxService, never()).publish(any(), any(), any(), any(), any());
+        verify(ratedUserCacheService).recordRating(1L, 2L);
+        verify(suggestionQueueService).consume(1L, 2L);
+        verify(suggestionCountService).ratingAdded(1L, user2);
+        verify(suggestionCacheService).invalidateRatings(1L);
     }
 
     @Test
-    void testMutualLike_MatchAlreadyExists() {
-        Rating reciprocalRating = new Rating();
-        reciprocalRating.setRater(user2);
-        reciprocalRating.setRatedUser(user1);
-        reciprocalRating.setRatingType(Rating.RatingType.LIKE);
+    void testRateUser_AlreadyBuffered() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(swipeBufferService.pendingType(1L, 2L)).thenReturn(Rating.RatingType.LIKE);
+
+        ratingService.rateUser(1L, ratingDto);
 
+        verify(swipeBufferService, never()).buffer(anyLong(), anyLong(), any());
+        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(ratedUserCacheService, never()).recordRating(anyLong(), anyLong());
+    }
+
+    @Test
+    void testRateUser_AlreadyRatedInArchive() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(ratingRepository.existsByRaterIdAndRatedUserId(1L, 2L)).thenReturn(false);
-        when(ratingRepository.save(any(Rating.class))).thenReturn(new Rating());
-        when(ratingRepository.findByRaterIdAndRatedUserId(2L, 1L)).thenReturn(Optional.of(reciprocalRating));
-        when(matchRepository.existsMatchBetweenUsers(1L, 2L)).thenReturn(true);
+        when(ratedUserCacheService.hasRated(1L, 2L)).thenReturn(true);
 
         ratingService.rateUser(1L, ratingDto);
 
-        verify(matchRepository, never()).save(any(Match.class));
+        verify(ratingRepository, never()).existsByRaterIdAndRatedUserId(anyLong(), anyLong());
+        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(swipeBufferService, never()).buffer(anyLong(), anyLong(), any());
     }
 
     @Test
-    void testLike_NoReciprocalLike_NoMatch() {
+    void testRateUser_LikeCompletingMatchBypassesBuffer() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(ratingRepository.existsByRaterIdAndRatedUserId(1L, 2L)).thenReturn(false);
+        when(swipeBufferService.isEnabled()).thenReturn(true);
+        when(ratingRepository.findLikerIdsAmong(1L, List.of(2L))).thenReturn(List.of(2L));
         when(ratingRepository.save(any(Rating.class))).thenReturn(new Rating());
-        when(ratingRepository.findByRaterIdAndRatedUserId(2L, 1L)).thenReturn(Optional.empty());
 
         ratingService.rateUser(1L, ratingDto);
 
-        verify(matchRepository, never()).save(any(Match.class));
+        verify(swipeBufferService, never()).buffer(anyLong(), anyLong(), any());
+        verify(ratingRepository).save(any(Rating.class));
+        verify(outboxService).publish(OutboxEvent.EventType.RATING_CREATED, 1L, 2L, null, "LIKE");
+        verify(inboundLikeService).recordLike(1L, 2L);
     }
 
     @Test
-    void testLike_ReciprocalDislike_NoMatch() {
-        Rating reciprocalRating = new Rating();
-        reciprocalRating.setRater(user2);
-        reciprocalRating.setRatedUser(user1);
-        reciprocalRating.setRatingType(Rating.RatingType.DISLIKE);
-
+    void testRateUser_WritesBufferedLikeOfOtherUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(ratingRepository.existsByRaterIdAndRatedUserId(1L, 2L)).thenReturn(false);
+        when(swipeBufferService.isEnabled()).thenReturn(true);
+        when(swipeBufferService.takeLike(2L, 1L)).thenReturn(true);
         when(ratingRepository.save(any(Rating.class))).thenReturn(new Rating());
-        when(ratingRepository.findByRaterIdAndRatedUserId(2L, 1L)).thenReturn(Optional.of(reciprocalRating));
 
         ratingService.rateUser(1L, ratingDto);
 
-        verify(matchRepository, never()).save(any(Match.class));
+        verify(matchingDao).insertRatings(2L, Map.of(1L, Rating.RatingType.LIKE));
+        verify(outboxService).publish(OutboxEvent.EventType.RATING_CREATED, 2L, 1L, null, "LIKE");
+        verify(outboxService).publish(OutboxEvent.EventType.RATING_CREATED, 1L, 2L, null, "LIKE");
+        verify(ratingRepository, never()).findLikerIdsAmong(anyLong(), any());
+        verify(swipeBufferService, never()).buffer(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testUndoRating_DropsBufferedSwipe() {
+        when(swipeBufferService.remove(1L, 2L)).thenReturn(Rating.RatingType.LIKE);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+
+        ratingService.undoRating(1L, 2L);
+
+        verify(ratingRepository, never()).findByRaterIdAndRatedUserId(anyLong(), anyLong());
+        verify(ratingRepository, never()).delete(any(Rating.class));
+        verify(ratedUserCacheService).removeRating(1L, 2L);
+        verify(suggestionCountService).ratingRemoved(1L, user2);
+        verify(suggestionCacheService).invalidateRatings(1L);
+        verify(inboundLikeService).removeLike(1L, 2L);
+    }
+
+    @Test
+    void testUndoRating_DeletesWrittenRating() {
+        Rating rating = new Rating();
+        rating.setRater(user1);
+        rating.setRatedUser(user2);
+        rating.setRatingType(Rating.RatingType.DISLIKE);
+        when(ratingRepository.findByRaterIdAndRatedUserId(1L, 2L)).thenReturn(Optional.of(rating));
+
+        ratingService.undoRating(1L, 2L);
+
+        verify(ratingRepository).delete(rating);
+        verify(ratedUserCacheService).removeRating(1L, 2L);
+        verify(inboundLikeService, never()).removeLike(anyLong(), anyLong());
     }
 
     @Test
@@ -262,6 +333,7 @@ class RatingServiceTest {
         Rating rating = new Rating();
         rating.setRater(user1);
         rating.setRatedUser(user2);
+        rating.setRatingType(Rating.RatingType.LIKE);
 
         when(ratingRepository.findByRaterIdAndRatedUserId(1L, 2L))
                 .thenReturn(Optional.of(rating));
@@ -270,6 +342,133 @@ class RatingServiceTest {
         ratingService.deleteRating(1L, 2L);
 
         verify(ratingRepository).delete(rating);
+        verify(ratedUserCacheService).removeRating(1L, 2L);
+        verify(suggestionCountService).ratingRemoved(1L, user2);
+        verify(suggestionCacheService).invalidateRatings(1L);
+        verify(inboundLikeService).removeLike(1L, 2L);
+    }
+
+    @Test
+    void testRateUsers_InsertsBatchAndPublishesEvents() {
+        User user3 = new User();
+        user3.setId(3L);
+        user3.setGender(User.Gender.FEMALE);
+        List<RatingDto> ratings = List.of(ratingDto, new RatingDto(3L, Rating.RatingType.DISLIKE));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user2, user3));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of());
+
+        List<RatingResultDto> results = ratingService.rateUsers(1L, ratings);
+
+        assertThat(results).extracting(RatingResultDto::getOutcome)
+                .containsExactly(RatingResultDto.Outcome.RATED, RatingResultDto.Outcome.RATED);
+        verify(matchingDao).insertRatings(1L, Map.of(2L, Rating.RatingType.LIKE, 3L, Rating.RatingType.DISLIKE));
+        verify(ratingRepository, never()).save(any(Rating.class));
+
+        verify(outboxService).publishAll(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue()).extracting(OutboxEvent::getSubjectId, OutboxEvent::getDetail)
+                .containsExactly(tuple(2L, "LIKE"), tuple(3L, "DISLIKE"));
+        verify(inboundLikeService).recordLike(1L, 2L);
+        verify(inboundLikeService, never()).recordLike(1L, 3L);
+        verify(ratedUserCacheService).recordRating(1L, 3L);
+        verify(suggestionCountService).ratingAdded(1L, user2);
+        verify(suggestionCacheService, times(1)).invalidateRatings(1L);
+        verify(matchService).createMutualMatches(1L, List.of(2L));
+    }
+
+    @Test
+    void testRateUsers_ReportsMatches() {
+        User user3 = new User();
+        user3.setId(3L);
+        List<RatingDto> ratings = List.of(ratingDto, new RatingDto(3L, Rating.RatingType.LIKE));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user2, user3));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of());
+        when(matchService.createMutualMatches(1L, List.of(2L, 3L))).thenReturn(Map.of(3L, 10L));
+
+        List<RatingResultDto> results = ratingService.rateUsers(1L, ratings);
+
+        assertThat(results).extracting(RatingResultDto::getOutcome, RatingResultDto::getMatchId).containsExactly(
+                tuple(RatingResultDto.Outcome.RATED, null),
+                tuple(RatingResultDto.Outcome.MATCHED, 10L));
+    }
+
+    @Test
+    void testRateUsers_WritesBufferedLikeOfOtherUserBeforeMatching() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user2));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of());
+        when(swipeBufferService.takeLike(2L, 1L)).thenReturn(true);
+        when(matchService.createMutualMatches(1L, List.of(2L))).thenReturn(Map.of(2L, 10L));
+
+        List<RatingResultDto> results = ratingService.rateUsers(1L, List.of(ratingDto));
+
+        assertThat(results).extracting(RatingResultDto::getOutcome).containsExactly(RatingResultDto.Outcome.MATCHED);
+        InOrder inOrder = inOrder(matchingDao, matchService);
+        inOrder.verify(matchingDao).insertRatings(2L, Map.of(1L, Rating.RatingType.LIKE));
+        inOrder.verify(matchService).createMutualMatches(1L, List.of(2L));
+    }
+
+    @Test
+    void testRateUsers_ReportsSkippedRatings() {
+        List<RatingDto> ratings = List.of(
+                new RatingDto(1L, Rating.RatingType.LIKE),
+                new RatingDto(2L, Rating.RatingType.DISLIKE),
+                new RatingDto(4L, Rating.RatingType.LIKE),
+                new RatingDto(99L, Rating.RatingType.LIKE),
+                new RatingDto(4L, Rating.RatingType.DISLIKE));
+        User user4 = new User();
+        user4.setId(4L);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user1, user2, user4));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of(2L));
+
+        List<RatingResultDto> results = ratingService.rateUsers(1L, ratings);
+
+        assertThat(results).extracting(RatingResultDto::getOutcome).containsExactly(
+                RatingResultDto.Outcome.SELF_RATING,
+                RatingResultDto.Outcome.ALREADY_RATED,
+                RatingResultDto.Outcome.RATED,
+                RatingResultDto.Outcome.USER_NOT_FOUND,
+                RatingResultDto.Outcome.DUPLICATE);
+        verify(matchingDao).insertRatings(1L, Map.of(4L, Rating.RatingType.LIKE));
     }
-}
 
+    @Test
+    void testRateUsers_NothingToInsert() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user2));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of(2L));
+
+        List<RatingResultDto> results = ratingService.rateUsers(1L, List.of(ratingDto));
+
+        assertThat(results).extracting(RatingResultDto::getOutcome).containsExactly(RatingResultDto.Outcome.ALREADY_RATED);
+        verify(matchingDao, never()).insertRatings(anyLong(), any());
+        verify(outboxService, never()).publishAll(any());
+        verify(suggestionCacheService, never()).invalidateRatings(anyLong());
+    }
+
+    @Test
+    void testRateUsers_RaterNotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> ratingService.rateUsers(1L, List.of(ratingDto)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("User not found");
+
+        verify(matchingDao, never()).insertRatings(anyLong(), any());
+    }
+
+    @Test
+    void testRateUsers_BatchTooLarge() {
+        List<RatingDto> ratings = new ArrayList<>();
+        for (long id = 2; id < BatchRatingDto.MAX_RATINGS + 3; id++) {
+            ratings.add(new RatingDto(id, Rating.RatingType.LIKE));
+        }
+
+        assertThatThrownBy(() -> ratingService.rateUsers(1L, ratings))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(userRepository, never()).existsById(any());
+    }
+}
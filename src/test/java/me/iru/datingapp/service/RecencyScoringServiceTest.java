@@ -0,0 +1,83 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecencyScoringServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    private RecencyScoringService recencyScoringService;
+
+    @BeforeEach
+    void setUp() {
+        recencyScoringService = new RecencyScoringService(matchingDao, 0.2, 10);
+    }
+
+    @Test
+    void testPrepare_HalvesScoreEveryHalfLife() {
+        long now = System.currentTimeMillis();
+        doAnswer(invocation -> {
+            MatchingDao.UserTimestampHandler handler = invocation.getArgument(0);
+            handler.handle(2L, now);
+            handler.handle(3L, now - Duration.ofDays(10).toMillis());
+            return null;
+        }).when(matchingDao).streamUserCreationTimes(any());
+        recencyScoringService.rebuild();
+        long[] candidates = {2L, 3L, 4L};
+
+        double[] scores = new double[3];
+        recencyScoringService.prepare(1L, candidates).score(candidates, 0, 3, scores);
+
+        assertThat(scores[0]).isCloseTo(1.0, within(0.001));
+        assertThat(scores[1]).isCloseTo(0.5, within(0.001));
+        assertThat(scores[2]).isZero();
+    }
+
+    @Test
+    void testIndexUserAndRemove() {
+        recencyScoringService.rebuild();
+        User user = new User();
+        user.setId(5L);
+        user.setCreatedAt(LocalDateTime.now());
+        long[] candidates = {5L};
+
+        recencyScoringService.indexUser(user);
+        double[] scores = new double[1];
+        recencyScoringService.prepare(1L, candidates).score(candidates, 0, 1, scores);
+        assertThat(scores[0]).isGreaterThan(0.99);
+
+        recencyScoringService.removeUser(5L);
+        recencyScoringService.prepare(1L, candidates).score(candidates, 0, 1, scores);
+        assertThat(scores[0]).isZero();
+    }
+
+    @Test
+    void testPrepare_NotReady() {
+        assertThat(recencyScoringService.prepare(1L, new long[]{2L})).isNull();
+    }
+
+    @Test
+    void testZeroWeightSkipsLoading() {
+        recencyScoringService = new RecencyScoringService(matchingDao, 0, 10);
+
+        recencyScoringService.rebuild();
+
+        verifyNoInteractions(matchingDao);
+    }
+}
@@ -0,0 +1,68 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReciprocityScoringServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private InboundLikeService inboundLikeService;
+
+    private ReciprocityScoringService reciprocityScoringService;
+
+    @BeforeEach
+    void setUp() {
+        reciprocityScoringService = new ReciprocityScoringService(matchingDao, inboundLikeService, 0.5);
+    }
+
+    @Test
+    void testPrepare_ScoresLikersWithOne() {
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(4L);
+            consumer.accept(2L);
+            return null;
+        }).when(matchingDao).streamLikersOf(eq(1L), any());
+        long[] candidates = {2L, 3L, 4L};
+
+        double[] scores = new double[3];
+        reciprocityScoringService.prepare(1L, candidates).score(candidates, 0, 3, scores);
+
+        assertThat(scores).containsExactly(1.0, 0.0, 1.0);
+    }
+
+    @Test
+    void testPrepare_UsesInboundLikeIndexWhenReady() {
+        when(inboundLikeService.isReady()).thenReturn(true);
+        when(inboundLikeService.likersOf(1L)).thenReturn(new long[]{3L});
+        long[] candidates = {2L, 3L};
+
+        double[] scores = new double[2];
+        reciprocityScoringService.prepare(1L, candidates).score(candidates, 0, 2, scores);
+
+        assertThat(scores).containsExactly(0.0, 1.0);
+        verify(matchingDao, never()).streamLikersOf(anyLong(), any());
+    }
+
+    @Test
+    void testPrepare_NoLikers() {
+        assertThat(reciprocityScoringService.prepare(1L, new long[]{2L})).isNull();
+        verify(matchingDao).streamLikersOf(eq(1L), any());
+    }
+}
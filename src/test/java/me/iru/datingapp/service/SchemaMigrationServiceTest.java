@@ -0,0 +1,61 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.SchemaMigrationDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaMigrationServiceTest {
+
+    @Mock
+    private SchemaMigrationDao schemaMigrationDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SchemaMigrationService schemaMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        schemaMigrationService = new SchemaMigrationService(schemaMigrationDao, transactionManager);
+    }
+
+    @Test
+    void testMigrate_AppliesPendingMigrations() {
+        when(schemaMigrationDao.recordMigration(anyString())).thenReturn(true);
+
+        schemaMigrationService.migrate();
+
+        InOrder inOrder = inOrder(schemaMigrationDao);
+        inOrder.verify(schemaMigrationDao).createHistoryTable();
+        inOrder.verify(schemaMigrationDao).recordMigration("018-canonical-match-pairs");
+        inOrder.verify(schemaMigrationDao).canonicalizeMatchPairs();
+        inOrder.verify(schemaMigrationDao).recordMigration("024-read-watermarks");
+        inOrder.verify(schemaMigrationDao).backfillReadWatermarks();
+        inOrder.verify(schemaMigrationDao).recordMigration("025-conversation-summaries");
+        inOrder.verify(schemaMigrationDao).backfillConversationSummaries();
+    }
+
+    @Test
+    void testMigrate_SkipsAppliedMigrations() {
+        when(schemaMigrationDao.recordMigration(anyString())).thenReturn(false);
+
+        schemaMigrationService.migrate();
+
+        verify(schemaMigrationDao).createHistoryTable();
+        verify(schemaMigrationDao, never()).canonicalizeMatchPairs();
+        verify(schemaMigrationDao, never()).backfillReadWatermarks();
+        verify(schemaMigrationDao, never()).backfillConversationSummaries();
+    }
+}
@@ -31,6 +31,15 @@ class SearchPreferenceServiceTest {
     @Mock
     private SearchPreferenceMapper searchPreferenceMapper;
 
+    @Mock
+    private SuggestionQueueService suggestionQueueService;
+
+    @Mock
+    private PreferenceIndexService preferenceIndexService;
+
+    @Mock
+    private SuggestionCacheService suggestionCacheService;
+
     @InjectMocks
     private SearchPreferenceService searchPreferenceService;
 
@@ -163,6 +172,8 @@ class SearchPreferenceServiceTest {
         verify(searchPreferenceRepository).findByUserId(1L);
         verify(searchPreferenceMapper).updateEntityFromDto(updateDto, testPreference);
         verify(searchPreferenceRepository).save(any(SearchPreference.class));
+        verify(suggestionQueueService).invalidate(1L);
+        verify(suggestionCacheService).invalidatePreferences(1L);
         verify(searchPreferenceMapper).toDto(updatedPreference);
     }
 
@@ -353,6 +364,8 @@ class SearchPreferenceServiceTest {
 
         verify(userRepository).existsById(1L);
         verify(searchPreferenceRepository).deleteByUserId(1L);
+        verify(suggestionQueueService).invalidate(1L);
+        verify(suggestionCacheService).invalidatePreferences(1L);
     }
 
     @Test
@@ -414,6 +427,8 @@ class SearchPreferenceServiceTest {
         verify(userRepository).findById(1L);
         verify(searchPreferenceRepository).deleteByUserId(1L);
         verify(searchPreferenceRepository).save(any(SearchPreference.class));
+        verify(suggestionQueueService).invalidate(1L);
+        verify(suggestionCacheService).invalidatePreferences(1L);
         verify(searchPreferenceMapper).toDto(defaultPreference);
     }
 
@@ -0,0 +1,51 @@
+package me.iru.datingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionCacheServiceTest {
+
+    @Test
+    void testGetRanked_RanksOnceUntilInvalidated() {
+        SuggestionCacheService service = new SuggestionCacheService(true, 10, 100, 300);
+        AtomicInteger rankings = new AtomicInteger();
+
+        long[] first = service.getRanked(1L, () -> {
+            rankings.incrementAndGet();
+            return new long[]{3L, 2L};
+        });
+        long[] second = service.getRanked(1L, () -> {
+            rankings.incrementAndGet();
+            return new long[]{9L};
+        });
+
+        assertThat(first).containsExactly(3L, 2L);
+        assertThat(second).containsExactly(3L, 2L);
+        assertThat(rankings).hasValue(1);
+        assertThat(service.getStatistics()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+
+        service.invalidateRatings(1L);
+        assertThat(service.getRanked(1L, () -> new long[]{2L})).containsExactly(2L);
+
+        service.invalidatePreferences(1L);
+        assertThat(service.getRanked(1L, () -> new long[]{4L})).containsExactly(4L);
+
+        service.removeUser(1L);
+        assertThat(service.getStatistics()).containsEntry("entries", 0L);
+    }
+
+    @Test
+    void testGetRanked_DisabledAlwaysRanks() {
+        SuggestionCacheService service = new SuggestionCacheService(false, 10, 100, 300);
+        AtomicInteger rankings = new AtomicInteger();
+
+        service.getRanked(1L, () -> new long[]{rankings.incrementAndGet()});
+        service.getRanked(1L, () -> new long[]{rankings.incrementAndGet()});
+
+        assertThat(rankings).hasValue(2);
+        assertThat(service.getStatistics()).containsEntry("misses", 0L);
+    }
+}
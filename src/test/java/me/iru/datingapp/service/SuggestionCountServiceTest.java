@@ -0,0 +1,239 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.dao.RatingArchiveDao;
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionCountServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private RatingArchiveDao ratingArchiveDao;
+
+    @Mock
+    private SwipeBufferService swipeBufferService;
+
+    private SuggestionCountService suggestionCountService;
+
+    private User viewer;
+    private User candidate;
+    private SearchPreference preferences;
+
+    @BeforeEach
+    void setUp() {
+        suggestionCountService = new SuggestionCountService(matchingDao, ratingArchiveDao, swipeBufferService, true, 300, 2);
+
+        viewer = user(1L, User.Gender.FEMALE, 25);
+        candidate = user(2L, User.Gender.FEMALE, 27);
+
+        preferences = new SearchPreference();
+        preferences.setPreferredGender(User.Gender.FEMALE);
+        preferences.setMinAge(20);
+        preferences.setMaxAge(30);
+    }
+
+    private void rebuildWithSampleSegments() {
+        doAnswer(invocation -> {
+            MatchingDao.SegmentCountHandler handler = invocation.getArgument(0);
+            handler.handle(User.Gender.FEMALE, 25, 4);
+            handler.handle(User.Gender.FEMALE, 27, 3);
+            handler.handle(User.Gender.FEMALE, 45, 10);
+            handler.handle(User.Gender.MALE, 25, 8);
+            return null;
+        }).when(matchingDao).countUsersBySegment(any());
+        suggestionCountService.rebuild();
+    }
+
+    private void stubRatedSegments() {
+        doAnswer(invocation -> {
+            MatchingDao.SegmentCountHandler handler = invocation.getArgument(1);
+            handler.handle(User.Gender.FEMALE, 27, 2);
+            handler.handle(User.Gender.MALE, 25, 5);
+            return null;
+        }).when(matchingDao).countRatedUsersBySegment(eq(1L), any());
+    }
+
+    private static User user(Long id, User.Gender gender, int age) {
+        User user = new User();
+        user.setId(id);
+        user.setGender(gender);
+        user.setAge(age);
+        return user;
+    }
+
+    @Test
+    void testEstimate_SubtractsRatedAndSelf() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+
+        long estimate = suggestionCountService.estimate(viewer, preferences);
+
+        assertThat(suggestionCountService.isReady()).isTrue();
+        assertThat(estimate).isEqualTo(4 + 3 - 2 - 1);
+    }
+
+    @Test
+    void testEstimate_CachesRatedCounters() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+
+        suggestionCountService.estimate(viewer, preferences);
+        suggestionCountService.estimate(viewer, preferences);
+
+        verify(matchingDao, times(1)).countRatedUsersBySegment(eq(1L), any());
+        assertThat(suggestionCountService.getCachedRaterCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testEstimate_SubtractsArchivedRatings() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(7L);
+            return null;
+        }).when(ratingArchiveDao).streamArchivedUserIds(eq(1L), any());
+        doAnswer(invocation -> {
+            MatchingDao.SegmentCountHandler handler = invocation.getArgument(1);
+            handler.handle(User.Gender.FEMALE, 25, 1);
+            return null;
+        }).when(matchingDao).countUsersBySegmentAmong(eq(new long[]{7L}), any());
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(3);
+    }
+
+    @Test
+    void testEstimate_SubtractsPendingSwipesOnce() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+        doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(1);
+            consumer.accept(7L);
+            consumer.accept(7L);
+            return null;
+        }).when(swipeBufferService).forEachPending(eq(1L), any());
+        doAnswer(invocation -> {
+            MatchingDao.SegmentCountHandler handler = invocation.getArgument(1);
+            handler.handle(User.Gender.FEMALE, 25, 1);
+            return null;
+        }).when(matchingDao).countUsersBySegmentAmong(eq(new long[]{7L}), any());
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(3);
+    }
+
+    @Test
+    void testEstimate_AdjustedOnRegistrationAndRating() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+        suggestionCountService.estimate(viewer, preferences);
+
+        suggestionCountService.userAdded(user(3L, User.Gender.FEMALE, 22));
+        suggestionCountService.ratingAdded(1L, candidate);
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(4);
+
+        suggestionCountService.ratingRemoved(1L, candidate);
+        suggestionCountService.userRemoved(user(3L, User.Gender.FEMALE, 22));
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(4);
+    }
+
+    @Test
+    void testEstimate_AdjustedOnProfileEdit() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+        suggestionCountService.estimate(viewer, preferences);
+
+        suggestionCountService.userMoved(User.Gender.FEMALE, 22, user(3L, User.Gender.MALE, 22));
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(3);
+
+        suggestionCountService.userMoved(User.Gender.MALE, 22, user(3L, User.Gender.FEMALE, 22));
+        suggestionCountService.userMoved(User.Gender.FEMALE, 22, user(3L, User.Gender.FEMALE, 22));
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isEqualTo(4);
+    }
+
+    @Test
+    void testEstimate_NeverNegative() {
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+        preferences.setPreferredGender(User.Gender.MALE);
+        for (long id = 10; id < 18; id++) {
+            suggestionCountService.userRemoved(user(id, User.Gender.MALE, 25));
+        }
+
+        assertThat(suggestionCountService.estimate(viewer, preferences)).isZero();
+    }
+
+    @Test
+    void testEstimate_ReloadsStaleCounters() {
+        suggestionCountService = new SuggestionCountService(matchingDao, ratingArchiveDao, swipeBufferService, true, -1, 2);
+        rebuildWithSampleSegments();
+        stubRatedSegments();
+
+        suggestionCountService.estimate(viewer, preferences);
+        suggestionCountService.estimate(viewer, preferences);
+
+        verify(matchingDao, times(3)).countUsersBySegment(any());
+        verify(matchingDao, times(2)).countRatedUsersBySegment(eq(1L), any());
+    }
+
+    @Test
+    void testRatedCountersEvictLeastRecentlyUsed() {
+        rebuildWithSampleSegments();
+
+        suggestionCountService.estimate(viewer, preferences);
+        suggestionCountService.estimate(user(2L, User.Gender.MALE, 30), preferences);
+        suggestionCountService.estimate(user(3L, User.Gender.MALE, 30), preferences);
+
+        assertThat(suggestionCountService.getCachedRaterCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUserRemovedDropsOwnRatedCounters() {
+        rebuildWithSampleSegments();
+        suggestionCountService.estimate(viewer, preferences);
+
+        suggestionCountService.userRemoved(viewer);
+
+        assertThat(suggestionCountService.getCachedRaterCount()).isZero();
+    }
+
+    @Test
+    void testEstimate_NotLoaded() {
+        assertThat(suggestionCountService.isReady()).isFalse();
+        assertThatThrownBy(() -> suggestionCountService.estimate(viewer, preferences))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testDisabledSkipsLoading() {
+        suggestionCountService = new SuggestionCountService(matchingDao, ratingArchiveDao, swipeBufferService, false, 300, 2);
+
+        suggestionCountService.rebuild();
+        suggestionCountService.ratingAdded(1L, candidate);
+
+        assertThat(suggestionCountService.isReady()).isFalse();
+        verify(matchingDao, never()).countUsersBySegment(any());
+        verify(matchingDao, never()).countRatedUsersBySegment(anyLong(), any());
+    }
+}
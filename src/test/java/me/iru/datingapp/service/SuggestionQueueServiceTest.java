@@ -0,0 +1,168 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.matching.SuggestionQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionQueueServiceTest {
+
+    @Mock
+    private SuggestionRankingService suggestionRankingService;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
+
+    private final List<Runnable> pendingRefills = new ArrayList<>();
+
+    private SuggestionQueueService suggestionQueueService;
+
+    @BeforeEach
+    void setUp() {
+        suggestionQueueService = new SuggestionQueueService(suggestionRankingService, ratedUserCacheService,
+                new SuggestionCacheService(false, 10, 1000, 300), true, 4, 2, 2, pendingRefills::add);
+    }
+
+    private void runRefills() {
+        List<Runnable> refills = new ArrayList<>(pendingRefills);
+        pendingRefills.clear();
+        refills.forEach(Runnable::run);
+    }
+
+    @Test
+    void testPeek_MissSchedulesRefillThenServesFromQueue() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L)).thenReturn(new long[]{5L, 6L, 7L, 8L, 9L});
+
+        assertThat(suggestionQueueService.peek(1L, 2)).isNull();
+        runRefills();
+
+        SuggestionQueue.Snapshot snapshot = suggestionQueueService.peek(1L, 2);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.userIds()).containsExactly(5L, 6L);
+        assertThat(snapshot.total()).isEqualTo(5);
+        assertThat(pendingRefills).isEmpty();
+    }
+
+    @Test
+    void testRefill_TakesHeadOfCachedRanking() {
+        SuggestionCacheService suggestionCacheService = new SuggestionCacheService(true, 10, 1000, 300);
+        suggestionQueueService = new SuggestionQueueService(suggestionRankingService, ratedUserCacheService,
+                suggestionCacheService, true, 4, 2, 2, pendingRefills::add);
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        long[] ranked = suggestionCacheService.getRanked(1L, () -> new long[]{7L, 5L, 6L, 9L, 8L});
+
+        suggestionQueueService.peek(1L, 2);
+        runRefills();
+
+        assertThat(suggestionQueueService.peek(1L, 4).userIds()).containsExactly(7L, 5L, 6L, 9L);
+        assertThat(suggestionCacheService.getRanked(1L, () -> new long[0])).isSameAs(ranked);
+        verify(suggestionRankingService, never()).rankCandidates(anyLong());
+    }
+
+    @Test
+    void testPeek_BeyondQueuedEntriesMisses() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L)).thenReturn(new long[]{5L, 6L, 7L, 8L, 9L});
+        suggestionQueueService.peek(1L, 1);
+        runRefills();
+
+        assertThat(suggestionQueueService.peek(1L, 10)).isNull();
+    }
+
+    @Test
+    void testPeek_CompleteQueueServesShortReads() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L)).thenReturn(new long[]{5L});
+        suggestionQueueService.peek(1L, 1);
+        runRefills();
+
+        SuggestionQueue.Snapshot snapshot = suggestionQueueService.peek(1L, 10);
+
+        assertThat(snapshot.userIds()).containsExactly(5L);
+        assertThat(pendingRefills).isEmpty();
+    }
+
+    @Test
+    void testPeek_DisabledWhenRankingUnavailable() {
+        when(suggestionRankingService.isAvailable()).thenReturn(false);
+
+        assertThat(suggestionQueueService.peek(1L, 1)).isNull();
+        assertThat(pendingRefills).isEmpty();
+    }
+
+    @Test
+    void testConsume_BelowWatermarkSchedulesRefill() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L))
+                .thenReturn(new long[]{5L, 6L, 7L, 8L, 9L})
+                .thenReturn(new long[]{8L, 9L});
+        suggestionQueueService.peek(1L, 1);
+        runRefills();
+
+        suggestionQueueService.consume(1L, 5L);
+        assertThat(pendingRefills).isEmpty();
+        suggestionQueueService.consume(1L, 6L);
+        suggestionQueueService.consume(1L, 7L);
+        assertThat(pendingRefills).hasSize(1);
+        runRefills();
+
+        assertThat(suggestionQueueService.peek(1L, 4).userIds()).containsExactly(8L, 9L);
+    }
+
+    @Test
+    void testConsume_UnknownUserIsIgnored() {
+        suggestionQueueService.consume(1L, 5L);
+
+        assertThat(pendingRefills).isEmpty();
+        verify(suggestionRankingService, never()).rankCandidates(anyLong());
+    }
+
+    @Test
+    void testRefill_SkipsCandidatesRatedWhileRanking() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L)).thenReturn(new long[]{5L, 6L});
+        when(ratedUserCacheService.hasRated(1L, 5L)).thenReturn(true);
+        suggestionQueueService.peek(1L, 1);
+        runRefills();
+
+        assertThat(suggestionQueueService.peek(1L, 4).userIds()).containsExactly(6L);
+    }
+
+    @Test
+    void testRefill_FailureReleasesClaim() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+        when(suggestionRankingService.rankCandidates(1L)).thenThrow(new ResourceNotFoundException("User not found"));
+
+        suggestionQueueService.peek(1L, 1);
+        runRefills();
+        suggestionQueueService.peek(1L, 1);
+
+        assertThat(pendingRefills).hasSize(1);
+    }
+
+    @Test
+    void testInvalidateAndMaxUsers() {
+        when(suggestionRankingService.isAvailable()).thenReturn(true);
+
+        suggestionQueueService.peek(1L, 1);
+        suggestionQueueService.peek(2L, 1);
+        suggestionQueueService.peek(3L, 1);
+        assertThat(suggestionQueueService.getQueuedUserCount()).isEqualTo(2);
+
+        suggestionQueueService.invalidate(3L);
+        assertThat(suggestionQueueService.getQueuedUserCount()).isEqualTo(1);
+    }
+}
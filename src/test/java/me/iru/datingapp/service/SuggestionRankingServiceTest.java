@@ -0,0 +1,303 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.entity.SearchPreference;
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.exception.ResourceNotFoundException;
+import me.iru.datingapp.repository.SearchPreferenceRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionRankingServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SearchPreferenceRepository searchPreferenceRepository;
+
+    @Mock
+    private CandidateIndexService candidateIndexService;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
+
+    @Mock
+    private InterestVectorService interestVectorService;
+
+    @Mock
+    private GeoIndexService geoIndexService;
+
+    @Mock
+    private PreferenceIndexService preferenceIndexService;
+
+    @Mock
+    private SuggestionScoringService suggestionScoringService;
+
+    @Mock
+    private InboundLikeService inboundLikeService;
+
+    @Mock
+    private SuggestionShuffleService suggestionShuffleService;
+
+    @Mock
+    private CoLikeService coLikeService;
+
+    @Mock
+    private ImpressionService impressionService;
+
+    @InjectMocks
+    private SuggestionRankingService suggestionRankingService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setGender(User.Gender.MALE);
+        user.setAge(30);
+    }
+
+    private void passThroughShuffle() {
+        when(suggestionShuffleService.shuffle(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    private void passThroughCoLike() {
+        when(coLikeService.promoteSimilar(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    private void passThroughMutualFilter() {
+        when(preferenceIndexService.filterMutual(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    private void passThroughPriorityLane() {
+        when(inboundLikeService.prioritizeLikers(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    private void passThroughImpressions() {
+        when(impressionService.demoteShown(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void testRankCandidates_ExcludesViewerAndRated() {
+        SearchPreference preferences = new SearchPreference();
+        preferences.setPreferredGender(User.Gender.FEMALE);
+        preferences.setMinAge(20);
+        preferences.setMaxAge(30);
+        preferences.setMaxDistance(25);
+
+        when(candidateIndexService.findCandidates(User.Gender.FEMALE, 20, 30)).thenReturn(new long[]{1L, 2L, 3L, 4L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L, 4L}, 25)).thenReturn(new long[]{2L, 3L, 4L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{2L, 4L});
+        when(interestVectorService.rankByInterests(1L, new long[]{2L, 4L})).thenReturn(new long[]{4L, 2L});
+
+        passThroughShuffle();
+        passThroughCoLike();
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void testRankCandidates_ExcludesCandidatesNotAcceptingViewer() {
+        SearchPreference preferences = new SearchPreference();
+
+        when(candidateIndexService.findCandidates(null, null, null)).thenReturn(new long[]{2L, 3L, 4L});
+        when(preferenceIndexService.filterMutual(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{2L, 4L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 4L}, null)).thenReturn(new long[]{2L, 4L});
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 4L})).thenReturn(new long[]{2L, 4L});
+        when(interestVectorService.rankByInterests(1L, new long[]{2L, 4L})).thenReturn(new long[]{2L, 4L});
+
+        passThroughShuffle();
+        passThroughCoLike();
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void testRankCandidates_UsesScoringPipeline() {
+        SearchPreference preferences = new SearchPreference();
+        preferences.setPreferredGender(User.Gender.FEMALE);
+
+        when(candidateIndexService.findCandidates(User.Gender.FEMALE, null, null)).thenReturn(new long[]{2L, 3L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, null)).thenReturn(new long[]{2L, 3L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L})).thenReturn(new long[]{2L, 3L});
+        when(suggestionScoringService.isEnabled()).thenReturn(true);
+        when(suggestionScoringService.rank(1L, new long[]{2L, 3L})).thenReturn(new long[]{3L, 2L});
+
+        passThroughShuffle();
+        passThroughCoLike();
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(3L, 2L);
+        verify(interestVectorService, never()).rankByInterests(anyLong(), any());
+    }
+
+    @Test
+    void testRankCandidates_InterleavesInboundLikes() {
+        SearchPreference preferences = new SearchPreference();
+
+        when(candidateIndexService.findCandidates(null, null, null)).thenReturn(new long[]{2L, 3L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, null)).thenReturn(new long[]{2L, 3L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L})).thenReturn(new long[]{2L, 3L});
+        when(interestVectorService.rankByInterests(1L, new long[]{2L, 3L})).thenReturn(new long[]{2L, 3L});
+        when(inboundLikeService.prioritizeLikers(1L, new long[]{2L, 3L})).thenReturn(new long[]{3L, 2L});
+        passThroughShuffle();
+        passThroughImpressions();
+        passThroughCoLike();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void testRankCandidates_ShufflesBeforeRanking() {
+        SearchPreference preferences = new SearchPreference();
+
+        when(candidateIndexService.findCandidates(null, null, null)).thenReturn(new long[]{2L, 3L, 4L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L, 4L}, null)).thenReturn(new long[]{2L, 3L, 4L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{2L, 3L, 4L});
+        when(suggestionShuffleService.shuffle(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{4L, 2L, 3L});
+        passThroughCoLike();
+        when(interestVectorService.rankByInterests(1L, new long[]{4L, 2L, 3L})).thenReturn(new long[]{4L, 2L, 3L});
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(4L, 2L, 3L);
+    }
+
+    @Test
+    void testRankCandidates_PromotesCoLikedCandidates() {
+        SearchPreference preferences = new SearchPreference();
+
+        when(candidateIndexService.findCandidates(null, null, null)).thenReturn(new long[]{2L, 3L, 4L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L, 4L}, null)).thenReturn(new long[]{2L, 3L, 4L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{2L, 3L, 4L});
+        passThroughShuffle();
+        when(coLikeService.promoteSimilar(1L, new long[]{2L, 3L, 4L})).thenReturn(new long[]{4L, 2L, 3L});
+        when(interestVectorService.rankByInterests(1L, new long[]{4L, 2L, 3L})).thenReturn(new long[]{4L, 2L, 3L});
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(4L, 2L, 3L);
+    }
+
+    @Test
+    void testRankCandidates_DemotesShownCandidates() {
+        SearchPreference preferences = new SearchPreference();
+
+        when(candidateIndexService.findCandidates(null, null, null)).thenReturn(new long[]{2L, 3L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, null)).thenReturn(new long[]{2L, 3L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{2L, 3L})).thenReturn(new long[]{2L, 3L});
+        passThroughShuffle();
+        passThroughCoLike();
+        when(interestVectorService.rankByInterests(1L, new long[]{2L, 3L})).thenReturn(new long[]{2L, 3L});
+        passThroughPriorityLane();
+        when(impressionService.demoteShown(1L, new long[]{2L, 3L})).thenReturn(new long[]{3L, 2L});
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L, preferences);
+
+        assertThat(ranked).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void testRankCandidates_LoadsDefaultPreferences() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(searchPreferenceRepository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(candidateIndexService.findCandidates(null, 25, 35)).thenReturn(new long[]{5L});
+        when(geoIndexService.filterByDistance(1L, new long[]{5L}, 50)).thenReturn(new long[]{5L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{5L})).thenReturn(new long[]{5L});
+        when(interestVectorService.rankByInterests(1L, new long[]{5L})).thenReturn(new long[]{5L});
+
+        passThroughShuffle();
+        passThroughCoLike();
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        long[] ranked = suggestionRankingService.rankCandidates(1L);
+
+        assertThat(ranked).containsExactly(5L);
+    }
+
+    @Test
+    void testRankCandidates_UserNotFound() {
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> suggestionRankingService.rankCandidates(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(candidateIndexService, never()).findCandidates(any(), any(), any());
+    }
+
+    @Test
+    void testRankCandidates_PrunesByDistance() {
+        SearchPreference preferences = new SearchPreference();
+        preferences.setMinAge(18);
+        preferences.setMaxAge(40);
+        preferences.setMaxDistance(10);
+
+        when(candidateIndexService.findCandidates(null, 18, 40)).thenReturn(new long[]{2L, 3L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, 10)).thenReturn(new long[]{3L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.filterUnrated(1L, new long[]{3L})).thenReturn(new long[]{3L});
+        when(interestVectorService.rankByInterests(1L, new long[]{3L})).thenReturn(new long[]{3L});
+
+        passThroughShuffle();
+        passThroughCoLike();
+        passThroughPriorityLane();
+        passThroughImpressions();
+
+        assertThat(suggestionRankingService.rankCandidates(1L, preferences)).containsExactly(3L);
+    }
+
+    @Test
+    void testCountCandidates() {
+        SearchPreference preferences = new SearchPreference();
+        preferences.setMinAge(18);
+        preferences.setMaxAge(40);
+
+        when(candidateIndexService.findCandidates(null, 18, 40)).thenReturn(new long[]{1L, 2L, 3L});
+        when(geoIndexService.filterByDistance(1L, new long[]{2L, 3L}, null)).thenReturn(new long[]{2L, 3L});
+        passThroughMutualFilter();
+        when(ratedUserCacheService.countUnrated(1L, new long[]{2L, 3L})).thenReturn(1L);
+
+        assertThat(suggestionRankingService.countCandidates(1L, preferences)).isEqualTo(1L);
+        verify(interestVectorService, never()).rankByInterests(anyLong(), any());
+    }
+}
@@ -0,0 +1,120 @@
+package me.iru.datingapp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionScoringServiceTest {
+
+    @Mock
+    private SuggestionScorer firstScorer;
+
+    @Mock
+    private SuggestionScorer secondScorer;
+
+    private SuggestionScoringService suggestionScoringService;
+
+    @AfterEach
+    void tearDown() {
+        if (suggestionScoringService != null) {
+            suggestionScoringService.shutdown();
+        }
+    }
+
+    private SuggestionScoringService create(int chunkSize, int poolSize, int topK) {
+        suggestionScoringService = new SuggestionScoringService(
+                List.of(firstScorer, secondScorer), true, 2, chunkSize, poolSize, topK);
+        return suggestionScoringService;
+    }
+
+    /**
+     * Scores each candidate with its ID modulo the given value, scaled into [0, 1)
+     */
+    private static SuggestionScorer.CandidateScorer moduloScorer(int modulo) {
+        return (ids, from, to, scores) -> {
+            for (int i = from; i < to; i++) {
+                scores[i - from] = (ids[i] % modulo) / (double) modulo;
+            }
+        };
+    }
+
+    @Test
+    void testRank_CombinesWeightedScores() {
+        create(100, 100, 10);
+        when(firstScorer.getWeight()).thenReturn(1.0);
+        when(secondScorer.getWeight()).thenReturn(3.0);
+        when(firstScorer.prepare(eq(1L), any())).thenReturn(moduloScorer(10));
+        when(secondScorer.prepare(eq(1L), any())).thenReturn((ids, from, to, scores) -> {
+            for (int i = from; i < to; i++) {
+                scores[i - from] = ids[i] == 20L ? 1 : 0;
+            }
+        });
+
+        long[] ranked = suggestionScoringService.rank(1L, new long[]{11L, 19L, 20L, 15L});
+
+        assertThat(ranked).containsExactly(20L, 19L, 15L, 11L);
+    }
+
+    @Test
+    void testRank_ParallelChunksMatchSingleChunk() {
+        long[] candidates = LongStream.range(0, 5_000).map(i -> i * 7919 % 5_003).toArray();
+        when(firstScorer.getWeight()).thenReturn(1.0);
+        when(secondScorer.getWeight()).thenReturn(0.0);
+        when(firstScorer.prepare(anyLong(), any())).thenReturn(moduloScorer(97));
+
+        long[] single = create(10_000, 10_000, 50).rank(1L, candidates);
+        suggestionScoringService.shutdown();
+        long[] parallel = create(256, 10_000, 50).rank(1L, candidates);
+
+        assertThat(parallel).containsExactly(single);
+        assertThat(parallel).containsExactlyInAnyOrder(candidates);
+        verify(secondScorer, never()).prepare(anyLong(), any());
+    }
+
+    @Test
+    void testRank_OnlyPoolHeadIsScoredAndRestKeepsOrder() {
+        create(2, 4, 2);
+        when(firstScorer.getWeight()).thenReturn(1.0);
+        when(secondScorer.getWeight()).thenReturn(1.0);
+        when(firstScorer.prepare(eq(1L), any())).thenReturn(moduloScorer(10));
+        when(secondScorer.prepare(eq(1L), any())).thenReturn(null);
+
+        long[] ranked = suggestionScoringService.rank(1L, new long[]{1L, 8L, 3L, 5L, 9L, 2L});
+
+        assertThat(ranked).containsExactly(8L, 5L, 1L, 3L, 9L, 2L);
+    }
+
+    @Test
+    void testRank_NoActiveScorerKeepsOrder() {
+        create(100, 100, 10);
+        when(firstScorer.getWeight()).thenReturn(1.0);
+        when(secondScorer.getWeight()).thenReturn(1.0);
+
+        long[] ranked = suggestionScoringService.rank(1L, new long[]{3L, 1L, 2L});
+
+        assertThat(ranked).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void testRank_DisabledKeepsOrder() {
+        suggestionScoringService = new SuggestionScoringService(List.of(firstScorer), false, 1, 10, 10, 10);
+
+        long[] ranked = suggestionScoringService.rank(1L, new long[]{3L, 1L, 2L});
+
+        assertThat(ranked).containsExactly(3L, 1L, 2L);
+        assertThat(suggestionScoringService.isEnabled()).isFalse();
+        verifyNoInteractions(firstScorer);
+    }
+}
@@ -0,0 +1,35 @@
+package me.iru.datingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SuggestionShuffleServiceTest {
+
+    private final long[] candidates = {1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L};
+
+    @Test
+    void testShuffleIsStablePerViewer() {
+        SuggestionShuffleService suggestionShuffleService = new SuggestionShuffleService(true, 24);
+
+        long[] first = suggestionShuffleService.shuffle(1L, candidates);
+        long[] second = suggestionShuffleService.shuffle(1L, candidates);
+
+        assertThat(first).containsExactly(second);
+        assertThat(first).containsExactlyInAnyOrder(candidates);
+    }
+
+    @Test
+    void testDisabledKeepsOrder() {
+        SuggestionShuffleService suggestionShuffleService = new SuggestionShuffleService(false, 24);
+
+        assertThat(suggestionShuffleService.shuffle(1L, candidates)).containsExactly(candidates);
+    }
+
+    @Test
+    void testEpochMustBePositive() {
+        assertThatThrownBy(() -> new SuggestionShuffleService(true, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,201 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.dao.MatchingDao;
+import me.iru.datingapp.entity.OutboxEvent;
+import me.iru.datingapp.entity.Rating;
+import me.iru.datingapp.event.SwipeWriteEvent;
+import me.iru.datingapp.repository.RatingRepository;
+import me.iru.datingapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwipeBufferServiceTest {
+
+    @Mock
+    private MatchingDao matchingDao;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<SwipeWriteEvent> writeCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> eventsCaptor;
+
+    /**
+     * Service whose write events are delivered right away, as they are outside a transaction
+     */
+    private SwipeBufferService service(long graceSeconds) {
+        SwipeBufferService swipeBufferService = new SwipeBufferService(matchingDao, ratingRepository, userRepository,
+                outboxService, eventPublisher, true, graceSeconds, 100, 4);
+        lenient().doAnswer(invocation -> {
+            swipeBufferService.onSwipeWriteCompleted(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(SwipeWriteEvent.class));
+        return swipeBufferService;
+    }
+
+    @Test
+    void testFlush_KeepsSwipesWithinGraceWindow() {
+        SwipeBufferService swipeBufferService = service(60);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+
+        assertThat(swipeBufferService.flush()).isZero();
+
+        assertThat(swipeBufferService.pendingCount()).isEqualTo(1);
+        verifyNoInteractions(matchingDao, outboxService);
+    }
+
+    @Test
+    void testFlush_WritesDueSwipesInOneBatchPerRater() {
+        SwipeBufferService swipeBufferService = service(0);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+        swipeBufferService.buffer(1L, 3L, Rating.RatingType.DISLIKE);
+        swipeBufferService.buffer(4L, 2L, Rating.RatingType.LIKE);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(anyLong(), any())).thenReturn(List.of());
+
+        assertThat(swipeBufferService.flush()).isEqualTo(3);
+
+        verify(matchingDao).insertRatings(1L, Map.of(2L, Rating.RatingType.LIKE, 3L, Rating.RatingType.DISLIKE));
+        verify(matchingDao).insertRatings(4L, Map.of(2L, Rating.RatingType.LIKE));
+        verify(outboxService).publishAll(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue())
+                .extracting(OutboxEvent::getActorId, OutboxEvent::getSubjectId, OutboxEvent::getDetail)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, 2L, "LIKE"),
+                        tuple(1L, 3L, "DISLIKE"),
+                        tuple(4L, 2L, "LIKE"));
+        assertThat(swipeBufferService.pendingCount()).isZero();
+    }
+
+    @Test
+    void testFlush_SkipsDeletedUsersAndWrittenRatings() {
+        SwipeBufferService swipeBufferService = service(0);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+        swipeBufferService.buffer(1L, 3L, Rating.RatingType.LIKE);
+        swipeBufferService.buffer(1L, 5L, Rating.RatingType.LIKE);
+        swipeBufferService.buffer(6L, 2L, Rating.RatingType.LIKE);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(eq(1L), any())).thenReturn(List.of(3L));
+
+        assertThat(swipeBufferService.flush()).isEqualTo(1);
+
+        verify(matchingDao).insertRatings(1L, Map.of(2L, Rating.RatingType.LIKE));
+        verify(matchingDao, never()).insertRatings(eq(6L), any());
+    }
+
+    @Test
+    void testFlush_RestoresSwipesOnFailure() {
+        SwipeBufferService swipeBufferService = service(0);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+        swipeBufferService.buffer(1L, 3L, Rating.RatingType.DISLIKE);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(anyLong(), any())).thenReturn(List.of());
+        doThrow(new DataAccessResourceFailureException("down")).when(matchingDao).insertRatings(anyLong(), any());
+
+        assertThatThrownBy(swipeBufferService::flush).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(swipeBufferService.pendingCount()).isEqualTo(2);
+        assertThat(swipeBufferService.pendingType(1L, 3L)).isEqualTo(Rating.RatingType.DISLIKE);
+    }
+
+    @Test
+    void testFlushAll_WritesSwipesWithinGraceWindow() {
+        SwipeBufferService swipeBufferService = service(60);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(anyLong(), any())).thenReturn(List.of());
+
+        swipeBufferService.flushAll();
+
+        verify(matchingDao).insertRatings(1L, Map.of(2L, Rating.RatingType.LIKE));
+        assertThat(swipeBufferService.pendingCount()).isZero();
+    }
+
+    @Test
+    void testRemove_DropsSwipeWithoutWriting() {
+        SwipeBufferService swipeBufferService = service(0);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.DISLIKE);
+
+        assertThat(swipeBufferService.remove(1L, 2L)).isEqualTo(Rating.RatingType.DISLIKE);
+        assertThat(swipeBufferService.remove(1L, 2L)).isNull();
+        assertThat(swipeBufferService.flush()).isZero();
+
+        verifyNoInteractions(matchingDao, outboxService, userRepository);
+    }
+
+    @Test
+    void testRemove_WaitsForInFlightWriteToComplete() throws Exception {
+        SwipeBufferService swipeBufferService = service(0);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.LIKE);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+        when(ratingRepository.findRatedUserIdsByRaterIdAndRatedUserIdIn(anyLong(), any())).thenReturn(List.of());
+
+        doNothing().when(eventPublisher).publishEvent(any(SwipeWriteEvent.class));
+
+        assertThat(swipeBufferService.flush()).isEqualTo(1);
+        CompletableFuture<Rating.RatingType> undo =
+                CompletableFuture.supplyAsync(() -> swipeBufferService.remove(1L, 2L));
+
+        assertThatThrownBy(() -> undo.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        verify(eventPublisher).publishEvent(writeCaptor.capture());
+        swipeBufferService.onSwipeWriteCompleted(writeCaptor.getValue());
+        assertThat(undo.get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void testTakeLike_IgnoresDislike() {
+        SwipeBufferService swipeBufferService = service(60);
+        swipeBufferService.buffer(1L, 2L, Rating.RatingType.DISLIKE);
+        swipeBufferService.buffer(1L, 3L, Rating.RatingType.LIKE);
+
+        assertThat(swipeBufferService.takeLike(1L, 2L)).isFalse();
+        assertThat(swipeBufferService.takeLike(1L, 3L)).isTrue();
+        assertThat(swipeBufferService.pendingType(1L, 2L)).isEqualTo(Rating.RatingType.DISLIKE);
+        assertThat(swipeBufferService.pendingType(1L, 3L)).isNull();
+    }
+
+    @Test
+    void testDisabled_DoesNotFlush() {
+        SwipeBufferService swipeBufferService = new SwipeBufferService(matchingDao, ratingRepository, userRepository,
+                outboxService, eventPublisher, false, 0, 100, 4);
+
+        assertThat(swipeBufferService.isEnabled()).isFalse();
+        assertThat(swipeBufferService.flush()).isZero();
+
+        verifyNoInteractions(matchingDao, outboxService, userRepository);
+    }
+}
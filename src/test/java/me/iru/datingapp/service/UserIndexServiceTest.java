@@ -0,0 +1,114 @@
+package me.iru.datingapp.service;
+
+import me.iru.datingapp.entity.User;
+import me.iru.datingapp.event.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIndexServiceTest {
+
+    @Mock
+    private CandidateIndexService candidateIndexService;
+
+    @Mock
+    private RatedUserCacheService ratedUserCacheService;
+
+    @Mock
+    private SuggestionQueueService suggestionQueueService;
+
+    @Mock
+    private InterestVectorService interestVectorService;
+
+    @Mock
+    private GeoIndexService geoIndexService;
+
+    @Mock
+    private PreferenceIndexService preferenceIndexService;
+
+    @Mock
+    private SuggestionCountService suggestionCountService;
+
+    @Mock
+    private RecencyScoringService recencyScoringService;
+
+    @Mock
+    private LastActiveService lastActiveService;
+
+    @Mock
+    private InboundLikeService inboundLikeService;
+
+    @Mock
+    private SuggestionCacheService suggestionCacheService;
+
+    @InjectMocks
+    private UserIndexService userIndexService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setGender(User.Gender.MALE);
+        user.setAge(26);
+    }
+
+    @Test
+    void testOnRegistered_IndexesUser() {
+        userIndexService.onRegistered(new UserChangedEvent.Registered(user));
+
+        verify(candidateIndexService).indexUser(user);
+        verify(geoIndexService).indexUser(user);
+        verify(preferenceIndexService).indexUser(user);
+        verify(suggestionCountService).userAdded(user);
+        verify(recencyScoringService).indexUser(user);
+    }
+
+    @Test
+    void testOnUpdated_ReindexesUserAndMovesCounters() {
+        userIndexService.onUpdated(new UserChangedEvent.Updated(user, User.Gender.MALE, 25, List.of(3L, 4L)));
+
+        verify(interestVectorService).replaceInterests(1L, List.of(3L, 4L));
+        verify(candidateIndexService).indexUser(user);
+        verify(geoIndexService).indexUser(user);
+        verify(preferenceIndexService).indexUser(user);
+        verify(suggestionCountService).userMoved(User.Gender.MALE, 25, user);
+        verify(suggestionCacheService).invalidatePreferences(1L);
+    }
+
+    @Test
+    void testOnUpdated_KeepsInterestsWhenNotEdited() {
+        userIndexService.onUpdated(new UserChangedEvent.Updated(user, User.Gender.MALE, 26, null));
+
+        verify(interestVectorService, never()).replaceInterests(anyLong(), any());
+        verify(candidateIndexService).indexUser(user);
+    }
+
+    @Test
+    void testOnDeleted_RemovesUserEverywhere() {
+        userIndexService.onDeleted(new UserChangedEvent.Deleted(user));
+
+        verify(candidateIndexService).removeUser(1L);
+        verify(ratedUserCacheService).evict(1L);
+        verify(suggestionQueueService).invalidate(1L);
+        verify(interestVectorService).removeUser(1L);
+        verify(geoIndexService).removeUser(1L);
+        verify(preferenceIndexService).removeUser(1L);
+        verify(suggestionCountService).userRemoved(user);
+        verify(recencyScoringService).removeUser(1L);
+        verify(lastActiveService).removeUser(1L);
+        verify(inboundLikeService).removeUser(1L);
+        verify(suggestionCacheService).removeUser(1L);
+    }
+}
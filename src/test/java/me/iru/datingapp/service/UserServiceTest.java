@@ -4,6 +4,7 @@ import me.iru.datingapp.dto.UserProfileDto;
 import me.iru.datingapp.dto.UserRegistrationDto;
 import me.iru.datingapp.dto.UserUpdateDto;
 import me.iru.datingapp.entity.User;
+import me.iru.datingapp.event.UserChangedEvent;
 import me.iru.datingapp.exception.FileStorageException;
 import me.iru.datingapp.exception.ResourceNotFoundException;
 import me.iru.datingapp.exception.UserAlreadyExistsException;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -46,6 +48,15 @@ class UserServiceTest {
     @Mock
     private FileStorageService fileStorageService;
 
+    @Mock
+    private ImpressionService impressionService;
+
+    @Mock
+    private RatingArchiveService ratingArchiveService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -102,6 +113,7 @@ class UserServiceTest {
         verify(userRepository).existsByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
+        verify(eventPublisher).publishEvent(new UserChangedEvent.Registered(testUser));
     }
 
     @Test
@@ -168,6 +180,24 @@ class UserServiceTest {
         verify(userRepository).findById(1L);
         verify(userMapper).updateEntityFromDto(updateDto, testUser);
         verify(userRepository).save(testUser);
+        verify(eventPublisher).publishEvent(new UserChangedEvent.Updated(testUser, User.Gender.MALE, 25, null));
+    }
+
+    @Test
+    void testUpdateUserProfile_PublishesAgeBeforeEdit() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userMapper.toDto(any(User.class))).thenReturn(profileDto);
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(1);
+            user.setAge(26);
+            return null;
+        }).when(userMapper).updateEntityFromDto(any(UserUpdateDto.class), any(User.class));
+
+        userService.updateUserProfile(1L, updateDto);
+
+        verify(eventPublisher).publishEvent(new UserChangedEvent.Updated(testUser, User.Gender.MALE, 25, null));
+        assertThat(testUser.getAge()).isEqualTo(26);
     }
 
     @Test
@@ -191,6 +221,9 @@ class UserServiceTest {
 
         verify(userRepository).findById(1L);
         verify(userRepository).delete(testUser);
+        verify(impressionService).removeUser(1L);
+        verify(ratingArchiveService).removeUser(1L);
+        verify(eventPublisher).publishEvent(new UserChangedEvent.Deleted(testUser));
     }
 
     @Test
@@ -203,6 +236,7 @@ class UserServiceTest {
 
         verify(userRepository).findById(999L);
         verify(userRepository, never()).delete(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test